@@ -2,8 +2,12 @@ package io.github.lishangbu.orange.mybatisplus.autoconfiguration;
 
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import java.util.Properties;
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 
 /**
@@ -24,4 +28,20 @@ public class MybatisPlusAutoConfiguration {
     interceptor.addInnerInterceptor(new PaginationInnerInterceptor());
     return interceptor;
   }
+
+  /**
+   * 按数据库产品名称区分 databaseId，供 Mapper XML 中的方言语句（如 upsert）选择
+   *
+   * <p>未声明 databaseId 的语句对所有数据库生效
+   */
+  @Bean
+  @ConditionalOnMissingBean
+  public DatabaseIdProvider databaseIdProvider() {
+    Properties properties = new Properties();
+    properties.setProperty("PostgreSQL", "postgresql");
+    properties.setProperty("H2", "h2");
+    VendorDatabaseIdProvider databaseIdProvider = new VendorDatabaseIdProvider();
+    databaseIdProvider.setProperties(properties);
+    return databaseIdProvider;
+  }
 }
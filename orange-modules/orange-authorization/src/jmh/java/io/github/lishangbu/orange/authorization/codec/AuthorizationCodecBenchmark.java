@@ -0,0 +1,140 @@
+package io.github.lishangbu.orange.authorization.codec;
+
+import io.github.lishangbu.orange.oauth2.common.core.AuthorizationGrantTypeSupport;
+import io.github.lishangbu.orange.oauth2.common.userdetails.PrincipalSnapshot;
+import io.github.lishangbu.orange.oauth2.common.userdetails.UserInfo;
+import java.security.Principal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * BinaryAuthorizationCodec 与 Java 序列化的编解码耗时及每行字节数对比
+ *
+ * <p>载荷为密码模式签发的一条认证信息，包含访问令牌、刷新令牌、ID 令牌及用户主体快照。每行字节数在试验开始时输出，
+ * 编解码耗时由 JMH 统计
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationCodecBenchmark {
+
+  /** binary 为 BinaryAuthorizationCodec，serialization 为 SerializationUtils */
+  @Param({"binary", "serialization"})
+  private String format;
+
+  private final BinaryAuthorizationCodec codec = new BinaryAuthorizationCodec();
+
+  private OAuth2Authorization authorization;
+
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() {
+    authorization = passwordAuthorization();
+    encoded = encode();
+    System.out.printf("%n%s: %d bytes/row%n", format, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return "binary".equals(format)
+        ? codec.encode(authorization)
+        : SerializationUtils.serialize(authorization);
+  }
+
+  @Benchmark
+  @SuppressWarnings("deprecation")
+  public Object decode() {
+    return "binary".equals(format)
+        ? codec.decode(encoded)
+        : SerializationUtils.deserialize(encoded);
+  }
+
+  private static OAuth2Authorization passwordAuthorization() {
+    RegisteredClient registeredClient =
+        RegisteredClient.withId("1")
+            .clientId("client")
+            .clientSecret("secret")
+            .authorizationGrantType(AuthorizationGrantTypeSupport.PASSWORD)
+            .scope("openid")
+            .scope("profile")
+            .build();
+
+    UserInfo userInfo =
+        new UserInfo("admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    userInfo.getAdditionalParameters().put("userId", 1L);
+    Authentication principal =
+        UsernamePasswordAuthenticationToken.authenticated(
+            userInfo, null, userInfo.getAuthorities());
+
+    Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    Instant expiresAt = issuedAt.plusSeconds(300);
+    Set<String> scopes = Set.of("openid", "profile");
+    OAuth2AccessToken accessToken =
+        new OAuth2AccessToken(
+            OAuth2AccessToken.TokenType.BEARER, "access-token", issuedAt, expiresAt, scopes);
+    Map<String, Object> accessTokenClaims =
+        Map.of(
+            "sub", "admin",
+            "aud", List.of("client"),
+            "iat", issuedAt,
+            "exp", expiresAt,
+            "scope", scopes,
+            "jti", "8f1c4d3e-2b7a-4c61-9e0f-5d2a7b3c1e90");
+    OidcIdToken idToken =
+        new OidcIdToken(
+            "id-token",
+            issuedAt,
+            expiresAt,
+            Map.of("sub", "admin", "aud", List.of("client"), "iat", issuedAt, "exp", expiresAt));
+
+    return OAuth2Authorization.withRegisteredClient(registeredClient)
+        .id("authorization-1")
+        .principalName("admin")
+        .authorizationGrantType(AuthorizationGrantTypeSupport.PASSWORD)
+        .authorizedScopes(scopes)
+        .attribute(Principal.class.getName(), principal)
+        .attribute(
+            PrincipalSnapshot.ATTRIBUTE, new PrincipalSnapshot("admin", List.of("ROLE_ADMIN"), 3L))
+        .token(
+            accessToken,
+            metadata ->
+                metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, accessTokenClaims))
+        .refreshToken(new OAuth2RefreshToken("refresh-token", issuedAt, issuedAt.plusSeconds(3600)))
+        .token(
+            idToken,
+            metadata ->
+                metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, idToken.getClaims()))
+        .build();
+  }
+}
@@ -0,0 +1,162 @@
+package io.github.lishangbu.orange.authorization.mapper;
+
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorization;
+import io.github.lishangbu.orange.mybatisplus.autoconfiguration.MybatisPlusAutoConfiguration;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * 认证信息写入时 BaseMapper#insertOrUpdate 与 upsert 的耗时及每次写入的语句数对比
+ *
+ * <p>基于 H2 内存库与测试用表结构，Mapper 的装配方式与应用相同（同一份 Mapper XML 及 databaseId 规则）。insert
+ * 每次写入一条新认证信息，update 反复写入同一条已存在的认证信息。每次写入执行的语句数由拦截器在试验开始时统计并输出，
+ * 写入耗时由 JMH 统计
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationUpsertBenchmark {
+
+  /** insertOrUpdate 为先按 id 查询再插入或更新，upsert 为单条语句写入 */
+  @Param({"insertOrUpdate", "upsert"})
+  private String strategy;
+
+  private final StatementCounter statementCounter = new StatementCounter();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private EmbeddedDatabase database;
+
+  private OauthAuthorizationMapper mapper;
+
+  private OauthAuthorization existing;
+
+  @Setup
+  public void setUp() throws Exception {
+    database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    MybatisSqlSessionFactoryBean sqlSessionFactoryBean = new MybatisSqlSessionFactoryBean();
+    sqlSessionFactoryBean.setDataSource(database);
+    sqlSessionFactoryBean.setMapperLocations(
+        new ClassPathResource("mapper/OauthAuthorizationMapper.xml"));
+    sqlSessionFactoryBean.setDatabaseIdProvider(
+        new MybatisPlusAutoConfiguration().databaseIdProvider());
+    sqlSessionFactoryBean.setPlugins(statementCounter);
+    mapper =
+        new SqlSessionTemplate(sqlSessionFactoryBean.getObject())
+            .getMapper(OauthAuthorizationMapper.class);
+
+    existing = authorization("existing");
+    save(existing);
+
+    long before = statementCounter.get();
+    insert();
+    long insertStatements = statementCounter.get() - before;
+    before = statementCounter.get();
+    update();
+    long updateStatements = statementCounter.get() - before;
+    System.out.printf(
+        "%n%s: %d statements/insert, %d statements/update%n",
+        strategy, insertStatements, updateStatements);
+  }
+
+  @TearDown
+  public void tearDown() {
+    database.shutdown();
+  }
+
+  @Benchmark
+  public void insert() {
+    save(authorization("authorization-" + sequence.incrementAndGet()));
+  }
+
+  @Benchmark
+  public void update() {
+    existing.setAccessTokenIssuedAt(Instant.now());
+    save(existing);
+  }
+
+  private void save(OauthAuthorization authorization) {
+    if ("insertOrUpdate".equals(strategy)) {
+      mapper.insertOrUpdate(authorization);
+    } else {
+      mapper.upsert(authorization);
+    }
+  }
+
+  private static OauthAuthorization authorization(String id) {
+    Instant now = Instant.now();
+    OauthAuthorization authorization = new OauthAuthorization();
+    authorization.setId(id);
+    authorization.setRegisteredClientId("1");
+    authorization.setPrincipalName("admin");
+    authorization.setAuthorizationGrantType("password");
+    authorization.setAuthorizedScopes("openid,profile");
+    authorization.setAccessTokenValue(id + "-access");
+    authorization.setAccessTokenIssuedAt(now);
+    authorization.setAccessTokenExpiresAt(now.plusSeconds(300));
+    authorization.setRefreshTokenValue(id + "-refresh");
+    authorization.setRefreshTokenIssuedAt(now);
+    authorization.setRefreshTokenExpiresAt(now.plusSeconds(3600));
+    authorization.setExpiresAt(now.plusSeconds(3600));
+    authorization.setIssuedAt(now);
+    authorization.setAuthorizationObject(new byte[512]);
+    return authorization;
+  }
+
+  /** 统计发往数据库的语句数 */
+  @Intercepts(
+      @Signature(
+          type = StatementHandler.class,
+          method = "prepare",
+          args = {Connection.class, Integer.class}))
+  static class StatementCounter implements Interceptor {
+
+    private final AtomicLong count = new AtomicLong();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      count.incrementAndGet();
+      return invocation.proceed();
+    }
+
+    long get() {
+      return count.get();
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package io.github.lishangbu.orange.authorization.codec;
+
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+
+/**
+ * 认证信息编解码器
+ *
+ * <p>负责 {@link OAuth2Authorization} 与 {@code oauth_authorization.authorization_object} 字段之间的相互转换，
+ * 如需替换默认实现，声明一个标注 {@code @Primary} 的同类型 Bean 即可
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public interface AuthorizationCodec {
+
+  /**
+   * 编码认证信息
+   *
+   * @param authorization 认证信息
+   * @return 编码后的字节
+   */
+  byte[] encode(OAuth2Authorization authorization);
+
+  /**
+   * 解码认证信息
+   *
+   * <p>实现需兼容历史数据（例如 Java 序列化写入的行），以便存量数据在下次保存时平滑迁移
+   *
+   * @param bytes 编码后的字节
+   * @return 认证信息
+   */
+  OAuth2Authorization decode(byte[] bytes);
+}
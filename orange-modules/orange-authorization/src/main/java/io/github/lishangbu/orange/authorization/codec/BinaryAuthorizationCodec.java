@@ -0,0 +1,662 @@
+package io.github.lishangbu.orange.authorization.codec;
+
+import io.github.lishangbu.orange.oauth2.common.core.AuthorizationGrantTypeSupport;
+import io.github.lishangbu.orange.oauth2.common.userdetails.PrincipalSnapshot;
+import io.github.lishangbu.orange.oauth2.common.userdetails.UserInfo;
+import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * 紧凑的二进制认证信息编解码器
+ *
+ * <p>编码格式为 {@code 'O' 'A' 版本号} 头部加上按字段顺序写入的正文，整数使用变长编码，字符串使用 UTF-8。
+ * 令牌、属性与元数据中常见的值类型（字符串、数字、布尔、时间、集合、{@link UserInfo} 主体等）均有专门的类型标记，
+ * 无法识别的值退化为 Java 序列化，保证语义不丢失
+ *
+ * <p>以 {@code 0xACED} 开头的字节被视为历史的 Java 序列化数据并按原方式解码，这些行在下次保存时会以新格式写回
+ *
+ * <p>注意：令牌类型与值类型标记只能追加，不能调整已有取值，否则历史数据将无法解码
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Component
+public class BinaryAuthorizationCodec implements AuthorizationCodec {
+
+  private static final byte MAGIC_0 = 'O';
+
+  private static final byte MAGIC_1 = 'A';
+
+  private static final byte VERSION_1 = 1;
+
+  /** Java 序列化流的头部 */
+  private static final byte JAVA_SERIALIZATION_MAGIC_0 = (byte) 0xAC;
+
+  private static final byte JAVA_SERIALIZATION_MAGIC_1 = (byte) 0xED;
+
+  /** 支持的令牌类型，下标即写入的令牌类型标记 */
+  private static final List<Class<? extends OAuth2Token>> TOKEN_CLASSES =
+      List.of(
+          OAuth2AuthorizationCode.class,
+          OAuth2AccessToken.class,
+          OAuth2RefreshToken.class,
+          OidcIdToken.class,
+          OAuth2UserCode.class,
+          OAuth2DeviceCode.class);
+
+  private static final int TOKEN_AUTHORIZATION_CODE = 0;
+
+  private static final int TOKEN_ACCESS_TOKEN = 1;
+
+  private static final int TOKEN_REFRESH_TOKEN = 2;
+
+  private static final int TOKEN_ID_TOKEN = 3;
+
+  private static final int TOKEN_USER_CODE = 4;
+
+  private static final int TOKEN_DEVICE_CODE = 5;
+
+  private static final byte TYPE_NULL = 0;
+
+  private static final byte TYPE_STRING = 1;
+
+  private static final byte TYPE_TRUE = 2;
+
+  private static final byte TYPE_FALSE = 3;
+
+  private static final byte TYPE_INTEGER = 4;
+
+  private static final byte TYPE_LONG = 5;
+
+  private static final byte TYPE_DOUBLE = 6;
+
+  private static final byte TYPE_INSTANT = 7;
+
+  private static final byte TYPE_LIST = 8;
+
+  private static final byte TYPE_SET = 9;
+
+  private static final byte TYPE_MAP = 10;
+
+  private static final byte TYPE_URL = 11;
+
+  private static final byte TYPE_SIMPLE_GRANTED_AUTHORITY = 12;
+
+  private static final byte TYPE_USERNAME_PASSWORD_AUTHENTICATION = 13;
+
+  private static final byte TYPE_USER_INFO = 14;
+
+  private static final byte TYPE_PRINCIPAL_SNAPSHOT = 15;
+
+  private static final byte TYPE_SERIALIZED = 127;
+
+  /** 构建认证信息时只会读取注册客户端的 id，这里缓存按 id 构造的占位客户端，避免解码时回查数据库 */
+  private final ConcurrentLruCache<String, RegisteredClient> registeredClients =
+      new ConcurrentLruCache<>(256, BinaryAuthorizationCodec::placeholderRegisteredClient);
+
+  private static RegisteredClient placeholderRegisteredClient(String registeredClientId) {
+    return RegisteredClient.withId(registeredClientId)
+        .clientId(registeredClientId)
+        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+        .build();
+  }
+
+  private static AuthorizationGrantType resolveAuthorizationGrantType(
+      String authorizationGrantType) {
+    if (AuthorizationGrantType.AUTHORIZATION_CODE.getValue().equals(authorizationGrantType)) {
+      return AuthorizationGrantType.AUTHORIZATION_CODE;
+    } else if (AuthorizationGrantType.CLIENT_CREDENTIALS
+        .getValue()
+        .equals(authorizationGrantType)) {
+      return AuthorizationGrantType.CLIENT_CREDENTIALS;
+    } else if (AuthorizationGrantType.REFRESH_TOKEN.getValue().equals(authorizationGrantType)) {
+      return AuthorizationGrantType.REFRESH_TOKEN;
+    } else if (AuthorizationGrantType.DEVICE_CODE.getValue().equals(authorizationGrantType)) {
+      return AuthorizationGrantType.DEVICE_CODE;
+    } else if (AuthorizationGrantTypeSupport.PASSWORD.getValue().equals(authorizationGrantType)) {
+      return AuthorizationGrantTypeSupport.PASSWORD;
+    }
+    return new AuthorizationGrantType(authorizationGrantType); // Custom authorization grant type
+  }
+
+  private static OAuth2AccessToken.TokenType resolveTokenType(String tokenType) {
+    if (OAuth2AccessToken.TokenType.DPOP.getValue().equalsIgnoreCase(tokenType)) {
+      return OAuth2AccessToken.TokenType.DPOP;
+    }
+    return OAuth2AccessToken.TokenType.BEARER;
+  }
+
+  @Override
+  public byte[] encode(OAuth2Authorization authorization) {
+    Assert.notNull(authorization, "authorization cannot be null");
+    Output out = new Output(512);
+    out.writeByte(MAGIC_0);
+    out.writeByte(MAGIC_1);
+    out.writeByte(VERSION_1);
+    out.writeString(authorization.getId());
+    out.writeString(authorization.getRegisteredClientId());
+    out.writeString(authorization.getPrincipalName());
+    out.writeString(authorization.getAuthorizationGrantType().getValue());
+    writeStrings(out, authorization.getAuthorizedScopes());
+
+    List<OAuth2Authorization.Token<? extends OAuth2Token>> tokens =
+        new ArrayList<>(TOKEN_CLASSES.size());
+    for (Class<? extends OAuth2Token> tokenClass : TOKEN_CLASSES) {
+      tokens.add(authorization.getToken(tokenClass));
+    }
+    out.writeVarInt((int) tokens.stream().filter(Objects::nonNull).count());
+    for (int kind = 0; kind < tokens.size(); kind++) {
+      if (tokens.get(kind) != null) {
+        writeToken(out, kind, tokens.get(kind));
+      }
+    }
+
+    writeMap(out, authorization.getAttributes());
+    return out.toByteArray();
+  }
+
+  @Override
+  public OAuth2Authorization decode(byte[] bytes) {
+    Assert.notNull(bytes, "bytes cannot be null");
+    if (bytes.length >= 2
+        && bytes[0] == JAVA_SERIALIZATION_MAGIC_0
+        && bytes[1] == JAVA_SERIALIZATION_MAGIC_1) {
+      // 历史数据：Java 序列化
+      return (OAuth2Authorization) SerializationUtils.deserialize(bytes);
+    }
+    if (bytes.length < 3 || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+      throw new IllegalArgumentException("无法识别的认证信息编码格式");
+    }
+    if (bytes[2] != VERSION_1) {
+      throw new IllegalArgumentException("不支持的认证信息编码版本: " + bytes[2]);
+    }
+    try {
+      return decodeVersion1(new Input(bytes, 3));
+    } catch (IndexOutOfBoundsException | ClassCastException e) {
+      throw new IllegalArgumentException("认证信息解码失败，数据已损坏", e);
+    }
+  }
+
+  private OAuth2Authorization decodeVersion1(Input in) {
+    String id = in.readString();
+    String registeredClientId = in.readString();
+    String principalName = in.readString();
+    String authorizationGrantType = in.readString();
+    Set<String> authorizedScopes = readStrings(in);
+
+    OAuth2Authorization.Builder builder =
+        OAuth2Authorization.withRegisteredClient(this.registeredClients.get(registeredClientId))
+            .id(id)
+            .principalName(principalName)
+            .authorizationGrantType(resolveAuthorizationGrantType(authorizationGrantType))
+            .authorizedScopes(authorizedScopes);
+
+    int tokenCount = in.readVarInt();
+    for (int i = 0; i < tokenCount; i++) {
+      readToken(in, builder);
+    }
+
+    Map<String, Object> attributes = readMap(in);
+    builder.attributes(attrs -> attrs.putAll(attributes));
+    return builder.build();
+  }
+
+  private void writeToken(
+      Output out, int kind, OAuth2Authorization.Token<? extends OAuth2Token> authorizedToken) {
+    OAuth2Token token = authorizedToken.getToken();
+    out.writeVarInt(kind);
+    out.writeString(token.getTokenValue());
+    writeNullableInstant(out, token.getIssuedAt());
+    writeNullableInstant(out, token.getExpiresAt());
+    if (token instanceof OAuth2AccessToken accessToken) {
+      out.writeString(accessToken.getTokenType().getValue());
+      writeStrings(out, accessToken.getScopes());
+    } else if (token instanceof OidcIdToken idToken) {
+      writeMap(out, idToken.getClaims());
+    }
+
+    // ID Token 的元数据中通常会再存一份 claims，相同时只写一次
+    Map<String, Object> metadata = authorizedToken.getMetadata();
+    boolean claimsShared =
+        token instanceof OidcIdToken oidcIdToken
+            && oidcIdToken
+                .getClaims()
+                .equals(metadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME));
+    out.writeBoolean(claimsShared);
+    if (claimsShared) {
+      metadata = new LinkedHashMap<>(metadata);
+      metadata.remove(OAuth2Authorization.Token.CLAIMS_METADATA_NAME);
+    }
+    writeMap(out, metadata);
+  }
+
+  private void readToken(Input in, OAuth2Authorization.Builder builder) {
+    int kind = in.readVarInt();
+    String value = in.readString();
+    Instant issuedAt = readNullableInstant(in);
+    Instant expiresAt = readNullableInstant(in);
+    OAuth2Token token =
+        switch (kind) {
+          case TOKEN_AUTHORIZATION_CODE -> new OAuth2AuthorizationCode(value, issuedAt, expiresAt);
+          case TOKEN_ACCESS_TOKEN ->
+              new OAuth2AccessToken(
+                  resolveTokenType(in.readString()),
+                  value,
+                  issuedAt,
+                  expiresAt,
+                  readStrings(in));
+          case TOKEN_REFRESH_TOKEN -> new OAuth2RefreshToken(value, issuedAt, expiresAt);
+          case TOKEN_ID_TOKEN -> new OidcIdToken(value, issuedAt, expiresAt, readMap(in));
+          case TOKEN_USER_CODE -> new OAuth2UserCode(value, issuedAt, expiresAt);
+          case TOKEN_DEVICE_CODE -> new OAuth2DeviceCode(value, issuedAt, expiresAt);
+          default -> throw new IllegalArgumentException("未知的令牌类型标记: " + kind);
+        };
+
+    boolean claimsShared = in.readBoolean();
+    Map<String, Object> metadata = readMap(in);
+    if (claimsShared) {
+      metadata.put(
+          OAuth2Authorization.Token.CLAIMS_METADATA_NAME, ((OidcIdToken) token).getClaims());
+    }
+    builder.token(token, tokenMetadata -> tokenMetadata.putAll(metadata));
+  }
+
+  private void writeStrings(Output out, Collection<String> values) {
+    if (values == null) {
+      out.writeVarInt(0);
+      return;
+    }
+    out.writeVarInt(values.size());
+    for (String value : values) {
+      out.writeString(value);
+    }
+  }
+
+  private Set<String> readStrings(Input in) {
+    int size = in.readVarInt();
+    Set<String> values = new LinkedHashSet<>(capacity(size));
+    for (int i = 0; i < size; i++) {
+      values.add(in.readString());
+    }
+    return values;
+  }
+
+  private void writeMap(Output out, Map<String, ?> map) {
+    out.writeVarInt(map.size());
+    for (Map.Entry<String, ?> entry : map.entrySet()) {
+      out.writeString(entry.getKey());
+      writeValue(out, entry.getValue());
+    }
+  }
+
+  private Map<String, Object> readMap(Input in) {
+    int size = in.readVarInt();
+    Map<String, Object> map = new LinkedHashMap<>(capacity(size));
+    for (int i = 0; i < size; i++) {
+      String key = in.readString();
+      map.put(key, readValue(in));
+    }
+    return map;
+  }
+
+  private void writeNullableInstant(Output out, Instant instant) {
+    out.writeBoolean(instant != null);
+    if (instant != null) {
+      writeInstant(out, instant);
+    }
+  }
+
+  private Instant readNullableInstant(Input in) {
+    return in.readBoolean() ? readInstant(in) : null;
+  }
+
+  private void writeInstant(Output out, Instant instant) {
+    out.writeZigZagLong(instant.getEpochSecond());
+    out.writeVarInt(instant.getNano());
+  }
+
+  private Instant readInstant(Input in) {
+    long epochSecond = in.readZigZagLong();
+    return Instant.ofEpochSecond(epochSecond, in.readVarInt());
+  }
+
+  @SuppressWarnings("unchecked")
+  private void writeValue(Output out, Object value) {
+    if (value == null) {
+      out.writeByte(TYPE_NULL);
+    } else if (value instanceof String string) {
+      out.writeByte(TYPE_STRING);
+      out.writeString(string);
+    } else if (value instanceof Boolean bool) {
+      out.writeByte(bool ? TYPE_TRUE : TYPE_FALSE);
+    } else if (value instanceof Integer integer) {
+      out.writeByte(TYPE_INTEGER);
+      out.writeZigZagLong(integer);
+    } else if (value instanceof Long longValue) {
+      out.writeByte(TYPE_LONG);
+      out.writeZigZagLong(longValue);
+    } else if (value instanceof Double doubleValue) {
+      out.writeByte(TYPE_DOUBLE);
+      out.writeFixedLong(Double.doubleToLongBits(doubleValue));
+    } else if (value instanceof Instant instant) {
+      out.writeByte(TYPE_INSTANT);
+      writeInstant(out, instant);
+    } else if (value instanceof URL url) {
+      out.writeByte(TYPE_URL);
+      out.writeString(url.toExternalForm());
+    } else if (value.getClass() == SimpleGrantedAuthority.class) {
+      out.writeByte(TYPE_SIMPLE_GRANTED_AUTHORITY);
+      out.writeString(((SimpleGrantedAuthority) value).getAuthority());
+    } else if (value.getClass() == UsernamePasswordAuthenticationToken.class
+        && ((UsernamePasswordAuthenticationToken) value).getDetails() == null) {
+      UsernamePasswordAuthenticationToken authentication =
+          (UsernamePasswordAuthenticationToken) value;
+      out.writeByte(TYPE_USERNAME_PASSWORD_AUTHENTICATION);
+      out.writeBoolean(authentication.isAuthenticated());
+      writeValue(out, authentication.getPrincipal());
+      writeValue(out, authentication.getCredentials());
+      writeCollection(out, TYPE_LIST, authentication.getAuthorities());
+    } else if (value.getClass() == UserInfo.class) {
+      UserInfo userInfo = (UserInfo) value;
+      out.writeByte(TYPE_USER_INFO);
+      out.writeString(userInfo.getUsername());
+      out.writeString(userInfo.getPassword());
+      out.writeByte(
+          (userInfo.isEnabled() ? 1 : 0)
+              | (userInfo.isAccountNonExpired() ? 2 : 0)
+              | (userInfo.isCredentialsNonExpired() ? 4 : 0)
+              | (userInfo.isAccountNonLocked() ? 8 : 0));
+      writeCollection(out, TYPE_LIST, userInfo.getAuthorities());
+      writeMap(out, userInfo.getAdditionalParameters());
+    } else if (value instanceof PrincipalSnapshot snapshot) {
+      out.writeByte(TYPE_PRINCIPAL_SNAPSHOT);
+      out.writeString(snapshot.getUsername());
+      writeStrings(out, snapshot.getAuthorities());
+      out.writeZigZagLong(snapshot.getRoleVersion());
+    } else if (value instanceof Set<?> set) {
+      writeCollection(out, TYPE_SET, set);
+    } else if (value instanceof List<?> list) {
+      writeCollection(out, TYPE_LIST, list);
+    } else if (value instanceof Map<?, ?> map
+        && map.keySet().stream().allMatch(key -> key instanceof String)) {
+      out.writeByte(TYPE_MAP);
+      writeMap(out, (Map<String, ?>) map);
+    } else if (value instanceof Serializable) {
+      out.writeByte(TYPE_SERIALIZED);
+      out.writeBytes(SerializationUtils.serialize(value));
+    } else {
+      throw new IllegalArgumentException(
+          "无法编码的认证信息属性类型: " + value.getClass().getName());
+    }
+  }
+
+  private void writeCollection(Output out, byte type, Collection<?> values) {
+    out.writeByte(type);
+    out.writeVarInt(values.size());
+    for (Object element : values) {
+      writeValue(out, element);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object readValue(Input in) {
+    byte type = in.readByte();
+    return switch (type) {
+      case TYPE_NULL -> null;
+      case TYPE_STRING -> in.readString();
+      case TYPE_TRUE -> Boolean.TRUE;
+      case TYPE_FALSE -> Boolean.FALSE;
+      case TYPE_INTEGER -> (int) in.readZigZagLong();
+      case TYPE_LONG -> in.readZigZagLong();
+      case TYPE_DOUBLE -> Double.longBitsToDouble(in.readFixedLong());
+      case TYPE_INSTANT -> readInstant(in);
+      case TYPE_LIST -> readCollection(in, new ArrayList<>());
+      case TYPE_SET -> readCollection(in, new LinkedHashSet<>());
+      case TYPE_MAP -> readMap(in);
+      case TYPE_URL -> toUrl(in.readString());
+      case TYPE_SIMPLE_GRANTED_AUTHORITY -> new SimpleGrantedAuthority(in.readString());
+      case TYPE_USERNAME_PASSWORD_AUTHENTICATION -> {
+        boolean authenticated = in.readBoolean();
+        Object principal = readValue(in);
+        Object credentials = readValue(in);
+        Collection<GrantedAuthority> authorities =
+            (Collection<GrantedAuthority>) readValue(in);
+        yield authenticated
+            ? UsernamePasswordAuthenticationToken.authenticated(
+                principal, credentials, authorities)
+            : UsernamePasswordAuthenticationToken.unauthenticated(principal, credentials);
+      }
+      case TYPE_USER_INFO -> {
+        String username = in.readString();
+        String password = in.readString();
+        int flags = in.readByte();
+        Collection<GrantedAuthority> authorities =
+            (Collection<GrantedAuthority>) readValue(in);
+        UserInfo userInfo =
+            new UserInfo(
+                username,
+                password,
+                (flags & 1) != 0,
+                (flags & 2) != 0,
+                (flags & 4) != 0,
+                (flags & 8) != 0,
+                authorities);
+        userInfo.getAdditionalParameters().putAll(readMap(in));
+        yield userInfo;
+      }
+      case TYPE_PRINCIPAL_SNAPSHOT -> {
+        String username = in.readString();
+        List<String> authorities = new ArrayList<>(readStrings(in));
+        yield new PrincipalSnapshot(username, authorities, in.readZigZagLong());
+      }
+      case TYPE_SERIALIZED -> SerializationUtils.deserialize(in.readBytes());
+      default -> throw new IllegalArgumentException("未知的值类型标记: " + type);
+    };
+  }
+
+  private <C extends Collection<Object>> C readCollection(Input in, C values) {
+    int size = in.readVarInt();
+    for (int i = 0; i < size; i++) {
+      values.add(readValue(in));
+    }
+    return values;
+  }
+
+  private static URL toUrl(String url) {
+    try {
+      return new URI(url).toURL();
+    } catch (URISyntaxException | MalformedURLException e) {
+      throw new IllegalArgumentException("无法解析的 URL: " + url, e);
+    }
+  }
+
+  private static int capacity(int size) {
+    return (int) (size / 0.75f) + 1;
+  }
+
+  /** 可扩容的字节输出，非线程安全 */
+  private static final class Output {
+    private byte[] buffer;
+
+    private int position;
+
+    Output(int initialCapacity) {
+      this.buffer = new byte[initialCapacity];
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      this.buffer[this.position++] = (byte) value;
+    }
+
+    void writeBoolean(boolean value) {
+      writeByte(value ? 1 : 0);
+    }
+
+    void writeVarInt(int value) {
+      writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      this.buffer[this.position++] = (byte) value;
+    }
+
+    void writeZigZagLong(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeFixedLong(long value) {
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        this.buffer[this.position++] = (byte) (value >>> shift);
+      }
+    }
+
+    /** 写入可为空的字符串：长度加一后写入，0 表示 null */
+    void writeString(String value) {
+      if (value == null) {
+        writeVarInt(0);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length + 1);
+      writeRaw(bytes);
+    }
+
+    void writeBytes(byte[] bytes) {
+      writeVarInt(bytes.length);
+      writeRaw(bytes);
+    }
+
+    private void writeRaw(byte[] bytes) {
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+      this.position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) {
+      if (this.position + length > this.buffer.length) {
+        this.buffer =
+            Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.position + length));
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(this.buffer, this.position);
+    }
+  }
+
+  /** 字节输入，非线程安全 */
+  private static final class Input {
+    private final byte[] buffer;
+
+    private int position;
+
+    Input(byte[] buffer, int position) {
+      this.buffer = buffer;
+      this.position = position;
+    }
+
+    byte readByte() {
+      if (this.position >= this.buffer.length) {
+        throw new IndexOutOfBoundsException("unexpected end of data");
+      }
+      return this.buffer[this.position++];
+    }
+
+    boolean readBoolean() {
+      return readByte() != 0;
+    }
+
+    int readVarInt() {
+      return (int) readVarLong();
+    }
+
+    long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("变长整数格式错误");
+    }
+
+    long readZigZagLong() {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readFixedLong() {
+      long value = 0;
+      for (int i = 0; i < 8; i++) {
+        value = (value << 8) | (readByte() & 0xFF);
+      }
+      return value;
+    }
+
+    String readString() {
+      int length = readVarInt();
+      if (length == 0) {
+        return null;
+      }
+      length--;
+      checkRemaining(length);
+      String value = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+      this.position += length;
+      return value;
+    }
+
+    byte[] readBytes() {
+      int length = readVarInt();
+      checkRemaining(length);
+      byte[] bytes = Arrays.copyOfRange(this.buffer, this.position, this.position + length);
+      this.position += length;
+      return bytes;
+    }
+
+    private void checkRemaining(int length) {
+      if (length < 0 || length > this.buffer.length - this.position) {
+        throw new IndexOutOfBoundsException("unexpected end of data");
+      }
+    }
+  }
+}
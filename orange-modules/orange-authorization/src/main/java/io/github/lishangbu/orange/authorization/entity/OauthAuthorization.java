@@ -138,4 +138,10 @@ public class OauthAuthorization implements Serializable {
   /** 设备代码元数据 */
   @TableField(typeHandler = Jackson3TypeHandler.class)
   private Map<String, Object> deviceCodeMetadata;
+
+  /** 各令牌中最晚的过期时间，用于清理过期认证信息 */
+  private Instant expiresAt;
+
+  /** 签发时间，PostgreSQL 下为分区键，认证信息续签、换发时保持不变 */
+  private Instant issuedAt;
 }
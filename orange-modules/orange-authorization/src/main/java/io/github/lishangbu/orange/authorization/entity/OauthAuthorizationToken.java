@@ -0,0 +1,37 @@
+package io.github.lishangbu.orange.authorization.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * 令牌索引表(OauthAuthorizationToken)实体类
+ *
+ * <p>以令牌摘要为主键，记录令牌所属的认证信息及令牌类型，使按令牌查询认证信息时只需一次主键探测
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Data
+public class OauthAuthorizationToken implements Serializable {
+  @Serial private static final long serialVersionUID = 1L;
+
+  /** 令牌原文的 SHA-256 摘要（十六进制） */
+  @TableId(type = IdType.INPUT)
+  private String tokenDigest;
+
+  /** 所属认证信息 ID */
+  private String authorizationId;
+
+  /**
+   * 令牌类型，取值与 {@link
+   * org.springframework.security.oauth2.server.authorization.OAuth2TokenType#getValue()} 一致
+   */
+  private String tokenType;
+
+  /** 所属认证信息的签发时间，按令牌查询时用于定位分区 */
+  private Instant authorizationIssuedAt;
+}
@@ -0,0 +1,31 @@
+package io.github.lishangbu.orange.authorization.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * 令牌吊销记录表(OauthRevokedToken)实体类
+ *
+ * <p>只记录被吊销访问令牌的摘要，自增 ID 作为资源服务器增量轮询的游标
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Data
+public class OauthRevokedToken implements Serializable {
+  @Serial private static final long serialVersionUID = 1L;
+
+  /** 自增 ID */
+  @TableId(type = IdType.AUTO)
+  private Long id;
+
+  /** 被吊销访问令牌原文的 SHA-256 摘要（十六进制） */
+  private String tokenDigest;
+
+  /** 吊销时间 */
+  private Instant revokedAt;
+}
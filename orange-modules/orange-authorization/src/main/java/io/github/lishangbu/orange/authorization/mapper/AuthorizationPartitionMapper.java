@@ -0,0 +1,91 @@
+package io.github.lishangbu.orange.authorization.mapper;
+
+import java.time.Instant;
+import java.util.List;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 认证信息表(oauth_authorization)分区维护数据库访问层，仅适用于 PostgreSQL
+ *
+ * <p>分区名由调用方按日期生成，DDL 无法绑定标识符参数，不得传入外部输入
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public interface AuthorizationPartitionMapper {
+
+  /**
+   * 查询认证信息表的全部分区名
+   *
+   * @return 分区名
+   */
+  List<String> selectPartitionNames();
+
+  /**
+   * 创建按签发日划分的分区，已存在时忽略
+   *
+   * @param name 分区名
+   * @param from 起始日期（含），格式 yyyy-MM-dd
+   * @param to 结束日期（不含），格式 yyyy-MM-dd
+   */
+  void createPartition(
+      @Param("name") String name, @Param("from") String from, @Param("to") String to);
+
+  /**
+   * 判断分区中是否仍有未过期的认证信息
+   *
+   * @param name 分区名
+   * @param before 过期时间上限（不含）
+   * @return 存在最晚过期时间不早于 before 或过期时间未知的认证信息时返回 true
+   */
+  boolean existsUnexpired(@Param("name") String name, @Param("before") Instant before);
+
+  /**
+   * 判断认证信息表是否有默认分区，有默认分区时无法并发分离分区
+   *
+   * @return 存在默认分区时返回 true
+   */
+  boolean hasDefaultPartition();
+
+  /**
+   * 判断分区是否处于并发分离未完成的状态
+   *
+   * @param name 分区名
+   * @return 上一次并发分离中断、需要补完时返回 true
+   */
+  boolean isDetachPending(@Param("name") String name);
+
+  /**
+   * 设置当前连接的锁等待超时
+   *
+   * @param millis 超时毫秒数
+   */
+  void setLockTimeout(@Param("millis") long millis);
+
+  /** 恢复当前连接的锁等待超时为默认值 */
+  void resetLockTimeout();
+
+  /**
+   * 将分区从认证信息表分离为普通表
+   *
+   * <p>并发分离不能在事务中执行，且只在父表上持有不阻塞读写的锁；否则需要父表的排他锁
+   *
+   * @param name 分区名
+   * @param concurrently 是否并发分离
+   */
+  void detachPartition(@Param("name") String name, @Param("concurrently") boolean concurrently);
+
+  /**
+   * 补完中断的并发分离
+   *
+   * @param name 分区名
+   */
+  void finalizeDetachPartition(@Param("name") String name);
+
+  /**
+   * 删除已分离的分区表
+   *
+   * @param name 分区名
+   */
+  void dropPartition(@Param("name") String name);
+}
@@ -2,97 +2,117 @@ package io.github.lishangbu.orange.authorization.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import io.github.lishangbu.orange.authorization.entity.OauthAuthorization;
+import io.github.lishangbu.orange.authorization.model.AuthorizationObject;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.apache.ibatis.annotations.Param;
 
 /**
  * 用户认证信息表(oauth_authorization)表数据库访问层
  *
- * <p>提供对认证信息的多字段查询操作
+ * <p>提供基于令牌索引的认证信息查询操作
  *
  * @author lishangbu
  * @since 2025/9/14
  */
 public interface OauthAuthorizationMapper extends BaseMapper<OauthAuthorization> {
   /**
-   * 根据 state 查询认证信息
+   * 根据令牌摘要查询认证信息
    *
-   * <p>通过 state 字段精确查询认证信息
+   * <p>通过令牌索引表 oauth_authorization_token 的主键定位认证信息，再以认证信息主键关联取回数据，
+   * 查询代价与表中数据量无关，支持 state、authorizationCode、accessToken、refreshToken、idToken、userCode、deviceCode
+   * 任意一种令牌
    *
-   * @param state 状态码
+   * @param tokenDigest 令牌原文的 SHA-256 摘要
+   * @param tokenType 令牌类型，为 null 时不限定令牌类型
    * @return 匹配的认证信息
    */
-  Optional<OauthAuthorization> selectByState(@Param("state") String state);
+  Optional<OauthAuthorization> selectByTokenDigest(
+      @Param("tokenDigest") String tokenDigest, @Param("tokenType") String tokenType);
 
   /**
-   * 根据授权码查询认证信息
+   * 根据令牌摘要查询序列化的认证信息
    *
-   * <p>通过授权码字段精确查询认证信息
+   * <p>与 {@link #selectByTokenDigest(String, String)} 定位方式相同，但只取 id、签发时间与序列化的认证信息，
+   * 不传输、不解析其余字段，供按令牌查询认证信息的热路径使用
    *
-   * @param authorizationCode 授权码
-   * @return 匹配的认证信息
+   * @param tokenDigest 令牌原文的 SHA-256 摘要
+   * @param tokenType 令牌类型，为 null 时不限定令牌类型
+   * @return 匹配的序列化认证信息
    */
-  Optional<OauthAuthorization> selectByAuthorizationCodeValue(
-      @Param("authorizationCode") String authorizationCode);
+  Optional<AuthorizationObject> selectObjectByTokenDigest(
+      @Param("tokenDigest") String tokenDigest, @Param("tokenType") String tokenType);
 
   /**
-   * 根据访问令牌查询认证信息
+   * 根据令牌摘要批量查询序列化的认证信息
    *
-   * <p>通过访问令牌字段精确查询认证信息
+   * <p>以一次 {@code IN} 查询令牌索引表的主键，结果中带有各自的令牌摘要，不存在的令牌不返回
    *
-   * @param accessToken 访问令牌
-   * @return 匹配的认证信息
+   * @param tokenDigests 令牌原文的 SHA-256 摘要，不能为空集合
+   * @param tokenType 令牌类型
+   * @return 匹配的序列化认证信息
    */
-  Optional<OauthAuthorization> selectByAccessTokenValue(@Param("accessToken") String accessToken);
+  List<AuthorizationObject> selectObjectsByTokenDigests(
+      @Param("tokenDigests") Collection<String> tokenDigests,
+      @Param("tokenType") String tokenType);
 
   /**
-   * 根据刷新令牌查询认证信息
-   *
-   * <p>通过刷新令牌字段精确查询认证信息
+   * 根据 id 查询序列化的认证信息
    *
-   * @param refreshToken 刷新令牌
-   * @return 匹配的认证信息
+   * @param id 认证信息 id
+   * @return 匹配的序列化认证信息
    */
-  Optional<OauthAuthorization> selectByRefreshTokenValue(
-      @Param("refreshToken") String refreshToken);
+  Optional<AuthorizationObject> selectObjectById(@Param("id") String id);
 
   /**
-   * 根据 OIDC ID Token 查询认证信息
+   * 以单条语句插入或更新认证信息
    *
-   * <p>通过 OIDC ID Token 字段精确查询认证信息
+   * <p>PostgreSQL 使用 {@code INSERT ... ON CONFLICT DO UPDATE}，H2 使用 {@code MERGE}，
+   * 相比先查询再插入或更新少一次往返且没有并发窗口。记录已存在时只覆盖公共字段及本次携带的令牌字段，
+   * 未携带的令牌字段保持不变
    *
-   * @param idToken OIDC ID Token
-   * @return 匹配的认证信息
+   * <p>其它数据库没有可移植的单语句写法，退化为按 id 更新，记录不存在时返回 0，由调用方再执行插入
+   *
+   * @param authorization 认证信息
+   * @return 影响行数，返回 0 时记录不存在且尚未插入
    */
-  Optional<OauthAuthorization> selectByOidcIdTokenValue(@Param("idToken") String idToken);
+  int upsert(OauthAuthorization authorization);
 
   /**
-   * 根据用户码查询认证信息
+   * 按 (expires_at, id) 键集分页查询已过期的认证信息
    *
-   * <p>通过用户码字段精确查询认证信息
+   * <p>结果只包含 id 与 expiresAt，按过期时间、id 升序排列
    *
-   * @param userCode 用户码
-   * @return 匹配的认证信息
+   * @param before 过期时间上限（不含）
+   * @param lastExpiresAt 上一页最后一条的过期时间，查询第一页时为 null
+   * @param lastId 上一页最后一条的 id，查询第一页时为 null
+   * @param limit 每页条数
+   * @return 已过期的认证信息
    */
-  Optional<OauthAuthorization> selectByUserCodeValue(@Param("userCode") String userCode);
+  List<OauthAuthorization> selectExpired(
+      @Param("before") Instant before,
+      @Param("lastExpiresAt") Instant lastExpiresAt,
+      @Param("lastId") String lastId,
+      @Param("limit") int limit);
 
   /**
-   * 根据设备码查询认证信息
-   *
-   * <p>通过设备码字段精确查询认证信息
+   * 锁定给定 id 中仍处于过期状态的认证信息，需在事务中调用
    *
-   * @param deviceCode 设备码
-   * @return 匹配的认证信息
+   * @param ids 认证信息 id，不能为空集合
+   * @param before 过期时间上限（不含）
+   * @return 已锁定的认证信息 id
    */
-  Optional<OauthAuthorization> selectByDeviceCodeValue(@Param("deviceCode") String deviceCode);
+  List<String> lockExpiredByIds(
+      @Param("ids") Collection<String> ids, @Param("before") Instant before);
 
   /**
-   * 根据多种 token 字段联合查询认证信息，支持
-   * state、authorizationCode、accessToken、refreshToken、idToken、userCode、deviceCode 任意一种 token。
-   * 查询语句为多行文本块，便于维护和阅读。
+   * 删除给定 id 中仍处于过期状态的认证信息
    *
-   * @param token token 值，可为上述任意一种 token
-   * @return 匹配的认证信息
+   * @param ids 认证信息 id，不能为空集合
+   * @param before 过期时间上限（不含）
+   * @return 影响行数
    */
-  Optional<OauthAuthorization> selectByTokenValue(@Param("token") String token);
+  int deleteExpiredByIds(@Param("ids") Collection<String> ids, @Param("before") Instant before);
 }
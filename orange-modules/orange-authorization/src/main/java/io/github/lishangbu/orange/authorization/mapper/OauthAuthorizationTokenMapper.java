@@ -0,0 +1,60 @@
+package io.github.lishangbu.orange.authorization.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorizationToken;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 令牌索引表(oauth_authorization_token)数据库访问层
+ *
+ * <p>维护令牌摘要到认证信息的映射，随认证信息的保存和删除同步更新
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public interface OauthAuthorizationTokenMapper extends BaseMapper<OauthAuthorizationToken> {
+
+  /**
+   * 批量写入令牌索引
+   *
+   * <p>以单条多值语句写入，避免逐条插入带来的多次往返。PostgreSQL 与 H2 下摘要已存在时覆盖原记录：
+   * 同一认证信息被并发保存时（如同一刷新令牌在两个节点上重放），后提交的事务删除旧索引时看不到先提交事务刚写入的行，
+   * 覆盖写入使其不会因主键冲突而失败
+   *
+   * @param tokens 令牌索引，不能为空集合
+   * @return 影响行数
+   */
+  int upsertBatch(@Param("tokens") Collection<OauthAuthorizationToken> tokens);
+
+  /**
+   * 删除认证信息关联的全部令牌索引
+   *
+   * @param authorizationId 认证信息 ID
+   * @return 影响行数
+   */
+  int deleteByAuthorizationId(@Param("authorizationId") String authorizationId);
+
+  /**
+   * 批量删除多个认证信息关联的令牌索引
+   *
+   * @param authorizationIds 认证信息 ID，不能为空集合
+   * @return 影响行数
+   */
+  int deleteByAuthorizationIds(
+      @Param("authorizationIds") Collection<String> authorizationIds);
+
+  /**
+   * 删除签发时间在给定区间内的认证信息的令牌索引，每次最多删除 limit 条
+   *
+   * @param from 签发时间下限（含）
+   * @param to 签发时间上限（不含）
+   * @param limit 最多删除的条数
+   * @return 影响行数
+   */
+  int deleteByAuthorizationIssuedAtBetween(
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to,
+      @Param("limit") int limit);
+}
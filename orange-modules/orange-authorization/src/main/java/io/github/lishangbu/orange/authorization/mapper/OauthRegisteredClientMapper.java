@@ -19,4 +19,15 @@ public interface OauthRegisteredClientMapper extends BaseMapper<OauthRegisteredC
    * @return 匹配的注册客户端信息
    */
   Optional<OauthRegisteredClient> selectByClientId(String clientId);
+
+  /**
+   * 以单条语句插入或更新注册客户端信息
+   *
+   * <p>PostgreSQL 使用 {@code INSERT ... ON CONFLICT DO UPDATE}，H2 使用 {@code MERGE}；
+   * 其它数据库退化为按 id 更新，记录不存在时返回 0，由调用方再执行插入
+   *
+   * @param client 注册客户端信息，id 不能为空
+   * @return 影响行数，返回 0 时记录不存在且尚未插入
+   */
+  int upsert(OauthRegisteredClient client);
 }
@@ -0,0 +1,55 @@
+package io.github.lishangbu.orange.authorization.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import io.github.lishangbu.orange.authorization.entity.OauthRevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 令牌吊销记录表(oauth_revoked_token)数据库访问层
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public interface OauthRevokedTokenMapper extends BaseMapper<OauthRevokedToken> {
+
+  /**
+   * 按 ID 升序查询游标之后的吊销记录
+   *
+   * @param cursor 游标，只返回 ID 大于该值的记录
+   * @param limit 最多返回的条数
+   * @return 吊销记录
+   */
+  List<OauthRevokedToken> selectAfter(@Param("cursor") long cursor, @Param("limit") int limit);
+
+  /**
+   * 查询现存吊销记录的最小 ID
+   *
+   * @return 最小 ID，无记录时返回 null
+   */
+  Long selectMinId();
+
+  /**
+   * 查询现存吊销记录的最大 ID
+   *
+   * @return 最大 ID，无记录时返回 null
+   */
+  Long selectMaxId();
+
+  /**
+   * 查询吊销时间早于给定时间的记录的最大 ID
+   *
+   * @param before 吊销时间上限（不含）
+   * @return 最大 ID，无记录时返回 null
+   */
+  Long selectMaxIdRevokedBefore(@Param("before") Instant before);
+
+  /**
+   * 删除吊销时间早于给定时间的记录
+   *
+   * @param before 吊销时间上限（不含）
+   * @return 影响行数
+   */
+  int deleteByRevokedAtBefore(@Param("before") Instant before);
+}
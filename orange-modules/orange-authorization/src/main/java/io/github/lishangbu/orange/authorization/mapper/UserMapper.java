@@ -3,6 +3,7 @@ package io.github.lishangbu.orange.authorization.mapper;
 import io.github.lishangbu.orange.authorization.model.UserWithRoles;
 import java.util.Optional;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 /**
  * 用户信息(user)表数据库访问层
@@ -21,4 +22,34 @@ public interface UserMapper {
    * @return 用户信息列表，通常只返回一个用户
    */
   Optional<UserWithRoles> selectUserWithRolesByUsername(String username);
+
+  /**
+   * 通过用户名查询用户的角色版本号
+   *
+   * @param username 用户名，不能为空
+   * @return 角色版本号，用户不存在时为空
+   */
+  Optional<Long> selectRoleVersionByUsername(String username);
+
+  /**
+   * 递增拥有指定角色的所有用户的角色版本号
+   *
+   * <p>角色变更或删除时调用，使这些用户已签发令牌中的权限快照失效
+   *
+   * @param roleId 角色ID
+   * @return 受影响的用户数
+   */
+  int increaseRoleVersionByRoleId(Long roleId);
+
+  /**
+   * 通过用户名更新用户密码
+   *
+   * <p>登录成功后已存哈希需要升级时调用，不影响角色版本号
+   *
+   * @param username 用户名
+   * @param password 编码后的新密码
+   * @return 受影响的用户数
+   */
+  int updatePasswordByUsername(
+      @Param("username") String username, @Param("password") String password);
 }
@@ -0,0 +1,25 @@
+package io.github.lishangbu.orange.authorization.model;
+
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * 序列化的认证信息，按令牌或 id 查询认证信息时只取这几个字段
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Data
+public class AuthorizationObject {
+  /** 认证信息 id */
+  private String id;
+
+  /** 由 {@link io.github.lishangbu.orange.authorization.codec.AuthorizationCodec} 编码的认证信息 */
+  private byte[] authorizationObject;
+
+  /** 签发时间，分区前写入的认证信息在非 PostgreSQL 数据库中可能为空 */
+  private Instant issuedAt;
+
+  /** 令牌摘要，仅按令牌摘要批量查询时填充 */
+  private String tokenDigest;
+}
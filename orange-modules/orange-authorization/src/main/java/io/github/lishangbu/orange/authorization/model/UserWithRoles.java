@@ -1,5 +1,6 @@
 package io.github.lishangbu.orange.authorization.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.github.lishangbu.orange.authorization.entity.Role;
 import java.util.List;
@@ -19,5 +20,8 @@ public class UserWithRoles {
   @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
   private String password;
 
+  /** 角色版本号，角色变更时递增 */
+  @JsonIgnore private Long roleVersion;
+
   private List<Role> roles;
 }
@@ -0,0 +1,196 @@
+package io.github.lishangbu.orange.authorization.reaper;
+
+import io.github.lishangbu.orange.authorization.mapper.AuthorizationPartitionMapper;
+import io.github.lishangbu.orange.authorization.mapper.OauthAuthorizationTokenMapper;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 认证信息表分区维护
+ *
+ * <p>PostgreSQL 下认证信息表按签发日分区。由 {@link ExpiredAuthorizationReaper} 在每轮清理前调用：预先创建未来若干天的分区，
+ * 并在某天分区内的认证信息全部过期且超过宽限期后，先分批删除其令牌索引，再整体删除该分区，删除代价与分区内的行数无关
+ *
+ * <p>删除前先将分区从认证信息表分离：没有默认分区时并发分离，不阻塞读写；有默认分区时只能普通分离，需要父表的排他锁。
+ * 两种方式都在较短的锁等待超时下执行，超时后停顿重试，不会排在长事务之后阻塞后续的读写；分离成功后再删除分离出的普通表
+ *
+ * <p>其它数据库不分区，调用时直接返回
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Slf4j
+@Component
+public class AuthorizationPartitionMaintainer {
+
+  private static final String POSTGRESQL = "postgresql";
+
+  private static final String PARTITION_PREFIX = "oauth_authorization_p";
+
+  private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{8})");
+
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+  /** PostgreSQL 锁等待超时的 SQLSTATE */
+  private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+  private final AuthorizationPartitionMapper authorizationPartitionMapper;
+
+  private final OauthAuthorizationTokenMapper oauthAuthorizationTokenMapper;
+
+  private final SqlSessionFactory sqlSessionFactory;
+
+  private final Oauth2Properties.AuthorizationReaper properties;
+
+  private final boolean partitioned;
+
+  /** 已删除的分区数 */
+  private final LongAdder droppedCount = new LongAdder();
+
+  public AuthorizationPartitionMaintainer(
+      AuthorizationPartitionMapper authorizationPartitionMapper,
+      OauthAuthorizationTokenMapper oauthAuthorizationTokenMapper,
+      SqlSessionFactory sqlSessionFactory,
+      Oauth2Properties oauth2Properties) {
+    this.authorizationPartitionMapper = authorizationPartitionMapper;
+    this.oauthAuthorizationTokenMapper = oauthAuthorizationTokenMapper;
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.properties = oauth2Properties.getAuthorizationReaper();
+    this.partitioned = POSTGRESQL.equals(sqlSessionFactory.getConfiguration().getDatabaseId());
+  }
+
+  /**
+   * 预建未来分区并删除已全部过期的分区
+   *
+   * @param before 过期时间上限（不含），最晚过期时间早于该时间的认证信息可以删除
+   * @throws InterruptedException 停止任务时抛出
+   */
+  public void maintain(Instant before) throws InterruptedException {
+    if (!this.partitioned) {
+      return;
+    }
+    Set<String> existing = new HashSet<>(this.authorizationPartitionMapper.selectPartitionNames());
+    LocalDate today = LocalDate.now();
+    for (int i = 0; i <= this.properties.getPartitionPrecreateDays(); i++) {
+      createPartition(today.plusDays(i), existing);
+    }
+    Boolean concurrently = null;
+    for (String name : existing) {
+      Matcher matcher = PARTITION_NAME.matcher(name);
+      if (!matcher.matches()) {
+        continue;
+      }
+      LocalDate day = LocalDate.parse(matcher.group(1), PARTITION_SUFFIX);
+      if (day.isBefore(today) && !this.authorizationPartitionMapper.existsUnexpired(name, before)) {
+        if (concurrently == null) {
+          concurrently = !this.authorizationPartitionMapper.hasDefaultPartition();
+        }
+        dropPartition(name, day, concurrently);
+      }
+    }
+  }
+
+  private void createPartition(LocalDate day, Set<String> existing) {
+    String name = PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    if (existing.contains(name)) {
+      return;
+    }
+    try {
+      this.authorizationPartitionMapper.createPartition(
+          name, day.toString(), day.plusDays(1).toString());
+      log.info("已创建认证信息分区 [{}]", name);
+    } catch (RuntimeException e) {
+      // 默认分区中已有该日数据时无法创建，由清理任务逐行删除后下一轮重试
+      log.warn("创建认证信息分区 [{}] 失败：{}", name, e.getMessage());
+    }
+  }
+
+  private void dropPartition(String name, LocalDate day, boolean concurrently)
+      throws InterruptedException {
+    int batchSize = this.properties.getBatchSize();
+    int deleted;
+    do {
+      deleted =
+          this.oauthAuthorizationTokenMapper.deleteByAuthorizationIssuedAtBetween(
+              day.atStartOfDay(), day.plusDays(1).atStartOfDay(), batchSize);
+      if (deleted == batchSize) {
+        Thread.sleep(this.properties.getBatchPause().toMillis());
+      }
+    } while (deleted == batchSize);
+    if (!detachPartition(name, concurrently)) {
+      log.warn("分离认证信息分区 [{}] 时等待表锁超时，下一轮重试", name);
+      return;
+    }
+    this.authorizationPartitionMapper.dropPartition(name);
+    this.droppedCount.increment();
+    log.info("认证信息分区 [{}] 已全部过期，已删除", name);
+  }
+
+  /**
+   * 在较短的锁等待超时下分离分区，等待表锁超时时停顿后重试
+   *
+   * <p>锁等待超时是连接级设置，并发分离又不能在事务中执行，因此在单独的自动提交会话中设置、分离并恢复，保证三条语句使用同一连接
+   *
+   * @return 已分离时返回 true，重试次数用尽时返回 false
+   */
+  private boolean detachPartition(String name, boolean concurrently) throws InterruptedException {
+    int attempts = this.properties.getPartitionDetachAttempts();
+    for (int attempt = 1; attempt <= attempts; attempt++) {
+      try (SqlSession sqlSession = this.sqlSessionFactory.openSession(true)) {
+        AuthorizationPartitionMapper mapper =
+            sqlSession.getMapper(AuthorizationPartitionMapper.class);
+        mapper.setLockTimeout(this.properties.getPartitionLockTimeout().toMillis());
+        try {
+          if (concurrently && mapper.isDetachPending(name)) {
+            mapper.finalizeDetachPartition(name);
+          } else {
+            mapper.detachPartition(name, concurrently);
+          }
+          return true;
+        } catch (RuntimeException e) {
+          if (!isLockNotAvailable(e)) {
+            throw e;
+          }
+          log.debug("分离认证信息分区 [{}] 第 {} 次等待表锁超时", name, attempt);
+        } finally {
+          mapper.resetLockTimeout();
+        }
+      }
+      if (attempt < attempts) {
+        Thread.sleep(this.properties.getBatchPause().toMillis());
+      }
+    }
+    return false;
+  }
+
+  private static boolean isLockNotAvailable(Throwable throwable) {
+    for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException
+          && LOCK_NOT_AVAILABLE.equals(sqlException.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 获取已删除的分区数
+   *
+   * @return 删除分区数
+   */
+  public long getDroppedCount() {
+    return this.droppedCount.sum();
+  }
+}
@@ -0,0 +1,231 @@
+package io.github.lishangbu.orange.authorization.reaper;
+
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorization;
+import io.github.lishangbu.orange.authorization.mapper.OauthAuthorizationMapper;
+import io.github.lishangbu.orange.authorization.mapper.OauthAuthorizationTokenMapper;
+import io.github.lishangbu.orange.authorization.mapper.OauthRevokedTokenMapper;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 过期认证信息清理任务
+ *
+ * <p>在单独的后台线程中定期按 (expires_at, id) 键集分页查找最晚过期时间早于宽限期的认证信息，每批在独立的短事务中锁定、
+ * 删除令牌索引与认证信息，批与批之间停顿以限制删除速率，不会长时间持有热表上的锁
+ *
+ * <p>PostgreSQL 下每轮开始前先由 {@link AuthorizationPartitionMaintainer} 预建分区并整体删除已全部过期的分区；
+ * 同时删除超出保留时长的令牌吊销记录
+ *
+ * <p>单批耗时超过阈值或执行失败时视为数据库压力较大，本轮提前结束，下一轮的间隔加倍，最多延长到 {@value #MAX_BACKOFF}
+ * 倍；一轮正常结束后恢复原间隔
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Slf4j
+@Component
+public class ExpiredAuthorizationReaper implements SmartLifecycle {
+
+  /** 间隔最多延长的倍数 */
+  private static final int MAX_BACKOFF = 8;
+
+  private final OauthAuthorizationMapper oauthAuthorizationMapper;
+
+  private final OauthAuthorizationTokenMapper oauthAuthorizationTokenMapper;
+
+  private final AuthorizationPartitionMaintainer authorizationPartitionMaintainer;
+
+  private final OauthRevokedTokenMapper oauthRevokedTokenMapper;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final Oauth2Properties.AuthorizationReaper properties;
+
+  private final Oauth2Properties.RevocationFeed revocationFeedProperties;
+
+  /** 已删除的认证信息条数 */
+  private final LongAdder reapedCount = new LongAdder();
+
+  /** 最近一轮开始时最早一条待清理认证信息超出宽限期的秒数 */
+  private volatile long lagSeconds;
+
+  /** 当前间隔的倍数，只在清理线程中读写 */
+  private int backoff = 1;
+
+  private volatile ScheduledExecutorService executor;
+
+  private volatile boolean running;
+
+  public ExpiredAuthorizationReaper(
+      OauthAuthorizationMapper oauthAuthorizationMapper,
+      OauthAuthorizationTokenMapper oauthAuthorizationTokenMapper,
+      AuthorizationPartitionMaintainer authorizationPartitionMaintainer,
+      OauthRevokedTokenMapper oauthRevokedTokenMapper,
+      PlatformTransactionManager transactionManager,
+      Oauth2Properties oauth2Properties) {
+    this.oauthAuthorizationMapper = oauthAuthorizationMapper;
+    this.oauthAuthorizationTokenMapper = oauthAuthorizationTokenMapper;
+    this.authorizationPartitionMaintainer = authorizationPartitionMaintainer;
+    this.oauthRevokedTokenMapper = oauthRevokedTokenMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.properties = oauth2Properties.getAuthorizationReaper();
+    this.revocationFeedProperties = oauth2Properties.getRevocationFeed();
+  }
+
+  @Override
+  public void start() {
+    if (!this.properties.isEnabled()) {
+      return;
+    }
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "authorization-reaper");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.running = true;
+    schedule();
+  }
+
+  @Override
+  public void stop() {
+    this.running = false;
+    ScheduledExecutorService scheduledExecutor = this.executor;
+    if (scheduledExecutor == null) {
+      return;
+    }
+    scheduledExecutor.shutdownNow();
+    try {
+      scheduledExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  private void schedule() {
+    if (this.running) {
+      this.executor.schedule(
+          this::runAndReschedule,
+          this.properties.getInterval().toMillis() * this.backoff,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** 执行一轮清理并按结果调整下一轮的间隔 */
+  void runAndReschedule() {
+    try {
+      this.backoff = reap() ? 1 : Math.min(this.backoff * 2, MAX_BACKOFF);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (RuntimeException e) {
+      this.backoff = Math.min(this.backoff * 2, MAX_BACKOFF);
+      log.warn("清理过期认证信息失败，{} 倍间隔后重试", this.backoff, e);
+    }
+    schedule();
+  }
+
+  /**
+   * 执行一轮清理
+   *
+   * @return 本轮正常结束时返回 true，因数据库压力提前结束时返回 false
+   * @throws InterruptedException 停止任务时抛出
+   */
+  boolean reap() throws InterruptedException {
+    Instant before = Instant.now().minus(this.properties.getGracePeriod());
+    // 分区表上整体删除已全部过期的分区，剩余的过期认证信息再逐行删除
+    this.authorizationPartitionMaintainer.maintain(before);
+    this.oauthRevokedTokenMapper.deleteByRevokedAtBefore(
+        Instant.now().minus(this.revocationFeedProperties.getRetention()));
+    int batchSize = this.properties.getBatchSize();
+    Instant lastExpiresAt = null;
+    String lastId = null;
+    for (int batch = 0; batch < this.properties.getMaxBatchesPerRun() && this.running; batch++) {
+      List<OauthAuthorization> expired =
+          this.oauthAuthorizationMapper.selectExpired(before, lastExpiresAt, lastId, batchSize);
+      if (batch == 0) {
+        this.lagSeconds =
+            expired.isEmpty()
+                ? 0
+                : Duration.between(expired.getFirst().getExpiresAt(), before).toSeconds();
+      }
+      if (expired.isEmpty()) {
+        break;
+      }
+      List<String> ids = expired.stream().map(OauthAuthorization::getId).toList();
+      long start = System.nanoTime();
+      Integer deleted = this.transactionTemplate.execute(status -> delete(ids, before));
+      long elapsed = System.nanoTime() - start;
+      this.reapedCount.add(deleted == null ? 0 : deleted);
+
+      OauthAuthorization last = expired.getLast();
+      lastExpiresAt = last.getExpiresAt();
+      lastId = last.getId();
+      if (elapsed > this.properties.getSlowBatchThreshold().toNanos()) {
+        log.warn(
+            "清理过期认证信息单批耗时 {} 毫秒，超过阈值，本轮提前结束",
+            TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return false;
+      }
+      if (expired.size() < batchSize) {
+        break;
+      }
+      Thread.sleep(this.properties.getBatchPause().toMillis());
+    }
+    return true;
+  }
+
+  /** 锁定仍处于过期状态的认证信息后删除，期间被续签的认证信息不受影响 */
+  private int delete(List<String> ids, Instant before) {
+    List<String> locked = this.oauthAuthorizationMapper.lockExpiredByIds(ids, before);
+    if (locked.isEmpty()) {
+      return 0;
+    }
+    this.oauthAuthorizationTokenMapper.deleteByAuthorizationIds(locked);
+    return this.oauthAuthorizationMapper.deleteExpiredByIds(locked, before);
+  }
+
+  /**
+   * 获取当前间隔的倍数
+   *
+   * @return 间隔倍数
+   */
+  int getBackoff() {
+    return this.backoff;
+  }
+
+  /**
+   * 获取已删除的认证信息条数
+   *
+   * @return 删除条数
+   */
+  public long getReapedCount() {
+    return this.reapedCount.sum();
+  }
+
+  /**
+   * 获取最近一轮开始时最早一条待清理认证信息超出宽限期的秒数，持续增长说明清理速度跟不上过期速度
+   *
+   * @return 滞后秒数
+   */
+  public long getLagSeconds() {
+    return this.lagSeconds;
+  }
+}
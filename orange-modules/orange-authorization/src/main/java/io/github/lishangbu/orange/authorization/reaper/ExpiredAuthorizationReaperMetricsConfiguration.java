@@ -0,0 +1,43 @@
+package io.github.lishangbu.orange.authorization.reaper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 过期认证信息清理任务指标：已删除条数、已删除分区数及清理滞后时间
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+public class ExpiredAuthorizationReaperMetricsConfiguration {
+
+  @Bean
+  public MeterBinder expiredAuthorizationReaperMetrics(
+      ExpiredAuthorizationReaper reaper, AuthorizationPartitionMaintainer partitionMaintainer) {
+    return registry -> {
+      FunctionCounter.builder(
+              "oauth2.authorization.partitions.dropped",
+              partitionMaintainer,
+              AuthorizationPartitionMaintainer::getDroppedCount)
+          .description("The number of fully expired authorization partitions dropped")
+          .register(registry);
+      FunctionCounter.builder(
+              "oauth2.authorization.reaped", reaper, ExpiredAuthorizationReaper::getReapedCount)
+          .description("The number of expired authorizations deleted")
+          .register(registry);
+      Gauge.builder(
+              "oauth2.authorization.reaper.lag",
+              reaper,
+              ExpiredAuthorizationReaper::getLagSeconds)
+          .description("How far the oldest expired authorization is past the grace period")
+          .baseUnit("seconds")
+          .register(registry);
+    };
+  }
+}
@@ -1,9 +1,37 @@
 package io.github.lishangbu.orange.authorization.service.impl;
 
+import io.github.lishangbu.orange.authorization.codec.AuthorizationCodec;
 import io.github.lishangbu.orange.authorization.entity.OauthAuthorization;
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorizationToken;
+import io.github.lishangbu.orange.authorization.entity.OauthRevokedToken;
+import io.github.lishangbu.orange.authorization.entity.Role;
 import io.github.lishangbu.orange.authorization.mapper.OauthAuthorizationMapper;
-import java.util.Optional;
+import io.github.lishangbu.orange.authorization.mapper.OauthAuthorizationTokenMapper;
+import io.github.lishangbu.orange.authorization.mapper.OauthRevokedTokenMapper;
+import io.github.lishangbu.orange.authorization.mapper.UserMapper;
+import io.github.lishangbu.orange.authorization.model.AuthorizationObject;
+import io.github.lishangbu.orange.authorization.model.UserWithRoles;
+import io.github.lishangbu.orange.authorization.store.PendingAuthorizationStore;
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.OAuth2AuthorizationChangedEvent;
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.AccessTokenBatchLookup;
+import io.github.lishangbu.orange.oauth2.authorizationserver.keygen.SignedKeyGenerator;
+import io.github.lishangbu.orange.oauth2.authorizationserver.util.SingleFlight;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import io.github.lishangbu.orange.oauth2.common.userdetails.PrincipalSnapshot;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.core.*;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
 import org.springframework.security.oauth2.core.oidc.OidcIdToken;
@@ -14,8 +42,9 @@ import org.springframework.security.oauth2.server.authorization.OAuth2Authorizat
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
-import org.springframework.util.SerializationUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -27,86 +56,314 @@ import org.springframework.util.StringUtils;
  */
 @Service
 @RequiredArgsConstructor
-public class DefaultOAuth2AuthorizationService implements OAuth2AuthorizationService {
+public class DefaultOAuth2AuthorizationService
+    implements OAuth2AuthorizationService, AccessTokenBatchLookup {
+  /** 认证信息首次写入数据库的时间，PostgreSQL 下为分区键 */
+  private static final String ISSUED_AT_ATTRIBUTE =
+      DefaultOAuth2AuthorizationService.class.getName().concat(".ISSUED_AT");
+
   private final OauthAuthorizationMapper oauthAuthorizationMapper;
 
-  private static AuthorizationGrantType resolveAuthorizationGrantType(
-      String authorizationGrantType) {
-    if (AuthorizationGrantType.AUTHORIZATION_CODE.getValue().equals(authorizationGrantType)) {
-      return AuthorizationGrantType.AUTHORIZATION_CODE;
-    } else if (AuthorizationGrantType.CLIENT_CREDENTIALS
-        .getValue()
-        .equals(authorizationGrantType)) {
-      return AuthorizationGrantType.CLIENT_CREDENTIALS;
-    } else if (AuthorizationGrantType.REFRESH_TOKEN.getValue().equals(authorizationGrantType)) {
-      return AuthorizationGrantType.REFRESH_TOKEN;
-    } else if (AuthorizationGrantType.DEVICE_CODE.getValue().equals(authorizationGrantType)) {
-      return AuthorizationGrantType.DEVICE_CODE;
-    }
-    return new AuthorizationGrantType(authorizationGrantType); // Custom authorization grant type
-  }
+  private final OauthAuthorizationTokenMapper oauthAuthorizationTokenMapper;
+
+  private final AuthorizationCodec authorizationCodec;
+
+  private final ApplicationEventPublisher applicationEventPublisher;
+
+  /** 带校验码的令牌生成器，未配置引用令牌密钥时不存在 */
+  private final ObjectProvider<SignedKeyGenerator> signedKeyGenerator;
+
+  private final PendingAuthorizationStore pendingAuthorizationStore;
+
+  private final Oauth2Properties oauth2Properties;
+
+  private final UserMapper userMapper;
+
+  private final OauthRevokedTokenMapper oauthRevokedTokenMapper;
+
+  /** 合并同一令牌的并发查找，共享一次查询与反序列化 */
+  private final SingleFlight<String, OAuth2Authorization> tokenLookups = new SingleFlight<>();
 
   @Override
   @Transactional(rollbackFor = Exception.class)
   public void save(OAuth2Authorization authorization) {
     Assert.notNull(authorization, "authorization cannot be null");
-    this.oauthAuthorizationMapper.insertOrUpdate(toEntity(authorization));
+    if (isPending(authorization)) {
+      // 尚未换发令牌的认证信息只保存在内存中，换发令牌后再写入数据库
+      this.pendingAuthorizationStore.put(authorization, toTokenIndex(authorization));
+      return;
+    }
+    // 首次写入数据库时记录签发时间，此后续签、换发均写回同一分区
+    authorization = withIssuedAt(authorization, Instant.now());
+    authorization = withPrincipalSnapshot(authorization);
+    List<OauthAuthorizationToken> tokens = toTokenIndex(authorization);
+    OauthAuthorization entity = toEntity(authorization);
+    if (this.oauthAuthorizationMapper.upsert(entity) == 0) {
+      // 未提供方言 upsert 的数据库上只按 id 更新，记录不存在时再插入
+      this.oauthAuthorizationMapper.insert(entity);
+    }
+    // 令牌在续签、换发时会变化，整体重建该认证信息的令牌索引；写入为覆盖写，
+    // 并发保存同一认证信息时不会因另一事务刚提交的索引行而主键冲突
+    this.oauthAuthorizationTokenMapper.deleteByAuthorizationId(authorization.getId());
+    if (!tokens.isEmpty()) {
+      this.oauthAuthorizationTokenMapper.upsertBatch(tokens);
+    }
+    // 事务回滚时内存中的授权码仍需可用，提交后再移除
+    String authorizationId = authorization.getId();
+    afterCommit(() -> this.pendingAuthorizationStore.remove(authorizationId));
+    OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+    if (accessToken != null && accessToken.isInvalidated()) {
+      recordRevocation(accessToken.getToken());
+    }
+    publishChangedEvent(authorization, false);
   }
 
   @Override
   @Transactional(rollbackFor = Exception.class)
   public void remove(OAuth2Authorization authorization) {
     Assert.notNull(authorization, "authorization cannot be null");
+    if (this.pendingAuthorizationStore.remove(authorization.getId())) {
+      // 仅存在于内存中的认证信息无需访问数据库
+      return;
+    }
+    this.oauthAuthorizationTokenMapper.deleteByAuthorizationId(authorization.getId());
     this.oauthAuthorizationMapper.deleteById(authorization.getId());
+    OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+    if (accessToken != null) {
+      recordRevocation(accessToken.getToken());
+    }
+    publishChangedEvent(authorization, true);
+  }
+
+  /** 记录被吊销的访问令牌摘要，供独立部署的资源服务器轮询后失效本地缓存；已过期的令牌不会被缓存，无需记录 */
+  private void recordRevocation(OAuth2AccessToken accessToken) {
+    Instant now = Instant.now();
+    if (!this.oauth2Properties.getRevocationFeed().isEnabled()
+        || (accessToken.getExpiresAt() != null && accessToken.getExpiresAt().isBefore(now))) {
+      return;
+    }
+    OauthRevokedToken revoked = new OauthRevokedToken();
+    revoked.setTokenDigest(TokenDigestUtils.digest(accessToken.getTokenValue()));
+    revoked.setRevokedAt(now);
+    this.oauthRevokedTokenMapper.insert(revoked);
   }
 
   @Override
   public OAuth2Authorization findById(String id) {
     Assert.hasText(id, "id cannot be empty");
-    return Optional.ofNullable(this.oauthAuthorizationMapper.selectById(id))
-        .map(
-            ele ->
-                (OAuth2Authorization) SerializationUtils.deserialize(ele.getAuthorizationObject()))
-        .orElse(null);
+    OAuth2Authorization pending = this.pendingAuthorizationStore.get(id);
+    if (pending != null) {
+      return pending;
+    }
+    return this.oauthAuthorizationMapper.selectObjectById(id).map(this::toObject).orElse(null);
   }
 
   @Override
   public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
     Assert.hasText(token, "token cannot be empty");
+    if (!verifySignature(token, tokenType)) {
+      // 校验码不匹配的令牌不可能由本服务签发，无需查询数据库
+      return null;
+    }
+
+    // 所有令牌类型均通过令牌摘要索引做主键查询，tokenType 为 null 时不限定令牌类型
+    String tokenDigest = TokenDigestUtils.digest(token);
+    String tokenTypeValue = tokenType == null ? null : tokenType.getValue();
+    if (!OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)
+        && !OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+      OAuth2Authorization pending =
+          this.pendingAuthorizationStore.findByToken(tokenDigest, tokenTypeValue);
+      if (pending != null) {
+        return pending;
+      }
+    }
+    Oauth2Properties.RequestCoalescing coalescing = this.oauth2Properties.getRequestCoalescing();
+    if (!coalescing.isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+      // 事务中可能存在未提交的修改，不能与其它线程共享查询结果
+      return selectByTokenDigest(tokenDigest, tokenTypeValue);
+    }
+    return this.tokenLookups.execute(
+        tokenDigest + ':' + tokenTypeValue,
+        coalescing.getWaitTimeout(),
+        () -> selectByTokenDigest(tokenDigest, tokenTypeValue));
+  }
+
+  @Override
+  public Map<String, OAuth2Authorization> findByAccessTokenDigests(
+      Collection<String> tokenDigests) {
+    if (tokenDigests.isEmpty()) {
+      return Map.of();
+    }
+    Map<String, OAuth2Authorization> authorizations = new HashMap<>();
+    for (AuthorizationObject object :
+        this.oauthAuthorizationMapper.selectObjectsByTokenDigests(
+            tokenDigests, OAuth2TokenType.ACCESS_TOKEN.getValue())) {
+      authorizations.put(object.getTokenDigest(), toObject(object));
+    }
+    return authorizations;
+  }
 
-    Optional<OauthAuthorization> result;
-    if (tokenType == null) {
-      result = this.oauthAuthorizationMapper.selectByTokenValue(token);
-    } else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
-      result = this.oauthAuthorizationMapper.selectByState(token);
-    } else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
-      result = this.oauthAuthorizationMapper.selectByAuthorizationCodeValue(token);
-    } else if (OAuth2ParameterNames.ACCESS_TOKEN.equals(tokenType.getValue())) {
-      result = this.oauthAuthorizationMapper.selectByAccessTokenValue(token);
-    } else if (OAuth2ParameterNames.REFRESH_TOKEN.equals(tokenType.getValue())) {
-      result = this.oauthAuthorizationMapper.selectByRefreshTokenValue(token);
-    } else if (OidcParameterNames.ID_TOKEN.equals(tokenType.getValue())) {
-      result = this.oauthAuthorizationMapper.selectByOidcIdTokenValue(token);
-    } else if (OAuth2ParameterNames.USER_CODE.equals(tokenType.getValue())) {
-      result = this.oauthAuthorizationMapper.selectByUserCodeValue(token);
-    } else if (OAuth2ParameterNames.DEVICE_CODE.equals(tokenType.getValue())) {
-      result = this.oauthAuthorizationMapper.selectByDeviceCodeValue(token);
+  private OAuth2Authorization selectByTokenDigest(String tokenDigest, String tokenTypeValue) {
+    return this.oauthAuthorizationMapper
+        .selectObjectByTokenDigest(tokenDigest, tokenTypeValue)
+        .map(this::toObject)
+        .orElse(null);
+  }
+
+  /**
+   * 判断认证信息是否仍处于换发令牌之前
+   *
+   * <p>未开启持久化时，尚未换发访问令牌和刷新令牌的认证信息（授权码、state、设备码）只保存在内存中
+   */
+  private boolean isPending(OAuth2Authorization authorization) {
+    return !this.oauth2Properties.getPendingAuthorization().isDurable()
+        && authorization.getAccessToken() == null
+        && authorization.getRefreshToken() == null;
+  }
+
+  /** 访问令牌与刷新令牌由 {@link SignedKeyGenerator} 生成，其余类型的令牌不做校验 */
+  private boolean verifySignature(String token, OAuth2TokenType tokenType) {
+    if (!OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)
+        && !OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+      return true;
+    }
+    SignedKeyGenerator keyGenerator = this.signedKeyGenerator.getIfAvailable();
+    return keyGenerator == null || keyGenerator.verify(token);
+  }
+
+  /**
+   * 发布认证信息变更事件
+   *
+   * <p>存在事务时在提交后发布，避免缓存失效后又被并发请求以未提交前的旧数据重新加载
+   */
+  private void publishChangedEvent(OAuth2Authorization authorization, boolean removed) {
+    OAuth2AuthorizationChangedEvent event =
+        new OAuth2AuthorizationChangedEvent(this, authorization, removed);
+    afterCommit(() -> this.applicationEventPublisher.publishEvent(event));
+  }
+
+  /** 存在事务时在提交后执行，否则立即执行 */
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
     } else {
-      result = Optional.empty();
+      action.run();
+    }
+  }
+
+  private OAuth2Authorization toObject(AuthorizationObject entity) {
+    OAuth2Authorization authorization =
+        this.authorizationCodec.decode(entity.getAuthorizationObject());
+    // 分区前写入的认证信息不含签发时间属性，以表中的签发时间补齐，保证续签时写回原分区
+    return entity.getIssuedAt() == null
+        ? authorization
+        : withIssuedAt(authorization, entity.getIssuedAt());
+  }
+
+  /** 认证信息已有签发时间属性时原样返回，否则以给定时间补齐 */
+  private static OAuth2Authorization withIssuedAt(
+      OAuth2Authorization authorization, Instant issuedAt) {
+    if (authorization.getAttribute(ISSUED_AT_ATTRIBUTE) != null) {
+      return authorization;
     }
+    return OAuth2Authorization.from(authorization)
+        .attribute(ISSUED_AT_ATTRIBUTE, issuedAt)
+        .build();
+  }
 
-    return result
+  /**
+   * 为用户签发的访问令牌附带用户主体快照，解析令牌时据此构建用户主体而无需重新加载用户
+   *
+   * <p>快照缺失或其角色版本号已落后于用户当前版本时（如续签前角色发生变更）重新生成，版本号与角色代码在同一查询中读取，
+   * 保证两者一致
+   */
+  private OAuth2Authorization withPrincipalSnapshot(OAuth2Authorization authorization) {
+    if (authorization.getAccessToken() == null
+        || !(authorization.getAttribute(Principal.class.getName())
+            instanceof Authentication authentication)
+        || !(authentication.getPrincipal() instanceof UserDetails userDetails)) {
+      return authorization;
+    }
+    PrincipalSnapshot snapshot = authorization.getAttribute(PrincipalSnapshot.ATTRIBUTE);
+    if (snapshot != null
+        && this.userMapper
+            .selectRoleVersionByUsername(snapshot.getUsername())
+            .filter(roleVersion -> roleVersion == snapshot.getRoleVersion())
+            .isPresent()) {
+      return authorization;
+    }
+    return this.userMapper
+        .selectUserWithRolesByUsername(userDetails.getUsername())
         .map(
-            ele ->
-                (OAuth2Authorization) SerializationUtils.deserialize(ele.getAuthorizationObject()))
-        .orElse(null);
+            user ->
+                OAuth2Authorization.from(authorization)
+                    .attribute(PrincipalSnapshot.ATTRIBUTE, toPrincipalSnapshot(user))
+                    .build())
+        .orElse(authorization);
+  }
+
+  private static PrincipalSnapshot toPrincipalSnapshot(UserWithRoles user) {
+    List<String> authorities =
+        user.getRoles() == null
+            ? List.of()
+            : user.getRoles().stream().map(Role::getCode).toList();
+    long roleVersion = user.getRoleVersion() == null ? 0L : user.getRoleVersion();
+    return new PrincipalSnapshot(user.getUsername(), authorities, roleVersion);
+  }
+
+  private List<OauthAuthorizationToken> toTokenIndex(OAuth2Authorization authorization) {
+    List<OauthAuthorizationToken> tokens = new ArrayList<>();
+    String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+    addTokenIndex(tokens, authorization, state, OAuth2ParameterNames.STATE);
+    addTokenIndex(tokens, authorization, OAuth2AuthorizationCode.class, OAuth2ParameterNames.CODE);
+    addTokenIndex(
+        tokens, authorization, OAuth2AccessToken.class, OAuth2ParameterNames.ACCESS_TOKEN);
+    addTokenIndex(
+        tokens, authorization, OAuth2RefreshToken.class, OAuth2ParameterNames.REFRESH_TOKEN);
+    addTokenIndex(tokens, authorization, OidcIdToken.class, OidcParameterNames.ID_TOKEN);
+    addTokenIndex(tokens, authorization, OAuth2UserCode.class, OAuth2ParameterNames.USER_CODE);
+    addTokenIndex(tokens, authorization, OAuth2DeviceCode.class, OAuth2ParameterNames.DEVICE_CODE);
+    return tokens;
+  }
+
+  private static void addTokenIndex(
+      List<OauthAuthorizationToken> tokens,
+      OAuth2Authorization authorization,
+      Class<? extends OAuth2Token> tokenClass,
+      String tokenType) {
+    OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenClass);
+    if (token != null) {
+      addTokenIndex(tokens, authorization, token.getToken().getTokenValue(), tokenType);
+    }
+  }
+
+  private static void addTokenIndex(
+      List<OauthAuthorizationToken> tokens,
+      OAuth2Authorization authorization,
+      String tokenValue,
+      String tokenType) {
+    if (!StringUtils.hasText(tokenValue)) {
+      return;
+    }
+    OauthAuthorizationToken token = new OauthAuthorizationToken();
+    token.setTokenDigest(TokenDigestUtils.digest(tokenValue));
+    token.setAuthorizationId(authorization.getId());
+    token.setTokenType(tokenType);
+    token.setAuthorizationIssuedAt(authorization.getAttribute(ISSUED_AT_ATTRIBUTE));
+    tokens.add(token);
   }
 
   private OauthAuthorization toEntity(OAuth2Authorization authorization) {
     OauthAuthorization entity = new OauthAuthorization();
 
-    // 直接序列化整个OAuth2Authorization对象
-    entity.setAuthorizationObject(SerializationUtils.serialize(authorization));
+    // 整个OAuth2Authorization对象由编解码器编码后存储
+    entity.setAuthorizationObject(this.authorizationCodec.encode(authorization));
 
     // 设置查询字段
     entity.setId(authorization.getId());
@@ -182,6 +439,33 @@ public class DefaultOAuth2AuthorizationService implements OAuth2AuthorizationSer
       entity.setDeviceCodeMetadata(deviceCode.getMetadata());
     }
 
+    entity.setExpiresAt(latestExpiresAt(entity));
+    entity.setIssuedAt(authorization.getAttribute(ISSUED_AT_ATTRIBUTE));
     return entity;
   }
+
+  /**
+   * 计算各令牌中最晚的过期时间，供过期认证信息清理任务使用
+   *
+   * <p>不含任何带过期时间的令牌时（如仅含 state），按待换发令牌的认证信息存活时间计算
+   */
+  private Instant latestExpiresAt(OauthAuthorization entity) {
+    Instant latest = null;
+    for (Instant expiresAt :
+        Arrays.asList(
+            entity.getAuthorizationCodeExpiresAt(),
+            entity.getAccessTokenExpiresAt(),
+            entity.getRefreshTokenExpiresAt(),
+            entity.getOidcIdTokenExpiresAt(),
+            entity.getUserCodeExpiresAt(),
+            entity.getDeviceCodeExpiresAt())) {
+      if (expiresAt != null && (latest == null || expiresAt.isAfter(latest))) {
+        latest = expiresAt;
+      }
+    }
+    if (latest == null) {
+      latest = Instant.now().plus(this.oauth2Properties.getPendingAuthorization().getTimeToLive());
+    }
+    return latest;
+  }
 }
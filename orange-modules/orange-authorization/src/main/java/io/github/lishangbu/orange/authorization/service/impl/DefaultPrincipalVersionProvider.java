@@ -0,0 +1,25 @@
+package io.github.lishangbu.orange.authorization.service.impl;
+
+import io.github.lishangbu.orange.authorization.mapper.UserMapper;
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.PrincipalVersionProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * 用户角色版本号查询
+ *
+ * <p>按用户名唯一索引查询单列，代替解析令牌时的用户、角色三表关联查询
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Service
+@RequiredArgsConstructor
+public class DefaultPrincipalVersionProvider implements PrincipalVersionProvider {
+  private final UserMapper userMapper;
+
+  @Override
+  public Long getRoleVersion(String username) {
+    return userMapper.selectRoleVersionByUsername(username).orElse(null);
+  }
+}
@@ -1,14 +1,17 @@
 package io.github.lishangbu.orange.authorization.service.impl;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import io.github.lishangbu.orange.authorization.entity.OauthRegisteredClient;
 import io.github.lishangbu.orange.authorization.mapper.OauthRegisteredClientMapper;
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.RegisteredClientChangedEvent;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
-import lombok.RequiredArgsConstructor;
 import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
@@ -19,20 +22,61 @@ import org.springframework.security.oauth2.server.authorization.settings.ClientS
 import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
 import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
  * JDBC注册客户端
  *
+ * <p>启用缓存时，构建完成的注册客户端同时以 id 与 clientId 为键缓存，稳定状态下令牌端点与客户端认证不再查询客户端表。
+ * 查无此客户端的结果不缓存，避免随意构造的 clientId 挤占缓存，也使其它实例新注册的客户端立即可见。
+ * 本实例保存客户端时立即失效对应条目；其它实例上的修改在刷新间隔后由后台重新加载，也可调用 {@link #invalidateAll()} 立即生效
+ *
  * @author lishangbu
  * @since 2025/8/17
  */
 @Component
-@RequiredArgsConstructor
 public class DefaultRegisteredClientRepository implements RegisteredClientRepository {
   private final OauthRegisteredClientMapper oauthRegisteredClientMapper;
 
+  private final ApplicationEventPublisher applicationEventPublisher;
+
+  /** 以 id 为键的缓存，未启用缓存时为 null */
+  private final LoadingCache<String, RegisteredClient> clientsById;
+
+  /** 以 clientId 为键的缓存，未启用缓存时为 null */
+  private final LoadingCache<String, RegisteredClient> clientsByClientId;
+
+  public DefaultRegisteredClientRepository(
+      OauthRegisteredClientMapper oauthRegisteredClientMapper,
+      ApplicationEventPublisher applicationEventPublisher,
+      Oauth2Properties oauth2Properties) {
+    this.oauthRegisteredClientMapper = oauthRegisteredClientMapper;
+    this.applicationEventPublisher = applicationEventPublisher;
+    Oauth2Properties.RegisteredClientCache cache = oauth2Properties.getRegisteredClientCache();
+    if (cache.isEnabled()) {
+      Assert.isTrue(cache.getMaximumSize() > 0, "maximumSize must be greater than 0");
+      Assert.isTrue(
+          cache.getRefreshInterval() != null && cache.getRefreshInterval().isPositive(),
+          "refreshInterval must be greater than 0");
+      this.clientsById =
+          Caffeine.newBuilder()
+              .maximumSize(cache.getMaximumSize())
+              .refreshAfterWrite(cache.getRefreshInterval())
+              .build(this::loadById);
+      this.clientsByClientId =
+          Caffeine.newBuilder()
+              .maximumSize(cache.getMaximumSize())
+              .refreshAfterWrite(cache.getRefreshInterval())
+              .build(this::loadByClientId);
+    } else {
+      this.clientsById = null;
+      this.clientsByClientId = null;
+    }
+  }
+
   private static AuthorizationGrantType resolveAuthorizationGrantType(
       String authorizationGrantType) {
     if (AuthorizationGrantType.AUTHORIZATION_CODE.getValue().equals(authorizationGrantType)) {
@@ -67,24 +111,91 @@ public class DefaultRegisteredClientRepository implements RegisteredClientReposi
   @Override
   public void save(RegisteredClient registeredClient) {
     Assert.notNull(registeredClient, "registeredClient cannot be null");
-    this.oauthRegisteredClientMapper.insertOrUpdate(toEntity(registeredClient));
+    OauthRegisteredClient entity = toEntity(registeredClient);
+    if (this.oauthRegisteredClientMapper.upsert(entity) == 0) {
+      // 未提供方言 upsert 的数据库上只按 id 更新，记录不存在时再插入
+      this.oauthRegisteredClientMapper.insert(entity);
+    }
+    evict(registeredClient);
+    RegisteredClientChangedEvent event = new RegisteredClientChangedEvent(this, registeredClient);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // 提交前可能有并发请求以旧数据重新加载，提交后再失效一次
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              evict(registeredClient);
+              applicationEventPublisher.publishEvent(event);
+            }
+          });
+    } else {
+      this.applicationEventPublisher.publishEvent(event);
+    }
   }
 
   @Override
   public RegisteredClient findById(String id) {
     Assert.hasText(id, "id cannot be empty");
-    return Optional.ofNullable(this.oauthRegisteredClientMapper.selectById(id))
-        .map(this::toObject)
-        .orElse(null);
+    return this.clientsById == null ? loadById(id) : this.clientsById.get(id);
   }
 
   @Override
   public RegisteredClient findByClientId(String clientId) {
     Assert.hasText(clientId, "clientId cannot be empty");
-    return this.oauthRegisteredClientMapper
-        .selectByClientId(clientId)
-        .map(this::toObject)
-        .orElse(null);
+    return this.clientsByClientId == null
+        ? loadByClientId(clientId)
+        : this.clientsByClientId.get(clientId);
+  }
+
+  /**
+   * 清空注册客户端缓存
+   *
+   * <p>供多实例部署时在收到其它实例的客户端变更通知后调用，使修改立即生效而无需等待刷新间隔
+   */
+  public void invalidateAll() {
+    if (this.clientsById != null) {
+      this.clientsById.invalidateAll();
+      this.clientsByClientId.invalidateAll();
+    }
+  }
+
+  /** 失效注册客户端在两个索引中的条目，clientId 被修改时一并失效旧 clientId */
+  private void evict(RegisteredClient registeredClient) {
+    if (this.clientsById == null) {
+      return;
+    }
+    RegisteredClient cached = this.clientsById.getIfPresent(registeredClient.getId());
+    this.clientsById.invalidate(registeredClient.getId());
+    this.clientsByClientId.invalidate(registeredClient.getClientId());
+    if (cached != null) {
+      this.clientsByClientId.invalidate(cached.getClientId());
+    }
+  }
+
+  /** 按 id 加载注册客户端，不存在时返回 null，缓存不保存 null */
+  private RegisteredClient loadById(String id) {
+    OauthRegisteredClient entity = this.oauthRegisteredClientMapper.selectById(id);
+    if (entity == null) {
+      return null;
+    }
+    RegisteredClient client = toObject(entity);
+    if (this.clientsByClientId != null) {
+      this.clientsByClientId.put(client.getClientId(), client);
+    }
+    return client;
+  }
+
+  /** 按 clientId 加载注册客户端，不存在时返回 null，缓存不保存 null */
+  private RegisteredClient loadByClientId(String clientId) {
+    RegisteredClient client =
+        this.oauthRegisteredClientMapper
+            .selectByClientId(clientId)
+            .map(this::toObject)
+            .orElse(null);
+    if (client != null && this.clientsById != null) {
+      this.clientsById.put(client.getId(), client);
+    }
+    return client;
   }
 
   private RegisteredClient toObject(OauthRegisteredClient client) {
@@ -173,8 +284,12 @@ public class DefaultRegisteredClientRepository implements RegisteredClientReposi
           DurationStyle.detectAndParse(client.getRefreshTokenTimeToLive(), ChronoUnit.SECONDS));
     }
     if (client.getIdTokenSignatureAlgorithm() != null) {
-      tokenSettingsBuilder.idTokenSignatureAlgorithm(
-          SignatureAlgorithm.from(client.getIdTokenSignatureAlgorithm()));
+      SignatureAlgorithm idTokenSignatureAlgorithm =
+          SignatureAlgorithm.from(client.getIdTokenSignatureAlgorithm());
+      Assert.notNull(
+          idTokenSignatureAlgorithm,
+          () -> "不支持的 ID Token 签名算法: " + client.getIdTokenSignatureAlgorithm());
+      tokenSettingsBuilder.idTokenSignatureAlgorithm(idTokenSignatureAlgorithm);
     }
     builder.tokenSettings(tokenSettingsBuilder.build());
 
@@ -219,8 +334,10 @@ public class DefaultRegisteredClientRepository implements RegisteredClientReposi
       entity.setRequireProofKey(registeredClientSettings.isRequireProofKey());
       entity.setRequireAuthorizationConsent(
           registeredClientSettings.isRequireAuthorizationConsent());
-      entity.setTokenEndpointAuthenticationSigningAlgorithm(
-          registeredClientSettings.getTokenEndpointAuthenticationSigningAlgorithm().getName());
+      if (registeredClientSettings.getTokenEndpointAuthenticationSigningAlgorithm() != null) {
+        entity.setTokenEndpointAuthenticationSigningAlgorithm(
+            registeredClientSettings.getTokenEndpointAuthenticationSigningAlgorithm().getName());
+      }
       entity.setJwkSetUrl(registeredClientSettings.getJwkSetUrl());
       entity.setX509CertificateSubjectDn(registeredClientSettings.getX509CertificateSubjectDN());
     }
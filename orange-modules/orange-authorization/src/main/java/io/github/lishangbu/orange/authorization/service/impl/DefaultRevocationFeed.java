@@ -0,0 +1,67 @@
+package io.github.lishangbu.orange.authorization.service.impl;
+
+import io.github.lishangbu.orange.authorization.entity.OauthRevokedToken;
+import io.github.lishangbu.orange.authorization.mapper.OauthRevokedTokenMapper;
+import io.github.lishangbu.orange.oauth2.authorizationserver.revocation.RevocationFeed;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import io.github.lishangbu.orange.oauth2.common.revocation.RevocationFeedPage;
+import java.time.Instant;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * 令牌吊销记录查询
+ *
+ * <p>以吊销记录表的自增 ID 为游标；游标早于现存最小 ID 时说明中间的记录已被清理，游标超出现存最大 ID 时说明记录表已被重建，
+ * 两种情况返回的结果均标记为不完整
+ *
+ * <p>自增 ID 在写入时分配，并发吊销的事务可能晚于 ID 更大的事务提交。吊销时间仍在提交时长内的记录照常返回，
+ * 但游标停在第一条这样的记录之前，下次轮询时重新返回这些记录，期间提交的较小 ID 的记录也随之返回
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Service
+@RequiredArgsConstructor
+public class DefaultRevocationFeed implements RevocationFeed {
+  private final OauthRevokedTokenMapper oauthRevokedTokenMapper;
+
+  private final Oauth2Properties oauth2Properties;
+
+  @Override
+  public RevocationFeedPage page(long cursor) {
+    Oauth2Properties.RevocationFeed properties = this.oauth2Properties.getRevocationFeed();
+    // 吊销时间早于该时刻的记录所在事务均已结束
+    Instant settledBefore = Instant.now().minus(properties.getCommitWindow());
+    if (cursor < 0) {
+      Long settledId = this.oauthRevokedTokenMapper.selectMaxIdRevokedBefore(settledBefore);
+      if (settledId == null) {
+        Long minId = this.oauthRevokedTokenMapper.selectMinId();
+        settledId = minId == null ? 0 : minId - 1;
+      }
+      return new RevocationFeedPage(settledId, List.of(), true);
+    }
+    Long minId = this.oauthRevokedTokenMapper.selectMinId();
+    boolean complete = minId == null || cursor >= minId - 1;
+    List<OauthRevokedToken> revoked =
+        this.oauthRevokedTokenMapper.selectAfter(cursor, properties.getPageSize());
+    if (revoked.isEmpty()) {
+      Long maxId = this.oauthRevokedTokenMapper.selectMaxId();
+      if (maxId != null && cursor > maxId) {
+        // 游标超出现存记录，吊销记录表已被重建，调用方需从当前最新的游标重新开始
+        return new RevocationFeedPage(maxId, List.of(), false);
+      }
+      return new RevocationFeedPage(cursor, List.of(), complete);
+    }
+    long next = cursor;
+    for (OauthRevokedToken token : revoked) {
+      if (!token.getRevokedAt().isBefore(settledBefore)) {
+        break;
+      }
+      next = token.getId();
+    }
+    return new RevocationFeedPage(
+        next, revoked.stream().map(OauthRevokedToken::getTokenDigest).toList(), complete);
+  }
+}
@@ -6,6 +6,7 @@ import io.github.lishangbu.orange.oauth2.common.userdetails.UserInfo;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,12 +14,14 @@ import org.springframework.stereotype.Service;
 /**
  * 用户服务
  *
+ * <p>同时实现 {@link UserDetailsPasswordService}：登录成功且已存哈希需要升级时，由认证提供者以当前编码器重新编码并回写
+ *
  * @author lishangbu
  * @since 2025/8/17
  */
 @Service
 @RequiredArgsConstructor
-public class DefaultUserDetailsService implements UserDetailsService {
+public class DefaultUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
   private final UserMapper userMapper;
 
   @Override
@@ -36,4 +39,10 @@ public class DefaultUserDetailsService implements UserDetailsService {
                             : user.getRoles().stream().map(Role::getCode).toArray(String[]::new))))
         .orElseThrow(() -> new UsernameNotFoundException("用户名或密码错误"));
   }
+
+  @Override
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    userMapper.updatePasswordByUsername(user.getUsername(), newPassword);
+    return new UserInfo(user.getUsername(), newPassword, user.getAuthorities());
+  }
 }
@@ -3,6 +3,7 @@ package io.github.lishangbu.orange.authorization.service.impl;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import io.github.lishangbu.orange.authorization.entity.Role;
 import io.github.lishangbu.orange.authorization.mapper.RoleMapper;
+import io.github.lishangbu.orange.authorization.mapper.UserMapper;
 import io.github.lishangbu.orange.authorization.service.RoleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class RoleServiceImpl implements RoleService {
   private final RoleMapper roleMapper;
 
+  private final UserMapper userMapper;
+
   @Override
   public IPage<Role> getPageByRole(IPage<Role> page, Role roleCondition) {
     return roleMapper.selectPageByRole(page, roleCondition);
@@ -42,7 +45,7 @@ public class RoleServiceImpl implements RoleService {
   /**
    * 根据ID更新角色信息
    *
-   * <p>支持更新角色代码、名称、启用状态等字段
+   * <p>支持更新角色代码、名称、启用状态等字段，同时递增拥有该角色的用户的角色版本号，使其令牌中的权限快照失效
    *
    * @param role 角色实体，包含需更新的字段，ID不能为空
    */
@@ -50,12 +53,13 @@ public class RoleServiceImpl implements RoleService {
   @Transactional(rollbackFor = Exception.class)
   public void updateRole(Role role) {
     roleMapper.updateById(role);
+    userMapper.increaseRoleVersionByRoleId(role.getId());
   }
 
   /**
    * 根据ID删除角色
    *
-   * <p>物理删除角色信息
+   * <p>物理删除角色信息，同时递增拥有该角色的用户的角色版本号，使其令牌中的权限快照失效
    *
    * @param id 角色ID
    * @return 删除成功返回true，否则返回false
@@ -63,6 +67,7 @@ public class RoleServiceImpl implements RoleService {
   @Override
   @Transactional(rollbackFor = Exception.class)
   public void deleteRole(Long id) {
+    userMapper.increaseRoleVersionByRoleId(id);
     roleMapper.deleteById(id);
   }
 
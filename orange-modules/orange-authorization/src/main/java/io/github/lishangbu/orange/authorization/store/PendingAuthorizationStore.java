@@ -0,0 +1,202 @@
+package io.github.lishangbu.orange.authorization.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorizationToken;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+/**
+ * 待换发令牌的认证信息存储
+ *
+ * <p>授权码、state、设备码等只在换发访问令牌前短暂存在，保存在有界、会过期的内存中，换发令牌后再由 {@link
+ * org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService} 持久化到数据库
+ *
+ * <p>条目在授权码、用户码、设备码中最晚的过期时间后失效，均无过期时间时（如仅含 state）按配置的存活时间失效
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Component
+public class PendingAuthorizationStore {
+
+  private final Cache<String, PendingAuthorization> cache;
+
+  /** 令牌摘要与认证信息 id 的对应关系 */
+  private final Map<String, String> tokenIndex = new ConcurrentHashMap<>();
+
+  public PendingAuthorizationStore(Oauth2Properties oauth2Properties) {
+    this(
+        oauth2Properties.getPendingAuthorization().getMaximumSize(),
+        oauth2Properties.getPendingAuthorization().getTimeToLive());
+  }
+
+  public PendingAuthorizationStore(long maximumSize, Duration timeToLive) {
+    Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+    Assert.isTrue(
+        timeToLive != null && timeToLive.isPositive(), "timeToLive must be greater than 0");
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new PendingAuthorizationExpiry(timeToLive))
+            .evictionListener(
+                (String id, PendingAuthorization pending, RemovalCause cause) -> {
+                  if (pending != null) {
+                    removeTokenIndex(id, pending.tokenTypes());
+                  }
+                })
+            .build();
+  }
+
+  /**
+   * 保存认证信息，已存在时整体替换
+   *
+   * @param authorization 认证信息
+   * @param tokens 认证信息中的令牌索引
+   */
+  public void put(OAuth2Authorization authorization, List<OauthAuthorizationToken> tokens) {
+    Map<String, String> tokenTypes = new HashMap<>(tokens.size());
+    for (OauthAuthorizationToken token : tokens) {
+      tokenTypes.put(token.getTokenDigest(), token.getTokenType());
+    }
+    String id = authorization.getId();
+    tokenTypes.keySet().forEach(digest -> this.tokenIndex.put(digest, id));
+    PendingAuthorization previous =
+        this.cache.asMap().put(id, new PendingAuthorization(authorization, tokenTypes));
+    if (previous != null) {
+      // 授权码换发、设备码校验后旧令牌不再可用，清理不再出现的令牌
+      Map<String, String> stale = new HashMap<>(previous.tokenTypes());
+      stale.keySet().removeAll(tokenTypes.keySet());
+      removeTokenIndex(id, stale);
+    }
+  }
+
+  /**
+   * 按 id 查询认证信息
+   *
+   * @param id 认证信息 id
+   * @return 认证信息，不存在时返回 null
+   */
+  public OAuth2Authorization get(String id) {
+    PendingAuthorization pending = this.cache.getIfPresent(id);
+    return pending == null ? null : pending.authorization();
+  }
+
+  /**
+   * 按令牌摘要查询认证信息
+   *
+   * @param tokenDigest 令牌摘要
+   * @param tokenType 令牌类型，为 null 时不限定令牌类型
+   * @return 认证信息，不存在时返回 null
+   */
+  public OAuth2Authorization findByToken(String tokenDigest, String tokenType) {
+    String id = this.tokenIndex.get(tokenDigest);
+    if (id == null) {
+      return null;
+    }
+    PendingAuthorization pending = this.cache.getIfPresent(id);
+    if (pending == null) {
+      return null;
+    }
+    // 索引可能落后于条目替换，以条目自身记录的令牌为准
+    String indexedType = pending.tokenTypes().get(tokenDigest);
+    if (indexedType == null || (tokenType != null && !tokenType.equals(indexedType))) {
+      return null;
+    }
+    return pending.authorization();
+  }
+
+  /**
+   * 移除认证信息
+   *
+   * @param id 认证信息 id
+   * @return 认证信息存在于本存储时返回 true
+   */
+  public boolean remove(String id) {
+    PendingAuthorization pending = this.cache.asMap().remove(id);
+    if (pending == null) {
+      return false;
+    }
+    removeTokenIndex(id, pending.tokenTypes());
+    return true;
+  }
+
+  /**
+   * 获取当前条目数的估计值
+   *
+   * @return 条目数
+   */
+  public long size() {
+    return this.cache.estimatedSize();
+  }
+
+  private void removeTokenIndex(String id, Map<String, String> tokenTypes) {
+    tokenTypes.keySet().forEach(digest -> this.tokenIndex.remove(digest, id));
+  }
+
+  /**
+   * 存储条目
+   *
+   * @param authorization 认证信息
+   * @param tokenTypes 令牌摘要与令牌类型的对应关系
+   */
+  private record PendingAuthorization(
+      OAuth2Authorization authorization, Map<String, String> tokenTypes) {}
+
+  /** 条目在其中最晚过期的令牌过期后失效，均无过期时间时按配置的存活时间失效 */
+  private record PendingAuthorizationExpiry(Duration timeToLive)
+      implements Expiry<String, PendingAuthorization> {
+
+    @Override
+    public long expireAfterCreate(String id, PendingAuthorization pending, long currentTime) {
+      OAuth2Authorization authorization = pending.authorization();
+      Instant expiresAt =
+          latest(
+              latest(
+                  expiresAt(authorization.getToken(OAuth2AuthorizationCode.class)),
+                  expiresAt(authorization.getToken(OAuth2UserCode.class))),
+              expiresAt(authorization.getToken(OAuth2DeviceCode.class)));
+      if (expiresAt == null) {
+        return this.timeToLive.toNanos();
+      }
+      return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String id, PendingAuthorization pending, long currentTime, long currentDuration) {
+      return expireAfterCreate(id, pending, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String id, PendingAuthorization pending, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    private static Instant expiresAt(OAuth2Authorization.Token<? extends OAuth2Token> token) {
+      return token == null ? null : token.getToken().getExpiresAt();
+    }
+
+    private static Instant latest(Instant left, Instant right) {
+      if (left == null) {
+        return right;
+      }
+      return right == null || left.isAfter(right) ? left : right;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package io.github.lishangbu.orange.authorization.codec;
+
+import io.github.lishangbu.orange.oauth2.common.core.AuthorizationGrantTypeSupport;
+import io.github.lishangbu.orange.oauth2.common.userdetails.PrincipalSnapshot;
+import io.github.lishangbu.orange.oauth2.common.userdetails.UserInfo;
+import java.security.Principal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * BinaryAuthorizationCodec 单元测试，覆盖编解码往返、历史数据兼容与异常数据
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class BinaryAuthorizationCodecTest {
+
+  private final BinaryAuthorizationCodec codec = new BinaryAuthorizationCodec();
+
+  @Test
+  void testRoundTrip() {
+    OAuth2Authorization authorization = passwordAuthorization();
+
+    OAuth2Authorization decoded = codec.decode(codec.encode(authorization));
+
+    Assertions.assertThat(decoded).isEqualTo(authorization);
+    Assertions.assertThat(decoded.getRegisteredClientId()).isEqualTo("1");
+    Assertions.assertThat(decoded.getAccessToken().getToken().getTokenValue())
+        .isEqualTo("access-token");
+    Assertions.assertThat(decoded.getAccessToken().getClaims())
+        .isEqualTo(authorization.getAccessToken().getClaims());
+    Assertions.assertThat(decoded.getToken(OidcIdToken.class).getClaims())
+        .isEqualTo(authorization.getToken(OidcIdToken.class).getClaims());
+
+    Authentication principal = decoded.getAttribute(Principal.class.getName());
+    Assertions.assertThat(principal).isNotNull();
+    Assertions.assertThat(principal.isAuthenticated()).isTrue();
+    Assertions.assertThat(principal.getPrincipal()).isInstanceOf(UserInfo.class);
+    UserInfo userInfo = (UserInfo) principal.getPrincipal();
+    Assertions.assertThat(userInfo.getAdditionalParameters()).containsEntry("userId", 1L);
+    Assertions.assertThat(userInfo.getAuthorities())
+        .containsExactly(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    Assertions.assertThat(decoded.<PrincipalSnapshot>getAttribute(PrincipalSnapshot.ATTRIBUTE))
+        .isEqualTo(new PrincipalSnapshot("admin", List.of("ROLE_ADMIN"), 3L));
+  }
+
+  @Test
+  void testDecodeJavaSerializedAuthorization() {
+    OAuth2Authorization authorization = passwordAuthorization();
+
+    OAuth2Authorization decoded = codec.decode(SerializationUtils.serialize(authorization));
+
+    Assertions.assertThat(decoded).isEqualTo(authorization);
+  }
+
+  @Test
+  void testEncodedSizeIsSmallerThanJavaSerialization() {
+    OAuth2Authorization authorization = passwordAuthorization();
+
+    Assertions.assertThat(codec.encode(authorization).length)
+        .isLessThan(SerializationUtils.serialize(authorization).length);
+  }
+
+  @Test
+  void testDecodeUnknownFormat() {
+    Assertions.assertThatThrownBy(() -> codec.decode(new byte[] {1, 2, 3}))
+        .isInstanceOf(IllegalArgumentException.class);
+    Assertions.assertThatThrownBy(() -> codec.decode(new byte[] {'O', 'A', 99}))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testDecodeTruncatedData() {
+    byte[] bytes = codec.encode(passwordAuthorization());
+    byte[] truncated = new byte[bytes.length / 2];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+    Assertions.assertThatThrownBy(() -> codec.decode(truncated))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static OAuth2Authorization passwordAuthorization() {
+    RegisteredClient registeredClient =
+        RegisteredClient.withId("1")
+            .clientId("client")
+            .clientSecret("secret")
+            .authorizationGrantType(AuthorizationGrantTypeSupport.PASSWORD)
+            .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+            .scope("openid")
+            .scope("profile")
+            .build();
+
+    UserInfo userInfo =
+        new UserInfo("admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    userInfo.getAdditionalParameters().put("userId", 1L);
+    Authentication principal =
+        UsernamePasswordAuthenticationToken.authenticated(
+            userInfo, null, userInfo.getAuthorities());
+
+    Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    Instant expiresAt = issuedAt.plusSeconds(300);
+    Set<String> scopes = Set.of("openid", "profile");
+    OAuth2AccessToken accessToken =
+        new OAuth2AccessToken(
+            OAuth2AccessToken.TokenType.BEARER, "access-token", issuedAt, expiresAt, scopes);
+    Map<String, Object> accessTokenClaims =
+        Map.of(
+            "sub", "admin",
+            "aud", List.of("client"),
+            "iat", issuedAt,
+            "exp", expiresAt,
+            "scope", scopes,
+            "jti", "8f1c4d3e-2b7a-4c61-9e0f-5d2a7b3c1e90");
+    OidcIdToken idToken =
+        new OidcIdToken(
+            "id-token",
+            issuedAt,
+            expiresAt,
+            Map.of("sub", "admin", "aud", List.of("client"), "iat", issuedAt, "exp", expiresAt));
+
+    return OAuth2Authorization.withRegisteredClient(registeredClient)
+        .id("authorization-1")
+        .principalName("admin")
+        .authorizationGrantType(AuthorizationGrantTypeSupport.PASSWORD)
+        .authorizedScopes(scopes)
+        .attribute(Principal.class.getName(), principal)
+        .attribute(
+            PrincipalSnapshot.ATTRIBUTE, new PrincipalSnapshot("admin", List.of("ROLE_ADMIN"), 3L))
+        .token(
+            accessToken,
+            metadata ->
+                metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, accessTokenClaims))
+        .refreshToken(new OAuth2RefreshToken("refresh-token", issuedAt, issuedAt.plusSeconds(3600)))
+        .token(
+            idToken,
+            metadata ->
+                metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, idToken.getClaims()))
+        .build();
+  }
+}
@@ -0,0 +1,264 @@
+package io.github.lishangbu.orange.authorization.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorization;
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorizationToken;
+import io.github.lishangbu.orange.authorization.model.AuthorizationObject;
+import io.github.lishangbu.orange.mybatisplus.autoconfiguration.MybatisPlusAutoConfiguration;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import jakarta.annotation.Resource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * OauthAuthorizationMapper 与 OauthAuthorizationTokenMapper 单元测试，覆盖基于令牌摘要索引的查询、upsert、令牌索引覆盖写入及过期清理
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@ContextConfiguration(classes = MybatisPlusAutoConfiguration.class)
+@MybatisPlusTest
+class OauthAuthorizationMapperTest {
+  @Resource private OauthAuthorizationMapper mapper;
+
+  @Resource private OauthAuthorizationTokenMapper tokenMapper;
+
+  @BeforeEach
+  void setUp() {
+    OauthAuthorization authorization = new OauthAuthorization();
+    authorization.setId("authorization-1");
+    authorization.setRegisteredClientId("1");
+    authorization.setPrincipalName("admin");
+    authorization.setAuthorizationGrantType("password");
+    authorization.setAccessTokenValue("access-token-1");
+    authorization.setRefreshTokenValue("refresh-token-1");
+    authorization.setAuthorizationObject(new byte[] {1, 2, 3});
+    mapper.insert(authorization);
+
+    tokenMapper.upsertBatch(
+        List.of(
+            token("access-token-1", "authorization-1", "access_token"),
+            token("refresh-token-1", "authorization-1", "refresh_token")));
+  }
+
+  @Test
+  void testSelectByTokenDigest() {
+    Assertions.assertThat(
+            mapper.selectByTokenDigest(TokenDigestUtils.digest("access-token-1"), "access_token"))
+        .get()
+        .extracting(OauthAuthorization::getId)
+        .isEqualTo("authorization-1");
+    Assertions.assertThat(
+            mapper.selectByTokenDigest(TokenDigestUtils.digest("refresh-token-1"), null))
+        .isPresent();
+  }
+
+  @Test
+  void testSelectByTokenDigestWithMismatchedTokenType() {
+    Assertions.assertThat(
+            mapper.selectByTokenDigest(TokenDigestUtils.digest("access-token-1"), "refresh_token"))
+        .isEmpty();
+    Assertions.assertThat(mapper.selectByTokenDigest(TokenDigestUtils.digest("unknown"), null))
+        .isEmpty();
+  }
+
+  @Test
+  void testSelectObjectByTokenDigest() {
+    Assertions.assertThat(
+            mapper.selectObjectByTokenDigest(
+                TokenDigestUtils.digest("access-token-1"), "access_token"))
+        .get()
+        .satisfies(
+            object -> {
+              Assertions.assertThat(object.getId()).isEqualTo("authorization-1");
+              Assertions.assertThat(object.getAuthorizationObject()).containsExactly(1, 2, 3);
+            });
+    Assertions.assertThat(
+            mapper.selectObjectByTokenDigest(
+                TokenDigestUtils.digest("access-token-1"), "refresh_token"))
+        .isEmpty();
+  }
+
+  @Test
+  void testSelectObjectsByTokenDigests() {
+    List<AuthorizationObject> objects =
+        mapper.selectObjectsByTokenDigests(
+            List.of(
+                TokenDigestUtils.digest("access-token-1"),
+                TokenDigestUtils.digest("refresh-token-1"),
+                TokenDigestUtils.digest("unknown")),
+            "access_token");
+    Assertions.assertThat(objects)
+        .singleElement()
+        .satisfies(
+            object -> {
+              Assertions.assertThat(object.getTokenDigest())
+                  .isEqualTo(TokenDigestUtils.digest("access-token-1"));
+              Assertions.assertThat(object.getId()).isEqualTo("authorization-1");
+              Assertions.assertThat(object.getAuthorizationObject()).containsExactly(1, 2, 3);
+            });
+  }
+
+  @Test
+  void testSelectObjectById() {
+    Assertions.assertThat(mapper.selectObjectById("authorization-1"))
+        .get()
+        .extracting(AuthorizationObject::getAuthorizationObject)
+        .isEqualTo(new byte[] {1, 2, 3});
+    Assertions.assertThat(mapper.selectObjectById("unknown")).isEmpty();
+  }
+
+  @Test
+  void testDeleteByAuthorizationId() {
+    int result = tokenMapper.deleteByAuthorizationId("authorization-1");
+    Assertions.assertThat(result).isEqualTo(2);
+    Assertions.assertThat(
+            mapper.selectByTokenDigest(TokenDigestUtils.digest("access-token-1"), null))
+        .isEmpty();
+  }
+
+  @Test
+  void testUpsertBatchOverwritesIndexWrittenByConcurrentSave() {
+    // 并发保存同一认证信息：后一事务删除旧索引时看不到前一事务刚提交的行，随后写入相同的令牌摘要
+    List<OauthAuthorizationToken> tokens =
+        List.of(
+            token("access-token-1", "authorization-1", "access_token"),
+            token("refresh-token-1", "authorization-1", "refresh_token"));
+
+    Assertions.assertThat(tokenMapper.upsertBatch(tokens)).isPositive();
+
+    Assertions.assertThat(tokenMapper.selectCount(null)).isEqualTo(2);
+    Assertions.assertThat(
+            mapper.selectObjectByTokenDigest(
+                TokenDigestUtils.digest("refresh-token-1"), "refresh_token"))
+        .get()
+        .extracting(AuthorizationObject::getId)
+        .isEqualTo("authorization-1");
+  }
+
+  @Test
+  void testUpsertBatchMovesDigestToLatestAuthorization() {
+    OauthAuthorization authorization = expiringAuthorization("authorization-2");
+    mapper.insert(authorization);
+
+    tokenMapper.upsertBatch(List.of(token("refresh-token-1", "authorization-2", "refresh_token")));
+
+    Assertions.assertThat(
+            mapper.selectObjectByTokenDigest(
+                TokenDigestUtils.digest("refresh-token-1"), "refresh_token"))
+        .get()
+        .extracting(AuthorizationObject::getId)
+        .isEqualTo("authorization-2");
+  }
+
+  @Test
+  void testUpsertInsertsNewAuthorization() {
+    OauthAuthorization authorization = new OauthAuthorization();
+    authorization.setId("authorization-2");
+    authorization.setRegisteredClientId("1");
+    authorization.setPrincipalName("admin");
+    authorization.setAuthorizationGrantType("client_credentials");
+    authorization.setAccessTokenValue("access-token-2");
+    authorization.setAccessTokenIssuedAt(Instant.parse("2025-10-18T00:00:00Z"));
+    authorization.setAccessTokenMetadata(Map.of("metadata.token.invalidated", false));
+    authorization.setAuthorizationObject(new byte[] {4, 5, 6});
+
+    Assertions.assertThat(mapper.upsert(authorization)).isEqualTo(1);
+
+    OauthAuthorization inserted = mapper.selectById("authorization-2");
+    Assertions.assertThat(inserted.getAccessTokenValue()).isEqualTo("access-token-2");
+    Assertions.assertThat(inserted.getAccessTokenIssuedAt())
+        .isEqualTo(Instant.parse("2025-10-18T00:00:00Z"));
+    Assertions.assertThat(inserted.getAccessTokenMetadata())
+        .containsEntry("metadata.token.invalidated", false);
+    Assertions.assertThat(inserted.getAuthorizationObject()).containsExactly(4, 5, 6);
+  }
+
+  @Test
+  void testUpsertKeepsTokenColumnsNotCarried() {
+    OauthAuthorization authorization = new OauthAuthorization();
+    authorization.setId("authorization-1");
+    authorization.setRegisteredClientId("1");
+    authorization.setPrincipalName("admin");
+    authorization.setAuthorizationGrantType("password");
+    authorization.setAccessTokenValue("access-token-3");
+    authorization.setAuthorizationObject(new byte[] {7});
+
+    Assertions.assertThat(mapper.upsert(authorization)).isEqualTo(1);
+
+    OauthAuthorization updated = mapper.selectById("authorization-1");
+    Assertions.assertThat(updated.getAccessTokenValue()).isEqualTo("access-token-3");
+    Assertions.assertThat(updated.getRefreshTokenValue()).isEqualTo("refresh-token-1");
+    Assertions.assertThat(updated.getAuthorizationObject()).containsExactly(7);
+  }
+
+  @Test
+  void testSelectExpiredByKeyset() {
+    Instant now = Instant.parse("2025-10-18T00:00:00Z");
+    for (int i = 0; i < 3; i++) {
+      OauthAuthorization authorization = expiringAuthorization("expired-" + i);
+      authorization.setExpiresAt(now.minusSeconds(30 - i));
+      mapper.insert(authorization);
+    }
+    OauthAuthorization alive = expiringAuthorization("alive");
+    alive.setExpiresAt(now.plusSeconds(60));
+    mapper.insert(alive);
+
+    List<OauthAuthorization> firstPage = mapper.selectExpired(now, null, null, 2);
+    Assertions.assertThat(firstPage)
+        .extracting(OauthAuthorization::getId)
+        .containsExactly("expired-0", "expired-1");
+    OauthAuthorization last = firstPage.getLast();
+    Assertions.assertThat(mapper.selectExpired(now, last.getExpiresAt(), last.getId(), 2))
+        .extracting(OauthAuthorization::getId)
+        .containsExactly("expired-2");
+  }
+
+  @Test
+  void testDeleteExpiredByIds() {
+    Instant now = Instant.parse("2025-10-18T00:00:00Z");
+    OauthAuthorization expired = expiringAuthorization("expired");
+    expired.setExpiresAt(now.minusSeconds(1));
+    mapper.insert(expired);
+    OauthAuthorization alive = expiringAuthorization("alive");
+    alive.setExpiresAt(now.plusSeconds(1));
+    mapper.insert(alive);
+    tokenMapper.upsertBatch(List.of(token("expired-access", "expired", "access_token")));
+
+    List<String> locked = mapper.lockExpiredByIds(List.of("expired", "alive"), now);
+    Assertions.assertThat(locked).containsExactly("expired");
+    Assertions.assertThat(tokenMapper.deleteByAuthorizationIds(locked)).isEqualTo(1);
+    Assertions.assertThat(mapper.deleteExpiredByIds(List.of("expired", "alive"), now))
+        .isEqualTo(1);
+    Assertions.assertThat(mapper.selectById("expired")).isNull();
+    Assertions.assertThat(mapper.selectById("alive")).isNotNull();
+  }
+
+  private static OauthAuthorization expiringAuthorization(String id) {
+    OauthAuthorization authorization = new OauthAuthorization();
+    authorization.setId(id);
+    authorization.setRegisteredClientId("1");
+    authorization.setPrincipalName("admin");
+    authorization.setAuthorizationGrantType("password");
+    authorization.setAccessTokenValue(id + "-access");
+    authorization.setAccessTokenIssuedAt(Instant.now());
+    authorization.setAccessTokenExpiresAt(Instant.now().plusSeconds(300));
+    authorization.setRefreshTokenValue(id + "-refresh");
+    authorization.setAuthorizationObject(new byte[512]);
+    return authorization;
+  }
+
+  private static OauthAuthorizationToken token(
+      String tokenValue, String authorizationId, String tokenType) {
+    OauthAuthorizationToken token = new OauthAuthorizationToken();
+    token.setTokenDigest(TokenDigestUtils.digest(tokenValue));
+    token.setAuthorizationId(authorizationId);
+    token.setTokenType(tokenType);
+    return token;
+  }
+}
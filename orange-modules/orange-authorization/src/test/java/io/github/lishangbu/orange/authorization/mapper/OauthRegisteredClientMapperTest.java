@@ -56,6 +56,28 @@ class OauthRegisteredClientMapperTest {
     Assertions.assertThat(updated.getClientName()).isEqualTo("已更新客户端");
   }
 
+  @Test
+  void testUpsertClient() {
+    OauthRegisteredClient client = new OauthRegisteredClient();
+    client.setId("upsert_test");
+    client.setClientId("upsert_test");
+    client.setClientIdIssuedAt(Instant.now());
+    client.setClientName("upsert 测试客户端");
+    client.setClientAuthenticationMethods("client_secret_basic");
+    client.setAuthorizationGrantTypes("client_credentials");
+    client.setScopes("openid");
+    client.setRequireProofKey(false);
+    client.setRequireAuthorizationConsent(false);
+    Assertions.assertThat(mapper.upsert(client)).isEqualTo(1);
+    Assertions.assertThat(mapper.selectById("upsert_test").getClientName())
+        .isEqualTo("upsert 测试客户端");
+
+    client.setClientName("已更新 upsert 测试客户端");
+    Assertions.assertThat(mapper.upsert(client)).isEqualTo(1);
+    Assertions.assertThat(mapper.selectById("upsert_test").getClientName())
+        .isEqualTo("已更新 upsert 测试客户端");
+  }
+
   @Test
   void testDeleteClient() {
     OauthRegisteredClient client = new OauthRegisteredClient();
@@ -0,0 +1,55 @@
+package io.github.lishangbu.orange.authorization.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import io.github.lishangbu.orange.authorization.entity.OauthRevokedToken;
+import io.github.lishangbu.orange.mybatisplus.autoconfiguration.MybatisPlusAutoConfiguration;
+import jakarta.annotation.Resource;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@ContextConfiguration(classes = MybatisPlusAutoConfiguration.class)
+@MybatisPlusTest
+class OauthRevokedTokenMapperTest {
+  @Resource private OauthRevokedTokenMapper mapper;
+
+  @Test
+  void testSelectAfterAndDeleteByRevokedAtBefore() {
+    Assertions.assertThat(mapper.selectMinId()).isNull();
+    Assertions.assertThat(mapper.selectMaxId()).isNull();
+
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    OauthRevokedToken old = insert("a".repeat(64), now.minus(2, ChronoUnit.HOURS));
+    OauthRevokedToken recent = insert("b".repeat(64), now);
+    OauthRevokedToken latest = insert("c".repeat(64), now);
+    Assertions.assertThat(mapper.selectMinId()).isEqualTo(old.getId());
+    Assertions.assertThat(mapper.selectMaxId()).isEqualTo(latest.getId());
+    Assertions.assertThat(mapper.selectMaxIdRevokedBefore(now)).isEqualTo(old.getId());
+    Assertions.assertThat(mapper.selectMaxIdRevokedBefore(old.getRevokedAt())).isNull();
+
+    List<OauthRevokedToken> page = mapper.selectAfter(old.getId(), 1);
+    Assertions.assertThat(page)
+        .extracting(OauthRevokedToken::getTokenDigest)
+        .containsExactly(recent.getTokenDigest());
+    Assertions.assertThat(mapper.selectAfter(latest.getId(), 10)).isEmpty();
+
+    Assertions.assertThat(mapper.deleteByRevokedAtBefore(now.minus(1, ChronoUnit.HOURS)))
+        .isEqualTo(1);
+    Assertions.assertThat(mapper.selectMinId()).isEqualTo(recent.getId());
+  }
+
+  private OauthRevokedToken insert(String tokenDigest, Instant revokedAt) {
+    OauthRevokedToken revoked = new OauthRevokedToken();
+    revoked.setTokenDigest(tokenDigest);
+    revoked.setRevokedAt(revokedAt);
+    mapper.insert(revoked);
+    return revoked;
+  }
+}
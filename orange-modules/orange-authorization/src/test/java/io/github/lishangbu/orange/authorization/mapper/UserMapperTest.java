@@ -0,0 +1,53 @@
+package io.github.lishangbu.orange.authorization.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import io.github.lishangbu.orange.authorization.entity.Role;
+import io.github.lishangbu.orange.authorization.model.UserWithRoles;
+import io.github.lishangbu.orange.mybatisplus.autoconfiguration.MybatisPlusAutoConfiguration;
+import jakarta.annotation.Resource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@ContextConfiguration(classes = MybatisPlusAutoConfiguration.class)
+@MybatisPlusTest
+class UserMapperTest {
+  @Resource private UserMapper mapper;
+
+  @Test
+  void testSelectUserWithRolesByUsername() {
+    UserWithRoles user = mapper.selectUserWithRolesByUsername("admin").orElseThrow();
+    Assertions.assertThat(user.getRoleVersion()).isZero();
+    Assertions.assertThat(user.getRoles())
+        .extracting(Role::getCode)
+        .containsExactlyInAnyOrder("ADMIN", "USER");
+  }
+
+  @Test
+  void testSelectRoleVersionByUsername() {
+    Assertions.assertThat(mapper.selectRoleVersionByUsername("admin")).contains(0L);
+    Assertions.assertThat(mapper.selectRoleVersionByUsername("nobody")).isEmpty();
+  }
+
+  @Test
+  void testIncreaseRoleVersionByRoleId() {
+    // 角色 2 仅分配给 admin，guest 的版本号不受影响
+    Assertions.assertThat(mapper.increaseRoleVersionByRoleId(2L)).isEqualTo(1);
+    Assertions.assertThat(mapper.selectRoleVersionByUsername("admin")).contains(1L);
+    Assertions.assertThat(mapper.selectRoleVersionByUsername("guest")).contains(0L);
+
+    Assertions.assertThat(mapper.increaseRoleVersionByRoleId(6L)).isZero();
+  }
+
+  @Test
+  void testUpdatePasswordByUsername() {
+    Assertions.assertThat(mapper.updatePasswordByUsername("guest", "{bcrypt}hash")).isEqualTo(1);
+    UserWithRoles user = mapper.selectUserWithRolesByUsername("guest").orElseThrow();
+    Assertions.assertThat(user.getPassword()).isEqualTo("{bcrypt}hash");
+    Assertions.assertThat(mapper.updatePasswordByUsername("nobody", "{bcrypt}hash")).isZero();
+  }
+}
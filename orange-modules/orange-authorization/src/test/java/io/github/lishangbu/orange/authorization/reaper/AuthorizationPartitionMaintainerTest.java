@@ -0,0 +1,247 @@
+package io.github.lishangbu.orange.authorization.reaper;
+
+import io.github.lishangbu.orange.authorization.mapper.AuthorizationPartitionMapper;
+import io.github.lishangbu.orange.authorization.mapper.OauthAuthorizationTokenMapper;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+/**
+ * AuthorizationPartitionMaintainer 单元测试，以模拟的 Mapper 覆盖预建分区、跳过已有分区、只删除没有未过期数据的分区、
+ * 分批清理令牌索引及分离分区时的锁等待超时重试
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class AuthorizationPartitionMaintainerTest {
+
+  private static final LocalDate TODAY = LocalDate.now();
+
+  private static final LocalDate YESTERDAY = TODAY.minusDays(1);
+
+  private final AuthorizationPartitionMapper partitionMapper =
+      Mockito.mock(AuthorizationPartitionMapper.class);
+
+  private final OauthAuthorizationTokenMapper tokenMapper =
+      Mockito.mock(OauthAuthorizationTokenMapper.class);
+
+  private final SqlSessionFactory sqlSessionFactory = Mockito.mock(SqlSessionFactory.class);
+
+  private final Oauth2Properties oauth2Properties = new Oauth2Properties();
+
+  private final Oauth2Properties.AuthorizationReaper properties =
+      oauth2Properties.getAuthorizationReaper();
+
+  private final Instant before = Instant.now();
+
+  @BeforeEach
+  void setUp() {
+    properties.setPartitionPrecreateDays(2);
+    properties.setBatchSize(2);
+    properties.setBatchPause(Duration.ofMillis(1));
+    properties.setPartitionDetachAttempts(3);
+    SqlSession sqlSession = Mockito.mock(SqlSession.class);
+    Mockito.when(sqlSessionFactory.openSession(true)).thenReturn(sqlSession);
+    Mockito.when(sqlSession.getMapper(AuthorizationPartitionMapper.class))
+        .thenReturn(partitionMapper);
+  }
+
+  @Test
+  void testCreatesMissingPartitionsAndSkipsExisting() throws InterruptedException {
+    Mockito.when(partitionMapper.selectPartitionNames()).thenReturn(List.of(name(TODAY)));
+
+    maintainer("postgresql").maintain(before);
+
+    Mockito.verify(partitionMapper, Mockito.never())
+        .createPartition(
+            ArgumentMatchers.eq(name(TODAY)), ArgumentMatchers.any(), ArgumentMatchers.any());
+    Mockito.verify(partitionMapper)
+        .createPartition(
+            name(TODAY.plusDays(1)),
+            TODAY.plusDays(1).toString(),
+            TODAY.plusDays(2).toString());
+    Mockito.verify(partitionMapper)
+        .createPartition(
+            name(TODAY.plusDays(2)),
+            TODAY.plusDays(2).toString(),
+            TODAY.plusDays(3).toString());
+    // 当天及以后的分区不会被检查或删除
+    Mockito.verify(partitionMapper, Mockito.never())
+        .existsUnexpired(ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  void testCreatePartitionFailureDoesNotStopMaintenance() throws InterruptedException {
+    Mockito.when(partitionMapper.selectPartitionNames()).thenReturn(List.of());
+    Mockito.doThrow(new PersistenceException("updated partition constraint would be violated"))
+        .when(partitionMapper)
+        .createPartition(
+            ArgumentMatchers.eq(name(TODAY)), ArgumentMatchers.any(), ArgumentMatchers.any());
+
+    maintainer("postgresql").maintain(before);
+
+    Mockito.verify(partitionMapper, Mockito.times(3))
+        .createPartition(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  void testDropsOnlyPartitionsWithoutUnexpiredRows() throws InterruptedException {
+    LocalDate twoDaysAgo = TODAY.minusDays(2);
+    Mockito.when(partitionMapper.selectPartitionNames())
+        .thenReturn(
+            List.of(
+                "oauth_authorization_default", name(twoDaysAgo), name(YESTERDAY), name(TODAY)));
+    Mockito.when(partitionMapper.existsUnexpired(name(twoDaysAgo), before)).thenReturn(true);
+    Mockito.when(partitionMapper.existsUnexpired(name(YESTERDAY), before)).thenReturn(false);
+    AuthorizationPartitionMaintainer maintainer = maintainer("postgresql");
+
+    maintainer.maintain(before);
+
+    Mockito.verify(partitionMapper).dropPartition(name(YESTERDAY));
+    Mockito.verify(partitionMapper, Mockito.never()).dropPartition(name(twoDaysAgo));
+    Mockito.verify(partitionMapper, Mockito.never())
+        .existsUnexpired(ArgumentMatchers.eq(name(TODAY)), ArgumentMatchers.any());
+    Mockito.verify(partitionMapper, Mockito.never())
+        .existsUnexpired(
+            ArgumentMatchers.eq("oauth_authorization_default"), ArgumentMatchers.any());
+    Assertions.assertThat(maintainer.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testDeletesTokenIndexInBatchesThenDetachesAndDrops() throws InterruptedException {
+    dropCandidate(YESTERDAY);
+    Mockito.when(
+            tokenMapper.deleteByAuthorizationIssuedAtBetween(
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt()))
+        .thenReturn(2, 2, 1);
+
+    maintainer("postgresql").maintain(before);
+
+    InOrder inOrder = Mockito.inOrder(tokenMapper, partitionMapper);
+    inOrder
+        .verify(tokenMapper, Mockito.times(3))
+        .deleteByAuthorizationIssuedAtBetween(
+            YESTERDAY.atStartOfDay(), TODAY.atStartOfDay(), properties.getBatchSize());
+    inOrder.verify(partitionMapper).setLockTimeout(properties.getPartitionLockTimeout().toMillis());
+    inOrder.verify(partitionMapper).detachPartition(name(YESTERDAY), true);
+    inOrder.verify(partitionMapper).resetLockTimeout();
+    inOrder.verify(partitionMapper).dropPartition(name(YESTERDAY));
+  }
+
+  @Test
+  void testDetachRetriesOnLockTimeout() throws InterruptedException {
+    dropCandidate(YESTERDAY);
+    Mockito.doThrow(lockTimeout())
+        .doThrow(lockTimeout())
+        .doNothing()
+        .when(partitionMapper)
+        .detachPartition(name(YESTERDAY), true);
+    AuthorizationPartitionMaintainer maintainer = maintainer("postgresql");
+
+    maintainer.maintain(before);
+
+    Mockito.verify(partitionMapper, Mockito.times(3)).detachPartition(name(YESTERDAY), true);
+    // 每次尝试都恢复连接的锁等待超时
+    Mockito.verify(partitionMapper, Mockito.times(3)).resetLockTimeout();
+    Mockito.verify(partitionMapper).dropPartition(name(YESTERDAY));
+    Assertions.assertThat(maintainer.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testDetachGivesUpAfterAttemptsWithoutDropping() throws InterruptedException {
+    dropCandidate(YESTERDAY);
+    Mockito.doThrow(lockTimeout())
+        .when(partitionMapper)
+        .detachPartition(ArgumentMatchers.any(), ArgumentMatchers.anyBoolean());
+    AuthorizationPartitionMaintainer maintainer = maintainer("postgresql");
+
+    maintainer.maintain(before);
+
+    Mockito.verify(partitionMapper, Mockito.times(3)).detachPartition(name(YESTERDAY), true);
+    Mockito.verify(partitionMapper, Mockito.never()).dropPartition(ArgumentMatchers.any());
+    Assertions.assertThat(maintainer.getDroppedCount()).isZero();
+  }
+
+  @Test
+  void testOtherDetachFailurePropagates() {
+    dropCandidate(YESTERDAY);
+    Mockito.doThrow(new PersistenceException(new SQLException("permission denied", "42501")))
+        .when(partitionMapper)
+        .detachPartition(ArgumentMatchers.any(), ArgumentMatchers.anyBoolean());
+
+    Assertions.assertThatThrownBy(() -> maintainer("postgresql").maintain(before))
+        .isInstanceOf(PersistenceException.class);
+    Mockito.verify(partitionMapper).detachPartition(name(YESTERDAY), true);
+    Mockito.verify(partitionMapper).resetLockTimeout();
+    Mockito.verify(partitionMapper, Mockito.never()).dropPartition(ArgumentMatchers.any());
+  }
+
+  @Test
+  void testDefaultPartitionDetachesWithoutConcurrently() throws InterruptedException {
+    dropCandidate(YESTERDAY);
+    Mockito.when(partitionMapper.hasDefaultPartition()).thenReturn(true);
+
+    maintainer("postgresql").maintain(before);
+
+    Mockito.verify(partitionMapper).detachPartition(name(YESTERDAY), false);
+    Mockito.verify(partitionMapper, Mockito.never()).isDetachPending(ArgumentMatchers.any());
+    Mockito.verify(partitionMapper).dropPartition(name(YESTERDAY));
+  }
+
+  @Test
+  void testPendingConcurrentDetachIsFinalized() throws InterruptedException {
+    dropCandidate(YESTERDAY);
+    Mockito.when(partitionMapper.isDetachPending(name(YESTERDAY))).thenReturn(true);
+
+    maintainer("postgresql").maintain(before);
+
+    Mockito.verify(partitionMapper).finalizeDetachPartition(name(YESTERDAY));
+    Mockito.verify(partitionMapper, Mockito.never())
+        .detachPartition(ArgumentMatchers.any(), ArgumentMatchers.anyBoolean());
+    Mockito.verify(partitionMapper).dropPartition(name(YESTERDAY));
+  }
+
+  @Test
+  void testNonPartitionedDatabaseIsSkipped() throws InterruptedException {
+    maintainer("h2").maintain(before);
+
+    Mockito.verifyNoInteractions(partitionMapper, tokenMapper);
+  }
+
+  private AuthorizationPartitionMaintainer maintainer(String databaseId) {
+    Configuration configuration = new Configuration();
+    configuration.setDatabaseId(databaseId);
+    Mockito.when(sqlSessionFactory.getConfiguration()).thenReturn(configuration);
+    return new AuthorizationPartitionMaintainer(
+        partitionMapper, tokenMapper, sqlSessionFactory, oauth2Properties);
+  }
+
+  /** 已有给定日期的分区，且其中的认证信息已全部过期 */
+  private void dropCandidate(LocalDate day) {
+    Mockito.when(partitionMapper.selectPartitionNames()).thenReturn(List.of(name(day)));
+    Mockito.when(partitionMapper.existsUnexpired(name(day), before)).thenReturn(false);
+  }
+
+  private static String name(LocalDate day) {
+    return "oauth_authorization_p" + DateTimeFormatter.BASIC_ISO_DATE.format(day);
+  }
+
+  private static PersistenceException lockTimeout() {
+    return new PersistenceException(
+        new SQLException("canceling statement due to lock timeout", "55P03"));
+  }
+}
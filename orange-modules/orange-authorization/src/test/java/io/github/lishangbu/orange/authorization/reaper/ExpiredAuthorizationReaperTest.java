@@ -0,0 +1,270 @@
+package io.github.lishangbu.orange.authorization.reaper;
+
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorization;
+import io.github.lishangbu.orange.authorization.mapper.OauthAuthorizationMapper;
+import io.github.lishangbu.orange.authorization.mapper.OauthAuthorizationTokenMapper;
+import io.github.lishangbu.orange.authorization.mapper.OauthRevokedTokenMapper;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * ExpiredAuthorizationReaper 单元测试，以模拟的 Mapper 覆盖键集分页、慢批次退避（加倍且最多 8 倍）、滞后与删除条数指标及批间停顿时停止
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class ExpiredAuthorizationReaperTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  private final OauthAuthorizationMapper authorizationMapper =
+      Mockito.mock(OauthAuthorizationMapper.class);
+
+  private final OauthAuthorizationTokenMapper tokenMapper =
+      Mockito.mock(OauthAuthorizationTokenMapper.class);
+
+  private final AuthorizationPartitionMaintainer partitionMaintainer =
+      Mockito.mock(AuthorizationPartitionMaintainer.class);
+
+  private final OauthRevokedTokenMapper revokedTokenMapper =
+      Mockito.mock(OauthRevokedTokenMapper.class);
+
+  private final Oauth2Properties oauth2Properties = new Oauth2Properties();
+
+  private final Oauth2Properties.AuthorizationReaper properties =
+      oauth2Properties.getAuthorizationReaper();
+
+  private ExpiredAuthorizationReaper reaper;
+
+  @BeforeEach
+  void setUp() {
+    // 间隔足够长，后台线程不会自行开始一轮，由测试直接驱动
+    properties.setInterval(Duration.ofHours(1));
+    properties.setBatchSize(2);
+    properties.setBatchPause(Duration.ofMillis(1));
+    Mockito.when(
+            authorizationMapper.lockExpiredByIds(ArgumentMatchers.any(), ArgumentMatchers.any()))
+        .thenAnswer(invocation -> List.copyOf(invocation.<Collection<String>>getArgument(0)));
+    Mockito.when(
+            authorizationMapper.deleteExpiredByIds(ArgumentMatchers.any(), ArgumentMatchers.any()))
+        .thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).size());
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (reaper != null) {
+      reaper.stop();
+    }
+  }
+
+  @Test
+  void testKeysetPagingAcrossBatches() throws InterruptedException {
+    Instant expiresAt = Instant.now().minus(Duration.ofDays(1));
+    OauthAuthorization first = expired("a", expiresAt);
+    OauthAuthorization second = expired("b", expiresAt.plusSeconds(1));
+    OauthAuthorization third = expired("c", expiresAt.plusSeconds(2));
+    Mockito.when(
+            authorizationMapper.selectExpired(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.isNull(),
+                ArgumentMatchers.isNull(),
+                ArgumentMatchers.eq(2)))
+        .thenReturn(List.of(first, second));
+    Mockito.when(
+            authorizationMapper.selectExpired(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.eq(second.getExpiresAt()),
+                ArgumentMatchers.eq("b"),
+                ArgumentMatchers.eq(2)))
+        .thenReturn(List.of(third));
+
+    Assertions.assertThat(start().reap()).isTrue();
+
+    // 第二页从上一页最后一条的 (expires_at, id) 之后开始，不足一批时本轮结束
+    Mockito.verify(authorizationMapper, Mockito.times(2))
+        .selectExpired(
+            ArgumentMatchers.any(),
+            ArgumentMatchers.any(),
+            ArgumentMatchers.any(),
+            ArgumentMatchers.anyInt());
+    Mockito.verify(tokenMapper).deleteByAuthorizationIds(List.of("a", "b"));
+    Mockito.verify(tokenMapper).deleteByAuthorizationIds(List.of("c"));
+    Mockito.verify(partitionMaintainer).maintain(ArgumentMatchers.any());
+    Mockito.verify(revokedTokenMapper).deleteByRevokedAtBefore(ArgumentMatchers.any());
+    Assertions.assertThat(reaper.getReapedCount()).isEqualTo(3);
+  }
+
+  @Test
+  void testLagAndReapedMetrics() throws InterruptedException {
+    // 最早一条在宽限期之外又过了 2 分钟
+    Instant expiresAt =
+        Instant.now().minus(properties.getGracePeriod()).minus(Duration.ofMinutes(2));
+    Mockito.when(
+            authorizationMapper.selectExpired(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.anyInt()))
+        .thenReturn(List.of(expired("a", expiresAt), expired("b", expiresAt.plusSeconds(1))))
+        .thenReturn(List.of());
+    // 清理期间 b 被续签，锁定时已不再过期
+    Mockito.doReturn(List.of("a"))
+        .when(authorizationMapper)
+        .lockExpiredByIds(ArgumentMatchers.any(), ArgumentMatchers.any());
+    start();
+
+    Assertions.assertThat(reaper.reap()).isTrue();
+    Assertions.assertThat(reaper.getLagSeconds()).isBetween(120L, 121L);
+    Assertions.assertThat(reaper.getReapedCount()).isEqualTo(1);
+    Mockito.verify(tokenMapper).deleteByAuthorizationIds(List.of("a"));
+
+    // 没有待清理的认证信息时滞后归零，删除条数累计不变
+    Assertions.assertThat(reaper.reap()).isTrue();
+    Assertions.assertThat(reaper.getLagSeconds()).isZero();
+    Assertions.assertThat(reaper.getReapedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testSlowBatchEndsRunAndBacksOffUpToEightTimes() {
+    properties.setSlowBatchThreshold(Duration.ofMillis(10));
+    Instant expiresAt = Instant.now().minus(Duration.ofDays(1));
+    Mockito.when(
+            authorizationMapper.selectExpired(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.anyInt()))
+        .thenReturn(List.of(expired("a", expiresAt), expired("b", expiresAt.plusSeconds(1))));
+    Mockito.doAnswer(
+            invocation -> {
+              Thread.sleep(20);
+              return invocation.<Collection<String>>getArgument(0).size();
+            })
+        .when(authorizationMapper)
+        .deleteExpiredByIds(ArgumentMatchers.any(), ArgumentMatchers.any());
+    start();
+
+    List<Integer> backoffs =
+        List.of(runAndGetBackoff(), runAndGetBackoff(), runAndGetBackoff(), runAndGetBackoff());
+
+    Assertions.assertThat(backoffs).containsExactly(2, 4, 8, 8);
+    // 每轮在第一批超时后提前结束，虽然每批都是满批也不再继续
+    Mockito.verify(authorizationMapper, Mockito.times(4))
+        .selectExpired(
+            ArgumentMatchers.any(),
+            ArgumentMatchers.any(),
+            ArgumentMatchers.any(),
+            ArgumentMatchers.anyInt());
+
+    // 一轮正常结束后恢复原间隔
+    Mockito.when(
+            authorizationMapper.selectExpired(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.anyInt()))
+        .thenReturn(List.of());
+    Assertions.assertThat(runAndGetBackoff()).isEqualTo(1);
+  }
+
+  @Test
+  void testFailedRunBacksOff() throws InterruptedException {
+    Mockito.doThrow(new IllegalStateException("connection refused"))
+        .when(partitionMaintainer)
+        .maintain(ArgumentMatchers.any());
+    start();
+
+    Assertions.assertThat(runAndGetBackoff()).isEqualTo(2);
+    Assertions.assertThat(runAndGetBackoff()).isEqualTo(4);
+  }
+
+  @Test
+  void testStopDuringBatchPause() throws InterruptedException {
+    properties.setInterval(Duration.ofMillis(10));
+    properties.setBatchPause(Duration.ofHours(1));
+    Instant expiresAt = Instant.now().minus(Duration.ofDays(1));
+    Mockito.when(
+            authorizationMapper.selectExpired(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.anyInt()))
+        .thenReturn(List.of(expired("a", expiresAt), expired("b", expiresAt.plusSeconds(1))));
+    start();
+    Mockito.verify(authorizationMapper, Mockito.timeout(TIMEOUT.toMillis()))
+        .deleteExpiredByIds(ArgumentMatchers.any(), ArgumentMatchers.any());
+    Thread worker = awaitPaused();
+
+    long start = System.nanoTime();
+    reaper.stop();
+    worker.join(TIMEOUT.toMillis());
+
+    // 停顿被中断，无需等满停顿或停止时的等待上限
+    Assertions.assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertThat(worker.isAlive()).isFalse();
+    Assertions.assertThat(reaper.isRunning()).isFalse();
+    Mockito.verify(authorizationMapper, Mockito.times(1))
+        .selectExpired(
+            ArgumentMatchers.any(),
+            ArgumentMatchers.any(),
+            ArgumentMatchers.any(),
+            ArgumentMatchers.anyInt());
+    Assertions.assertThat(reaper.getReapedCount()).isEqualTo(2);
+  }
+
+  private ExpiredAuthorizationReaper start() {
+    reaper =
+        new ExpiredAuthorizationReaper(
+            authorizationMapper,
+            tokenMapper,
+            partitionMaintainer,
+            revokedTokenMapper,
+            Mockito.mock(PlatformTransactionManager.class),
+            oauth2Properties);
+    reaper.start();
+    return reaper;
+  }
+
+  private int runAndGetBackoff() {
+    reaper.runAndReschedule();
+    return reaper.getBackoff();
+  }
+
+  /** 等待清理线程进入批间停顿 */
+  private static Thread awaitPaused() {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (true) {
+      Thread worker =
+          Thread.getAllStackTraces().keySet().stream()
+              .filter(thread -> "authorization-reaper".equals(thread.getName()))
+              .filter(thread -> thread.getState() == Thread.State.TIMED_WAITING)
+              .findFirst()
+              .orElse(null);
+      if (worker != null) {
+        return worker;
+      }
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("authorization-reaper is not paused");
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  private static OauthAuthorization expired(String id, Instant expiresAt) {
+    OauthAuthorization authorization = new OauthAuthorization();
+    authorization.setId(id);
+    authorization.setExpiresAt(expiresAt);
+    return authorization;
+  }
+}
@@ -0,0 +1,165 @@
+package io.github.lishangbu.orange.authorization.service.impl;
+
+import io.github.lishangbu.orange.authorization.entity.OauthRegisteredClient;
+import io.github.lishangbu.orange.authorization.mapper.OauthRegisteredClientMapper;
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.RegisteredClientChangedEvent;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.time.Instant;
+import java.util.Optional;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * DefaultRegisteredClientRepository 缓存行为单元测试
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class DefaultRegisteredClientRepositoryTest {
+
+  private OauthRegisteredClientMapper mapper;
+
+  private ApplicationEventPublisher publisher;
+
+  private DefaultRegisteredClientRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    mapper = Mockito.mock(OauthRegisteredClientMapper.class);
+    Mockito.when(mapper.selectByClientId("client")).thenReturn(Optional.of(entity("client")));
+    Mockito.when(mapper.selectByClientId("unknown")).thenReturn(Optional.empty());
+    Mockito.when(mapper.selectById("1")).thenReturn(entity("client"));
+    publisher = Mockito.mock(ApplicationEventPublisher.class);
+    repository = new DefaultRegisteredClientRepository(mapper, publisher, new Oauth2Properties());
+  }
+
+  @Test
+  void testFindByClientIdIsCachedForBothIndexes() {
+    RegisteredClient first = repository.findByClientId("client");
+    RegisteredClient second = repository.findByClientId("client");
+    RegisteredClient byId = repository.findById("1");
+
+    Assertions.assertThat(first).isNotNull().isSameAs(second).isSameAs(byId);
+    Mockito.verify(mapper, Mockito.times(1)).selectByClientId("client");
+    Mockito.verify(mapper, Mockito.never()).selectById(ArgumentMatchers.any());
+  }
+
+  @Test
+  void testUnknownClientIdIsNotCached() {
+    Assertions.assertThat(repository.findByClientId("unknown")).isNull();
+    Assertions.assertThat(repository.findByClientId("unknown")).isNull();
+    Assertions.assertThat(repository.findById("unknown")).isNull();
+
+    Mockito.verify(mapper, Mockito.times(2)).selectByClientId("unknown");
+    Mockito.verify(mapper).selectById("unknown");
+  }
+
+  @Test
+  void testClientRegisteredAfterMissIsFoundImmediately() {
+    Assertions.assertThat(repository.findByClientId("unknown")).isNull();
+
+    // 其它实例注册了该客户端，本实例不会在刷新间隔内继续返回查无此客户端
+    Mockito.when(mapper.selectByClientId("unknown")).thenReturn(Optional.of(entity("unknown")));
+
+    Assertions.assertThat(repository.findByClientId("unknown"))
+        .isNotNull()
+        .extracting(RegisteredClient::getClientId)
+        .isEqualTo("unknown");
+  }
+
+  @Test
+  void testSaveEvictsBothIndexes() {
+    RegisteredClient client = repository.findByClientId("client");
+
+    repository.save(client);
+    repository.findByClientId("client");
+    repository.findById("1");
+
+    Mockito.verify(mapper).upsert(ArgumentMatchers.any());
+    Mockito.verify(publisher)
+        .publishEvent(ArgumentMatchers.any(RegisteredClientChangedEvent.class));
+    Mockito.verify(mapper, Mockito.times(2)).selectByClientId("client");
+    Mockito.verify(mapper, Mockito.never()).selectById(ArgumentMatchers.any());
+  }
+
+  @Test
+  void testSaveInsertsWhenUpsertFallbackUpdatesNothing() {
+    RegisteredClient client = repository.findByClientId("client");
+
+    Mockito.when(mapper.upsert(ArgumentMatchers.any())).thenReturn(1);
+    repository.save(client);
+    Mockito.verify(mapper, Mockito.never())
+        .insert(ArgumentMatchers.any(OauthRegisteredClient.class));
+
+    Mockito.when(mapper.upsert(ArgumentMatchers.any())).thenReturn(0);
+    repository.save(client);
+    Mockito.verify(mapper).insert(ArgumentMatchers.any(OauthRegisteredClient.class));
+  }
+
+  @Test
+  void testCacheDisabled() {
+    Oauth2Properties properties = new Oauth2Properties();
+    properties.getRegisteredClientCache().setEnabled(false);
+    DefaultRegisteredClientRepository uncached =
+        new DefaultRegisteredClientRepository(mapper, publisher, properties);
+
+    uncached.findByClientId("client");
+    uncached.findByClientId("client");
+
+    Mockito.verify(mapper, Mockito.times(2)).selectByClientId("client");
+  }
+
+  @Test
+  void testIdTokenSignatureAlgorithmRoundTrip() {
+    OauthRegisteredClient entity = entity("es256");
+    entity.setTokenEndpointAuthenticationSigningAlgorithm(null);
+    entity.setIdTokenSignatureAlgorithm("ES256");
+    Mockito.when(mapper.selectByClientId("es256")).thenReturn(Optional.of(entity));
+
+    RegisteredClient client = repository.findByClientId("es256");
+    repository.save(client);
+
+    Assertions.assertThat(client.getTokenSettings().getIdTokenSignatureAlgorithm())
+        .isEqualTo(SignatureAlgorithm.ES256);
+    ArgumentCaptor<OauthRegisteredClient> saved =
+        ArgumentCaptor.forClass(OauthRegisteredClient.class);
+    Mockito.verify(mapper).upsert(saved.capture());
+    Assertions.assertThat(saved.getValue().getIdTokenSignatureAlgorithm()).isEqualTo("ES256");
+    Assertions.assertThat(saved.getValue().getTokenEndpointAuthenticationSigningAlgorithm())
+        .isNull();
+  }
+
+  @Test
+  void testUnsupportedIdTokenSignatureAlgorithm() {
+    OauthRegisteredClient entity = entity("eddsa");
+    entity.setIdTokenSignatureAlgorithm("EdDSA");
+    Mockito.when(mapper.selectByClientId("eddsa")).thenReturn(Optional.of(entity));
+
+    Assertions.assertThatThrownBy(() -> repository.findByClientId("eddsa"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("EdDSA");
+  }
+
+  private static OauthRegisteredClient entity(String clientId) {
+    OauthRegisteredClient entity = new OauthRegisteredClient();
+    entity.setId("1");
+    entity.setClientId(clientId);
+    entity.setClientIdIssuedAt(Instant.parse("2025-08-13T00:11:22Z"));
+    entity.setClientSecret("{noop}secret");
+    entity.setClientName("测试客户端");
+    entity.setClientAuthenticationMethods("client_secret_basic");
+    entity.setAuthorizationGrantTypes("client_credentials");
+    entity.setScopes("openid");
+    entity.setReuseRefreshTokens(true);
+    entity.setX509CertificateBoundAccessTokens(false);
+    entity.setTokenEndpointAuthenticationSigningAlgorithm("RS256");
+    return entity;
+  }
+}
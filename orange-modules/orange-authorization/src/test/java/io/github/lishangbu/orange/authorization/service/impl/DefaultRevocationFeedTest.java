@@ -0,0 +1,135 @@
+package io.github.lishangbu.orange.authorization.service.impl;
+
+import io.github.lishangbu.orange.authorization.entity.OauthRevokedToken;
+import io.github.lishangbu.orange.authorization.mapper.OauthRevokedTokenMapper;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import io.github.lishangbu.orange.oauth2.common.revocation.RevocationFeedPage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+/**
+ * DefaultRevocationFeed 单元测试，以内存中已提交的记录模拟吊销记录表，覆盖较小 ID 的记录晚于较大 ID 提交时不被游标越过、
+ * 超出提交时长后游标前进、首次轮询的游标及记录缺口
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class DefaultRevocationFeedTest {
+
+  private final OauthRevokedTokenMapper mapper = Mockito.mock(OauthRevokedTokenMapper.class);
+
+  private final Oauth2Properties oauth2Properties = new Oauth2Properties();
+
+  /** 已提交、对查询可见的吊销记录 */
+  private final List<OauthRevokedToken> committed = new ArrayList<>();
+
+  private DefaultRevocationFeed feed;
+
+  @BeforeEach
+  void setUp() {
+    oauth2Properties.getRevocationFeed().setCommitWindow(Duration.ofSeconds(10));
+    Mockito.when(mapper.selectAfter(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+        .thenAnswer(
+            invocation ->
+                sorted().stream()
+                    .filter(token -> token.getId() > invocation.<Long>getArgument(0))
+                    .limit(invocation.<Integer>getArgument(1))
+                    .toList());
+    Mockito.when(mapper.selectMinId())
+        .thenAnswer(invocation -> sorted().isEmpty() ? null : sorted().getFirst().getId());
+    Mockito.when(mapper.selectMaxId())
+        .thenAnswer(invocation -> sorted().isEmpty() ? null : sorted().getLast().getId());
+    Mockito.when(mapper.selectMaxIdRevokedBefore(ArgumentMatchers.any()))
+        .thenAnswer(
+            invocation ->
+                sorted().stream()
+                    .filter(token -> token.getRevokedAt().isBefore(invocation.getArgument(0)))
+                    .map(OauthRevokedToken::getId)
+                    .reduce((first, second) -> second)
+                    .orElse(null));
+    feed = new DefaultRevocationFeed(mapper, oauth2Properties);
+  }
+
+  @Test
+  void testOutOfOrderCommitIsNotSkipped() {
+    Instant settled = Instant.now().minus(Duration.ofMinutes(1));
+    commit(8, "digest-8", settled);
+    Assertions.assertThat(feed.page(-1).cursor()).isEqualTo(8);
+
+    // 10 先于 9 提交，游标停在 10 之前
+    Instant now = Instant.now();
+    commit(10, "digest-10", now);
+    RevocationFeedPage first = feed.page(8);
+    Assertions.assertThat(first.tokenDigests()).containsExactly("digest-10");
+    Assertions.assertThat(first.cursor()).isEqualTo(8);
+    Assertions.assertThat(first.complete()).isTrue();
+
+    // 9 随后提交，以上一页的游标轮询时连同 10 一起返回
+    commit(9, "digest-9", now);
+    RevocationFeedPage second = feed.page(first.cursor());
+    Assertions.assertThat(second.tokenDigests()).containsExactly("digest-9", "digest-10");
+    Assertions.assertThat(second.cursor()).isEqualTo(8);
+  }
+
+  @Test
+  void testCursorAdvancesPastSettledRecords() {
+    Instant settled = Instant.now().minus(Duration.ofMinutes(1));
+    commit(1, "digest-1", settled);
+    commit(2, "digest-2", settled);
+    commit(3, "digest-3", Instant.now());
+
+    RevocationFeedPage page = feed.page(0);
+
+    // 游标停在第一条仍在提交时长内的记录之前
+    Assertions.assertThat(page.tokenDigests())
+        .containsExactly("digest-1", "digest-2", "digest-3");
+    Assertions.assertThat(page.cursor()).isEqualTo(2);
+  }
+
+  @Test
+  void testFirstPollStopsBeforeUnsettledRecords() {
+    Instant settled = Instant.now().minus(Duration.ofMinutes(1));
+    commit(4, "digest-4", settled);
+    commit(5, "digest-5", Instant.now());
+    Assertions.assertThat(feed.page(-1).cursor()).isEqualTo(4);
+
+    // 全部记录均在提交时长内时，游标停在现存最小 ID 之前
+    committed.clear();
+    commit(7, "digest-7", Instant.now());
+    RevocationFeedPage page = feed.page(-1);
+    Assertions.assertThat(page.cursor()).isEqualTo(6);
+    Assertions.assertThat(page.tokenDigests()).isEmpty();
+    Assertions.assertThat(page.complete()).isTrue();
+  }
+
+  @Test
+  void testPurgedRecordsMarkPageIncomplete() {
+    Instant settled = Instant.now().minus(Duration.ofMinutes(1));
+    commit(5, "digest-5", settled);
+
+    RevocationFeedPage page = feed.page(2);
+
+    Assertions.assertThat(page.complete()).isFalse();
+    Assertions.assertThat(page.cursor()).isEqualTo(5);
+  }
+
+  private void commit(long id, String tokenDigest, Instant revokedAt) {
+    OauthRevokedToken revoked = new OauthRevokedToken();
+    revoked.setId(id);
+    revoked.setTokenDigest(tokenDigest);
+    revoked.setRevokedAt(revokedAt);
+    committed.add(revoked);
+  }
+
+  private List<OauthRevokedToken> sorted() {
+    return committed.stream().sorted(Comparator.comparing(OauthRevokedToken::getId)).toList();
+  }
+}
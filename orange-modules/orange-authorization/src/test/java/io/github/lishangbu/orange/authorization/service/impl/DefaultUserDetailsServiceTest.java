@@ -0,0 +1,124 @@
+package io.github.lishangbu.orange.authorization.service.impl;
+
+import io.github.lishangbu.orange.authorization.mapper.UserMapper;
+import io.github.lishangbu.orange.authorization.model.UserWithRoles;
+import io.github.lishangbu.orange.oauth2.common.autoconfiguration.PasswordEncoderAutoConfiguration;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.util.List;
+import java.util.Optional;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * DefaultUserDetailsService 单元测试，以密码模式使用的 DaoAuthenticationProvider 登录，覆盖强度过低、过高及非 bcrypt
+ * 的已存哈希在登录成功后经 updatePassword 重新编码，区间内的哈希及登录失败时不改写
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class DefaultUserDetailsServiceTest {
+
+  private static final String PASSWORD = "password";
+
+  private final UserMapper userMapper = Mockito.mock(UserMapper.class);
+
+  private PasswordEncoder passwordEncoder;
+
+  private DaoAuthenticationProvider authenticationProvider;
+
+  @BeforeEach
+  void setUp() {
+    // 与自动装配相同的委托编码器，强度区间为 5 至 6
+    Oauth2Properties properties = new Oauth2Properties();
+    properties.getPasswordEncoder().setStrength(5);
+    properties.getPasswordEncoder().setMaximumStrength(6);
+    passwordEncoder = new PasswordEncoderAutoConfiguration().passwordEncoder(properties);
+
+    DefaultUserDetailsService userDetailsService = new DefaultUserDetailsService(userMapper);
+    authenticationProvider = new DaoAuthenticationProvider(userDetailsService);
+    authenticationProvider.setPasswordEncoder(passwordEncoder);
+    authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+  }
+
+  @Test
+  void testWeakHashIsReencodedAfterLogin() {
+    storedPassword("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+    Authentication authentication = login(PASSWORD);
+
+    String updated = updatedPassword();
+    Assertions.assertThat(updated).startsWith("{bcrypt}$2a$05$");
+    Assertions.assertThat(passwordEncoder.matches(PASSWORD, updated)).isTrue();
+    Assertions.assertThat(authentication.isAuthenticated()).isTrue();
+  }
+
+  @Test
+  void testTooStrongHashIsReencodedAfterLogin() {
+    storedPassword("{bcrypt}" + new BCryptPasswordEncoder(7).encode(PASSWORD));
+
+    login(PASSWORD);
+
+    Assertions.assertThat(updatedPassword()).startsWith("{bcrypt}$2a$05$");
+  }
+
+  @Test
+  void testNonBcryptHashIsReencodedAfterLogin() {
+    storedPassword("{noop}" + PASSWORD);
+
+    login(PASSWORD);
+
+    Assertions.assertThat(updatedPassword()).startsWith("{bcrypt}$2a$05$");
+  }
+
+  @Test
+  void testHashWithinStrengthRangeIsLeftAlone() {
+    storedPassword("{bcrypt}" + new BCryptPasswordEncoder(5).encode(PASSWORD));
+    login(PASSWORD);
+    storedPassword("{bcrypt}" + new BCryptPasswordEncoder(6).encode(PASSWORD));
+    login(PASSWORD);
+
+    Mockito.verify(userMapper, Mockito.never())
+        .updatePasswordByUsername(ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  void testFailedLoginDoesNotReencode() {
+    storedPassword("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+    Assertions.assertThatThrownBy(() -> login("wrong-password"))
+        .isInstanceOf(BadCredentialsException.class);
+    Mockito.verify(userMapper, Mockito.never())
+        .updatePasswordByUsername(ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  private void storedPassword(String encodedPassword) {
+    UserWithRoles user = new UserWithRoles();
+    user.setId(1L);
+    user.setUsername("admin");
+    user.setPassword(encodedPassword);
+    user.setRoles(List.of());
+    Mockito.when(userMapper.selectUserWithRolesByUsername("admin")).thenReturn(Optional.of(user));
+  }
+
+  private Authentication login(String password) {
+    return authenticationProvider.authenticate(
+        UsernamePasswordAuthenticationToken.unauthenticated("admin", password));
+  }
+
+  private String updatedPassword() {
+    ArgumentCaptor<String> password = ArgumentCaptor.forClass(String.class);
+    Mockito.verify(userMapper)
+        .updatePasswordByUsername(ArgumentMatchers.eq("admin"), password.capture());
+    return password.getValue();
+  }
+}
@@ -0,0 +1,110 @@
+package io.github.lishangbu.orange.authorization.store;
+
+import io.github.lishangbu.orange.authorization.entity.OauthAuthorizationToken;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * PendingAuthorizationStore 单元测试，覆盖按 id、按令牌查询及授权码失效后的索引清理
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class PendingAuthorizationStoreTest {
+
+  private final PendingAuthorizationStore store =
+      new PendingAuthorizationStore(100, Duration.ofMinutes(10));
+
+  @Test
+  void testFindByIdAndToken() {
+    OAuth2Authorization authorization = codeAuthorization("code-1");
+    store.put(authorization, tokenIndex("code-1"));
+
+    Assertions.assertThat(store.get("1")).isEqualTo(authorization);
+    Assertions.assertThat(
+            store.findByToken(TokenDigestUtils.digest("code-1"), OAuth2ParameterNames.CODE))
+        .isEqualTo(authorization);
+    Assertions.assertThat(store.findByToken(TokenDigestUtils.digest("code-1"), null))
+        .isEqualTo(authorization);
+    Assertions.assertThat(
+            store.findByToken(TokenDigestUtils.digest("code-1"), OAuth2ParameterNames.STATE))
+        .isNull();
+    Assertions.assertThat(store.findByToken(TokenDigestUtils.digest("code-2"), null)).isNull();
+  }
+
+  @Test
+  void testReplacedTokenIsNoLongerFound() {
+    store.put(codeAuthorization("code-1"), tokenIndex("code-1"));
+    OAuth2Authorization replaced = codeAuthorization("code-2");
+    store.put(replaced, tokenIndex("code-2"));
+
+    Assertions.assertThat(store.findByToken(TokenDigestUtils.digest("code-1"), null)).isNull();
+    Assertions.assertThat(store.findByToken(TokenDigestUtils.digest("code-2"), null))
+        .isEqualTo(replaced);
+  }
+
+  @Test
+  void testRemove() {
+    store.put(codeAuthorization("code-1"), tokenIndex("code-1"));
+
+    Assertions.assertThat(store.remove("1")).isTrue();
+    Assertions.assertThat(store.remove("1")).isFalse();
+    Assertions.assertThat(store.get("1")).isNull();
+    Assertions.assertThat(store.findByToken(TokenDigestUtils.digest("code-1"), null)).isNull();
+  }
+
+  @Test
+  void testExpiredCodeIsNotFound() {
+    Instant issuedAt = Instant.now().minus(10, ChronoUnit.MINUTES);
+    OAuth2Authorization authorization =
+        OAuth2Authorization.withRegisteredClient(registeredClient())
+            .id("1")
+            .principalName("admin")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .token(
+                new OAuth2AuthorizationCode(
+                    "code-1", issuedAt, issuedAt.plus(5, ChronoUnit.MINUTES)))
+            .build();
+    store.put(authorization, tokenIndex("code-1"));
+
+    Assertions.assertThat(store.get("1")).isNull();
+  }
+
+  private static OAuth2Authorization codeAuthorization(String code) {
+    Instant issuedAt = Instant.now();
+    return OAuth2Authorization.withRegisteredClient(registeredClient())
+        .id("1")
+        .principalName("admin")
+        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+        .token(new OAuth2AuthorizationCode(code, issuedAt, issuedAt.plus(5, ChronoUnit.MINUTES)))
+        .build();
+  }
+
+  private static List<OauthAuthorizationToken> tokenIndex(String code) {
+    OauthAuthorizationToken token = new OauthAuthorizationToken();
+    token.setTokenDigest(TokenDigestUtils.digest(code));
+    token.setAuthorizationId("1");
+    token.setTokenType(OAuth2ParameterNames.CODE);
+    return List.of(token);
+  }
+
+  private static RegisteredClient registeredClient() {
+    return RegisteredClient.withId("1")
+        .clientId("client")
+        .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+        .redirectUri("http://localhost/callback")
+        .build();
+  }
+}
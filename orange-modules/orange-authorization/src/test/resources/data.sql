@@ -26,3 +26,12 @@ INSERT INTO role (id, code, name, enabled) VALUES
                                                (4, 'DEV', '开发者', TRUE),
                                                (5, 'OPS', '运维', TRUE),
                                                (6, 'TEST', '测试', FALSE);
+-- user 表测试数据
+INSERT INTO "user" (id, username, password, role_version) VALUES
+                                                             (1, 'admin', '{noop}admin', 0),
+                                                             (2, 'guest', '{noop}guest', 0);
+-- user_role_relation 表测试数据
+INSERT INTO user_role_relation (user_id, role_id) VALUES
+                                                     (1, 1),
+                                                     (1, 2),
+                                                     (2, 3);
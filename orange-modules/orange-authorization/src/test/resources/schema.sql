@@ -32,3 +32,70 @@ CREATE TABLE role (
     name VARCHAR(50) DEFAULT '' NOT NULL, -- 角色名称
     enabled BOOLEAN DEFAULT TRUE NOT NULL -- 角色是否启用
 );
+-- 用户信息表
+CREATE TABLE "user" (
+    id BIGINT NOT NULL PRIMARY KEY, -- 主键
+    username VARCHAR(20) DEFAULT '' NOT NULL UNIQUE, -- 用户名
+    password VARCHAR(100) DEFAULT '' NOT NULL, -- 密码
+    role_version BIGINT DEFAULT 0 NOT NULL -- 角色版本号
+);
+-- 用户角色关系表
+CREATE TABLE user_role_relation (
+    user_id BIGINT NOT NULL, -- 用户ID
+    role_id BIGINT NOT NULL -- 角色ID
+);
+-- 用户认证信息表
+CREATE TABLE oauth_authorization (
+                                     id VARCHAR(100) NOT NULL PRIMARY KEY, -- 唯一标识符
+                                     registered_client_id VARCHAR(100) NOT NULL, -- 已注册的客户端 ID
+                                     principal_name VARCHAR(200) NOT NULL, -- 主体名称
+                                     authorization_grant_type VARCHAR(100) NOT NULL, -- 授权方式
+                                     authorized_scopes VARCHAR(1000), -- 授权范围
+                                     attributes VARCHAR(8000), -- 属性
+                                     state VARCHAR(500), -- 状态
+                                     authorization_code_value VARCHAR(1000), -- 授权码值
+                                     authorization_code_issued_at TIMESTAMP, -- 授权码签发时间
+                                     authorization_code_expires_at TIMESTAMP, -- 授权码过期时间
+                                     authorization_code_metadata VARCHAR(8000), -- 授权码元数据
+                                     access_token_value VARCHAR(1000), -- 访问令牌值
+                                     access_token_issued_at TIMESTAMP, -- 访问令牌签发时间
+                                     access_token_expires_at TIMESTAMP, -- 访问令牌过期时间
+                                     access_token_metadata VARCHAR(8000), -- 访问令牌元数据
+                                     access_token_scopes VARCHAR(1000), -- 访问令牌范围
+                                     oidc_id_token_value VARCHAR(1000), -- OIDC ID 令牌值
+                                     oidc_id_token_issued_at TIMESTAMP, -- OIDC ID 令牌签发时间
+                                     oidc_id_token_expires_at TIMESTAMP, -- OIDC ID 令牌过期时间
+                                     oidc_id_token_metadata VARCHAR(8000), -- OIDC ID 令牌元数据
+                                     oidc_id_token_claims VARCHAR(8000), -- OIDC ID 令牌声明
+                                     refresh_token_value VARCHAR(1000), -- 刷新令牌值
+                                     refresh_token_issued_at TIMESTAMP, -- 刷新令牌签发时间
+                                     refresh_token_expires_at TIMESTAMP, -- 刷新令牌过期时间
+                                     refresh_token_metadata VARCHAR(8000), -- 刷新令牌元数据
+                                     user_code_value VARCHAR(1000), -- 用户代码值
+                                     user_code_issued_at TIMESTAMP, -- 用户代码签发时间
+                                     user_code_expires_at TIMESTAMP, -- 用户代码过期时间
+                                     user_code_metadata VARCHAR(8000), -- 用户代码元数据
+                                     device_code_value VARCHAR(1000), -- 设备代码值
+                                     device_code_issued_at TIMESTAMP, -- 设备代码签发时间
+                                     device_code_expires_at TIMESTAMP, -- 设备代码过期时间
+                                     device_code_metadata VARCHAR(8000), -- 设备代码元数据
+                                     authorization_object BLOB, -- 认证信息
+                                     expires_at TIMESTAMP, -- 各令牌中最晚的过期时间
+                                     issued_at TIMESTAMP -- 签发时间
+);
+CREATE INDEX idx_oauth_authorization_expires_at ON oauth_authorization (expires_at, id);
+-- 令牌索引表
+CREATE TABLE oauth_authorization_token (
+                                           token_digest VARCHAR(64) NOT NULL PRIMARY KEY, -- 令牌原文的 SHA-256 摘要
+                                           authorization_id VARCHAR(100) NOT NULL, -- 所属认证信息 ID
+                                           token_type VARCHAR(100) NOT NULL, -- 令牌类型
+                                           authorization_issued_at TIMESTAMP -- 所属认证信息的签发时间
+);
+CREATE INDEX idx_oauth_authorization_token_authorization_id ON oauth_authorization_token (authorization_id);
+
+CREATE TABLE oauth_revoked_token (
+                                     id BIGINT AUTO_INCREMENT PRIMARY KEY, -- 自增 ID，作为轮询游标
+                                     token_digest VARCHAR(64) NOT NULL, -- 被吊销访问令牌的 SHA-256 摘要
+                                     revoked_at TIMESTAMP NOT NULL -- 吊销时间
+);
+CREATE INDEX idx_oauth_revoked_token_revoked_at ON oauth_revoked_token (revoked_at);
@@ -0,0 +1,117 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.jwk;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * RS256 与 ES256 签发、验签吞吐量对比
+ *
+ * <p>密钥由 {@link JwkKeyRotator} 生成，编码器与解码器的装配方式与 JwtEncoderAutoConfiguration、
+ * JwtDecoderAutoConfiguration 相同，载荷为一个典型的 ID Token；验签不经过已验签 JWT 缓存
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SigningAlgorithmBenchmark {
+
+  @Param({"RS256", "ES256"})
+  private String algorithm;
+
+  private Path directory;
+
+  private JwtEncoder jwtEncoder;
+
+  private JwtDecoder jwtDecoder;
+
+  private JwtEncoderParameters parameters;
+
+  private String token;
+
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("jwk-benchmark");
+    JwkKeyRing keyRing =
+        new JwkKeyRotator(
+                new JwkKeyStore(directory.resolve("jwks.json")),
+                Duration.ofDays(30),
+                Duration.ofDays(1),
+                Duration.ofDays(7),
+                Duration.ofHours(1),
+                2048,
+                List.of(JWSAlgorithm.parse(algorithm)))
+            .initialize();
+    jwtEncoder = new NimbusJwtEncoder(keyRing.signingJwkSource());
+    DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+    jwtProcessor.setJWSKeySelector(new KeyRingJwsKeySelector(keyRing));
+    jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+    jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+
+    Instant issuedAt = Instant.now();
+    JwtClaimsSet claims =
+        JwtClaimsSet.builder()
+            .issuer("http://localhost:8080")
+            .subject("admin")
+            .audience(List.of("messaging-client"))
+            .issuedAt(issuedAt)
+            .expiresAt(issuedAt.plus(Duration.ofHours(1)))
+            .claim("azp", "messaging-client")
+            .claim("auth_time", issuedAt)
+            .claim("sid", "Xk2Jw7mQ0aVbY1dRfT9sLcPzE4nUoGhI")
+            .build();
+    parameters =
+        JwtEncoderParameters.from(
+            JwsHeader.with(SignatureAlgorithm.from(algorithm)).build(), claims);
+    token = jwtEncoder.encode(parameters).getTokenValue();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public Jwt sign() {
+    return jwtEncoder.encode(parameters);
+  }
+
+  @Benchmark
+  public Jwt verify() {
+    return jwtDecoder.decode(token);
+  }
+}
@@ -0,0 +1,107 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.authentication;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.lishangbu.orange.oauth2.authorizationserver.util.SingleFlight;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.time.Duration;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2RefreshTokenAuthenticationToken;
+import org.springframework.util.Assert;
+
+/**
+ * 合并并发刷新令牌请求的认证提供者
+ *
+ * <p>移动端常以同一个即将过期的刷新令牌同时发出多个刷新请求，各请求独立换发令牌时会互相覆盖，刷新令牌轮换后
+ * 后到的请求还会因旧令牌失效而失败。此提供者以客户端、刷新令牌摘要与申请的权限范围为键，同一键在加载期间及其后的
+ * 合并窗口内只交给被包装的提供者处理一次，所有调用方得到同一组令牌；失败结果不保留，之后的请求重新处理
+ *
+ * <p>带有额外参数（如 DPoP 证明）的请求每次各不相同，不做合并；等待首个请求超过等待时长时以 {@code
+ * temporarily_unavailable} 拒绝，不再自行换发，避免与仍在进行的换发互相覆盖
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public final class CoalescingRefreshTokenAuthenticationProvider implements AuthenticationProvider {
+
+  private static final String ERROR_URI =
+      "https://datatracker.ietf.org/doc/html/rfc6749#section-5.2";
+
+  private final AuthenticationProvider delegate;
+
+  private final Cache<String, CompletableFuture<Authentication>> results;
+
+  private final Duration waitTimeout;
+
+  /**
+   * 构造认证提供者
+   *
+   * @param delegate 被包装的刷新令牌认证提供者
+   * @param window 成功结果的合并窗口
+   * @param maximumSize 最多保留的结果数
+   * @param waitTimeout 等待进行中的相同请求的最长时间
+   */
+  public CoalescingRefreshTokenAuthenticationProvider(
+      AuthenticationProvider delegate, Duration window, long maximumSize, Duration waitTimeout) {
+    Assert.notNull(delegate, "delegate cannot be null");
+    Assert.isTrue(window != null && window.isPositive(), "window must be greater than 0");
+    Assert.isTrue(
+        waitTimeout != null && waitTimeout.isPositive(), "waitTimeout must be greater than 0");
+    this.delegate = delegate;
+    this.waitTimeout = waitTimeout;
+    this.results = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(window).build();
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication)
+      throws AuthenticationException {
+    OAuth2RefreshTokenAuthenticationToken refreshTokenAuthentication =
+        (OAuth2RefreshTokenAuthenticationToken) authentication;
+    if (!refreshTokenAuthentication.getAdditionalParameters().isEmpty()) {
+      return this.delegate.authenticate(authentication);
+    }
+    String key = key(refreshTokenAuthentication);
+    CompletableFuture<Authentication> created = new CompletableFuture<>();
+    CompletableFuture<Authentication> existing = this.results.asMap().putIfAbsent(key, created);
+    if (existing != null) {
+      try {
+        return SingleFlight.join(existing, this.waitTimeout);
+      } catch (TimeoutException ex) {
+        throw new OAuth2AuthenticationException(
+            new OAuth2Error(
+                OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE, "刷新令牌请求等待超时", ERROR_URI));
+      }
+    }
+    try {
+      Authentication result = this.delegate.authenticate(authentication);
+      created.complete(result);
+      return result;
+    } catch (Throwable ex) {
+      this.results.asMap().remove(key, created);
+      created.completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return OAuth2RefreshTokenAuthenticationToken.class.isAssignableFrom(authentication);
+  }
+
+  /** 客户端已通过认证，以客户端名称区分，不同客户端即使持有相同令牌也不会共享结果 */
+  private static String key(OAuth2RefreshTokenAuthenticationToken authentication) {
+    return authentication.getName()
+        + '\n'
+        + TokenDigestUtils.digest(authentication.getRefreshToken())
+        + '\n'
+        + new TreeSet<>(authentication.getScopes());
+  }
+}
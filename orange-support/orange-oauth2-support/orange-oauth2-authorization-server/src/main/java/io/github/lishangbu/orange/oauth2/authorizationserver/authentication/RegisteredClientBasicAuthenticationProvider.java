@@ -0,0 +1,88 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.authentication;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.DefaultOpaqueTokenIntrospector;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.util.Assert;
+
+/**
+ * 以 HTTP Basic 认证已注册客户端的认证提供者
+ *
+ * <p>供授权服务器端点之外、只允许机密客户端调用的接口使用。用户名与密码按 RFC 6749 2.3.1 先做表单解码，
+ * 客户端须支持 client_secret_basic 且密钥未过期；认证成功后以客户端注册的权限范围授予 {@code SCOPE_} 前缀的权限
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public final class RegisteredClientBasicAuthenticationProvider implements AuthenticationProvider {
+
+  private final RegisteredClientRepository registeredClientRepository;
+
+  private final PasswordEncoder passwordEncoder;
+
+  public RegisteredClientBasicAuthenticationProvider(
+      RegisteredClientRepository registeredClientRepository, PasswordEncoder passwordEncoder) {
+    Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+    Assert.notNull(passwordEncoder, "passwordEncoder cannot be null");
+    this.registeredClientRepository = registeredClientRepository;
+    this.passwordEncoder = passwordEncoder;
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication)
+      throws AuthenticationException {
+    String clientId = decode(authentication.getName());
+    String clientSecret =
+        authentication.getCredentials() == null
+            ? null
+            : decode(authentication.getCredentials().toString());
+    RegisteredClient registeredClient =
+        clientId == null ? null : this.registeredClientRepository.findByClientId(clientId);
+    if (registeredClient == null
+        || clientSecret == null
+        || registeredClient.getClientSecret() == null
+        || !registeredClient
+            .getClientAuthenticationMethods()
+            .contains(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+        || (registeredClient.getClientSecretExpiresAt() != null
+            && registeredClient.getClientSecretExpiresAt().isBefore(Instant.now()))
+        || !this.passwordEncoder.matches(clientSecret, registeredClient.getClientSecret())) {
+      throw new BadCredentialsException("客户端认证失败");
+    }
+    List<GrantedAuthority> authorities =
+        registeredClient.getScopes().stream()
+            .<GrantedAuthority>map(
+                scope ->
+                    new SimpleGrantedAuthority(
+                        DefaultOpaqueTokenIntrospector.SCOPE_AUTHORITY_PREFIX + scope))
+            .toList();
+    return UsernamePasswordAuthenticationToken.authenticated(clientId, null, authorities);
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+  }
+
+  /** 表单解码，编码不合法时视为认证失败 */
+  private static String decode(String value) {
+    try {
+      return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -3,28 +3,62 @@ package io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration;
 import static io.github.lishangbu.orange.oauth2.common.constant.SecurityBeanDefinitionConstants.AUTHORIZATION_SERVER_SECURITY_FILTER_CHAIN_BEAN_NAME;
 import static io.github.lishangbu.orange.oauth2.common.constant.SecurityBeanDefinitionConstants.AUTHORIZATION_SERVER_SECURITY_FILTER_CHAIN_BEAN_ORDER;
 
+import io.github.lishangbu.orange.oauth2.authorizationserver.authentication.CoalescingRefreshTokenAuthenticationProvider;
+import io.github.lishangbu.orange.oauth2.authorizationserver.crypto.ClientSecretVerificationCache;
+import io.github.lishangbu.orange.oauth2.authorizationserver.crypto.PasswordHashingExecutor;
+import io.github.lishangbu.orange.oauth2.authorizationserver.jwk.JwkKeyRing;
+import io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit.LoginThrottle;
+import io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit.TokenBucketRateLimiter;
+import io.github.lishangbu.orange.oauth2.authorizationserver.token.VerifiedJwtCache;
+import io.github.lishangbu.orange.oauth2.authorizationserver.web.MetadataEndpointCacheFilter;
 import io.github.lishangbu.orange.oauth2.authorizationserver.web.authentication.AuthorizationEndpointErrorResponseHandler;
 import io.github.lishangbu.orange.oauth2.authorizationserver.web.authentication.AuthorizationEndpointResponseHandler;
 import io.github.lishangbu.orange.oauth2.authorizationserver.web.authentication.OAuth2AccessTokenApiResultResponseAuthenticationSuccessHandler;
 import io.github.lishangbu.orange.oauth2.authorizationserver.web.authentication.OAuth2ErrorApiResultAuthenticationFailureHandler;
 import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
 import io.github.lishangbu.orange.oauth2.common.web.authentication.DefaultAuthenticationEntryPoint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.*;
 import org.springframework.security.config.annotation.web.configurers.oauth2.server.authorization.OAuth2AuthorizationServerConfigurer;
+import org.springframework.security.config.annotation.web.configurers.oauth2.server.authorization.OidcConfigurer;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.ClientSecretAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.JwtClientAssertionAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.JwtClientAssertionDecoderFactory;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2PasswordAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2RefreshTokenAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.security.oauth2.server.authorization.web.authentication.OAuth2AuthorizationCodeAuthenticationConverter;
 import org.springframework.security.oauth2.server.authorization.web.authentication.OAuth2ClientCredentialsAuthenticationConverter;
@@ -33,6 +67,7 @@ import org.springframework.security.oauth2.server.authorization.web.authenticati
 import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.DelegatingAuthenticationConverter;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 
 /**
  * 自动装配认证服务器
@@ -46,15 +81,137 @@ import org.springframework.security.web.authentication.DelegatingAuthenticationC
 @RequiredArgsConstructor
 public class AuthorizationServerAutoConfiguration {
 
+  /** OIDC 发现文档端点，路径由 OpenID Connect Discovery 规范固定 */
+  private static final String OIDC_PROVIDER_CONFIGURATION_ENDPOINT =
+      "/.well-known/openid-configuration";
+
+  /** OAuth 2.0 授权服务器元数据端点，路径由 RFC 8414 固定 */
+  private static final String AUTHORIZATION_SERVER_METADATA_ENDPOINT =
+      "/.well-known/oauth-authorization-server";
+
+  /** 元数据端点响应缓存指标中的缓存名称 */
+  private static final String METADATA_ENDPOINT_CACHE_NAME = "oauth2.metadata-endpoint";
+
+  /** 客户端密钥校验缓存指标中的缓存名称 */
+  private static final String CLIENT_SECRET_CACHE_NAME = "oauth2.client-secret";
+
   private final Oauth2Properties oauth2Properties;
 
+  @Bean
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".client-secret-cache",
+      name = "enabled",
+      havingValue = "true")
+  public ClientSecretVerificationCache clientSecretVerificationCache() {
+    Oauth2Properties.ClientSecretCache cache = oauth2Properties.getClientSecretCache();
+    return new ClientSecretVerificationCache(cache.getMaximumSize(), cache.getTimeToLive());
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".password-hashing",
+      name = "enabled",
+      matchIfMissing = true)
+  public PasswordHashingExecutor passwordHashingExecutor() {
+    Oauth2Properties.PasswordHashing hashing = oauth2Properties.getPasswordHashing();
+    int threads =
+        hashing.getThreads() > 0
+            ? hashing.getThreads()
+            : Runtime.getRuntime().availableProcessors();
+    return new PasswordHashingExecutor(
+        threads, hashing.getQueueCapacity(), hashing.getTimeout());
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".login-throttle",
+      name = "enabled",
+      matchIfMissing = true)
+  public LoginThrottle loginThrottle() {
+    Oauth2Properties.LoginThrottle throttle = oauth2Properties.getLoginThrottle();
+    return new LoginThrottle(
+        rateLimiter(throttle, throttle.getClient()), rateLimiter(throttle, throttle.getUsername()));
+  }
+
+  /** 按令牌桶配置创建限流器，该项限流未启用时返回 null */
+  private static TokenBucketRateLimiter rateLimiter(
+      Oauth2Properties.LoginThrottle throttle, Oauth2Properties.LoginThrottle.Bucket bucket) {
+    if (!bucket.isEnabled()) {
+      return null;
+    }
+    return new TokenBucketRateLimiter(
+        bucket.getCapacity(),
+        bucket.getRefillPeriod(),
+        throttle.getMaximumKeys(),
+        throttle.getStripes());
+  }
+
+  /**
+   * JWK Set 及发现文档的响应缓存
+   *
+   * <p>未使用签名密钥环（自定义 JWKSource）时无法得知密钥何时变化，只缓存发现文档
+   */
+  @Bean
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".metadata-endpoint-cache",
+      name = "enabled",
+      matchIfMissing = true)
+  public MetadataEndpointCacheFilter metadataEndpointCacheFilter(
+      AuthorizationServerSettings authorizationServerSettings,
+      ObjectProvider<JwkKeyRing> jwkKeyRing) {
+    Oauth2Properties.MetadataEndpointCache cache = oauth2Properties.getMetadataEndpointCache();
+    Set<String> endpoints = new HashSet<>();
+    endpoints.add(OIDC_PROVIDER_CONFIGURATION_ENDPOINT);
+    endpoints.add(AUTHORIZATION_SERVER_METADATA_ENDPOINT);
+    JwkKeyRing keyRing = jwkKeyRing.getIfAvailable();
+    if (keyRing != null) {
+      endpoints.add(authorizationServerSettings.getJwkSetEndpoint());
+    }
+    return new MetadataEndpointCacheFilter(
+        endpoints,
+        keyRing == null ? () -> 0L : keyRing::getVersion,
+        cache.getMaxAge(),
+        cache.getMaximumSize());
+  }
+
+  /** 响应缓存只加入授权服务器的过滤器链，不作为 Servlet 过滤器注册到全部请求 */
+  @Bean
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".metadata-endpoint-cache",
+      name = "enabled",
+      matchIfMissing = true)
+  public FilterRegistrationBean<MetadataEndpointCacheFilter> metadataEndpointCacheRegistration(
+      MetadataEndpointCacheFilter metadataEndpointCacheFilter) {
+    FilterRegistrationBean<MetadataEndpointCacheFilter> registration =
+        new FilterRegistrationBean<>(metadataEndpointCacheFilter);
+    registration.setEnabled(false);
+    return registration;
+  }
+
   @Bean
   @Order(AUTHORIZATION_SERVER_SECURITY_FILTER_CHAIN_BEAN_ORDER)
   @ConditionalOnMissingBean(name = AUTHORIZATION_SERVER_SECURITY_FILTER_CHAIN_BEAN_NAME)
-  public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http)
+  public SecurityFilterChain authorizationServerSecurityFilterChain(
+      HttpSecurity http,
+      ObjectProvider<PasswordEncoder> passwordEncoder,
+      ObjectProvider<ClientSecretVerificationCache> clientSecretVerificationCache,
+      ObjectProvider<PasswordHashingExecutor> passwordHashingExecutor,
+      ObjectProvider<LoginThrottle> loginThrottle,
+      ObjectProvider<JwkKeyRing> jwkKeyRing,
+      ObjectProvider<VerifiedJwtCache> verifiedJwtCache,
+      ObjectProvider<MetadataEndpointCacheFilter> metadataEndpointCacheFilter)
       throws Exception {
     OAuth2AuthorizationServerConfigurer authorizationServerConfigurer =
         new OAuth2AuthorizationServerConfigurer();
+    ClientSecretVerificationCache verificationCache =
+        clientSecretVerificationCache.getIfAvailable();
+    PasswordEncoder clientSecretPasswordEncoder =
+        verificationCache == null
+            ? null
+            : verificationCache.decorate(
+                passwordEncoder.getIfAvailable(
+                    PasswordEncoderFactories::createDelegatingPasswordEncoder));
+    VerifiedJwtCache clientAssertionCache = verifiedJwtCache.getIfAvailable();
     // 禁用csrf和cors
     http.csrf(CsrfConfigurer::disable)
         .cors(CorsConfigurer::disable)
@@ -62,6 +219,9 @@ public class AuthorizationServerAutoConfiguration {
         .formLogin(FormLoginConfigurer::disable)
         .sessionManagement(SessionManagementConfigurer::disable)
         .rememberMe(RememberMeConfigurer::disable);
+    // 在安全上下文之前直接应答已缓存的元数据，未命中时交由后续的端点过滤器生成
+    metadataEndpointCacheFilter.ifAvailable(
+        filter -> http.addFilterBefore(filter, SecurityContextHolderFilter.class));
 
     DefaultSecurityFilterChain securityFilterChain =
         http.securityMatcher(authorizationServerConfigurer.getEndpointsMatcher())
@@ -80,15 +240,33 @@ public class AuthorizationServerAutoConfiguration {
                                   .errorResponseHandler(
                                       new AuthorizationEndpointErrorResponseHandler());
                             })
-                        .oidc(Customizer.withDefaults())
+                        .oidc(oidc -> advertiseSigningAlgorithms(oidc, jwkKeyRing))
                         // 定制客户端认证失败的处理器
                         .clientAuthentication(
-                            clientAuthentication ->
-                                clientAuthentication.errorResponseHandler(
-                                    new OAuth2ErrorApiResultAuthenticationFailureHandler()))
+                            clientAuthentication -> {
+                              clientAuthentication.errorResponseHandler(
+                                  new OAuth2ErrorApiResultAuthenticationFailureHandler());
+                              clientAuthentication.authenticationProviders(
+                                  providers -> {
+                                    // 启用时仅为客户端密钥校验加上结果缓存，用户密码校验不受影响
+                                    if (clientSecretPasswordEncoder != null) {
+                                      setClientSecretPasswordEncoder(
+                                          providers, clientSecretPasswordEncoder);
+                                    }
+                                    // 启用时为 private_key_jwt / client_secret_jwt 断言加上验签结果缓存
+                                    if (clientAssertionCache != null) {
+                                      cacheClientAssertions(providers, clientAssertionCache);
+                                    }
+                                  });
+                            })
                         .tokenEndpoint(
                             tokenEndpoint ->
                                 tokenEndpoint
+                                    // 启用时合并同一刷新令牌的并发刷新请求
+                                    .authenticationProviders(
+                                        providers ->
+                                            coalesceRefreshTokenRequests(
+                                                providers, oauth2Properties.getRequestCoalescing()))
                                     // 定制响应成功格式
                                     .accessTokenResponseHandler(
                                         new OAuth2AccessTokenApiResultResponseAuthenticationSuccessHandler())
@@ -119,13 +297,86 @@ public class AuthorizationServerAutoConfiguration {
                 })
             .build();
 
-    addPasswordAuthenticationProvider(http, authorizationServerConfigurer);
+    addPasswordAuthenticationProvider(
+        http,
+        authorizationServerConfigurer,
+        passwordHashingExecutor.getIfAvailable(),
+        loginThrottle.getIfAvailable());
     return securityFilterChain;
   }
 
+  /** 在 OIDC 发现文档中公布签名密钥环支持的全部 ID Token 签名算法，默认只公布 RS256 */
+  private static void advertiseSigningAlgorithms(
+      OidcConfigurer oidc, ObjectProvider<JwkKeyRing> jwkKeyRing) {
+    JwkKeyRing keyRing = jwkKeyRing.getIfAvailable();
+    if (keyRing == null) {
+      return;
+    }
+    oidc.providerConfigurationEndpoint(
+        providerConfiguration ->
+            providerConfiguration.providerConfigurationCustomizer(
+                configuration ->
+                    configuration.idTokenSigningAlgorithms(
+                        algorithms -> {
+                          algorithms.clear();
+                          keyRing
+                              .getSigningAlgorithms()
+                              .forEach(algorithm -> algorithms.add(algorithm.getName()));
+                        })));
+  }
+
+  private static void setClientSecretPasswordEncoder(
+      List<AuthenticationProvider> providers, PasswordEncoder passwordEncoder) {
+    for (AuthenticationProvider provider : providers) {
+      if (provider instanceof ClientSecretAuthenticationProvider clientSecretProvider) {
+        clientSecretProvider.setPasswordEncoder(passwordEncoder);
+      }
+    }
+  }
+
+  private static void cacheClientAssertions(
+      List<AuthenticationProvider> providers, VerifiedJwtCache verifiedJwtCache) {
+    JwtClientAssertionDecoderFactory decoderFactory = new JwtClientAssertionDecoderFactory();
+    for (AuthenticationProvider provider : providers) {
+      if (provider instanceof JwtClientAssertionAuthenticationProvider clientAssertionProvider) {
+        clientAssertionProvider.setJwtDecoderFactory(
+            registeredClient ->
+                verifiedJwtCache.decorate(
+                    decoderFactory.createDecoder(registeredClient),
+                    clientAssertionNamespace(registeredClient)));
+      }
+    }
+  }
+
+  /** 断言的受众校验依赖当前签发者，验签密钥依赖客户端，二者共同决定缓存命名空间 */
+  private static String clientAssertionNamespace(RegisteredClient registeredClient) {
+    AuthorizationServerContext context = AuthorizationServerContextHolder.getContext();
+    String issuer = context == null ? "" : context.getIssuer();
+    return "client-assertion " + issuer + " " + registeredClient.getId() + " ";
+  }
+
+  private static void coalesceRefreshTokenRequests(
+      List<AuthenticationProvider> providers, Oauth2Properties.RequestCoalescing coalescing) {
+    if (!coalescing.isEnabled()) {
+      return;
+    }
+    providers.replaceAll(
+        provider ->
+            provider instanceof OAuth2RefreshTokenAuthenticationProvider
+                ? new CoalescingRefreshTokenAuthenticationProvider(
+                    provider,
+                    coalescing.getRefreshTokenWindow(),
+                    coalescing.getMaximumSize(),
+                    coalescing.getWaitTimeout())
+                : provider);
+  }
+
   @SuppressWarnings("unchecked")
   private void addPasswordAuthenticationProvider(
-      HttpSecurity http, OAuth2AuthorizationServerConfigurer oAuth2AuthorizationServerConfigurer) {
+      HttpSecurity http,
+      OAuth2AuthorizationServerConfigurer oAuth2AuthorizationServerConfigurer,
+      PasswordHashingExecutor passwordHashingExecutor,
+      LoginThrottle loginThrottle) {
     AuthenticationManager authenticationManager = http.getSharedObject(AuthenticationManager.class);
     OAuth2AuthorizationService authorizationService =
         http.getSharedObject(OAuth2AuthorizationService.class);
@@ -135,8 +386,130 @@ public class AuthorizationServerAutoConfiguration {
     OAuth2PasswordAuthenticationProvider resourceOwnerPasswordAuthenticationProvider =
         new OAuth2PasswordAuthenticationProvider(
             authenticationManager, authorizationService, tokenGenerator);
+    resourceOwnerPasswordAuthenticationProvider.setPasswordHashingExecutor(passwordHashingExecutor);
+    resourceOwnerPasswordAuthenticationProvider.setLoginThrottle(loginThrottle);
 
     // This will add new authentication provider in the list of existing authentication providers.
     http.authenticationProvider(resourceOwnerPasswordAuthenticationProvider);
   }
+
+  /** 客户端密钥校验缓存指标：命中率及因命中而节省的哈希校验耗时 */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterBinder.class)
+  static class ClientSecretCacheMetricsConfiguration {
+
+    @Bean
+    public MeterBinder clientSecretVerificationCacheMetrics(
+        ObjectProvider<ClientSecretVerificationCache> clientSecretVerificationCache) {
+      return registry ->
+          clientSecretVerificationCache.ifAvailable(
+              cache -> {
+                CaffeineCacheMetrics.monitor(registry, cache.getCache(), CLIENT_SECRET_CACHE_NAME);
+                FunctionCounter.builder(
+                        "oauth2.client-secret.saved",
+                        cache,
+                        ClientSecretVerificationCache::getSavedSeconds)
+                    .baseUnit("seconds")
+                    .description(
+                        "The estimated hashing time saved by cached client secret verifications")
+                    .register(registry);
+              });
+    }
+  }
+
+  /** 元数据端点响应缓存指标：命中率及重新生成响应的次数 */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterBinder.class)
+  static class MetadataEndpointCacheMetricsConfiguration {
+
+    @Bean
+    public MeterBinder metadataEndpointCacheMetrics(
+        ObjectProvider<MetadataEndpointCacheFilter> metadataEndpointCacheFilter) {
+      return registry ->
+          metadataEndpointCacheFilter.ifAvailable(
+              filter -> {
+                CaffeineCacheMetrics.monitor(
+                    registry, filter.getCache(), METADATA_ENDPOINT_CACHE_NAME);
+                FunctionCounter.builder(
+                        "oauth2.metadata-endpoint.renders",
+                        filter,
+                        MetadataEndpointCacheFilter::getRenderCount)
+                    .description("The number of metadata responses rendered by the endpoints")
+                    .register(registry);
+              });
+    }
+  }
+
+  /** 密码校验线程池指标：队列深度、执行中任务数、拒绝次数及校验耗时 */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterBinder.class)
+  static class PasswordHashingMetricsConfiguration {
+
+    @Bean
+    public MeterBinder passwordHashingExecutorMetrics(
+        ObjectProvider<PasswordHashingExecutor> passwordHashingExecutor) {
+      return registry ->
+          passwordHashingExecutor.ifAvailable(
+              executor -> {
+                Gauge.builder(
+                        "oauth2.password-hashing.queued",
+                        executor,
+                        PasswordHashingExecutor::getQueueSize)
+                    .description("The number of password verifications waiting in the queue")
+                    .register(registry);
+                Gauge.builder(
+                        "oauth2.password-hashing.active",
+                        executor,
+                        PasswordHashingExecutor::getActiveCount)
+                    .description("The number of password verifications currently running")
+                    .register(registry);
+                FunctionCounter.builder(
+                        "oauth2.password-hashing.rejected",
+                        executor,
+                        PasswordHashingExecutor::getRejectedCount)
+                    .description("The number of password verifications rejected by backpressure")
+                    .register(registry);
+                FunctionTimer.builder(
+                        "oauth2.password-hashing",
+                        executor,
+                        PasswordHashingExecutor::getHashCount,
+                        PasswordHashingExecutor::getHashNanos,
+                        TimeUnit.NANOSECONDS)
+                    .description("The time spent verifying passwords on the hashing pool")
+                    .register(registry);
+              });
+    }
+  }
+
+  /** 登录限流指标：按限流键类型统计的拒绝次数及当前保留的桶数 */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterBinder.class)
+  static class LoginThrottleMetricsConfiguration {
+
+    @Bean
+    public MeterBinder loginThrottleMetrics(ObjectProvider<LoginThrottle> loginThrottle) {
+      return registry ->
+          loginThrottle.ifAvailable(
+              throttle -> {
+                bind(registry, "client", throttle.getClientLimiter());
+                bind(registry, "username", throttle.getUsernameLimiter());
+              });
+    }
+
+    private static void bind(MeterRegistry registry, String key, TokenBucketRateLimiter limiter) {
+      if (limiter == null) {
+        return;
+      }
+      FunctionCounter.builder(
+              "oauth2.login-throttle.rejected", limiter, TokenBucketRateLimiter::getRejectedCount)
+          .tag("key", key)
+          .description("The number of login attempts rejected by the throttle")
+          .register(registry);
+      Gauge.builder(
+              "oauth2.login-throttle.buckets", limiter, TokenBucketRateLimiter::getBucketCount)
+          .tag("key", key)
+          .description("The number of token buckets currently retained")
+          .register(registry);
+    }
+  }
 }
@@ -2,11 +2,24 @@ package io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration;
 
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.github.lishangbu.orange.oauth2.authorizationserver.jwk.JwkKeyRing;
+import io.github.lishangbu.orange.oauth2.authorizationserver.jwk.KeyRingJwsKeySelector;
+import io.github.lishangbu.orange.oauth2.authorizationserver.token.VerifiedJwtCache;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 
 /**
  * JwtDecoder 自动装配
@@ -14,17 +27,75 @@ import org.springframework.security.oauth2.jwt.JwtDecoder;
  * @author lishangbu
  * @since 2025/8/17
  */
-@AutoConfiguration
+@AutoConfiguration(after = JWKSourceAutoConfiguration.class)
 public class JwtDecoderAutoConfiguration {
+
+  /** 已验签 JWT 缓存指标中的缓存名称 */
+  private static final String VERIFIED_JWT_CACHE_NAME = "oauth2.verified-jwt";
+
+  /** JwtDecoder 在已验签 JWT 缓存中的命名空间 */
+  private static final String JWT_DECODER_CACHE_NAMESPACE = "jwt-decoder ";
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".verified-jwt-cache",
+      name = "enabled",
+      matchIfMissing = true)
+  public VerifiedJwtCache verifiedJwtCache(Oauth2Properties oauth2Properties) {
+    return new VerifiedJwtCache(oauth2Properties.getVerifiedJwtCache().getMaximumSize());
+  }
+
   /**
    * An instance of JwtDecoder for decoding signed access tokens.
    *
-   * @param jwkSource
-   * @return
+   * <p>存在签名密钥环时按 kid 直接取出验签公钥，否则沿用基于 JWKSource 匹配的默认实现；启用已验签 JWT 缓存时，
+   * 同一 JWT 只在首次出现时验签
+   *
+   * @param jwkSource 签名密钥来源
+   * @param jwkKeyRing 签名密钥环，自定义 JWKSource 时不存在
+   * @param verifiedJwtCache 已验签 JWT 缓存，未启用时不存在
+   * @return JwtDecoder
    */
   @Bean
   @ConditionalOnMissingBean
-  public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
-    return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+  public JwtDecoder jwtDecoder(
+      JWKSource<SecurityContext> jwkSource,
+      ObjectProvider<JwkKeyRing> jwkKeyRing,
+      ObjectProvider<VerifiedJwtCache> verifiedJwtCache) {
+    JwtDecoder jwtDecoder = createJwtDecoder(jwkSource, jwkKeyRing.getIfAvailable());
+    VerifiedJwtCache cache = verifiedJwtCache.getIfAvailable();
+    return cache == null ? jwtDecoder : cache.decorate(jwtDecoder, JWT_DECODER_CACHE_NAMESPACE);
+  }
+
+  private static JwtDecoder createJwtDecoder(
+      JWKSource<SecurityContext> jwkSource, JwkKeyRing keyRing) {
+    if (keyRing == null) {
+      return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+    }
+    DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+    jwtProcessor.setJWSKeySelector(new KeyRingJwsKeySelector(keyRing));
+    // 声明由 NimbusJwtDecoder 的 OAuth2TokenValidator 校验，关闭 Nimbus 自带的声明校验
+    jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+    return new NimbusJwtDecoder(jwtProcessor);
+  }
+
+  /** 已验签 JWT 缓存指标：命中率及因命中而节省的验签耗时 */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterBinder.class)
+  static class VerifiedJwtCacheMetricsConfiguration {
+
+    @Bean
+    public MeterBinder verifiedJwtCacheMetrics(ObjectProvider<VerifiedJwtCache> verifiedJwtCache) {
+      return registry ->
+          verifiedJwtCache.ifAvailable(
+              cache -> {
+                CaffeineCacheMetrics.monitor(registry, cache.getCache(), VERIFIED_JWT_CACHE_NAME);
+                FunctionCounter.builder(
+                        "oauth2.verified-jwt.saved", cache, VerifiedJwtCache::getSavedSeconds)
+                    .baseUnit("seconds")
+                    .description("The estimated verification time saved by cached JWTs")
+                    .register(registry);
+              });
+    }
   }
 }
@@ -2,6 +2,8 @@ package io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration;
 
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import io.github.lishangbu.orange.oauth2.authorizationserver.jwk.JwkKeyRing;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -14,11 +16,14 @@ import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
  * @author lishangbu
  * @since 2025/8/22
  */
-@AutoConfiguration
+@AutoConfiguration(after = JWKSourceAutoConfiguration.class)
 public class JwtEncoderAutoConfiguration {
+  /** 存在签名密钥环时只以其中的签名密钥签发，轮换期间发布的其它密钥不参与选择 */
   @Bean
   @ConditionalOnMissingBean
-  public JwtEncoder jwtEncoder(JWKSource<SecurityContext> jwkSource) {
-    return new NimbusJwtEncoder(jwkSource);
+  public JwtEncoder jwtEncoder(
+      JWKSource<SecurityContext> jwkSource, ObjectProvider<JwkKeyRing> jwkKeyRing) {
+    JwkKeyRing keyRing = jwkKeyRing.getIfAvailable();
+    return new NimbusJwtEncoder(keyRing == null ? jwkSource : keyRing.signingJwkSource());
   }
 }
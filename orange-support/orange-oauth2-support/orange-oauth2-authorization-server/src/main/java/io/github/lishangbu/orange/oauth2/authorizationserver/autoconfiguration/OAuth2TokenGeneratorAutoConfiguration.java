@@ -1,9 +1,17 @@
 package io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration;
 
+import io.github.lishangbu.orange.oauth2.authorizationserver.jwk.JwkKeyRing;
+import io.github.lishangbu.orange.oauth2.authorizationserver.keygen.SignedKeyGenerator;
 import io.github.lishangbu.orange.oauth2.authorizationserver.token.OAuth2RefreshTokenGenerator;
 import io.github.lishangbu.orange.oauth2.authorizationserver.token.ReferenceOAuth2AccessTokenGenerator;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.server.authorization.token.DelegatingOAuth2TokenGenerator;
@@ -21,13 +29,38 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Toke
 public class OAuth2TokenGeneratorAutoConfiguration {
   private final JwtEncoder jwtEncoder;
 
+  /** 配置了引用令牌密钥时，令牌携带校验码，未配置时沿用 UUID 格式 */
   @Bean
-  public OAuth2TokenGenerator<?> tokenGenerator() {
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".reference-token",
+      name = "active-key-id")
+  public SignedKeyGenerator signedKeyGenerator(
+      Oauth2Properties oauth2Properties, ObjectProvider<JwkKeyRing> jwkKeyRing) {
+    Oauth2Properties.ReferenceToken referenceToken = oauth2Properties.getReferenceToken();
+    Map<String, byte[]> secrets = new LinkedHashMap<>();
+    referenceToken
+        .getKeys()
+        .forEach((keyId, secret) -> secrets.put(keyId, Base64.getDecoder().decode(secret)));
+    return new SignedKeyGenerator(
+        referenceToken.getActiveKeyId(),
+        secrets,
+        referenceToken.isAcceptLegacyTokens(),
+        jwkKeyRing.getIfAvailable());
+  }
+
+  @Bean
+  public OAuth2TokenGenerator<?> tokenGenerator(
+      ObjectProvider<SignedKeyGenerator> signedKeyGenerator) {
+    SignedKeyGenerator keyGenerator = signedKeyGenerator.getIfAvailable();
     return new DelegatingOAuth2TokenGenerator(
         // reference的token生成器
-        new ReferenceOAuth2AccessTokenGenerator(),
+        keyGenerator == null
+            ? new ReferenceOAuth2AccessTokenGenerator()
+            : new ReferenceOAuth2AccessTokenGenerator(keyGenerator),
         // reference的refreshToken生成器
-        new OAuth2RefreshTokenGenerator(),
+        keyGenerator == null
+            ? new OAuth2RefreshTokenGenerator()
+            : new OAuth2RefreshTokenGenerator(keyGenerator),
         new JwtGenerator(jwtEncoder));
   }
 }
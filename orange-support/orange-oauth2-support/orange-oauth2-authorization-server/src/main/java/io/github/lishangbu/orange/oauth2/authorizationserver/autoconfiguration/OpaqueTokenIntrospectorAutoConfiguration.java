@@ -1,12 +1,37 @@
 package io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration;
 
+import static io.github.lishangbu.orange.oauth2.common.constant.SecurityBeanDefinitionConstants.BATCH_INTROSPECTION_SECURITY_FILTER_CHAIN_BEAN_NAME;
+import static io.github.lishangbu.orange.oauth2.common.constant.SecurityBeanDefinitionConstants.BATCH_INTROSPECTION_SECURITY_FILTER_CHAIN_BEAN_ORDER;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.CachingOpaqueTokenIntrospector;
 import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.DefaultOpaqueTokenIntrospector;
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.PrincipalVersionProvider;
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.RejectedTokenFilter;
+import io.github.lishangbu.orange.oauth2.authorizationserver.keygen.SignedKeyGenerator;
+import io.github.lishangbu.orange.oauth2.authorizationserver.web.BatchTokenIntrospectionController;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import io.github.lishangbu.orange.oauth2.common.web.access.DefaultAccessDeniedHandler;
+import io.github.lishangbu.orange.oauth2.common.web.authentication.DefaultAuthenticationEntryPoint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.*;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.security.web.SecurityFilterChain;
 
 /**
  * OpaqueTokenIntrospector 自动装配
@@ -16,11 +41,149 @@ import org.springframework.security.oauth2.server.resource.introspection.OpaqueT
  */
 @AutoConfiguration
 public class OpaqueTokenIntrospectorAutoConfiguration {
+
+  /** 透明令牌缓存指标中的缓存名称 */
+  private static final String INTROSPECTION_CACHE_NAME = "oauth2.introspection";
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".rejected-token-filter",
+      name = "enabled",
+      matchIfMissing = true)
+  public RejectedTokenFilter rejectedTokenFilter(Oauth2Properties oauth2Properties) {
+    Oauth2Properties.RejectedTokenFilter filter = oauth2Properties.getRejectedTokenFilter();
+    return new RejectedTokenFilter(
+        filter.getExpectedInsertions(),
+        filter.getFalsePositiveProbability(),
+        filter.getRotationInterval());
+  }
+
   @Bean
   @ConditionalOnBean(value = {OAuth2AuthorizationService.class, UserDetailsService.class})
   public OpaqueTokenIntrospector opaqueTokenIntrospector(
       OAuth2AuthorizationService oAuth2AuthorizationService,
-      UserDetailsService userDetailsService) {
-    return new DefaultOpaqueTokenIntrospector(oAuth2AuthorizationService, userDetailsService);
+      UserDetailsService userDetailsService,
+      Oauth2Properties oauth2Properties,
+      ObjectProvider<RejectedTokenFilter> rejectedTokenFilter,
+      ObjectProvider<SignedKeyGenerator> signedKeyGenerator,
+      ObjectProvider<PrincipalVersionProvider> principalVersionProvider) {
+    DefaultOpaqueTokenIntrospector introspector =
+        new DefaultOpaqueTokenIntrospector(
+            oAuth2AuthorizationService,
+            userDetailsService,
+            rejectedTokenFilter.getIfAvailable(),
+            signedKeyGenerator.getIfAvailable(),
+            principalVersionProvider.getIfAvailable());
+    Oauth2Properties.IntrospectionCache cache = oauth2Properties.getIntrospectionCache();
+    if (!cache.isEnabled()) {
+      return introspector;
+    }
+    return new CachingOpaqueTokenIntrospector(
+        introspector, cache.getMaximumSize(), cache.getTimeToLive(), cache.getMaxStaleness());
+  }
+
+  /**
+   * 批量令牌解析接口及其安全过滤链
+   *
+   * <p>过滤链只匹配 {@code /token/introspect/batch}，先于资源服务器过滤链生效，要求访问令牌具备配置的权限范围。
+   * 只有客户端模式令牌的权限范围会转为 {@code SCOPE_} 权限，用户令牌不会通过校验
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  @ConditionalOnBean(value = {OAuth2AuthorizationService.class, UserDetailsService.class})
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".batch-introspection",
+      name = "enabled",
+      matchIfMissing = true)
+  static class BatchIntrospectionConfiguration {
+
+    @Bean
+    public BatchTokenIntrospectionController batchTokenIntrospectionController(
+        OpaqueTokenIntrospector opaqueTokenIntrospector, Oauth2Properties oauth2Properties) {
+      return new BatchTokenIntrospectionController(
+          opaqueTokenIntrospector, oauth2Properties.getBatchIntrospection().getMaximumTokens());
+    }
+
+    /**
+     * 批量令牌解析接口的安全过滤链
+     *
+     * @param http HttpSecurity 构造器
+     * @param oauth2Properties OAuth2 配置属性
+     * @return 构建完成的 SecurityFilterChain
+     * @throws Exception 当构建 SecurityFilterChain 失败时抛出
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = BATCH_INTROSPECTION_SECURITY_FILTER_CHAIN_BEAN_NAME)
+    @Order(BATCH_INTROSPECTION_SECURITY_FILTER_CHAIN_BEAN_ORDER)
+    public SecurityFilterChain batchIntrospectionSecurityFilterChain(
+        HttpSecurity http, Oauth2Properties oauth2Properties) throws Exception {
+      String authority =
+          DefaultOpaqueTokenIntrospector.SCOPE_AUTHORITY_PREFIX
+              + oauth2Properties.getBatchIntrospection().getScope();
+      http.securityMatcher("/token/introspect/batch")
+          .authorizeHttpRequests(authorize -> authorize.anyRequest().hasAuthority(authority))
+          .csrf(CsrfConfigurer::disable)
+          .cors(CorsConfigurer::disable)
+          .formLogin(FormLoginConfigurer::disable)
+          .sessionManagement(SessionManagementConfigurer::disable)
+          .rememberMe(RememberMeConfigurer::disable)
+          .oauth2ResourceServer(
+              oauth2ResourceServer ->
+                  oauth2ResourceServer
+                      .opaqueToken(Customizer.withDefaults())
+                      .authenticationEntryPoint(new DefaultAuthenticationEntryPoint())
+                      .accessDeniedHandler(new DefaultAccessDeniedHandler()))
+          .exceptionHandling(
+              exceptions ->
+                  exceptions
+                      .authenticationEntryPoint(new DefaultAuthenticationEntryPoint())
+                      .accessDeniedHandler(new DefaultAccessDeniedHandler()));
+      return http.build();
+    }
+  }
+
+  /** 透明令牌缓存指标：命中率、加载耗时、淘汰数、因认证信息变更失效的条目数、过期应答数、重新校验失败数及过滤器拒绝数 */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterBinder.class)
+  static class IntrospectionCacheMetricsConfiguration {
+
+    @Bean
+    public MeterBinder opaqueTokenIntrospectionCacheMetrics(
+        ObjectProvider<OpaqueTokenIntrospector> opaqueTokenIntrospector,
+        ObjectProvider<RejectedTokenFilter> rejectedTokenFilter) {
+      return registry -> {
+        rejectedTokenFilter.ifAvailable(
+            filter ->
+                FunctionCounter.builder(
+                        "oauth2.introspection.filtered",
+                        filter,
+                        RejectedTokenFilter::getFilteredCount)
+                    .description("The number of tokens rejected by the filter without a lookup")
+                    .register(registry));
+        if (opaqueTokenIntrospector.getIfAvailable()
+            instanceof CachingOpaqueTokenIntrospector introspector) {
+          CaffeineCacheMetrics.monitor(registry, introspector.getCache(), INTROSPECTION_CACHE_NAME);
+          FunctionCounter.builder(
+                  "cache.invalidations",
+                  introspector,
+                  CachingOpaqueTokenIntrospector::getInvalidationCount)
+              .tag("cache", INTROSPECTION_CACHE_NAME)
+              .description("The number of entries invalidated by authorization changes")
+              .register(registry);
+          FunctionCounter.builder(
+                  "oauth2.introspection.stale",
+                  introspector,
+                  CachingOpaqueTokenIntrospector::getStaleCount)
+              .description("The number of introspections served from stale entries")
+              .register(registry);
+          FunctionCounter.builder(
+                  "oauth2.introspection.revalidation.failures",
+                  introspector,
+                  CachingOpaqueTokenIntrospector::getRevalidationFailureCount)
+              .description("The number of failed background revalidations of stale entries")
+              .register(registry);
+        }
+      };
+    }
   }
 }
@@ -0,0 +1,107 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration;
+
+import static io.github.lishangbu.orange.oauth2.common.constant.SecurityBeanDefinitionConstants.REVOCATION_FEED_SECURITY_FILTER_CHAIN_BEAN_NAME;
+import static io.github.lishangbu.orange.oauth2.common.constant.SecurityBeanDefinitionConstants.REVOCATION_FEED_SECURITY_FILTER_CHAIN_BEAN_ORDER;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.authentication.RegisteredClientBasicAuthenticationProvider;
+import io.github.lishangbu.orange.oauth2.authorizationserver.crypto.ClientSecretVerificationCache;
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.DefaultOpaqueTokenIntrospector;
+import io.github.lishangbu.orange.oauth2.authorizationserver.revocation.RevocationFeed;
+import io.github.lishangbu.orange.oauth2.authorizationserver.web.RevocationFeedController;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import io.github.lishangbu.orange.oauth2.common.web.access.DefaultAccessDeniedHandler;
+import io.github.lishangbu.orange.oauth2.common.web.authentication.DefaultAuthenticationEntryPoint;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.config.annotation.web.configurers.*;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * 令牌吊销记录接口自动装配
+ *
+ * <p>{@code oauth2.revocation-feed.enabled=true} 且存在 {@link RevocationFeed} 时提供 {@code GET
+ * /token/revocations}。资源服务器以令牌解析所用的客户端凭据通过 HTTP Basic 认证，无需先获取访问令牌；
+ * 客户端须具备 {@code oauth2.revocation-feed.scope} 指定的权限范围
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnBean(RevocationFeed.class)
+@ConditionalOnProperty(
+    prefix = Oauth2Properties.PREFIX + ".revocation-feed",
+    name = "enabled",
+    havingValue = "true")
+public class RevocationFeedAutoConfiguration {
+
+  @Bean
+  public RevocationFeedController revocationFeedController(RevocationFeed revocationFeed) {
+    return new RevocationFeedController(revocationFeed);
+  }
+
+  /**
+   * 吊销记录接口的安全过滤链，只匹配 {@code /token/revocations}，先于资源服务器过滤链生效
+   *
+   * <p>每次轮询都会校验客户端密钥，启用客户端密钥校验缓存时复用其缓存，避免反复计算慢哈希
+   *
+   * @param http HttpSecurity 构造器
+   * @param registeredClientRepository 客户端存储
+   * @param passwordEncoder 校验客户端密钥的密码编码器
+   * @param clientSecretVerificationCache 客户端密钥校验结果缓存
+   * @param oauth2Properties OAuth2 配置属性
+   * @return 构建完成的 SecurityFilterChain
+   * @throws Exception 当构建 SecurityFilterChain 失败时抛出
+   */
+  @Bean
+  @ConditionalOnMissingBean(name = REVOCATION_FEED_SECURITY_FILTER_CHAIN_BEAN_NAME)
+  @Order(REVOCATION_FEED_SECURITY_FILTER_CHAIN_BEAN_ORDER)
+  public SecurityFilterChain revocationFeedSecurityFilterChain(
+      HttpSecurity http,
+      RegisteredClientRepository registeredClientRepository,
+      ObjectProvider<PasswordEncoder> passwordEncoder,
+      ObjectProvider<ClientSecretVerificationCache> clientSecretVerificationCache,
+      Oauth2Properties oauth2Properties)
+      throws Exception {
+    PasswordEncoder clientSecretPasswordEncoder =
+        passwordEncoder.getIfAvailable(PasswordEncoderFactories::createDelegatingPasswordEncoder);
+    ClientSecretVerificationCache verificationCache =
+        clientSecretVerificationCache.getIfAvailable();
+    if (verificationCache != null) {
+      clientSecretPasswordEncoder = verificationCache.decorate(clientSecretPasswordEncoder);
+    }
+    String authority =
+        DefaultOpaqueTokenIntrospector.SCOPE_AUTHORITY_PREFIX
+            + oauth2Properties.getRevocationFeed().getScope();
+    http.securityMatcher("/token/revocations")
+        .authorizeHttpRequests(authorize -> authorize.anyRequest().hasAuthority(authority))
+        .authenticationManager(
+            new ProviderManager(
+                new RegisteredClientBasicAuthenticationProvider(
+                    registeredClientRepository, clientSecretPasswordEncoder)))
+        .httpBasic(
+            httpBasic -> httpBasic.authenticationEntryPoint(new DefaultAuthenticationEntryPoint()))
+        .csrf(CsrfConfigurer::disable)
+        .cors(CorsConfigurer::disable)
+        .formLogin(FormLoginConfigurer::disable)
+        .sessionManagement(SessionManagementConfigurer::disable)
+        .rememberMe(RememberMeConfigurer::disable)
+        .exceptionHandling(
+            exceptions ->
+                exceptions
+                    .authenticationEntryPoint(new DefaultAuthenticationEntryPoint())
+                    .accessDeniedHandler(new DefaultAccessDeniedHandler()));
+    return http.build();
+  }
+}
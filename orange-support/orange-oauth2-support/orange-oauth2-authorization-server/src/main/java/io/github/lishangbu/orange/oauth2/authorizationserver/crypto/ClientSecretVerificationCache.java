@@ -0,0 +1,172 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.crypto;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.RegisteredClientChangedEvent;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.crypto.keygen.KeyGenerators;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.Assert;
+
+/**
+ * 客户端密钥校验结果缓存
+ *
+ * <p>机密客户端每次请求令牌端点都以 client_secret_basic / client_secret_post 提交密钥，bcrypt 等慢哈希校验会成为吞吐瓶颈。
+ * 经 {@link #decorate(PasswordEncoder)} 包装后的 {@link PasswordEncoder} 在短时间内记住校验成功的结果，
+ * 同一密钥再次出现时无需重新计算哈希
+ *
+ * <p>缓存键为以进程内随机密钥计算的 HMAC-SHA256（覆盖已存储的密钥哈希与提交的密钥原文），不保存密钥原文，密钥不落盘，
+ * 重启后全部失效；校验失败的结果不缓存。客户端保存时通过 {@link RegisteredClientChangedEvent} 清空缓存
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class ClientSecretVerificationCache
+    implements ApplicationListener<RegisteredClientChangedEvent> {
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+
+  private static final int MAC_KEY_LENGTH = 32;
+
+  private final Cache<String, Boolean> cache;
+
+  /** Mac 非线程安全，每个线程持有一个实例 */
+  private final ThreadLocal<Mac> mac;
+
+  /** 未命中时实际执行哈希校验的次数 */
+  private final LongAdder verificationCount = new LongAdder();
+
+  /** 未命中时实际执行哈希校验的总耗时 */
+  private final LongAdder verificationNanos = new LongAdder();
+
+  public ClientSecretVerificationCache(long maximumSize, Duration timeToLive) {
+    Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+    Assert.isTrue(
+        timeToLive != null && timeToLive.isPositive(), "timeToLive must be greater than 0");
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .build();
+    SecretKeySpec key =
+        new SecretKeySpec(KeyGenerators.secureRandom(MAC_KEY_LENGTH).generateKey(), MAC_ALGORITHM);
+    this.mac = ThreadLocal.withInitial(() -> newMac(key));
+  }
+
+  /**
+   * 以校验结果缓存包装密码编码器
+   *
+   * @param delegate 实际执行哈希计算与校验的密码编码器
+   * @return 带缓存的密码编码器
+   */
+  public PasswordEncoder decorate(PasswordEncoder delegate) {
+    Assert.notNull(delegate, "delegate cannot be null");
+    return new CachingPasswordEncoder(delegate);
+  }
+
+  @Override
+  public void onApplicationEvent(RegisteredClientChangedEvent event) {
+    invalidateAll();
+  }
+
+  /** 清空所有已缓存的校验结果 */
+  public void invalidateAll() {
+    this.cache.invalidateAll();
+  }
+
+  /**
+   * 获取底层缓存，用于暴露命中率等统计指标
+   *
+   * @return 底层缓存
+   */
+  public Cache<String, ?> getCache() {
+    return this.cache;
+  }
+
+  /**
+   * 估算因命中缓存而节省的哈希校验耗时
+   *
+   * @return 命中次数与未命中时平均校验耗时之积，单位秒
+   */
+  public double getSavedSeconds() {
+    long count = this.verificationCount.sum();
+    if (count == 0) {
+      return 0;
+    }
+    double averageNanos = (double) this.verificationNanos.sum() / count;
+    return this.cache.stats().hitCount() * averageNanos / 1_000_000_000d;
+  }
+
+  private String key(CharSequence rawPassword, String encodedPassword) {
+    Mac mac = this.mac.get();
+    byte[] encoded = encodedPassword.getBytes(StandardCharsets.UTF_8);
+    // 以长度前缀分隔两段输入，避免拼接歧义
+    mac.update(
+        new byte[] {
+          (byte) (encoded.length >>> 24),
+          (byte) (encoded.length >>> 16),
+          (byte) (encoded.length >>> 8),
+          (byte) encoded.length
+        });
+    mac.update(encoded);
+    mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+    return Base64.getEncoder().withoutPadding().encodeToString(mac.doFinal());
+  }
+
+  private static Mac newMac(SecretKeySpec key) {
+    try {
+      Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("当前 JVM 不支持 " + MAC_ALGORITHM + " 算法", e);
+    }
+  }
+
+  /** 带校验结果缓存的密码编码器，编码与升级判断直接委托 */
+  private final class CachingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private CachingPasswordEncoder(PasswordEncoder delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return this.delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      if (rawPassword == null || encodedPassword == null) {
+        return this.delegate.matches(rawPassword, encodedPassword);
+      }
+      String key = key(rawPassword, encodedPassword);
+      if (cache.getIfPresent(key) != null) {
+        return true;
+      }
+      long start = System.nanoTime();
+      boolean matches = this.delegate.matches(rawPassword, encodedPassword);
+      verificationNanos.add(System.nanoTime() - start);
+      verificationCount.increment();
+      if (matches) {
+        cache.put(key, Boolean.TRUE);
+      }
+      return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+      return this.delegate.upgradeEncoding(encodedPassword);
+    }
+  }
+}
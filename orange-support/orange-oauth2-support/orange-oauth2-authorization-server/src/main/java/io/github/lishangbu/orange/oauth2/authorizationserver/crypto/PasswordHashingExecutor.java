@@ -0,0 +1,165 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.crypto;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.util.Assert;
+
+/**
+ * 密码哈希校验专用线程池
+ *
+ * <p>bcrypt 等慢哈希是纯 CPU 计算，在请求线程上执行时，登录高峰会占满所有请求线程（包括虚拟线程的载体线程），
+ * 拖慢其它轻量请求。此线程池以固定线程数（默认与 CPU 核数一致）和有界队列执行密码校验，队列已满时立即以
+ * {@code temporarily_unavailable} 拒绝，而不是让请求无限排队
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class PasswordHashingExecutor implements AutoCloseable {
+
+  private static final String ERROR_URI =
+      "https://datatracker.ietf.org/doc/html/rfc6749#section-5.2";
+
+  private final ThreadPoolExecutor executor;
+
+  private final long timeoutNanos;
+
+  /** 因队列已满或等待超时而拒绝的次数 */
+  private final LongAdder rejectedCount = new LongAdder();
+
+  /** 已完成的校验次数 */
+  private final LongAdder hashCount = new LongAdder();
+
+  /** 已完成的校验在线程池中的总执行耗时 */
+  private final LongAdder hashNanos = new LongAdder();
+
+  /**
+   * 构造密码哈希校验线程池
+   *
+   * @param threads 线程数
+   * @param queueCapacity 等待队列容量
+   * @param timeout 请求线程等待校验结果的最长时间（含排队时间）
+   */
+  public PasswordHashingExecutor(int threads, int queueCapacity, Duration timeout) {
+    Assert.isTrue(threads > 0, "threads must be greater than 0");
+    Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than 0");
+    Assert.isTrue(timeout != null && timeout.isPositive(), "timeout must be greater than 0");
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new HashingThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+    this.timeoutNanos = timeout.toNanos();
+  }
+
+  /**
+   * 在线程池中执行密码校验并等待结果
+   *
+   * @param task 密码校验任务，通常为 {@code authenticationManager.authenticate(...)}
+   * @param <T> 校验结果类型
+   * @return 校验结果
+   * @throws OAuth2AuthenticationException 队列已满、等待超时或被中断时抛出 {@code temporarily_unavailable}
+   */
+  public <T> T execute(Callable<T> task) {
+    Future<T> future;
+    try {
+      future =
+          this.executor.submit(
+              () -> {
+                long start = System.nanoTime();
+                try {
+                  return task.call();
+                } finally {
+                  this.hashNanos.add(System.nanoTime() - start);
+                  this.hashCount.increment();
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      throw unavailable("密码校验队列已满");
+    }
+    try {
+      return future.get(this.timeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw unavailable("密码校验等待超时");
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw unavailable("密码校验被中断");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private OAuth2AuthenticationException unavailable(String description) {
+    this.rejectedCount.increment();
+    return new OAuth2AuthenticationException(
+        new OAuth2Error(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE, description, ERROR_URI));
+  }
+
+  /** 获取等待中的校验任务数 */
+  public int getQueueSize() {
+    return this.executor.getQueue().size();
+  }
+
+  /** 获取正在执行的校验任务数 */
+  public int getActiveCount() {
+    return this.executor.getActiveCount();
+  }
+
+  /** 获取因队列已满或等待超时而拒绝的次数 */
+  public long getRejectedCount() {
+    return this.rejectedCount.sum();
+  }
+
+  /** 获取已完成的校验次数 */
+  public long getHashCount() {
+    return this.hashCount.sum();
+  }
+
+  /** 获取已完成的校验在线程池中的总执行耗时，单位纳秒 */
+  public double getHashNanos() {
+    return this.hashNanos.sum();
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  /** 以 password-hashing-序号 命名的守护线程 */
+  private static final class HashingThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.event;
+
+import java.io.Serial;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+
+/**
+ * 认证信息变更事件
+ *
+ * <p>认证信息保存或删除并提交后发布，用于失效本地缓存中与该认证信息相关的数据，例如令牌续签、吊销与注销
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Getter
+public class OAuth2AuthorizationChangedEvent extends ApplicationEvent {
+  @Serial private static final long serialVersionUID = 1L;
+
+  /** 变更后的认证信息，删除时为被删除的认证信息 */
+  private final transient OAuth2Authorization authorization;
+
+  /** 是否为删除 */
+  private final boolean removed;
+
+  public OAuth2AuthorizationChangedEvent(
+      Object source, OAuth2Authorization authorization, boolean removed) {
+    super(source);
+    this.authorization = authorization;
+    this.removed = removed;
+  }
+}
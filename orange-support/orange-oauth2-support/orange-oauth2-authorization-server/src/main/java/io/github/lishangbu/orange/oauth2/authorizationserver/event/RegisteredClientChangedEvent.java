@@ -0,0 +1,27 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.event;
+
+import java.io.Serial;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * 注册客户端变更事件
+ *
+ * <p>注册客户端保存后发布，用于失效本地缓存中与该客户端相关的数据，例如客户端密钥校验结果
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Getter
+public class RegisteredClientChangedEvent extends ApplicationEvent {
+  @Serial private static final long serialVersionUID = 1L;
+
+  /** 保存后的注册客户端 */
+  private final transient RegisteredClient registeredClient;
+
+  public RegisteredClientChangedEvent(Object source, RegisteredClient registeredClient) {
+    super(source);
+    this.registeredClient = registeredClient;
+  }
+}
@@ -0,0 +1,26 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.introspection;
+
+import java.util.Collection;
+import java.util.Map;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+
+/**
+ * 按访问令牌摘要批量查询认证信息
+ *
+ * <p>由 {@link org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService}
+ * 的实现类按需实现，批量解析令牌时以一次查询代替逐个 {@code findByToken}；未实现时逐个查询
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@FunctionalInterface
+public interface AccessTokenBatchLookup {
+
+  /**
+   * 按访问令牌摘要批量查询认证信息
+   *
+   * @param tokenDigests 访问令牌摘要
+   * @return 访问令牌摘要与认证信息的对应关系，不含不存在的令牌
+   */
+  Map<String, OAuth2Authorization> findByAccessTokenDigests(Collection<String> tokenDigests);
+}
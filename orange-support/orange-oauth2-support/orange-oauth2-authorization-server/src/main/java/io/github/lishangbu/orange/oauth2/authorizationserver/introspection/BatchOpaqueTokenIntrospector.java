@@ -0,0 +1,25 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.introspection;
+
+import java.util.Collection;
+import java.util.Map;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+/**
+ * 支持批量解析的透明令牌处理
+ *
+ * <p>单个令牌的判定规则与 {@link #introspect(String)} 一致，区别在于无效令牌不抛出异常，只是不出现在结果中
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public interface BatchOpaqueTokenIntrospector extends OpaqueTokenIntrospector {
+
+  /**
+   * 批量解析访问令牌
+   *
+   * @param tokens 访问令牌
+   * @return 有效令牌与认证主体的对应关系，无效令牌不在其中
+   */
+  Map<String, OAuth2AuthenticatedPrincipal> introspectAll(Collection<String> tokens);
+}
@@ -0,0 +1,425 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.introspection;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.OAuth2AuthorizationChangedEvent;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.util.Assert;
+
+/**
+ * 带本地缓存的透明令牌处理
+ *
+ * <p>以令牌摘要为键缓存 {@link DefaultOpaqueTokenIntrospector} 的解析结果，未命中时才查询认证信息并加载用户。
+ * 条目存活时间取配置的最长存活时间与访问令牌剩余有效期中的较小者
+ *
+ * <p>本实例上的认证信息变更（续签、吊销、注销）通过 {@link OAuth2AuthorizationChangedEvent} 立即失效对应条目；
+ * 多实例部署时，其它实例上的变更最迟在最长存活时间后生效。每次变更都记下一个递增的变更序号，
+ * 条目记录加载开始时的序号：变更事件若在查询数据库之后、条目写入缓存之前到达，读取时发现条目早于该认证信息的最近变更，
+ * 随即丢弃并重新加载，不会把变更前读到的结果保留一个完整的存活时间
+ *
+ * <p>配置了最长过期容忍时间时，条目超过最长存活时间后仍可继续使用，读取时直接返回旧结果并在后台按认证信息 id 重新校验，
+ * 同一条目同时只有一次重新校验；
+ * 数据库变慢或不可用时，重新校验失败的条目继续提供服务，直至超出容忍时间或访问令牌过期。本实例上被移除（如注销）的认证信息
+ * 记入本地吊销集合，每次读取都会检查，不会因旧条目或进行中的加载而继续放行
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class CachingOpaqueTokenIntrospector
+    implements BatchOpaqueTokenIntrospector, ApplicationListener<OAuth2AuthorizationChangedEvent> {
+
+  private final DefaultOpaqueTokenIntrospector delegate;
+
+  private final Cache<String, CachedPrincipal> cache;
+
+  /** 认证信息 id 与已缓存访问令牌摘要的对应关系，用于认证信息变更时定位缓存条目 */
+  private final Map<String, String> authorizationDigests = new ConcurrentHashMap<>();
+
+  /** 本实例上已移除的认证信息 id，保留至所有可能的旧条目过期 */
+  private final Cache<String, Boolean> revokedAuthorizations;
+
+  /** 认证信息 id 与其最近一次变更序号的对应关系，保留至所有可能的旧条目过期 */
+  private final Cache<String, Long> recentChanges;
+
+  /** 变更序号，每收到一次认证信息变更事件递增 */
+  private final AtomicLong changeSequence = new AtomicLong();
+
+  /** 计时器，条目的加载时间与存活时间均以此计算 */
+  private final Ticker ticker;
+
+  /** 条目最长存活时间，超过后视为过期 */
+  private final long timeToLiveNanos;
+
+  /** 执行后台重新校验 */
+  private final Executor revalidationExecutor;
+
+  /** 正在重新校验的令牌摘要，避免同一条目重复提交 */
+  private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+  /** 因认证信息变更而失效的条目数 */
+  private final LongAdder invalidationCount = new LongAdder();
+
+  /** 以过期条目应答的次数 */
+  private final LongAdder staleCount = new LongAdder();
+
+  /** 后台重新校验失败的次数 */
+  private final LongAdder revalidationFailureCount = new LongAdder();
+
+  public CachingOpaqueTokenIntrospector(
+      DefaultOpaqueTokenIntrospector delegate, long maximumSize, Duration timeToLive) {
+    this(delegate, maximumSize, timeToLive, Duration.ZERO);
+  }
+
+  /**
+   * 构造带本地缓存的透明令牌处理
+   *
+   * @param delegate 实际查询认证信息并加载用户的处理
+   * @param maximumSize 最大缓存条目数
+   * @param timeToLive 条目最长存活时间
+   * @param maxStaleness 条目超过最长存活时间后仍可使用的最长时间，为 0 时不使用过期条目
+   */
+  public CachingOpaqueTokenIntrospector(
+      DefaultOpaqueTokenIntrospector delegate,
+      long maximumSize,
+      Duration timeToLive,
+      Duration maxStaleness) {
+    // 重新校验是阻塞的数据库查询，放在虚拟线程上执行，不占用请求线程与公共 ForkJoinPool
+    this(
+        delegate,
+        maximumSize,
+        timeToLive,
+        maxStaleness,
+        Ticker.systemTicker(),
+        Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  CachingOpaqueTokenIntrospector(
+      DefaultOpaqueTokenIntrospector delegate,
+      long maximumSize,
+      Duration timeToLive,
+      Duration maxStaleness,
+      Ticker ticker,
+      Executor revalidationExecutor) {
+    Assert.notNull(delegate, "delegate cannot be null");
+    Assert.notNull(ticker, "ticker cannot be null");
+    Assert.notNull(revalidationExecutor, "revalidationExecutor cannot be null");
+    Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+    Assert.isTrue(
+        timeToLive != null && timeToLive.isPositive(), "timeToLive must be greater than 0");
+    Assert.isTrue(
+        maxStaleness != null && !maxStaleness.isNegative(), "maxStaleness cannot be negative");
+    this.delegate = delegate;
+    this.ticker = ticker;
+    this.timeToLiveNanos = timeToLive.toNanos();
+    this.revalidationExecutor = revalidationExecutor;
+    Duration lifetime = timeToLive.plus(maxStaleness);
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .ticker(ticker)
+            .expireAfter(new CachedPrincipalExpiry(lifetime))
+            .evictionListener(
+                (String digest, CachedPrincipal cached, RemovalCause cause) -> {
+                  if (cached != null) {
+                    this.authorizationDigests.remove(cached.authorizationId(), digest);
+                  }
+                })
+            .recordStats()
+            .build();
+    this.revokedAuthorizations =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .ticker(ticker)
+            .expireAfterWrite(lifetime)
+            .build();
+    this.recentChanges =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .ticker(ticker)
+            .expireAfterWrite(lifetime)
+            .build();
+  }
+
+  @Override
+  public OAuth2AuthenticatedPrincipal introspect(String token) {
+    String digest = TokenDigestUtils.digest(token);
+    CachedPrincipal cached = this.cache.get(digest, key -> load(key, token));
+    if (cached != null && isOutdated(cached)) {
+      this.cache.asMap().remove(digest, cached);
+      cached = this.cache.get(digest, key -> load(key, token));
+    }
+    if (cached == null) {
+      return null;
+    }
+    if (!isUsable(digest, cached)) {
+      throw new InvalidBearerTokenException("Invalid access token");
+    }
+    return cached.principal();
+  }
+
+  @Override
+  public Map<String, OAuth2AuthenticatedPrincipal> introspectAll(Collection<String> tokens) {
+    Map<String, String> digests = new HashMap<>();
+    for (String token : tokens) {
+      digests.putIfAbsent(TokenDigestUtils.digest(token), token);
+    }
+    Map<String, OAuth2AuthenticatedPrincipal> principals = new HashMap<>();
+    Map<String, CachedPrincipal> found =
+        new HashMap<>(this.cache.getAll(digests.keySet(), missing -> loadAll(missing, digests)));
+    Set<String> outdated = new HashSet<>();
+    found.forEach(
+        (digest, cached) -> {
+          if (isOutdated(cached)) {
+            this.cache.asMap().remove(digest, cached);
+            outdated.add(digest);
+          }
+        });
+    if (!outdated.isEmpty()) {
+      found.keySet().removeAll(outdated);
+      found.putAll(this.cache.getAll(outdated, missing -> loadAll(missing, digests)));
+    }
+    found.forEach(
+        (digest, cached) -> {
+          if (isUsable(digest, cached)) {
+            principals.put(digests.get(digest), cached.principal());
+          }
+        });
+    return principals;
+  }
+
+  /** 条目加载开始之后，其所属认证信息在本实例上又发生过变更 */
+  private boolean isOutdated(CachedPrincipal cached) {
+    Long changedAt = this.recentChanges.getIfPresent(cached.authorizationId());
+    return changedAt != null && changedAt > cached.sequence();
+  }
+
+  /**
+   * 条目所属认证信息已在本实例上被移除时失效条目并返回 false；条目已过期（仅在过期容忍时间内存在）时记录一次过期应答，
+   * 并提交后台重新校验
+   */
+  private boolean isUsable(String digest, CachedPrincipal cached) {
+    if (this.revokedAuthorizations.getIfPresent(cached.authorizationId()) != null) {
+      this.cache.invalidate(digest);
+      return false;
+    }
+    if (this.ticker.read() - cached.loadedAt() > this.timeToLiveNanos) {
+      this.staleCount.increment();
+      scheduleRevalidation(digest, cached);
+    }
+    return true;
+  }
+
+  /** 提交后台重新校验，成功时替换条目，认证信息已失效时移除条目，失败时保留旧条目，下次读取时再次尝试 */
+  private void scheduleRevalidation(String digest, CachedPrincipal cached) {
+    if (!this.revalidating.add(digest)) {
+      return;
+    }
+    try {
+      this.revalidationExecutor.execute(
+          () -> {
+            try {
+              CachedPrincipal fresh = revalidate(digest, cached);
+              if (fresh == null) {
+                this.cache.asMap().remove(digest, cached);
+              } else {
+                // 期间条目已被失效或替换时不写回
+                this.cache.asMap().replace(digest, cached, fresh);
+              }
+            } catch (RuntimeException ex) {
+              this.revalidationFailureCount.increment();
+            } finally {
+              this.revalidating.remove(digest);
+            }
+          });
+    } catch (RejectedExecutionException ex) {
+      this.revalidating.remove(digest);
+      this.revalidationFailureCount.increment();
+    }
+  }
+
+  /** 未命中的令牌以一次批量查询加载，无效令牌不缓存 */
+  private Map<String, CachedPrincipal> loadAll(
+      Set<? extends String> missing, Map<String, String> digests) {
+    long sequence = this.changeSequence.get();
+    Map<String, String> tokens = new HashMap<>();
+    for (String digest : missing) {
+      tokens.put(digest, digests.get(digest));
+    }
+    Map<String, CachedPrincipal> loaded = new HashMap<>();
+    this.delegate
+        .findAuthorizations(tokens)
+        .forEach(
+            (digest, authorization) -> {
+              CachedPrincipal cached =
+                  toCachedPrincipal(
+                      digest,
+                      authorization,
+                      this.delegate.introspectQuietly(authorization),
+                      sequence);
+              if (cached != null) {
+                loaded.put(digest, cached);
+              }
+            });
+    return loaded;
+  }
+
+  private CachedPrincipal load(String digest, String token) {
+    long sequence = this.changeSequence.get();
+    return toCachedPrincipal(digest, this.delegate.findAuthorization(token, digest), sequence);
+  }
+
+  /** 按认证信息 id 重新查询，访问令牌已被替换或认证信息已不存在时返回 null 以移除条目 */
+  private CachedPrincipal revalidate(String digest, CachedPrincipal cached) {
+    String authorizationId = cached.authorizationId();
+    if (this.revokedAuthorizations.getIfPresent(authorizationId) != null) {
+      return null;
+    }
+    long sequence = this.changeSequence.get();
+    OAuth2Authorization authorization = this.delegate.findAuthorizationById(authorizationId);
+    if (authorization == null
+        || authorization.getAccessToken() == null
+        || !digest.equals(
+            TokenDigestUtils.digest(authorization.getAccessToken().getToken().getTokenValue()))) {
+      this.authorizationDigests.remove(authorizationId, digest);
+      return null;
+    }
+    return toCachedPrincipal(digest, authorization, sequence);
+  }
+
+  private CachedPrincipal toCachedPrincipal(
+      String digest, OAuth2Authorization authorization, long sequence) {
+    return toCachedPrincipal(
+        digest, authorization, this.delegate.introspect(authorization), sequence);
+  }
+
+  private CachedPrincipal toCachedPrincipal(
+      String digest,
+      OAuth2Authorization authorization,
+      OAuth2AuthenticatedPrincipal principal,
+      long sequence) {
+    if (principal == null) {
+      return null;
+    }
+    this.authorizationDigests.put(authorization.getId(), digest);
+    return new CachedPrincipal(
+        principal,
+        authorization.getId(),
+        authorization.getAccessToken().getToken().getExpiresAt(),
+        this.ticker.read(),
+        sequence);
+  }
+
+  @Override
+  public void onApplicationEvent(OAuth2AuthorizationChangedEvent event) {
+    String authorizationId = event.getAuthorization().getId();
+    this.recentChanges.put(authorizationId, this.changeSequence.incrementAndGet());
+    if (event.isRemoved()) {
+      this.revokedAuthorizations.put(authorizationId, Boolean.TRUE);
+    }
+    String digest = this.authorizationDigests.remove(authorizationId);
+    if (digest != null) {
+      this.cache.invalidate(digest);
+      this.invalidationCount.increment();
+    }
+  }
+
+  /**
+   * 获取底层缓存，用于暴露命中率、加载耗时、淘汰数等统计指标
+   *
+   * @return 底层缓存
+   */
+  public Cache<String, ?> getCache() {
+    return this.cache;
+  }
+
+  /**
+   * 获取因认证信息变更而失效的条目数
+   *
+   * @return 失效条目数
+   */
+  public long getInvalidationCount() {
+    return this.invalidationCount.sum();
+  }
+
+  /**
+   * 获取以过期条目应答的次数
+   *
+   * @return 过期应答次数
+   */
+  public long getStaleCount() {
+    return this.staleCount.sum();
+  }
+
+  /**
+   * 获取后台重新校验失败的次数
+   *
+   * @return 重新校验失败次数
+   */
+  public long getRevalidationFailureCount() {
+    return this.revalidationFailureCount.sum();
+  }
+
+  /**
+   * 缓存条目
+   *
+   * @param principal 认证主体
+   * @param authorizationId 认证信息 id
+   * @param expiresAt 访问令牌过期时间
+   * @param loadedAt 加载或最近一次重新校验的时间，取自计时器
+   * @param sequence 开始查询数据库时的变更序号
+   */
+  private record CachedPrincipal(
+      OAuth2AuthenticatedPrincipal principal,
+      String authorizationId,
+      Instant expiresAt,
+      long loadedAt,
+      long sequence) {}
+
+  /** 按条目计算存活时间：不超过最长存活时间（含过期容忍时间），也不超过访问令牌剩余有效期 */
+  private record CachedPrincipalExpiry(Duration timeToLive)
+      implements Expiry<String, CachedPrincipal> {
+
+    @Override
+    public long expireAfterCreate(String digest, CachedPrincipal cached, long currentTime) {
+      if (cached.expiresAt() != null) {
+        Duration remaining = Duration.between(Instant.now(), cached.expiresAt());
+        if (remaining.compareTo(this.timeToLive) < 0) {
+          return Math.max(0, remaining.toNanos());
+        }
+      }
+      return this.timeToLive.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String digest, CachedPrincipal cached, long currentTime, long currentDuration) {
+      return expireAfterCreate(digest, cached, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String digest, CachedPrincipal cached, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
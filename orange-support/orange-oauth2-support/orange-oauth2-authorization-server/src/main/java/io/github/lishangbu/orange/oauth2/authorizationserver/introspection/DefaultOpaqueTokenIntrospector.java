@@ -1,11 +1,23 @@
 package io.github.lishangbu.orange.oauth2.authorizationserver.introspection;
 
+import io.github.lishangbu.orange.oauth2.authorizationserver.keygen.SignedKeyGenerator;
+import io.github.lishangbu.orange.oauth2.common.userdetails.PrincipalSnapshot;
 import io.github.lishangbu.orange.oauth2.common.userdetails.UserInfo;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,7 +29,6 @@ import org.springframework.security.oauth2.server.authorization.OAuth2Authorizat
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
-import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
 
 /**
  * 默认透明令牌处理
@@ -26,28 +37,231 @@ import org.springframework.security.oauth2.server.resource.introspection.OpaqueT
  * @since 2025/8/22
  */
 @Slf4j
-@RequiredArgsConstructor
-public class DefaultOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+public class DefaultOpaqueTokenIntrospector implements BatchOpaqueTokenIntrospector {
+  /** 客户端模式访问令牌的权限范围转为权限时的前缀 */
+  public static final String SCOPE_AUTHORITY_PREFIX = "SCOPE_";
+
+  /** 拒绝日志的最小输出间隔，避免令牌扫描时刷屏 */
+  private static final long REJECTION_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
   /** OAuth2授权服务 */
   private final OAuth2AuthorizationService authorizationService;
 
   private final UserDetailsService userDetailsService;
 
+  /** 已拒绝令牌过滤器，为 null 时不启用 */
+  private final RejectedTokenFilter rejectedTokenFilter;
+
+  /** 带校验码的令牌生成器，用于在查询数据库前校验令牌格式，为 null 时不校验 */
+  private final SignedKeyGenerator signedKeyGenerator;
+
+  /** 用户角色版本号查询，用于判断认证信息中的用户主体快照是否仍然有效，为 null 时总是重新加载用户 */
+  private final PrincipalVersionProvider principalVersionProvider;
+
+  /** 下一次允许输出拒绝日志的时间 */
+  private final AtomicLong nextRejectionLogAt = new AtomicLong(System.nanoTime());
+
+  /** 上一次输出拒绝日志后被省略的拒绝次数 */
+  private final LongAdder suppressedRejections = new LongAdder();
+
+  public DefaultOpaqueTokenIntrospector(
+      OAuth2AuthorizationService authorizationService, UserDetailsService userDetailsService) {
+    this(authorizationService, userDetailsService, null);
+  }
+
+  public DefaultOpaqueTokenIntrospector(
+      OAuth2AuthorizationService authorizationService,
+      UserDetailsService userDetailsService,
+      RejectedTokenFilter rejectedTokenFilter) {
+    this(authorizationService, userDetailsService, rejectedTokenFilter, null);
+  }
+
+  public DefaultOpaqueTokenIntrospector(
+      OAuth2AuthorizationService authorizationService,
+      UserDetailsService userDetailsService,
+      RejectedTokenFilter rejectedTokenFilter,
+      SignedKeyGenerator signedKeyGenerator) {
+    this(authorizationService, userDetailsService, rejectedTokenFilter, signedKeyGenerator, null);
+  }
+
+  public DefaultOpaqueTokenIntrospector(
+      OAuth2AuthorizationService authorizationService,
+      UserDetailsService userDetailsService,
+      RejectedTokenFilter rejectedTokenFilter,
+      SignedKeyGenerator signedKeyGenerator,
+      PrincipalVersionProvider principalVersionProvider) {
+    this.authorizationService = authorizationService;
+    this.userDetailsService = userDetailsService;
+    this.rejectedTokenFilter = rejectedTokenFilter;
+    this.signedKeyGenerator = signedKeyGenerator;
+    this.principalVersionProvider = principalVersionProvider;
+  }
+
   @Override
   public OAuth2AuthenticatedPrincipal introspect(String token) {
+    return introspect(findAuthorization(token, TokenDigestUtils.digest(token)));
+  }
+
+  /**
+   * 查询访问令牌对应的认证信息
+   *
+   * <p>校验码不匹配或近期已被拒绝过的令牌直接拒绝，不再查询数据库
+   *
+   * @param token 访问令牌
+   * @param digest 访问令牌摘要
+   * @return 认证信息
+   * @throws InvalidBearerTokenException 令牌不存在时抛出
+   */
+  public OAuth2Authorization findAuthorization(String token, String digest) {
+    if (isRejected(token, digest)) {
+      throw rejected(digest);
+    }
     OAuth2Authorization oldAuthorization =
         authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN);
     if (Objects.isNull(oldAuthorization)) {
-      log.error("资源服务器未找到对应的 token [{}]", token);
-      throw new InvalidBearerTokenException("Invalid access token: " + token);
+      if (this.rejectedTokenFilter != null) {
+        this.rejectedTokenFilter.put(digest);
+      }
+      throw rejected(digest);
+    }
+    return oldAuthorization;
+  }
+
+  @Override
+  public Map<String, OAuth2AuthenticatedPrincipal> introspectAll(Collection<String> tokens) {
+    Map<String, String> digests = new LinkedHashMap<>();
+    for (String token : tokens) {
+      digests.putIfAbsent(TokenDigestUtils.digest(token), token);
+    }
+    Map<String, OAuth2AuthenticatedPrincipal> principals = new HashMap<>();
+    findAuthorizations(digests)
+        .forEach(
+            (digest, authorization) -> {
+              OAuth2AuthenticatedPrincipal principal = introspectQuietly(authorization);
+              if (principal != null) {
+                principals.put(digests.get(digest), principal);
+              }
+            });
+    return principals;
+  }
+
+  /**
+   * 批量查询访问令牌对应的认证信息
+   *
+   * <p>与 {@link #findAuthorization(String, String)} 的拒绝规则一致；授权服务实现了 {@link AccessTokenBatchLookup}
+   * 时以一次查询完成，否则逐个查询
+   *
+   * @param tokens 访问令牌摘要与令牌原文的对应关系
+   * @return 访问令牌摘要与认证信息的对应关系，不含被拒绝或不存在的令牌
+   */
+  public Map<String, OAuth2Authorization> findAuthorizations(Map<String, String> tokens) {
+    List<String> candidates = new ArrayList<>(tokens.size());
+    tokens.forEach(
+        (digest, token) -> {
+          if (!isRejected(token, digest)) {
+            candidates.add(digest);
+          }
+        });
+    if (candidates.isEmpty()) {
+      return Map.of();
     }
-    // 客户端模式默认返回
+    Map<String, OAuth2Authorization> authorizations;
+    if (this.authorizationService instanceof AccessTokenBatchLookup batchLookup) {
+      authorizations = batchLookup.findByAccessTokenDigests(candidates);
+    } else {
+      authorizations = new HashMap<>();
+      for (String digest : candidates) {
+        OAuth2Authorization authorization =
+            this.authorizationService.findByToken(
+                tokens.get(digest), OAuth2TokenType.ACCESS_TOKEN);
+        if (authorization != null) {
+          authorizations.put(digest, authorization);
+        }
+      }
+    }
+    if (this.rejectedTokenFilter != null) {
+      for (String digest : candidates) {
+        if (!authorizations.containsKey(digest)) {
+          this.rejectedTokenFilter.put(digest);
+        }
+      }
+    }
+    return authorizations;
+  }
+
+  /**
+   * 构建认证主体，用户已不存在时返回 null 而不抛出异常，供批量解析使用
+   *
+   * @param authorization 访问令牌对应的认证信息
+   * @return 认证主体，无法构建时返回 null
+   */
+  public OAuth2AuthenticatedPrincipal introspectQuietly(OAuth2Authorization authorization) {
+    try {
+      return introspect(authorization);
+    } catch (AuthenticationException ex) {
+      return null;
+    }
+  }
+
+  /** 校验码不匹配（校验码本身即可识别伪造令牌，无需占用过滤器容量）或近期已被拒绝过的令牌 */
+  private boolean isRejected(String token, String digest) {
+    if (this.signedKeyGenerator != null && !this.signedKeyGenerator.verify(token)) {
+      return true;
+    }
+    return this.rejectedTokenFilter != null && this.rejectedTokenFilter.mightContain(digest);
+  }
+
+  /**
+   * 按 id 查询认证信息，用于缓存条目的后台重新校验
+   *
+   * @param id 认证信息 id
+   * @return 认证信息，不存在时返回 null
+   */
+  public OAuth2Authorization findAuthorizationById(String id) {
+    return authorizationService.findById(id);
+  }
+
+  /** 记录限流后的拒绝日志，日志中只输出摘要前缀，不输出令牌原文 */
+  private InvalidBearerTokenException rejected(String digest) {
+    long now = System.nanoTime();
+    long next = this.nextRejectionLogAt.get();
+    if (now - next >= 0
+        && this.nextRejectionLogAt.compareAndSet(next, now + REJECTION_LOG_INTERVAL_NANOS)) {
+      log.warn(
+          "资源服务器未找到对应的 token，摘要前缀 [{}]，上次记录后另有 {} 次拒绝未记录",
+          digest.substring(0, 8),
+          this.suppressedRejections.sumThenReset());
+    } else {
+      this.suppressedRejections.increment();
+    }
+    return new InvalidBearerTokenException("Invalid access token");
+  }
+
+  /**
+   * 根据已查出的认证信息构建认证主体
+   *
+   * <p>认证信息中带有用户主体快照且用户的角色版本号未变时直接以快照构建，否则重新加载用户
+   *
+   * @param oldAuthorization 访问令牌对应的认证信息
+   * @return 认证主体，无法构建时返回 null
+   */
+  public OAuth2AuthenticatedPrincipal introspect(OAuth2Authorization oldAuthorization) {
+    // 客户端模式以访问令牌的权限范围作为权限，加 SCOPE_ 前缀
     if (AuthorizationGrantType.CLIENT_CREDENTIALS.equals(
         oldAuthorization.getAuthorizationGrantType())) {
       return new DefaultOAuth2AuthenticatedPrincipal(
           oldAuthorization.getPrincipalName(),
           Objects.requireNonNull(oldAuthorization.getAccessToken().getClaims()),
-          AuthorityUtils.NO_AUTHORITIES);
+          AuthorityUtils.createAuthorityList(
+              oldAuthorization.getAccessToken().getToken().getScopes().stream()
+                  .map(scope -> SCOPE_AUTHORITY_PREFIX + scope)
+                  .toList()));
+    }
+
+    UserInfo snapshotUserInfo = fromSnapshot(oldAuthorization);
+    if (snapshotUserInfo != null) {
+      snapshotUserInfo.getAttributes().putAll(oldAuthorization.getAccessToken().getClaims());
+      return snapshotUserInfo;
     }
 
     UserDetails userDetails = null;
@@ -72,4 +286,25 @@ public class DefaultOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
 
     return null;
   }
+
+  /**
+   * 以认证信息中的用户主体快照构建用户主体
+   *
+   * @param authorization 认证信息
+   * @return 快照存在且角色版本号未变时返回用户主体，否则返回 null
+   */
+  private UserInfo fromSnapshot(OAuth2Authorization authorization) {
+    if (this.principalVersionProvider == null) {
+      return null;
+    }
+    PrincipalSnapshot snapshot = authorization.getAttribute(PrincipalSnapshot.ATTRIBUTE);
+    if (snapshot == null) {
+      return null;
+    }
+    Long roleVersion = this.principalVersionProvider.getRoleVersion(snapshot.getUsername());
+    if (roleVersion == null || roleVersion != snapshot.getRoleVersion()) {
+      return null;
+    }
+    return snapshot.toUserInfo();
+  }
 }
@@ -0,0 +1,23 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.introspection;
+
+/**
+ * 用户角色版本号查询
+ *
+ * <p>用户的角色或其拥有角色的内容变更时版本号递增，解析令牌时与 {@link
+ * io.github.lishangbu.orange.oauth2.common.userdetails.PrincipalSnapshot} 中记录的版本号比较，
+ * 一致时沿用快照，否则重新加载用户
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@FunctionalInterface
+public interface PrincipalVersionProvider {
+
+  /**
+   * 查询用户当前的角色版本号
+   *
+   * @param username 用户名
+   * @return 角色版本号，用户不存在时返回 null
+   */
+  Long getRoleVersion(String username);
+}
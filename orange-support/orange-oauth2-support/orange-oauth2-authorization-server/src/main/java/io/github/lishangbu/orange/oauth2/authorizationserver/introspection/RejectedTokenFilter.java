@@ -0,0 +1,228 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.introspection;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.OAuth2AuthorizationChangedEvent;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.util.Assert;
+
+/**
+ * 已拒绝令牌过滤器
+ *
+ * <p>以布隆过滤器记录近期查无此令牌的摘要，再次出现时无需访问数据库即可拒绝，用于抵御随机令牌扫描。
+ * 过滤器分新旧两代，当前代写满或超过轮换周期后旧代被丢弃，从而限制误判率并让记录自然过期
+ *
+ * <p>布隆过滤器存在极小概率的误判。本实例签发的访问令牌若恰好被误判，会在收到 {@link OAuth2AuthorizationChangedEvent}
+ * 时清空过滤器，保证合法令牌不会被拒绝
+ *
+ * <p>过滤器及上述清空只作用于本实例。多实例部署时，其它实例签发的令牌不会触发本实例的变更事件，
+ * 若恰好被本实例的过滤器误判，会在本实例上被拒绝，直至记录所在的一代被丢弃，最长两个轮换周期。
+ * 单个令牌被误判的概率约为两代误判率之和，默认配置下约为百万分之二；无法接受该风险时应调低误判率或关闭过滤器
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class RejectedTokenFilter implements ApplicationListener<OAuth2AuthorizationChangedEvent> {
+
+  private final int expectedInsertions;
+
+  private final long rotationIntervalNanos;
+
+  private final Ticker ticker;
+
+  /** 每代的位数 */
+  private final int numBits;
+
+  /** 哈希函数个数 */
+  private final int numHashFunctions;
+
+  /** 命中过滤器而未查询数据库即被拒绝的次数 */
+  private final LongAdder filteredCount = new LongAdder();
+
+  private volatile Generation current;
+
+  private volatile Generation previous;
+
+  /**
+   * 构造已拒绝令牌过滤器
+   *
+   * @param expectedInsertions 每代预期记录数，写满后轮换
+   * @param falsePositiveProbability 每代的期望误判率
+   * @param rotationInterval 轮换周期
+   */
+  public RejectedTokenFilter(
+      int expectedInsertions, double falsePositiveProbability, Duration rotationInterval) {
+    this(expectedInsertions, falsePositiveProbability, rotationInterval, Ticker.systemTicker());
+  }
+
+  RejectedTokenFilter(
+      int expectedInsertions,
+      double falsePositiveProbability,
+      Duration rotationInterval,
+      Ticker ticker) {
+    Assert.notNull(ticker, "ticker cannot be null");
+    Assert.isTrue(expectedInsertions > 0, "expectedInsertions must be greater than 0");
+    Assert.isTrue(
+        falsePositiveProbability > 0 && falsePositiveProbability < 1,
+        "falsePositiveProbability must be between 0 and 1");
+    Assert.isTrue(
+        rotationInterval != null && rotationInterval.isPositive(),
+        "rotationInterval must be greater than 0");
+    this.expectedInsertions = expectedInsertions;
+    this.ticker = ticker;
+    this.rotationIntervalNanos = rotationInterval.toNanos();
+    long bits =
+        (long)
+            Math.ceil(
+                -expectedInsertions
+                    * Math.log(falsePositiveProbability)
+                    / (Math.log(2) * Math.log(2)));
+    this.numBits = (int) Math.min(Math.max(bits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+    this.numHashFunctions =
+        Math.max(1, (int) Math.round((double) this.numBits / expectedInsertions * Math.log(2)));
+    this.current = newGeneration();
+  }
+
+  /**
+   * 判断令牌摘要是否近期被拒绝过
+   *
+   * @param digest 令牌摘要，见 {@link TokenDigestUtils#digest(String)}
+   * @return 可能被拒绝过时返回 true，返回 false 时一定未被记录
+   */
+  public boolean mightContain(String digest) {
+    rotateIfExpired();
+    boolean contains = contains(digest);
+    if (contains) {
+      this.filteredCount.increment();
+    }
+    return contains;
+  }
+
+  /**
+   * 记录被拒绝的令牌摘要
+   *
+   * @param digest 令牌摘要
+   */
+  public void put(String digest) {
+    rotateIfExpired();
+    Generation generation = this.current;
+    long hash1 = hash1(digest);
+    long hash2 = hash2(digest);
+    for (int i = 0; i < this.numHashFunctions; i++) {
+      generation.set(index(hash1, hash2, i));
+    }
+    if (generation.insertions.incrementAndGet() >= this.expectedInsertions) {
+      rotate(generation);
+    }
+  }
+
+  /**
+   * 获取命中过滤器而未查询数据库即被拒绝的次数
+   *
+   * @return 拒绝次数
+   */
+  public long getFilteredCount() {
+    return this.filteredCount.sum();
+  }
+
+  @Override
+  public void onApplicationEvent(OAuth2AuthorizationChangedEvent event) {
+    if (event.isRemoved()) {
+      return;
+    }
+    OAuth2Authorization.Token<OAuth2AccessToken> accessToken =
+        event.getAuthorization().getAccessToken();
+    if (accessToken != null
+        && contains(TokenDigestUtils.digest(accessToken.getToken().getTokenValue()))) {
+      // 新签发的令牌被误判，清空过滤器以免拒绝合法令牌
+      clear();
+    }
+  }
+
+  private boolean contains(String digest) {
+    long hash1 = hash1(digest);
+    long hash2 = hash2(digest);
+    Generation previousGeneration = this.previous;
+    return contains(this.current, hash1, hash2)
+        || (previousGeneration != null && contains(previousGeneration, hash1, hash2));
+  }
+
+  private boolean contains(Generation generation, long hash1, long hash2) {
+    for (int i = 0; i < this.numHashFunctions; i++) {
+      if (!generation.get(index(hash1, hash2, i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int index(long hash1, long hash2, int i) {
+    return (int) Math.floorMod(hash1 + i * hash2, (long) this.numBits);
+  }
+
+  private void rotateIfExpired() {
+    Generation generation = this.current;
+    if (this.ticker.read() - generation.createdAt >= this.rotationIntervalNanos) {
+      rotate(generation);
+    }
+  }
+
+  private synchronized void rotate(Generation expected) {
+    if (this.current != expected) {
+      return;
+    }
+    this.previous = expected;
+    this.current = newGeneration();
+  }
+
+  private synchronized void clear() {
+    this.previous = null;
+    this.current = newGeneration();
+  }
+
+  private Generation newGeneration() {
+    return new Generation(this.numBits, this.ticker.read());
+  }
+
+  /** 摘要本身是均匀分布的 SHA-256 十六进制串，直接截取其中两段作为双重哈希的两个哈希值 */
+  private static long hash1(String digest) {
+    return Long.parseUnsignedLong(digest, 0, 16, 16);
+  }
+
+  private static long hash2(String digest) {
+    return Long.parseUnsignedLong(digest, 16, 32, 16) | 1;
+  }
+
+  /** 一代布隆过滤器 */
+  private static final class Generation {
+    private final AtomicLongArray bits;
+
+    private final AtomicInteger insertions = new AtomicInteger();
+
+    private final long createdAt;
+
+    Generation(int numBits, long createdAt) {
+      this.bits = new AtomicLongArray((numBits + Long.SIZE - 1) / Long.SIZE);
+      this.createdAt = createdAt;
+    }
+
+    boolean get(int index) {
+      return (this.bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    void set(int index) {
+      long mask = 1L << index;
+      int slot = index >>> 6;
+      long value = this.bits.get(slot);
+      while ((value & mask) == 0 && !this.bits.compareAndSet(slot, value, value | mask)) {
+        value = this.bits.get(slot);
+      }
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.jwk;
+
+import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jwk.AsymmetricJWK;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.security.Key;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.util.Assert;
+
+/**
+ * 签名密钥环
+ *
+ * <p>持有当前发布的全部密钥及其中的签名密钥（每种签名算法一个），作为一个不可变快照整体替换：
+ *
+ * <ul>
+ *   <li>{@link #jwkSource()} 返回全部密钥，供 JWK Set 端点发布公钥
+ *   <li>{@link #signingJwkSource()} 只返回签名密钥，签发令牌时按 JWS 头部的算法恰好匹配一个密钥，
+ *       不会因轮换期间多个密钥同时匹配而失败
+ *   <li>{@link #getVerificationKey(String, JWSAlgorithm)} 按 kid 直接取出预先转换好的公钥，验签时无需遍历匹配 JWK Set
+ * </ul>
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class JwkKeyRing {
+
+  private static final String PROBE_PAYLOAD = "jwk-key-ring-probe";
+
+  private static final DefaultJWSSignerFactory SIGNER_FACTORY = new DefaultJWSSignerFactory();
+
+  private static final DefaultJWSVerifierFactory VERIFIER_FACTORY = new DefaultJWSVerifierFactory();
+
+  private volatile Snapshot snapshot;
+
+  /**
+   * 构造密钥环
+   *
+   * @param keys 发布的全部密钥
+   * @param signingKeys 签名密钥，每种算法至多一个，必须包含在 keys 中
+   */
+  public JwkKeyRing(List<JWK> keys, List<JWK> signingKeys) {
+    update(keys, signingKeys);
+  }
+
+  /**
+   * 替换密钥环中的密钥，密钥与签名密钥均未变化时保持原快照及版本号不变
+   *
+   * @param keys 发布的全部密钥
+   * @param signingKeys 签名密钥，每种算法至多一个，必须包含在 keys 中
+   */
+  public void update(List<JWK> keys, List<JWK> signingKeys) {
+    Assert.notEmpty(keys, "keys cannot be empty");
+    Assert.notEmpty(signingKeys, "signingKeys cannot be empty");
+    Assert.isTrue(keys.containsAll(signingKeys), "signingKeys must be part of keys");
+    Snapshot previous = this.snapshot;
+    if (previous != null
+        && previous.jwkSet().getKeys().equals(keys)
+        && previous.signingJwkSet().getKeys().equals(signingKeys)) {
+      return;
+    }
+    Map<String, VerificationKey> verificationKeys = HashMap.newHashMap(keys.size());
+    for (JWK key : keys) {
+      verificationKeys.put(key.getKeyID(), toVerificationKey(key));
+    }
+    Map<JWSAlgorithm, JWK> signingKeysByAlgorithm = new LinkedHashMap<>();
+    for (JWK signingKey : signingKeys) {
+      Assert.isNull(
+          signingKeysByAlgorithm.put(algorithmOf(signingKey), signingKey),
+          "only one signing key is allowed per algorithm");
+    }
+    this.snapshot =
+        new Snapshot(
+            new JWKSet(keys),
+            new JWKSet(List.copyOf(signingKeys)),
+            Collections.unmodifiableMap(signingKeysByAlgorithm),
+            Map.copyOf(verificationKeys),
+            previous == null ? 1 : previous.version() + 1);
+  }
+
+  /**
+   * 返回包含全部密钥的 JWKSource
+   *
+   * @return JWKSource，每次调用时读取最新快照
+   */
+  public JWKSource<SecurityContext> jwkSource() {
+    return (jwkSelector, context) -> jwkSelector.select(this.snapshot.jwkSet());
+  }
+
+  /**
+   * 返回只包含签名密钥的 JWKSource
+   *
+   * @return JWKSource，每次调用时读取最新快照
+   */
+  public JWKSource<SecurityContext> signingJwkSource() {
+    return (jwkSelector, context) -> jwkSelector.select(this.snapshot.signingJwkSet());
+  }
+
+  /**
+   * 按 kid 查找验签公钥
+   *
+   * @param keyId JWS 头部的 kid，为空时使用该算法的签名密钥
+   * @param algorithm JWS 头部的算法
+   * @return 公钥，kid 不存在或算法与密钥不符时返回 null
+   */
+  public Key getVerificationKey(String keyId, JWSAlgorithm algorithm) {
+    Snapshot current = this.snapshot;
+    if (keyId == null) {
+      JWK signingKey = current.signingKeys().get(algorithm);
+      if (signingKey == null) {
+        return null;
+      }
+      keyId = signingKey.getKeyID();
+    }
+    VerificationKey verificationKey = current.verificationKeys().get(keyId);
+    if (verificationKey == null || !verificationKey.algorithm().equals(algorithm)) {
+      return null;
+    }
+    return verificationKey.publicKey();
+  }
+
+  /** 获取发布的全部密钥 */
+  public List<JWK> getKeys() {
+    return this.snapshot.jwkSet().getKeys();
+  }
+
+  /** 获取签名密钥，每种算法一个 */
+  public List<JWK> getSigningKeys() {
+    return this.snapshot.signingJwkSet().getKeys();
+  }
+
+  /**
+   * 获取密钥环的版本号
+   *
+   * <p>发布的密钥或签名密钥每变化一次递增一次，可据此判断依赖密钥的预渲染内容是否需要重新生成
+   *
+   * @return 版本号，从 1 开始
+   */
+  public long getVersion() {
+    return this.snapshot.version();
+  }
+
+  /** 获取可用于签名的算法 */
+  public Set<JWSAlgorithm> getSigningAlgorithms() {
+    return this.snapshot.signingKeys().keySet();
+  }
+
+  /**
+   * 以每个签名密钥签名一段探测内容，再以密钥环中对应的公钥验签
+   *
+   * <p>启动时调用：公私钥不配对、密钥损坏等问题在启动阶段即暴露，而不是在首个令牌请求时才失败；
+   * 同时完成各签名算法 JCA 实现的加载，首个令牌请求无需承担这部分初始化开销
+   *
+   * @throws IllegalStateException 任一签名密钥签名或验签失败时抛出
+   */
+  public void verifySigningKeys() {
+    for (Map.Entry<JWSAlgorithm, JWK> entry : this.snapshot.signingKeys().entrySet()) {
+      JWSAlgorithm algorithm = entry.getKey();
+      JWK key = entry.getValue();
+      try {
+        JWSObject probe =
+            new JWSObject(
+                new JWSHeader.Builder(algorithm).keyID(key.getKeyID()).build(),
+                new Payload(PROBE_PAYLOAD));
+        probe.sign(SIGNER_FACTORY.createJWSSigner(key, algorithm));
+        Key publicKey = getVerificationKey(key.getKeyID(), algorithm);
+        if (publicKey == null
+            || !probe.verify(VERIFIER_FACTORY.createJWSVerifier(probe.getHeader(), publicKey))) {
+          throw new IllegalStateException("签名密钥 " + key.getKeyID() + " 的公私钥不配对");
+        }
+      } catch (JOSEException e) {
+        throw new IllegalStateException("签名密钥 " + key.getKeyID() + " 无法完成签名与验签", e);
+      }
+    }
+  }
+
+  /**
+   * 获取密钥的签名算法
+   *
+   * <p>从 JSON 解析出的 JWK 中 {@code alg} 为通用的 {@link Algorithm}，统一转换为 {@link JWSAlgorithm}
+   *
+   * @param key 密钥
+   * @return 签名算法
+   */
+  public static JWSAlgorithm algorithmOf(JWK key) {
+    Algorithm algorithm = key.getAlgorithm();
+    Assert.notNull(algorithm, "key " + key.getKeyID() + " has no alg");
+    return algorithm instanceof JWSAlgorithm jwsAlgorithm
+        ? jwsAlgorithm
+        : JWSAlgorithm.parse(algorithm.getName());
+  }
+
+  private static VerificationKey toVerificationKey(JWK key) {
+    Assert.isInstanceOf(AsymmetricJWK.class, key, "key " + key.getKeyID() + " is not asymmetric");
+    try {
+      return new VerificationKey(algorithmOf(key), ((AsymmetricJWK) key).toPublicKey());
+    } catch (JOSEException e) {
+      throw new IllegalArgumentException("无法从密钥 " + key.getKeyID() + " 中提取公钥", e);
+    }
+  }
+
+  /** 预先转换的验签公钥及其算法 */
+  private record VerificationKey(JWSAlgorithm algorithm, Key publicKey) {}
+
+  /** 不可变的密钥快照 */
+  private record Snapshot(
+      JWKSet jwkSet,
+      JWKSet signingJwkSet,
+      Map<JWSAlgorithm, JWK> signingKeys,
+      Map<String, VerificationKey> verificationKeys,
+      long version) {}
+}
@@ -0,0 +1,304 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.jwk;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.JWKGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.Assert;
+
+/**
+ * 签名密钥轮换任务
+ *
+ * <p>密钥的生命周期完全由其签发时间（JWK 的 {@code iat}）推导，不额外保存状态：
+ *
+ * <ol>
+ *   <li>最新密钥的年龄达到轮换间隔时生成新密钥，新密钥立即发布到 JWK Set，但在激活延迟内不用于签名，
+ *       使其它实例和依赖方有时间取得新公钥
+ *   <li>激活延迟过后，新密钥成为签名密钥，旧密钥只用于验签
+ *   <li>旧密钥被取代超过退役延迟后从密钥文件和 JWK Set 中移除，退役延迟应不小于令牌的最长有效期
+ * </ol>
+ *
+ * <p>每种签名算法各有一组密钥，按上述规则各自轮换，任一时刻每种算法恰有一个签名密钥。ES256 等椭圆曲线算法的签名耗时远低于
+ * RSA，可按客户端的 {@code idTokenSignatureAlgorithm} 选用
+ *
+ * <p>每次检查都重新读取密钥文件，多个实例共享同一密钥文件时会收敛到同一组密钥
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Slf4j
+public class JwkKeyRotator implements SmartLifecycle {
+
+  private static final Comparator<JWK> BY_ISSUE_TIME =
+      Comparator.comparing(JwkKeyRotator::issuedAt);
+
+  private final JwkKeyStore keyStore;
+
+  private final Duration rotationInterval;
+
+  private final Duration activationDelay;
+
+  private final Duration retirementDelay;
+
+  private final Duration checkInterval;
+
+  private final int rsaKeySize;
+
+  /** 需要维护签名密钥的算法，每种算法各自轮换 */
+  private final List<JWSAlgorithm> algorithms;
+
+  private volatile JwkKeyRing keyRing;
+
+  private volatile ScheduledExecutorService executor;
+
+  private volatile boolean running;
+
+  /**
+   * 构造签名密钥轮换任务
+   *
+   * @param keyStore 密钥存储
+   * @param rotationInterval 轮换间隔
+   * @param activationDelay 新密钥发布后到用于签名的延迟
+   * @param retirementDelay 旧密钥被取代后到移除的延迟
+   * @param checkInterval 检查间隔
+   * @param rsaKeySize 新生成的 RSA 密钥长度
+   * @param algorithms 需要维护签名密钥的算法，支持 RSA 与 EC 系列
+   */
+  public JwkKeyRotator(
+      JwkKeyStore keyStore,
+      Duration rotationInterval,
+      Duration activationDelay,
+      Duration retirementDelay,
+      Duration checkInterval,
+      int rsaKeySize,
+      List<JWSAlgorithm> algorithms) {
+    Assert.isTrue(rotationInterval.isPositive(), "rotationInterval must be positive");
+    Assert.isTrue(!activationDelay.isNegative(), "activationDelay cannot be negative");
+    Assert.isTrue(!retirementDelay.isNegative(), "retirementDelay cannot be negative");
+    Assert.isTrue(checkInterval.isPositive(), "checkInterval must be positive");
+    Assert.notEmpty(algorithms, "algorithms cannot be empty");
+    for (JWSAlgorithm algorithm : algorithms) {
+      Assert.isTrue(
+          JWSAlgorithm.Family.RSA.contains(algorithm) || JWSAlgorithm.Family.EC.contains(algorithm),
+          () -> "unsupported signing algorithm: " + algorithm);
+    }
+    this.keyStore = keyStore;
+    this.rotationInterval = rotationInterval;
+    this.activationDelay = activationDelay;
+    this.retirementDelay = retirementDelay;
+    this.checkInterval = checkInterval;
+    this.rsaKeySize = rsaKeySize;
+    this.algorithms = List.copyOf(new LinkedHashSet<>(algorithms));
+  }
+
+  /**
+   * 加载密钥文件并按当前时间完成一次轮换，返回的密钥环此后由本任务更新
+   *
+   * @return 密钥环
+   */
+  public synchronized JwkKeyRing initialize() {
+    if (this.keyRing == null) {
+      rotate(Instant.now());
+    }
+    return this.keyRing;
+  }
+
+  /**
+   * 按给定时间生成、激活、移除密钥并更新密钥环
+   *
+   * @param now 当前时间
+   */
+  synchronized void rotate(Instant now) {
+    Selection selection = this.keyStore.withLock(() -> select(now));
+    JwkKeyRing current = this.keyRing;
+    if (current == null) {
+      this.keyRing = new JwkKeyRing(selection.keys(), selection.signingKeys());
+      log.info(
+          "签名密钥环初始化完成，签名密钥 kid: {}，共 {} 个密钥",
+          selection.signingKeys().stream().map(JWK::getKeyID).toList(),
+          selection.keys().size());
+      return;
+    }
+    if (!current.getSigningKeys().equals(selection.signingKeys())) {
+      log.info(
+          "签名密钥切换 kid: {} -> {}",
+          current.getSigningKeys().stream().map(JWK::getKeyID).toList(),
+          selection.signingKeys().stream().map(JWK::getKeyID).toList());
+    }
+    current.update(selection.keys(), selection.signingKeys());
+  }
+
+  private Selection select(Instant now) {
+    Map<JWSAlgorithm, List<JWK>> groups = new LinkedHashMap<>();
+    this.algorithms.forEach(algorithm -> groups.put(algorithm, new ArrayList<>()));
+    List<JWK> keys = new ArrayList<>();
+    boolean changed = false;
+    for (JWK key : this.keyStore.load()) {
+      List<JWK> group = groups.get(JwkKeyRing.algorithmOf(key));
+      if (group != null) {
+        group.add(key);
+      } else if (orphanRetiredAt(key).isAfter(now)) {
+        // 已不再配置的算法的密钥不再轮换，保留到按原节奏本应移除的时间
+        keys.add(key);
+      } else {
+        log.info("移除已退役的签名密钥 kid: {}", key.getKeyID());
+        changed = true;
+      }
+    }
+    List<JWK> signingKeys = new ArrayList<>(groups.size());
+    for (Map.Entry<JWSAlgorithm, List<JWK>> entry : groups.entrySet()) {
+      List<JWK> group = entry.getValue();
+      group.sort(BY_ISSUE_TIME);
+      changed |= rotateGroup(entry.getKey(), group, now);
+      signingKeys.add(group.get(signingIndex(group, now)));
+      keys.addAll(group);
+    }
+    if (changed) {
+      this.keyStore.save(keys);
+    }
+    return new Selection(List.copyOf(keys), List.copyOf(signingKeys));
+  }
+
+  /**
+   * 对同一算法的密钥生成新密钥、移除已退役的密钥
+   *
+   * @param algorithm 签名算法
+   * @param group 按签发时间升序排列的密钥，原地修改
+   * @param now 当前时间
+   * @return 密钥是否有变化
+   */
+  private boolean rotateGroup(JWSAlgorithm algorithm, List<JWK> group, Instant now) {
+    boolean changed = false;
+    if (group.isEmpty() || !issuedAt(group.getLast()).plus(this.rotationInterval).isAfter(now)) {
+      JWK generated = generate(algorithm, now);
+      group.add(generated);
+      changed = true;
+      log.info(
+          "生成新的 {} 签名密钥 kid: {}，{} 后用于签名",
+          algorithm,
+          generated.getKeyID(),
+          this.activationDelay);
+    }
+    // 签名密钥之前的密钥，被后一个密钥取代超过退役延迟后移除
+    int signingIndex = signingIndex(group, now);
+    int retired = 0;
+    while (retired < signingIndex
+        && !activatedAt(group.get(retired + 1)).plus(this.retirementDelay).isAfter(now)) {
+      log.info("移除已退役的签名密钥 kid: {}", group.get(retired).getKeyID());
+      retired++;
+    }
+    if (retired > 0) {
+      group.subList(0, retired).clear();
+      changed = true;
+    }
+    return changed;
+  }
+
+  /** 签名密钥为已过激活延迟的最新密钥；只有一个密钥或均未激活时使用最早的密钥 */
+  private int signingIndex(List<JWK> group, Instant now) {
+    for (int i = group.size() - 1; i > 0; i--) {
+      if (!activatedAt(group.get(i)).isAfter(now)) {
+        return i;
+      }
+    }
+    return 0;
+  }
+
+  private JWK generate(JWSAlgorithm algorithm, Instant now) {
+    try {
+      JWKGenerator<? extends JWK> generator =
+          JWSAlgorithm.Family.EC.contains(algorithm)
+              ? new ECKeyGenerator(Curve.forJWSAlgorithm(algorithm).iterator().next())
+              : new RSAKeyGenerator(this.rsaKeySize);
+      return generator
+          .keyUse(KeyUse.SIGNATURE)
+          .algorithm(algorithm)
+          .keyIDFromThumbprint(true)
+          .issueTime(Date.from(now))
+          .generate();
+    } catch (JOSEException e) {
+      throw new IllegalStateException("无法生成 " + algorithm + " 签名密钥", e);
+    }
+  }
+
+  /** 不再配置的算法的密钥本应被移除的时间：按原节奏再经过一次轮换、激活与退役 */
+  private Instant orphanRetiredAt(JWK key) {
+    return activatedAt(key).plus(this.rotationInterval).plus(this.retirementDelay);
+  }
+
+  private Instant activatedAt(JWK key) {
+    return issuedAt(key).plus(this.activationDelay);
+  }
+
+  private static Instant issuedAt(JWK key) {
+    Date issueTime = key.getIssueTime();
+    return issueTime == null ? Instant.EPOCH : issueTime.toInstant();
+  }
+
+  @Override
+  public void start() {
+    if (this.running) {
+      return;
+    }
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "jwk-key-rotator");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.running = true;
+    long interval = this.checkInterval.toMillis();
+    this.executor.scheduleWithFixedDelay(
+        this::rotateQuietly, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  private void rotateQuietly() {
+    try {
+      rotate(Instant.now());
+    } catch (RuntimeException e) {
+      log.warn("签名密钥轮换失败，{} 后重试", this.checkInterval, e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    this.running = false;
+    ScheduledExecutorService scheduledExecutor = this.executor;
+    if (scheduledExecutor == null) {
+      return;
+    }
+    scheduledExecutor.shutdownNow();
+    try {
+      scheduledExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /** 一次检查选出的密钥 */
+  private record Selection(List<JWK> keys, List<JWK> signingKeys) {}
+}
@@ -0,0 +1,109 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.jwk;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 签名密钥的本地存储
+ *
+ * <p>以 JWK Set JSON 格式（包含私钥）保存在本地文件中，写入时先写临时文件再原子替换，POSIX 文件系统上权限为 600。
+ * 读改写期间持有同目录下 {@code .lock} 文件的排它锁，多个实例挂载同一目录时不会相互覆盖对方新生成的密钥
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class JwkKeyStore {
+
+  private final Path path;
+
+  private final Path lockPath;
+
+  public JwkKeyStore(Path path) {
+    this.path = path.toAbsolutePath();
+    this.lockPath = this.path.resolveSibling(this.path.getFileName() + ".lock");
+  }
+
+  /**
+   * 读取全部密钥
+   *
+   * @return 密钥，文件不存在时返回空列表
+   */
+  public List<JWK> load() {
+    if (!Files.exists(this.path)) {
+      return List.of();
+    }
+    try {
+      return JWKSet.parse(Files.readString(this.path, StandardCharsets.UTF_8)).getKeys();
+    } catch (IOException e) {
+      throw new UncheckedIOException("读取密钥文件 " + this.path + " 失败", e);
+    } catch (ParseException e) {
+      throw new IllegalStateException("密钥文件 " + this.path + " 格式错误", e);
+    }
+  }
+
+  /**
+   * 保存全部密钥，覆盖原有内容
+   *
+   * @param keys 密钥
+   */
+  public void save(List<JWK> keys) {
+    String content = new JWKSet(keys).toString(false);
+    try {
+      Path directory = this.path.getParent();
+      Files.createDirectories(directory);
+      Path temp = Files.createTempFile(directory, this.path.getFileName().toString(), ".tmp");
+      try {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+          Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+        }
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(
+            temp, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("写入密钥文件 " + this.path + " 失败", e);
+    }
+  }
+
+  /**
+   * 持有排它锁执行读改写
+   *
+   * @param action 读改写操作
+   * @param <T> 返回值类型
+   * @return 操作的返回值
+   */
+  public <T> T withLock(Supplier<T> action) {
+    try {
+      Files.createDirectories(this.lockPath.getParent());
+      try (FileChannel channel =
+              FileChannel.open(
+                  this.lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+          FileLock lock = channel.lock()) {
+        return action.get();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("锁定密钥文件 " + this.lockPath + " 失败", e);
+    }
+  }
+
+  /** 获取密钥文件路径 */
+  public Path getPath() {
+    return this.path;
+  }
+}
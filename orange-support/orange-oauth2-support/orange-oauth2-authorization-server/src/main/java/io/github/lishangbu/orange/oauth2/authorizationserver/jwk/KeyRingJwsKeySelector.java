@@ -0,0 +1,31 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.jwk;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.security.Key;
+import java.util.List;
+
+/**
+ * 按 kid 从签名密钥环中选取验签公钥
+ *
+ * <p>代替 {@link com.nimbusds.jose.proc.JWSVerificationKeySelector} 对 JWK Set 的逐个匹配与公钥转换，
+ * 每次验签只需一次哈希查找；密钥轮换后立即生效
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class KeyRingJwsKeySelector implements JWSKeySelector<SecurityContext> {
+
+  private final JwkKeyRing keyRing;
+
+  public KeyRingJwsKeySelector(JwkKeyRing keyRing) {
+    this.keyRing = keyRing;
+  }
+
+  @Override
+  public List<? extends Key> selectJWSKeys(JWSHeader header, SecurityContext context) {
+    Key key = this.keyRing.getVerificationKey(header.getKeyID(), header.getAlgorithm());
+    return key == null ? List.of() : List.of(key);
+  }
+}
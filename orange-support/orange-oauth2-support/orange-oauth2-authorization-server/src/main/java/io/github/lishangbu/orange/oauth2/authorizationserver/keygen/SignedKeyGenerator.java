@@ -0,0 +1,231 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.keygen;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.util.Base64URL;
+import io.github.lishangbu.orange.oauth2.authorizationserver.jwk.JwkKeyRing;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.text.ParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.security.crypto.keygen.BytesKeyGenerator;
+import org.springframework.security.crypto.keygen.KeyGenerators;
+import org.springframework.security.crypto.keygen.StringKeyGenerator;
+import org.springframework.util.Assert;
+
+/**
+ * 带校验码的 Key 生成器
+ *
+ * <p>生成的 Key 为 {@code 版本号 | 密钥 id 长度 | 密钥 id | 24 字节随机数 | 16 字节 HMAC-SHA256 截断值} 的
+ * Base64URL 编码（无填充），无需查询数据库即可通过 {@link #verify(String)} 识别格式错误或伪造的令牌
+ *
+ * <p>密钥轮换时新增密钥并切换当前密钥 id，旧密钥保留到其签发的令牌全部过期为止；轮换期间 UUID 格式的旧令牌仍可通过校验
+ *
+ * <p>自包含格式的访问令牌是 JWT，只在 JOSE 头部可解析、且 {@code kid} 与算法对应签名密钥环中的密钥时放行，
+ * 任意带两个点号的字符串不会因此绕过校验
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class SignedKeyGenerator implements StringKeyGenerator {
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+
+  private static final byte VERSION_1 = 1;
+
+  private static final int RANDOM_LENGTH = 24;
+
+  private static final int MAC_LENGTH = 16;
+
+  private static final int MAX_KEY_ID_LENGTH = 32;
+
+  /** 密钥最短长度，与 HMAC-SHA256 输出长度一致 */
+  private static final int MIN_SECRET_LENGTH = 32;
+
+  /** 最长的合法令牌长度，超过时无需解码直接拒绝 */
+  private static final int MAX_TOKEN_LENGTH =
+      (2 + MAX_KEY_ID_LENGTH + RANDOM_LENGTH + MAC_LENGTH + 2) / 3 * 4;
+
+  private static final int UUID_LENGTH = 36;
+
+  /** 最长的 JWT 长度，超过时无需解析直接拒绝 */
+  private static final int MAX_JWT_LENGTH = 16 * 1024;
+
+  /** 最长的 JOSE 头部长度，超过时无需解析直接拒绝 */
+  private static final int MAX_JWT_HEADER_LENGTH = 1024;
+
+  private final BytesKeyGenerator randomGenerator = KeyGenerators.secureRandom(RANDOM_LENGTH);
+
+  private final String activeKeyId;
+
+  private final byte[] activeKeyIdBytes;
+
+  /** 按密钥 id 缓存每个线程的 Mac 实例，Mac 非线程安全 */
+  private final Map<String, ThreadLocal<Mac>> macs = new LinkedHashMap<>();
+
+  private final boolean acceptLegacyTokens;
+
+  /** 签名密钥环，为 null 时只校验 JWT 的 JOSE 头部格式 */
+  private final JwkKeyRing keyRing;
+
+  public SignedKeyGenerator(
+      String activeKeyId, Map<String, byte[]> secrets, boolean acceptLegacyTokens) {
+    this(activeKeyId, secrets, acceptLegacyTokens, null);
+  }
+
+  /**
+   * 构造带校验码的 Key 生成器
+   *
+   * @param activeKeyId 签发新 Key 使用的密钥 id
+   * @param secrets 密钥 id 与密钥的对应关系，必须包含当前密钥 id
+   * @param acceptLegacyTokens 是否接受 UUID 格式的旧令牌
+   * @param keyRing 签名密钥环，用于识别 JWT 格式的令牌；使用自定义 JWKSource 时为 null，只校验 JOSE 头部格式
+   */
+  public SignedKeyGenerator(
+      String activeKeyId,
+      Map<String, byte[]> secrets,
+      boolean acceptLegacyTokens,
+      JwkKeyRing keyRing) {
+    Assert.hasText(activeKeyId, "activeKeyId cannot be empty");
+    Assert.isTrue(secrets.containsKey(activeKeyId), "secrets must contain the active key id");
+    secrets.forEach(
+        (keyId, secret) -> {
+          Assert.isTrue(
+              keyId.length() <= MAX_KEY_ID_LENGTH
+                  && StandardCharsets.US_ASCII.newEncoder().canEncode(keyId),
+              "key id must be ascii and no longer than " + MAX_KEY_ID_LENGTH);
+          Assert.isTrue(
+              secret.length >= MIN_SECRET_LENGTH,
+              "secret of key id [" + keyId + "] must be at least " + MIN_SECRET_LENGTH + " bytes");
+          SecretKeySpec key = new SecretKeySpec(secret, MAC_ALGORITHM);
+          this.macs.put(keyId, ThreadLocal.withInitial(() -> newMac(key)));
+        });
+    this.activeKeyId = activeKeyId;
+    this.activeKeyIdBytes = activeKeyId.getBytes(StandardCharsets.US_ASCII);
+    this.acceptLegacyTokens = acceptLegacyTokens;
+    this.keyRing = keyRing;
+  }
+
+  @Override
+  public String generateKey() {
+    byte[] random = this.randomGenerator.generateKey();
+    byte[] bytes = new byte[2 + this.activeKeyIdBytes.length + RANDOM_LENGTH + MAC_LENGTH];
+    bytes[0] = VERSION_1;
+    bytes[1] = (byte) this.activeKeyIdBytes.length;
+    System.arraycopy(this.activeKeyIdBytes, 0, bytes, 2, this.activeKeyIdBytes.length);
+    System.arraycopy(random, 0, bytes, 2 + this.activeKeyIdBytes.length, RANDOM_LENGTH);
+    byte[] mac = mac(this.activeKeyId, bytes, bytes.length - MAC_LENGTH);
+    System.arraycopy(mac, 0, bytes, bytes.length - MAC_LENGTH, MAC_LENGTH);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  /**
+   * 校验令牌是否可能由本服务签发
+   *
+   * <p>JWT 格式的令牌在 {@code kid} 属于签名密钥环时放行，签名交由后续流程校验；UUID 格式的旧令牌是否放行取决于配置
+   *
+   * @param token 令牌
+   * @return 格式正确且校验码匹配时返回 true
+   */
+  public boolean verify(String token) {
+    if (token == null) {
+      return false;
+    }
+    if (isJwt(token)) {
+      return isIssuedJwt(token);
+    }
+    if (isUuid(token)) {
+      return this.acceptLegacyTokens;
+    }
+    if (token.length() > MAX_TOKEN_LENGTH) {
+      return false;
+    }
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    if (bytes.length < 2 + RANDOM_LENGTH + MAC_LENGTH || bytes[0] != VERSION_1) {
+      return false;
+    }
+    int keyIdLength = bytes[1] & 0xFF;
+    if (bytes.length != 2 + keyIdLength + RANDOM_LENGTH + MAC_LENGTH) {
+      return false;
+    }
+    String keyId = new String(bytes, 2, keyIdLength, StandardCharsets.US_ASCII);
+    if (!this.macs.containsKey(keyId)) {
+      return false;
+    }
+    byte[] expected = mac(keyId, bytes, bytes.length - MAC_LENGTH);
+    // 常量时间比较，避免通过耗时推测校验码
+    int offset = bytes.length - MAC_LENGTH;
+    int diff = 0;
+    for (int i = 0; i < MAC_LENGTH; i++) {
+      diff |= expected[i] ^ bytes[offset + i];
+    }
+    return diff == 0;
+  }
+
+  private byte[] mac(String keyId, byte[] bytes, int length) {
+    Mac mac = this.macs.get(keyId).get();
+    mac.update(bytes, 0, length);
+    return mac.doFinal();
+  }
+
+  private static Mac newMac(SecretKeySpec key) {
+    try {
+      Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("当前 JVM 不支持 " + MAC_ALGORITHM + " 算法", e);
+    }
+  }
+
+  /** JOSE 头部可解析且声明的 kid 与算法对应签名密钥环中的密钥 */
+  private boolean isIssuedJwt(String token) {
+    int headerEnd = token.indexOf('.');
+    if (token.length() > MAX_JWT_LENGTH
+        || headerEnd > MAX_JWT_HEADER_LENGTH
+        || token.indexOf('.', token.indexOf('.', headerEnd + 1) + 1) >= 0) {
+      return false;
+    }
+    JWSHeader header;
+    try {
+      header = JWSHeader.parse(new Base64URL(token.substring(0, headerEnd)));
+    } catch (ParseException e) {
+      return false;
+    }
+    if (this.keyRing == null) {
+      return true;
+    }
+    return header.getKeyID() != null
+        && this.keyRing.getVerificationKey(header.getKeyID(), header.getAlgorithm()) != null;
+  }
+
+  private static boolean isJwt(String token) {
+    int first = token.indexOf('.');
+    return first > 0 && token.indexOf('.', first + 1) > first;
+  }
+
+  private static boolean isUuid(String token) {
+    if (token.length() != UUID_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < UUID_LENGTH; i++) {
+      char c = token.charAt(i);
+      if (i == 8 || i == 13 || i == 18 || i == 23) {
+        if (c != '-') {
+          return false;
+        }
+      } else if (Character.digit(c, 16) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
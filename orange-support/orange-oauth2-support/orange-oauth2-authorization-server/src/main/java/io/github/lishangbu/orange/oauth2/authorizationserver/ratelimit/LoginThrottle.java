@@ -0,0 +1,62 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+
+/**
+ * 密码模式登录限流
+ *
+ * <p>分别按 client_id 与用户名限流，在加载用户与校验密码之前执行，撞库流量被拒绝时不再产生数据库查询与慢哈希计算。
+ * 任一限流器为 null 时不做该项限流
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class LoginThrottle {
+
+  /** 限流拒绝时的错误码，令牌端点以 429 响应 */
+  public static final String TOO_MANY_REQUESTS = "too_many_requests";
+
+  private final TokenBucketRateLimiter clientLimiter;
+
+  private final TokenBucketRateLimiter usernameLimiter;
+
+  public LoginThrottle(
+      TokenBucketRateLimiter clientLimiter, TokenBucketRateLimiter usernameLimiter) {
+    this.clientLimiter = clientLimiter;
+    this.usernameLimiter = usernameLimiter;
+  }
+
+  /**
+   * 校验本次登录尝试是否超出限额
+   *
+   * @param clientId 客户端 id
+   * @param username 用户名
+   * @throws OAuth2AuthenticationException 超出限额时抛出，错误码为 {@link #TOO_MANY_REQUESTS}
+   */
+  public void check(String clientId, String username) {
+    if (this.clientLimiter != null && !this.clientLimiter.tryAcquire(clientId)) {
+      throw tooManyRequests("客户端登录尝试过于频繁");
+    }
+    if (username != null
+        && this.usernameLimiter != null
+        && !this.usernameLimiter.tryAcquire(username)) {
+      throw tooManyRequests("用户登录尝试过于频繁");
+    }
+  }
+
+  /** 获取按 client_id 限流的限流器，未启用时为 null */
+  public TokenBucketRateLimiter getClientLimiter() {
+    return this.clientLimiter;
+  }
+
+  /** 获取按用户名限流的限流器，未启用时为 null */
+  public TokenBucketRateLimiter getUsernameLimiter() {
+    return this.usernameLimiter;
+  }
+
+  private static OAuth2AuthenticationException tooManyRequests(String description) {
+    return new OAuth2AuthenticationException(
+        new OAuth2Error(TOO_MANY_REQUESTS, description, null));
+  }
+}
@@ -0,0 +1,147 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.util.Assert;
+
+/**
+ * 按键分桶的令牌桶限流器
+ *
+ * <p>每个键一个令牌桶，容量为允许的突发次数，每经过一个补充周期补充一个令牌。桶保存在有界的 Caffeine 缓存中，
+ * 长时间未访问（超过补满整桶所需时间，此时淘汰与保留等价）或超出最大键数时淘汰，海量不同键下内存占用保持平稳
+ *
+ * <p>桶状态的读写以键的哈希值分段加锁，不同段之间互不阻塞；使用 {@link ReentrantLock} 而非 synchronized，避免钉住虚拟线程
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class TokenBucketRateLimiter {
+
+  private final Cache<String, Bucket> buckets;
+
+  private final ReentrantLock[] locks;
+
+  private final int capacity;
+
+  private final long refillNanos;
+
+  private final Ticker ticker;
+
+  /** 被拒绝的次数 */
+  private final LongAdder rejectedCount = new LongAdder();
+
+  /**
+   * 构造令牌桶限流器
+   *
+   * @param capacity 桶容量，即允许的突发次数
+   * @param refillPeriod 补充一个令牌所需的时间
+   * @param maximumKeys 最多同时保留的桶数
+   * @param stripes 锁分段数，向上取整为 2 的幂
+   */
+  public TokenBucketRateLimiter(
+      int capacity, Duration refillPeriod, long maximumKeys, int stripes) {
+    this(
+        capacity,
+        refillPeriod,
+        maximumKeys,
+        stripes,
+        Ticker.systemTicker(),
+        ForkJoinPool.commonPool());
+  }
+
+  TokenBucketRateLimiter(
+      int capacity,
+      Duration refillPeriod,
+      long maximumKeys,
+      int stripes,
+      Ticker ticker,
+      Executor executor) {
+    Assert.isTrue(capacity > 0, "capacity must be greater than 0");
+    Assert.isTrue(
+        refillPeriod != null && refillPeriod.isPositive(), "refillPeriod must be greater than 0");
+    Assert.isTrue(maximumKeys > 0, "maximumKeys must be greater than 0");
+    Assert.isTrue(stripes > 0, "stripes must be greater than 0");
+    this.capacity = capacity;
+    this.refillNanos = refillPeriod.toNanos();
+    this.ticker = ticker;
+    this.buckets =
+        Caffeine.newBuilder()
+            .ticker(ticker)
+            .executor(executor)
+            .maximumSize(maximumKeys)
+            .expireAfterAccess(refillPeriod.multipliedBy(capacity))
+            .build();
+    int size = 1;
+    while (size < stripes) {
+      size <<= 1;
+    }
+    this.locks = new ReentrantLock[size];
+    for (int i = 0; i < this.locks.length; i++) {
+      this.locks[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * 尝试为指定键取得一个令牌
+   *
+   * @param key 限流键
+   * @return 取得令牌时返回 true，桶已空时返回 false
+   */
+  public boolean tryAcquire(String key) {
+    long now = this.ticker.read();
+    Bucket bucket = this.buckets.get(key, k -> new Bucket(this.capacity, now));
+    ReentrantLock lock = this.locks[spread(key.hashCode()) & (this.locks.length - 1)];
+    lock.lock();
+    try {
+      long elapsed = now - bucket.refilledAt;
+      if (elapsed >= this.refillNanos) {
+        long refill = elapsed / this.refillNanos;
+        bucket.tokens = (int) Math.min(this.capacity, bucket.tokens + refill);
+        // 桶已满时从当前时间重新计时，否则保留不足一个周期的零头
+        bucket.refilledAt =
+            bucket.tokens == this.capacity ? now : bucket.refilledAt + refill * this.refillNanos;
+      }
+      if (bucket.tokens > 0) {
+        bucket.tokens--;
+        return true;
+      }
+    } finally {
+      lock.unlock();
+    }
+    this.rejectedCount.increment();
+    return false;
+  }
+
+  /** 获取被拒绝的次数 */
+  public long getRejectedCount() {
+    return this.rejectedCount.sum();
+  }
+
+  /** 获取当前保留的桶数（估算值） */
+  public long getBucketCount() {
+    return this.buckets.estimatedSize();
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /** 令牌桶，字段只在对应分段锁内读写 */
+  private static final class Bucket {
+
+    private int tokens;
+
+    private long refilledAt;
+
+    private Bucket(int tokens, long refilledAt) {
+      this.tokens = tokens;
+      this.refilledAt = refilledAt;
+    }
+  }
+}
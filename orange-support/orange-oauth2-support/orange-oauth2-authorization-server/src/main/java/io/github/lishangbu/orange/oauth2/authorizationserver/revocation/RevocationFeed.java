@@ -0,0 +1,24 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.revocation;
+
+import io.github.lishangbu.orange.oauth2.common.revocation.RevocationFeedPage;
+
+/**
+ * 令牌吊销记录查询
+ *
+ * <p>按单调递增的游标分页返回被吊销访问令牌的摘要，供独立部署的资源服务器轮询。尚可能有更早的记录未提交时，
+ * 返回的游标不越过这些记录，同一摘要可能在后续几页中重复出现
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@FunctionalInterface
+public interface RevocationFeed {
+
+  /**
+   * 查询游标之后的吊销记录
+   *
+   * @param cursor 上次返回的游标；小于 0 时不返回记录，只返回当前最新的游标
+   * @return 一页吊销记录
+   */
+  RevocationFeedPage page(long cursor);
+}
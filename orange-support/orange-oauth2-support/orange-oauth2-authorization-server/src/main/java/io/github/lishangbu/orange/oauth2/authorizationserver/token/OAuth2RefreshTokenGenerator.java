@@ -8,16 +8,26 @@ import org.springframework.security.oauth2.core.OAuth2RefreshToken;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
+import org.springframework.util.Assert;
 
 /**
- * 自定义refreshToken生成器 不管任何模式都会返回UUID风格的refreshToken
+ * 自定义refreshToken生成器 不管任何模式都会返回引用风格的refreshToken，默认为UUID格式
  *
  * @author lishangbu
  * @since 2025/8/22
  */
 public class OAuth2RefreshTokenGenerator implements OAuth2TokenGenerator<OAuth2RefreshToken> {
 
-  private final StringKeyGenerator refreshTokenGenerator = new UuidKeyGenerator();
+  private final StringKeyGenerator refreshTokenGenerator;
+
+  public OAuth2RefreshTokenGenerator() {
+    this(new UuidKeyGenerator());
+  }
+
+  public OAuth2RefreshTokenGenerator(StringKeyGenerator refreshTokenGenerator) {
+    Assert.notNull(refreshTokenGenerator, "refreshTokenGenerator cannot be null");
+    this.refreshTokenGenerator = refreshTokenGenerator;
+  }
 
   @Nullable
   @Override
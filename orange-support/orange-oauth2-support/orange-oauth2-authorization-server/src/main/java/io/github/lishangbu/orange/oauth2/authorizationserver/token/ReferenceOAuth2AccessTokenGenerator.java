@@ -16,6 +16,7 @@ import org.springframework.security.oauth2.server.authorization.settings.OAuth2T
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenClaimsSet;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -27,7 +28,16 @@ import org.springframework.util.StringUtils;
  */
 public class ReferenceOAuth2AccessTokenGenerator
     implements OAuth2TokenGenerator<OAuth2AccessToken> {
-  private final StringKeyGenerator accessTokenGenerator = new UuidKeyGenerator();
+  private final StringKeyGenerator accessTokenGenerator;
+
+  public ReferenceOAuth2AccessTokenGenerator() {
+    this(new UuidKeyGenerator());
+  }
+
+  public ReferenceOAuth2AccessTokenGenerator(StringKeyGenerator accessTokenGenerator) {
+    Assert.notNull(accessTokenGenerator, "accessTokenGenerator cannot be null");
+    this.accessTokenGenerator = accessTokenGenerator;
+  }
 
   @Override
   public OAuth2AccessToken generate(OAuth2TokenContext context) {
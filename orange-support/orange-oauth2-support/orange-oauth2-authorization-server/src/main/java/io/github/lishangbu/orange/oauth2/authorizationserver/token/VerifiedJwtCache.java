@@ -0,0 +1,152 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.RegisteredClientChangedEvent;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.util.Assert;
+
+/**
+ * 已验签 JWT 缓存
+ *
+ * <p>同一 JWT 常被反复提交，例如在有效期内重复使用的 private_key_jwt 客户端断言、由授权服务器自身验签的 JWT 访问令牌。
+ * 经 {@link #decorate(JwtDecoder, String)} 包装后的 {@link JwtDecoder} 记住解析、验签并通过校验的结果，
+ * 同一 JWT 再次出现时直接返回，验签只在首次出现时执行一次
+ *
+ * <p>缓存键为命名空间与 JWT 紧凑序列化摘要的组合，不保存 JWT 原文；条目保留至 JWT 的 {@code exp}，
+ * 无 {@code exp} 的 JWT 及校验失败的结果不缓存。客户端保存时通过 {@link RegisteredClientChangedEvent} 清空缓存，
+ * 使客户端更换密钥后旧密钥签发的断言立即失效
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class VerifiedJwtCache implements ApplicationListener<RegisteredClientChangedEvent> {
+
+  private final Cache<String, Jwt> cache;
+
+  /** 未命中时实际执行解析与验签的次数 */
+  private final LongAdder decodeCount = new LongAdder();
+
+  /** 未命中时实际执行解析与验签的总耗时 */
+  private final LongAdder decodeNanos = new LongAdder();
+
+  public VerifiedJwtCache(long maximumSize) {
+    Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new JwtExpiry())
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * 以验签结果缓存包装 JWT 解析器
+   *
+   * @param delegate 实际解析、验签并校验声明的解析器
+   * @param namespace 缓存命名空间，验签密钥或校验规则不同的解析器应使用不同的命名空间
+   * @return 带缓存的 JWT 解析器
+   */
+  public JwtDecoder decorate(JwtDecoder delegate, String namespace) {
+    Assert.notNull(delegate, "delegate cannot be null");
+    Assert.notNull(namespace, "namespace cannot be null");
+    return new CachingJwtDecoder(delegate, namespace);
+  }
+
+  @Override
+  public void onApplicationEvent(RegisteredClientChangedEvent event) {
+    invalidateAll();
+  }
+
+  /** 清空所有已缓存的 JWT */
+  public void invalidateAll() {
+    this.cache.invalidateAll();
+  }
+
+  /**
+   * 获取底层缓存，用于暴露命中率等统计指标
+   *
+   * @return 底层缓存
+   */
+  public Cache<String, ?> getCache() {
+    return this.cache;
+  }
+
+  /**
+   * 估算因命中缓存而节省的验签耗时
+   *
+   * @return 命中次数与未命中时平均解析耗时之积，单位秒
+   */
+  public double getSavedSeconds() {
+    long count = this.decodeCount.sum();
+    if (count == 0) {
+      return 0;
+    }
+    double averageNanos = (double) this.decodeNanos.sum() / count;
+    return this.cache.stats().hitCount() * averageNanos / 1_000_000_000d;
+  }
+
+  /** 带验签结果缓存的 JWT 解析器 */
+  private final class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+
+    private final String namespace;
+
+    private CachingJwtDecoder(JwtDecoder delegate, String namespace) {
+      this.delegate = delegate;
+      this.namespace = namespace;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+      if (token == null) {
+        return this.delegate.decode(token);
+      }
+      // 摘要固定 64 位，置于末尾即可与任意命名空间无歧义地拼接
+      String key = this.namespace + TokenDigestUtils.digest(token);
+      Jwt cached = cache.getIfPresent(key);
+      if (cached != null) {
+        return cached;
+      }
+      long start = System.nanoTime();
+      Jwt jwt = this.delegate.decode(token);
+      decodeNanos.add(System.nanoTime() - start);
+      decodeCount.increment();
+      if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+        cache.put(key, jwt);
+      }
+      return jwt;
+    }
+  }
+
+  /** 条目存活至 JWT 的 exp，读取不延长存活时间 */
+  private static final class JwtExpiry implements Expiry<String, Jwt> {
+
+    @Override
+    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+      // 按秒向下取整，远期 exp 换算为纳秒时饱和而不溢出
+      long seconds = Duration.between(Instant.now(), jwt.getExpiresAt()).getSeconds();
+      return seconds > 0 ? TimeUnit.SECONDS.toNanos(seconds) : 0;
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, jwt, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 并发请求合并
+ *
+ * <p>同一键同时只执行一次加载，加载期间到达的相同请求等待并共享同一结果（包括 null 与异常）；加载结束即移除，
+ * 不缓存结果，之后的请求重新加载
+ *
+ * <p>等待方最多等待给定时长，超时后在自己的线程上自行加载，首个调用方卡住时不会拖住所有相同请求
+ *
+ * @param <K> 键类型
+ * @param <V> 结果类型，结果会被多个调用方共享，应为不可变对象
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * 执行加载，相同键已有加载在进行时等待其结果
+   *
+   * @param key 请求键
+   * @param timeout 等待进行中加载的最长时间，超时后自行加载
+   * @param loader 加载逻辑，在首个调用方的线程上执行
+   * @return 加载结果
+   */
+  public V execute(K key, Duration timeout, Supplier<V> loader) {
+    CompletableFuture<V> created = new CompletableFuture<>();
+    CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, created);
+    if (existing != null) {
+      try {
+        return join(existing, timeout);
+      } catch (TimeoutException ex) {
+        return loader.get();
+      }
+    }
+    try {
+      V value = loader.get();
+      created.complete(value);
+      return value;
+    } catch (Throwable ex) {
+      created.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      this.inFlight.remove(key, created);
+    }
+  }
+
+  /**
+   * 在给定时长内等待结果，加载失败时原样抛出加载逻辑的异常
+   *
+   * @param future 加载结果
+   * @param timeout 最长等待时间
+   * @param <V> 结果类型
+   * @return 加载结果
+   * @throws TimeoutException 超时仍未得到结果
+   */
+  public static <V> V join(CompletableFuture<V> future, Duration timeout)
+      throws TimeoutException {
+    try {
+      return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for in-flight result", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
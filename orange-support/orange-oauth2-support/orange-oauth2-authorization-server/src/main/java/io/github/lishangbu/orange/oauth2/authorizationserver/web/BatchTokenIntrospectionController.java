@@ -0,0 +1,95 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.web;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.BatchOpaqueTokenIntrospector;
+import io.github.lishangbu.orange.web.result.ApiResult;
+import io.github.lishangbu.orange.web.result.DefaultErrorResultCode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 批量令牌解析接口
+ *
+ * <p>供 API 网关一次校验多个访问令牌，代替逐个令牌的 HTTP 往返与数据库查询。单个令牌的判定规则与资源服务器使用的
+ * {@link OpaqueTokenIntrospector} 一致，结果按请求中的顺序返回。调用方需携带具备指定权限范围的客户端模式访问令牌，
+ * 普通用户令牌返回 403
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@RestController
+@RequestMapping("/token/introspect")
+public class BatchTokenIntrospectionController {
+
+  private final OpaqueTokenIntrospector opaqueTokenIntrospector;
+
+  private final int maximumTokens;
+
+  public BatchTokenIntrospectionController(
+      OpaqueTokenIntrospector opaqueTokenIntrospector, int maximumTokens) {
+    this.opaqueTokenIntrospector = opaqueTokenIntrospector;
+    this.maximumTokens = maximumTokens;
+  }
+
+  /**
+   * 批量解析访问令牌
+   *
+   * @param request 待解析的访问令牌
+   * @return 与请求顺序一致的解析结果
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<?> introspect(@RequestBody BatchIntrospectionRequest request) {
+    List<String> tokens = request.tokens();
+    if (tokens == null || tokens.isEmpty() || tokens.size() > this.maximumTokens) {
+      return ResponseEntity.badRequest()
+          .body(
+              ApiResult.failed(
+                  DefaultErrorResultCode.BAD_REQUEST,
+                  "tokens 数量须在 1 至 " + this.maximumTokens + " 之间"));
+    }
+    Map<String, OAuth2AuthenticatedPrincipal> principals = introspectAll(tokens);
+    List<TokenIntrospectionResult> results = new ArrayList<>(tokens.size());
+    for (String token : tokens) {
+      OAuth2AuthenticatedPrincipal principal = principals.get(token);
+      results.add(
+          principal == null
+              ? TokenIntrospectionResult.inactive()
+              : TokenIntrospectionResult.active(principal));
+    }
+    return ResponseEntity.ok(results);
+  }
+
+  private Map<String, OAuth2AuthenticatedPrincipal> introspectAll(List<String> tokens) {
+    if (this.opaqueTokenIntrospector instanceof BatchOpaqueTokenIntrospector batchIntrospector) {
+      return batchIntrospector.introspectAll(tokens);
+    }
+    Map<String, OAuth2AuthenticatedPrincipal> principals = new HashMap<>();
+    for (String token : tokens) {
+      try {
+        OAuth2AuthenticatedPrincipal principal = this.opaqueTokenIntrospector.introspect(token);
+        if (principal != null) {
+          principals.put(token, principal);
+        }
+      } catch (AuthenticationException ex) {
+        // 无效令牌，结果中标记为 inactive
+      }
+    }
+    return principals;
+  }
+
+  /**
+   * 批量解析请求
+   *
+   * @param tokens 待解析的访问令牌
+   */
+  public record BatchIntrospectionRequest(List<String> tokens) {}
+}
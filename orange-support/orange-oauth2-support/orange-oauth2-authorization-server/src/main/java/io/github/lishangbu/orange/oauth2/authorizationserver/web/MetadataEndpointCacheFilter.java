@@ -0,0 +1,156 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * 元数据端点响应缓存
+ *
+ * <p>JWK Set 及 OIDC / OAuth 2.0 发现文档被每个依赖方和网关频繁拉取，而内容只在签名密钥轮换时才变化。
+ * 本过滤器拦截这些端点的 GET 请求，首次请求交由 Spring Authorization Server 的端点生成响应，
+ * 将响应体保存为不可变的字节数组并计算强 ETag；此后的请求直接写出已保存的字节，携带匹配的 {@code If-None-Match}
+ * 时返回 304。响应附带 {@code Cache-Control: public, max-age}，可由 CDN 缓存
+ *
+ * <p>缓存键为请求 URL，未配置签发者时发现文档中的地址随请求的主机名变化，不同主机名各自缓存；条目数有上限，
+ * 防止伪造 Host 头撑满内存。内容版本号变化（签名密钥轮换）后，各条目在下一次请求时重新生成
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class MetadataEndpointCacheFilter extends OncePerRequestFilter {
+
+  private final Set<String> endpoints;
+
+  private final LongSupplier version;
+
+  private final String cacheControl;
+
+  private final Cache<String, RenderedDocument> documents;
+
+  /** 交由端点重新生成响应的次数 */
+  private final LongAdder renderCount = new LongAdder();
+
+  /**
+   * 构造元数据端点响应缓存
+   *
+   * @param endpoints 需要缓存的端点路径，不含上下文路径
+   * @param version 内容版本号，变化后已缓存的响应失效
+   * @param maxAge 允许客户端及 CDN 缓存响应的时长
+   * @param maximumSize 最大缓存条目数
+   */
+  public MetadataEndpointCacheFilter(
+      Set<String> endpoints, LongSupplier version, Duration maxAge, long maximumSize) {
+    Assert.notEmpty(endpoints, "endpoints cannot be empty");
+    Assert.notNull(version, "version cannot be null");
+    Assert.isTrue(maxAge != null && !maxAge.isNegative(), "maxAge cannot be negative");
+    Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+    this.endpoints = Set.copyOf(endpoints);
+    this.version = version;
+    this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+    this.documents = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!HttpMethod.GET.matches(request.getMethod())) {
+      return true;
+    }
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return !this.endpoints.contains(path);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String key = request.getRequestURL().toString();
+    long currentVersion = this.version.getAsLong();
+    RenderedDocument document = this.documents.getIfPresent(key);
+    if (document == null || document.version() != currentVersion) {
+      document = render(request, response, filterChain, currentVersion);
+      if (document == null) {
+        return;
+      }
+      this.documents.put(key, document);
+    }
+    write(request, response, document);
+  }
+
+  /** 交由端点生成响应，非 200 的响应原样写出且不缓存，返回 null */
+  private RenderedDocument render(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain,
+      long currentVersion)
+      throws ServletException, IOException {
+    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    filterChain.doFilter(request, wrapper);
+    this.renderCount.increment();
+    if (wrapper.getStatus() != HttpServletResponse.SC_OK) {
+      wrapper.copyBodyToResponse();
+      return null;
+    }
+    byte[] body = wrapper.getContentAsByteArray();
+    // 响应体改由 write 写出，丢弃包装器中的副本
+    wrapper.resetBuffer();
+    return new RenderedDocument(currentVersion, body, wrapper.getContentType(), etag(body));
+  }
+
+  private void write(
+      HttpServletRequest request, HttpServletResponse response, RenderedDocument document)
+      throws IOException {
+    response.setHeader(HttpHeaders.CACHE_CONTROL, this.cacheControl);
+    if (new ServletWebRequest(request, response).checkNotModified(document.etag())) {
+      return;
+    }
+    response.setContentType(document.contentType());
+    response.setContentLength(document.body().length);
+    response.getOutputStream().write(document.body());
+  }
+
+  /** 以响应体 SHA-256 摘要生成强 ETag */
+  private static String etag(byte[] body) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+      return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("当前 JVM 不支持 SHA-256 摘要算法", e);
+    }
+  }
+
+  /**
+   * 获取底层缓存，用于暴露命中率等统计指标
+   *
+   * @return 底层缓存
+   */
+  public Cache<String, ?> getCache() {
+    return this.documents;
+  }
+
+  /** 获取交由端点重新生成响应的次数 */
+  public long getRenderCount() {
+    return this.renderCount.sum();
+  }
+
+  /** 已生成的响应，响应体不可修改 */
+  private record RenderedDocument(long version, byte[] body, String contentType, String etag) {}
+}
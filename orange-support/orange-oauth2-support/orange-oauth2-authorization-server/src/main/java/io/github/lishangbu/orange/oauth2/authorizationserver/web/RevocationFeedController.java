@@ -0,0 +1,38 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.web;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.revocation.RevocationFeed;
+import io.github.lishangbu.orange.oauth2.common.revocation.RevocationFeedPage;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 令牌吊销记录接口
+ *
+ * <p>供独立部署的资源服务器增量轮询被吊销访问令牌的摘要，调用方须以具备相应权限范围的客户端凭据认证
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@RestController
+@RequestMapping("/token/revocations")
+public class RevocationFeedController {
+
+  private final RevocationFeed revocationFeed;
+
+  public RevocationFeedController(RevocationFeed revocationFeed) {
+    this.revocationFeed = revocationFeed;
+  }
+
+  /**
+   * 查询游标之后的吊销记录
+   *
+   * @param cursor 上次返回的游标，首次轮询时省略
+   * @return 一页吊销记录
+   */
+  @GetMapping
+  public RevocationFeedPage page(@RequestParam(defaultValue = "-1") long cursor) {
+    return this.revocationFeed.page(cursor);
+  }
+}
@@ -0,0 +1,44 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+
+/**
+ * 单个令牌的解析结果
+ *
+ * @param active 令牌是否有效
+ * @param name 认证主体名称，令牌无效时不输出
+ * @param authorities 认证主体的权限，令牌无效时不输出
+ * @param attributes 认证主体的属性，包含访问令牌的声明，令牌无效时不输出
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospectionResult(
+    boolean active, String name, List<String> authorities, Map<String, Object> attributes) {
+
+  private static final TokenIntrospectionResult INACTIVE =
+      new TokenIntrospectionResult(false, null, null, null);
+
+  /** 无效令牌的解析结果 */
+  public static TokenIntrospectionResult inactive() {
+    return INACTIVE;
+  }
+
+  /**
+   * 以认证主体构建有效令牌的解析结果
+   *
+   * @param principal 认证主体
+   * @return 解析结果
+   */
+  public static TokenIntrospectionResult active(OAuth2AuthenticatedPrincipal principal) {
+    return new TokenIntrospectionResult(
+        true,
+        principal.getName(),
+        principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+        principal.getAttributes());
+  }
+}
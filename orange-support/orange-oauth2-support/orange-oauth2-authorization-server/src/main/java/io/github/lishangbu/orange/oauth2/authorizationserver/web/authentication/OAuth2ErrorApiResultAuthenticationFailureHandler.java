@@ -1,5 +1,6 @@
 package io.github.lishangbu.orange.oauth2.authorizationserver.web.authentication;
 
+import io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit.LoginThrottle;
 import io.github.lishangbu.orange.web.result.DefaultErrorResultCode;
 import io.github.lishangbu.orange.web.util.JsonResponseWriter;
 import jakarta.servlet.ServletException;
@@ -12,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.http.converter.OAuth2ErrorHttpMessageConverter;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 
@@ -39,6 +41,23 @@ public class OAuth2ErrorApiResultAuthenticationFailureHandler
     if (authenticationException
         instanceof OAuth2AuthenticationException oauth2AuthenticationException) {
       OAuth2Error error = oauth2AuthenticationException.getError();
+      if (OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE.equals(error.getErrorCode())) {
+        // 服务端过载时返回 503，提示客户端稍后重试
+        JsonResponseWriter.writeFailedResponse(
+            response,
+            HttpStatus.SERVICE_UNAVAILABLE,
+            DefaultErrorResultCode.SERVICE_UNAVAILABLE,
+            error.getErrorCode());
+        return;
+      }
+      if (LoginThrottle.TOO_MANY_REQUESTS.equals(error.getErrorCode())) {
+        JsonResponseWriter.writeFailedResponse(
+            response,
+            HttpStatus.TOO_MANY_REQUESTS,
+            DefaultErrorResultCode.TOO_MANY_REQUESTS,
+            error.getErrorCode());
+        return;
+      }
       JsonResponseWriter.writeFailedResponse(
           response,
           HttpStatus.BAD_REQUEST,
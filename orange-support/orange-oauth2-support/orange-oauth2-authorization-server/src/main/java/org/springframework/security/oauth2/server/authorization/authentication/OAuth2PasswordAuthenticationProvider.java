@@ -1,5 +1,7 @@
 package org.springframework.security.oauth2.server.authorization.authentication;
 
+import io.github.lishangbu.orange.oauth2.authorizationserver.crypto.PasswordHashingExecutor;
+import io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit.LoginThrottle;
 import io.github.lishangbu.orange.oauth2.common.core.AuthorizationGrantTypeSupport;
 import io.github.lishangbu.orange.oauth2.common.userdetails.UserInfo;
 import java.security.Principal;
@@ -53,6 +55,12 @@ public final class OAuth2PasswordAuthenticationProvider implements Authenticatio
 
   private final OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator;
 
+  /** 密码校验线程池，为 null 时在请求线程上校验 */
+  private PasswordHashingExecutor passwordHashingExecutor;
+
+  /** 登录限流，为 null 时不限流 */
+  private LoginThrottle loginThrottle;
+
   /**
    * Constructs an {@code OAuth2ResourceOwnerPasswordAuthenticationProviderNew} using the provided
    * parameters.
@@ -73,6 +81,24 @@ public final class OAuth2PasswordAuthenticationProvider implements Authenticatio
     this.tokenGenerator = tokenGenerator;
   }
 
+  /**
+   * 设置密码校验线程池，设置后用户密码的慢哈希校验不再占用请求线程
+   *
+   * @param passwordHashingExecutor 密码校验线程池
+   */
+  public void setPasswordHashingExecutor(PasswordHashingExecutor passwordHashingExecutor) {
+    this.passwordHashingExecutor = passwordHashingExecutor;
+  }
+
+  /**
+   * 设置登录限流，设置后超出限额的登录尝试在加载用户前即被拒绝
+   *
+   * @param loginThrottle 登录限流
+   */
+  public void setLoginThrottle(LoginThrottle loginThrottle) {
+    this.loginThrottle = loginThrottle;
+  }
+
   @Override
   public Authentication authenticate(Authentication authentication) throws AuthenticationException {
 
@@ -104,12 +130,19 @@ public final class OAuth2PasswordAuthenticationProvider implements Authenticatio
     String username = passwordGrantAuthenticationToken.getUsername();
     String password = passwordGrantAuthenticationToken.getPassword();
 
+    if (this.loginThrottle != null) {
+      this.loginThrottle.check(registeredClient.getClientId(), username);
+    }
+
     UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
         new UsernamePasswordAuthenticationToken(username, password);
     LOGGER.debug("got usernamePasswordAuthenticationToken=" + usernamePasswordAuthenticationToken);
 
     Authentication usernamePasswordAuthentication =
-        authenticationManager.authenticate(usernamePasswordAuthenticationToken);
+        this.passwordHashingExecutor == null
+            ? authenticationManager.authenticate(usernamePasswordAuthenticationToken)
+            : this.passwordHashingExecutor.execute(
+                () -> authenticationManager.authenticate(usernamePasswordAuthenticationToken));
     Set<String> authorizedScopes = registeredClient.getScopes(); // Default to configured scopes
     Set<String> requestedScopes = passwordGrantAuthenticationToken.getScopes();
     if (!CollectionUtils.isEmpty(requestedScopes)) {
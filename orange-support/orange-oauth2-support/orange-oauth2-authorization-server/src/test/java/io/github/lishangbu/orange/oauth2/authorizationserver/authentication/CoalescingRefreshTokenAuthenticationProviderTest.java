@@ -0,0 +1,150 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.authentication;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2RefreshTokenAuthenticationToken;
+
+/**
+ * CoalescingRefreshTokenAuthenticationProvider 单元测试，覆盖并发刷新共享一次换发、失败结果不保留、等待超时及不合并的请求
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class CoalescingRefreshTokenAuthenticationProviderTest {
+
+  private static final int FOLLOWERS = 4;
+
+  private final AuthenticationProvider delegate = Mockito.mock(AuthenticationProvider.class);
+
+  private final Authentication issued = new TestingAuthenticationToken("client", null);
+
+  @Test
+  void testConcurrentRefreshesShareOneDelegateCall() throws InterruptedException {
+    CoalescingRefreshTokenAuthenticationProvider provider = provider(Duration.ofSeconds(5));
+    Queue<Authentication> results = new ConcurrentLinkedQueue<>();
+    List<Thread> followers = new ArrayList<>();
+    for (int i = 0; i < FOLLOWERS; i++) {
+      followers.add(new Thread(() -> results.add(provider.authenticate(request(Map.of())))));
+    }
+    CountDownLatch refreshing = new CountDownLatch(1);
+    Mockito.when(delegate.authenticate(ArgumentMatchers.any()))
+        .thenAnswer(
+            invocation -> {
+              refreshing.countDown();
+              awaitParked(followers);
+              return issued;
+            });
+    Thread leader = new Thread(() -> results.add(provider.authenticate(request(Map.of()))));
+
+    leader.start();
+    Assertions.assertThat(refreshing.await(5, TimeUnit.SECONDS)).isTrue();
+    followers.forEach(Thread::start);
+    leader.join(TimeUnit.SECONDS.toMillis(5));
+    for (Thread follower : followers) {
+      follower.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    // 合并窗口内到达的请求同样得到同一组令牌
+    results.add(provider.authenticate(request(Map.of())));
+
+    Mockito.verify(delegate, Mockito.times(1)).authenticate(ArgumentMatchers.any());
+    Assertions.assertThat(results)
+        .hasSize(FOLLOWERS + 2)
+        .allSatisfy(result -> Assertions.assertThat(result).isSameAs(issued));
+  }
+
+  @Test
+  void testFailedRefreshIsNotKept() {
+    CoalescingRefreshTokenAuthenticationProvider provider = provider(Duration.ofSeconds(5));
+    Mockito.when(delegate.authenticate(ArgumentMatchers.any()))
+        .thenThrow(new OAuth2AuthenticationException(OAuth2ErrorCodes.SERVER_ERROR))
+        .thenReturn(issued);
+
+    Assertions.assertThatThrownBy(() -> provider.authenticate(request(Map.of())))
+        .isInstanceOf(OAuth2AuthenticationException.class);
+    Assertions.assertThat(provider.authenticate(request(Map.of()))).isSameAs(issued);
+
+    Mockito.verify(delegate, Mockito.times(2)).authenticate(ArgumentMatchers.any());
+  }
+
+  @Test
+  void testWaitTimeoutRejectsWithTemporarilyUnavailable() throws InterruptedException {
+    CoalescingRefreshTokenAuthenticationProvider provider = provider(Duration.ofMillis(50));
+    CountDownLatch refreshing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Mockito.when(delegate.authenticate(ArgumentMatchers.any()))
+        .thenAnswer(
+            invocation -> {
+              refreshing.countDown();
+              release.await(30, TimeUnit.SECONDS);
+              return issued;
+            });
+    Thread leader = new Thread(() -> provider.authenticate(request(Map.of())));
+    leader.start();
+    Assertions.assertThat(refreshing.await(5, TimeUnit.SECONDS)).isTrue();
+
+    Assertions.assertThatThrownBy(() -> provider.authenticate(request(Map.of())))
+        .isInstanceOfSatisfying(
+            OAuth2AuthenticationException.class,
+            e ->
+                Assertions.assertThat(e.getError().getErrorCode())
+                    .isEqualTo(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE));
+
+    release.countDown();
+    leader.join(TimeUnit.SECONDS.toMillis(5));
+    Mockito.verify(delegate, Mockito.times(1)).authenticate(ArgumentMatchers.any());
+  }
+
+  @Test
+  void testRequestsWithAdditionalParametersAreNotCoalesced() {
+    CoalescingRefreshTokenAuthenticationProvider provider = provider(Duration.ofSeconds(5));
+    Mockito.when(delegate.authenticate(ArgumentMatchers.any())).thenReturn(issued);
+
+    provider.authenticate(request(Map.of("dpop_proof", "proof")));
+    provider.authenticate(request(Map.of("dpop_proof", "proof")));
+
+    Mockito.verify(delegate, Mockito.times(2)).authenticate(ArgumentMatchers.any());
+  }
+
+  private CoalescingRefreshTokenAuthenticationProvider provider(Duration waitTimeout) {
+    return new CoalescingRefreshTokenAuthenticationProvider(
+        delegate, Duration.ofSeconds(2), 100, waitTimeout);
+  }
+
+  private static OAuth2RefreshTokenAuthenticationToken request(
+      Map<String, Object> additionalParameters) {
+    return new OAuth2RefreshTokenAuthenticationToken(
+        "refresh-token",
+        new TestingAuthenticationToken("client", null),
+        Set.of("read"),
+        additionalParameters);
+  }
+
+  /** 等待其它请求进入限时等待，保证它们等待的是进行中的换发 */
+  private static void awaitParked(List<Thread> threads) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    for (Thread thread : threads) {
+      while (thread.getState() != Thread.State.TIMED_WAITING) {
+        if (System.nanoTime() > deadline) {
+          throw new AssertionError(thread.getName() + " is not waiting");
+        }
+        Thread.onSpinWait();
+      }
+    }
+  }
+}
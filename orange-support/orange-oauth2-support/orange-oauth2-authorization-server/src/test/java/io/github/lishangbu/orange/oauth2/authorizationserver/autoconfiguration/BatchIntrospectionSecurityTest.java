@@ -0,0 +1,192 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration;
+
+import io.github.lishangbu.orange.json.autoconfiguration.JacksonAutoConfiguration;
+import io.github.lishangbu.orange.oauth2.authorizationserver.introspection.DefaultOpaqueTokenIntrospector;
+import io.github.lishangbu.orange.oauth2.authorizationserver.web.BatchTokenIntrospectionController;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import jakarta.servlet.Filter;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.AbstractSecurityWebApplicationInitializer;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * 批量令牌解析接口安全过滤链测试，覆盖网关客户端令牌放行、用户令牌与缺少权限范围的客户端令牌返回 403 及未携带令牌返回 401
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@ContextConfiguration(
+    classes = {JacksonAutoConfiguration.class, BatchIntrospectionSecurityTest.Config.class})
+class BatchIntrospectionSecurityTest {
+
+  private static final String REQUEST_BODY = "{\"tokens\":[\"user-token\",\"unknown\"]}";
+
+  @Autowired private WebApplicationContext context;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.webAppContextSetup(context)
+            .addFilters(
+                context.getBean(
+                    AbstractSecurityWebApplicationInitializer.DEFAULT_FILTER_NAME, Filter.class))
+            .build();
+  }
+
+  @Test
+  void testGatewayClientTokenIsAllowed() throws Exception {
+    mockMvc
+        .perform(batchIntrospection("gateway-token"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].active").value(true))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("admin"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].active").value(false));
+  }
+
+  @Test
+  void testUserTokenIsForbidden() throws Exception {
+    mockMvc
+        .perform(batchIntrospection("user-token"))
+        .andExpect(MockMvcResultMatchers.status().isForbidden());
+  }
+
+  @Test
+  void testClientTokenWithoutScopeIsForbidden() throws Exception {
+    mockMvc
+        .perform(batchIntrospection("client-token"))
+        .andExpect(MockMvcResultMatchers.status().isForbidden());
+  }
+
+  @Test
+  void testMissingTokenIsUnauthorized() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/token/introspect/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(REQUEST_BODY))
+        .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+  }
+
+  private static MockHttpServletRequestBuilder batchIntrospection(String accessToken) {
+    return MockMvcRequestBuilders.post("/token/introspect/batch")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(REQUEST_BODY);
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @EnableWebMvc
+  @EnableWebSecurity
+  static class Config {
+
+    @Bean
+    OpaqueTokenIntrospector opaqueTokenIntrospector() {
+      // 客户端模式令牌的主体由实际的转换逻辑生成
+      DefaultOpaqueTokenIntrospector converter =
+          new DefaultOpaqueTokenIntrospector(
+              Mockito.mock(OAuth2AuthorizationService.class),
+              Mockito.mock(UserDetailsService.class));
+      Map<String, OAuth2AuthenticatedPrincipal> principals =
+          Map.of(
+              "gateway-token",
+              converter.introspect(clientCredentials("gateway-token", Set.of("introspect"))),
+              "client-token",
+              converter.introspect(clientCredentials("client-token", Set.of("read"))),
+              // 用户令牌即使带有 introspect 权限范围，权限也只有角色
+              "user-token",
+              new DefaultOAuth2AuthenticatedPrincipal(
+                  "admin",
+                  Map.of("sub", "admin", "scope", List.of("introspect")),
+                  AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+      return token -> {
+        OAuth2AuthenticatedPrincipal principal = principals.get(token);
+        if (principal == null) {
+          throw new BadOpaqueTokenException("Invalid access token");
+        }
+        return principal;
+      };
+    }
+
+    @Bean
+    BatchTokenIntrospectionController batchTokenIntrospectionController(
+        OpaqueTokenIntrospector opaqueTokenIntrospector) {
+      return new BatchTokenIntrospectionController(opaqueTokenIntrospector, 100);
+    }
+
+    @Bean
+    SecurityFilterChain batchIntrospectionSecurityFilterChain(HttpSecurity http)
+        throws Exception {
+      return new OpaqueTokenIntrospectorAutoConfiguration.BatchIntrospectionConfiguration()
+          .batchIntrospectionSecurityFilterChain(http, new Oauth2Properties());
+    }
+
+    private static OAuth2Authorization clientCredentials(String tokenValue, Set<String> scopes) {
+      Instant issuedAt = Instant.now();
+      RegisteredClient registeredClient =
+          RegisteredClient.withId("1")
+              .clientId("gateway")
+              .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+              .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+              .build();
+      OAuth2AccessToken accessToken =
+          new OAuth2AccessToken(
+              OAuth2AccessToken.TokenType.BEARER,
+              tokenValue,
+              issuedAt,
+              issuedAt.plus(Duration.ofHours(1)),
+              scopes);
+      return OAuth2Authorization.withRegisteredClient(registeredClient)
+          .id(tokenValue)
+          .principalName("gateway")
+          .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+          .token(
+              accessToken,
+              metadata ->
+                  metadata.put(
+                      OAuth2Authorization.Token.CLAIMS_METADATA_NAME,
+                      Map.of("sub", "gateway", "scope", List.copyOf(scopes))))
+          .build();
+    }
+  }
+}
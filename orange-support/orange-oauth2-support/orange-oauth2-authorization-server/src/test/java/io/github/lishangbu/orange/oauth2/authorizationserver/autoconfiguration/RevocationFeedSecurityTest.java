@@ -0,0 +1,189 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration;
+
+import io.github.lishangbu.orange.json.autoconfiguration.JacksonAutoConfiguration;
+import io.github.lishangbu.orange.oauth2.authorizationserver.crypto.ClientSecretVerificationCache;
+import io.github.lishangbu.orange.oauth2.authorizationserver.revocation.RevocationFeed;
+import io.github.lishangbu.orange.oauth2.authorizationserver.web.RevocationFeedController;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import io.github.lishangbu.orange.oauth2.common.revocation.RevocationFeedPage;
+import jakarta.servlet.Filter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.AbstractSecurityWebApplicationInitializer;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * 吊销记录接口安全过滤链测试，覆盖具备权限范围的客户端放行、缺少权限范围返回 403，以及密钥错误、密钥过期、
+ * 不支持 client_secret_basic 与未携带凭据时返回 401
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@ContextConfiguration(
+    classes = {JacksonAutoConfiguration.class, RevocationFeedSecurityTest.Config.class})
+class RevocationFeedSecurityTest {
+
+  @Autowired private WebApplicationContext context;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.webAppContextSetup(context)
+            .addFilters(
+                context.getBean(
+                    AbstractSecurityWebApplicationInitializer.DEFAULT_FILTER_NAME, Filter.class))
+            .build();
+  }
+
+  @Test
+  void testClientWithScopeIsAllowed() throws Exception {
+    mockMvc
+        .perform(revocations("resource server", "secret"))
+        .andExpect(MockMvcResultMatchers.status().isOk());
+  }
+
+  @Test
+  void testClientWithoutScopeIsForbidden() throws Exception {
+    mockMvc
+        .perform(revocations("web", "secret"))
+        .andExpect(MockMvcResultMatchers.status().isForbidden());
+  }
+
+  @Test
+  void testWrongSecretIsUnauthorized() throws Exception {
+    mockMvc
+        .perform(revocations("resource server", "wrong"))
+        .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+  }
+
+  @Test
+  void testExpiredSecretIsUnauthorized() throws Exception {
+    mockMvc
+        .perform(revocations("expired", "secret"))
+        .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+  }
+
+  @Test
+  void testClientWithoutBasicAuthenticationIsUnauthorized() throws Exception {
+    mockMvc
+        .perform(revocations("post-only", "secret"))
+        .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+  }
+
+  @Test
+  void testMissingCredentialsIsUnauthorized() throws Exception {
+    mockMvc
+        .perform(MockMvcRequestBuilders.get("/token/revocations"))
+        .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+  }
+
+  /** 与资源服务器的轮询任务相同，客户端 ID 与密钥先按表单编码再拼接 */
+  private static MockHttpServletRequestBuilder revocations(String clientId, String clientSecret) {
+    String credentials = clientId.replace(' ', '+') + ':' + clientSecret;
+    return MockMvcRequestBuilders.get("/token/revocations")
+        .param("cursor", "0")
+        .header(
+            HttpHeaders.AUTHORIZATION,
+            "Basic "
+                + Base64.getEncoder()
+                    .encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @EnableWebMvc
+  @EnableWebSecurity
+  static class Config {
+
+    @Bean
+    PasswordEncoder passwordEncoder() {
+      return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    }
+
+    @Bean
+    RegisteredClientRepository registeredClientRepository(PasswordEncoder passwordEncoder) {
+      String secret = passwordEncoder.encode("secret");
+      return new InMemoryRegisteredClientRepository(
+          client("1", "resource server", secret, ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+              .scope("introspect")
+              .build(),
+          client("2", "web", secret, ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+              .scope("read")
+              .build(),
+          client("3", "expired", secret, ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+              .scope("introspect")
+              .clientSecretExpiresAt(Instant.now().minusSeconds(60))
+              .build(),
+          client("4", "post-only", secret, ClientAuthenticationMethod.CLIENT_SECRET_POST)
+              .scope("introspect")
+              .build());
+    }
+
+    @Bean
+    RevocationFeed revocationFeed() {
+      return cursor -> new RevocationFeedPage(cursor, List.of(), true);
+    }
+
+    @Bean
+    RevocationFeedController revocationFeedController(RevocationFeed revocationFeed) {
+      return new RevocationFeedAutoConfiguration().revocationFeedController(revocationFeed);
+    }
+
+    @Bean
+    SecurityFilterChain revocationFeedSecurityFilterChain(
+        HttpSecurity http,
+        RegisteredClientRepository registeredClientRepository,
+        ObjectProvider<PasswordEncoder> passwordEncoder,
+        ObjectProvider<ClientSecretVerificationCache> clientSecretVerificationCache)
+        throws Exception {
+      return new RevocationFeedAutoConfiguration()
+          .revocationFeedSecurityFilterChain(
+              http,
+              registeredClientRepository,
+              passwordEncoder,
+              clientSecretVerificationCache,
+              new Oauth2Properties());
+    }
+
+    private static RegisteredClient.Builder client(
+        String id, String clientId, String secret, ClientAuthenticationMethod method) {
+      return RegisteredClient.withId(id)
+          .clientId(clientId)
+          .clientSecret(secret)
+          .clientAuthenticationMethod(method)
+          .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS);
+    }
+  }
+}
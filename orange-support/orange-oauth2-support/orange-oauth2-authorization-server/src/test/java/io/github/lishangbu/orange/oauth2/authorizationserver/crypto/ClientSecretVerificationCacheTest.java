@@ -0,0 +1,115 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.crypto;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.RegisteredClientChangedEvent;
+import java.time.Duration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * ClientSecretVerificationCache 单元测试，覆盖命中、失败不缓存、存储哈希变化、客户端变更清空及节省耗时统计
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class ClientSecretVerificationCacheTest {
+
+  private static final String SECRET = "secret";
+
+  private static final String ENCODED = "{bcrypt}encoded";
+
+  private final ClientSecretVerificationCache verificationCache =
+      new ClientSecretVerificationCache(100, Duration.ofMinutes(5));
+
+  private final PasswordEncoder delegate = Mockito.mock(PasswordEncoder.class);
+
+  private final PasswordEncoder encoder = verificationCache.decorate(delegate);
+
+  @Test
+  void testRepeatedCorrectSecretIsVerifiedOnce() {
+    Mockito.when(delegate.matches(SECRET, ENCODED)).thenReturn(true);
+
+    Assertions.assertThat(encoder.matches(SECRET, ENCODED)).isTrue();
+    Assertions.assertThat(encoder.matches(SECRET, ENCODED)).isTrue();
+    Assertions.assertThat(encoder.matches(SECRET, ENCODED)).isTrue();
+
+    Mockito.verify(delegate, Mockito.times(1)).matches(SECRET, ENCODED);
+  }
+
+  @Test
+  void testWrongSecretIsNeverCached() {
+    Mockito.when(delegate.matches("wrong", ENCODED)).thenReturn(false);
+
+    Assertions.assertThat(encoder.matches("wrong", ENCODED)).isFalse();
+    Assertions.assertThat(encoder.matches("wrong", ENCODED)).isFalse();
+
+    Mockito.verify(delegate, Mockito.times(2)).matches("wrong", ENCODED);
+    Assertions.assertThat(verificationCache.getCache().estimatedSize()).isZero();
+  }
+
+  @Test
+  void testChangedStoredHashMissesCache() {
+    Mockito.when(delegate.matches(ArgumentMatchers.eq(SECRET), ArgumentMatchers.anyString()))
+        .thenReturn(true);
+    encoder.matches(SECRET, ENCODED);
+
+    Assertions.assertThat(encoder.matches(SECRET, "{bcrypt}rotated")).isTrue();
+
+    Mockito.verify(delegate).matches(SECRET, ENCODED);
+    Mockito.verify(delegate).matches(SECRET, "{bcrypt}rotated");
+  }
+
+  @Test
+  void testRegisteredClientChangedEventClearsCache() {
+    Mockito.when(delegate.matches(SECRET, ENCODED)).thenReturn(true);
+    encoder.matches(SECRET, ENCODED);
+
+    verificationCache.onApplicationEvent(new RegisteredClientChangedEvent(this, client()));
+    encoder.matches(SECRET, ENCODED);
+
+    Mockito.verify(delegate, Mockito.times(2)).matches(SECRET, ENCODED);
+  }
+
+  @Test
+  void testSavedSecondsCountsHits() {
+    Mockito.when(delegate.matches(SECRET, ENCODED))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(5);
+              return true;
+            });
+    Assertions.assertThat(verificationCache.getSavedSeconds()).isZero();
+
+    encoder.matches(SECRET, ENCODED);
+    Assertions.assertThat(verificationCache.getSavedSeconds()).isZero();
+
+    encoder.matches(SECRET, ENCODED);
+    encoder.matches(SECRET, ENCODED);
+
+    Assertions.assertThat(verificationCache.getCache().stats().hitCount()).isEqualTo(2);
+    // 每次未命中的校验至少耗时 5 毫秒，两次命中至少节省 10 毫秒
+    Assertions.assertThat(verificationCache.getSavedSeconds()).isGreaterThanOrEqualTo(0.01);
+  }
+
+  @Test
+  void testEncodeAndUpgradeAreDelegated() {
+    Mockito.when(delegate.encode(SECRET)).thenReturn(ENCODED);
+    Mockito.when(delegate.upgradeEncoding(ENCODED)).thenReturn(true);
+
+    Assertions.assertThat(encoder.encode(SECRET)).isEqualTo(ENCODED);
+    Assertions.assertThat(encoder.upgradeEncoding(ENCODED)).isTrue();
+  }
+
+  private static RegisteredClient client() {
+    return RegisteredClient.withId("1")
+        .clientId("client")
+        .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+        .build();
+  }
+}
@@ -0,0 +1,105 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.crypto;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+
+/**
+ * PasswordHashingExecutor 单元测试，覆盖结果与异常透传、队列已满时立即拒绝及等待超时
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class PasswordHashingExecutorTest {
+
+  @Test
+  void testResultAndExceptionArePassedThrough() {
+    try (PasswordHashingExecutor executor =
+        new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5))) {
+      Assertions.assertThat(executor.execute(() -> 42)).isEqualTo(42);
+      Assertions.assertThatThrownBy(
+              () ->
+                  executor.execute(
+                      () -> {
+                        throw new IllegalArgumentException("bad credentials");
+                      }))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("bad credentials");
+      Assertions.assertThat(executor.getHashCount()).isEqualTo(2);
+      Assertions.assertThat(executor.getRejectedCount()).isZero();
+    }
+  }
+
+  @Test
+  void testFullQueueFailsFast() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try (PasswordHashingExecutor executor =
+            new PasswordHashingExecutor(1, 1, Duration.ofSeconds(30));
+        ExecutorService callers = Executors.newFixedThreadPool(2)) {
+      // 占满唯一的线程与唯一的队列位置
+      Future<Boolean> running =
+          callers.submit(
+              () ->
+                  executor.execute(
+                      () -> {
+                        started.countDown();
+                        return release.await(30, TimeUnit.SECONDS);
+                      }));
+      Assertions.assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+      Future<Integer> queued = callers.submit(() -> executor.execute(() -> 1));
+      while (executor.getQueueSize() < 1) {
+        Thread.onSpinWait();
+      }
+
+      long start = System.nanoTime();
+      Assertions.assertThatThrownBy(() -> executor.execute(() -> 2))
+          .isInstanceOfSatisfying(
+              OAuth2AuthenticationException.class,
+              e ->
+                  Assertions.assertThat(e.getError().getErrorCode())
+                      .isEqualTo(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE));
+      Assertions.assertThat(Duration.ofNanos(System.nanoTime() - start))
+          .isLessThan(Duration.ofSeconds(5));
+      Assertions.assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+      release.countDown();
+      Assertions.assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+      Assertions.assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void testTimeoutRejectsWithTemporarilyUnavailable() throws InterruptedException {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    try (PasswordHashingExecutor executor =
+        new PasswordHashingExecutor(1, 1, Duration.ofMillis(50))) {
+      Assertions.assertThatThrownBy(
+              () ->
+                  executor.execute(
+                      () -> {
+                        try {
+                          Thread.sleep(Duration.ofSeconds(30));
+                        } catch (InterruptedException e) {
+                          interrupted.countDown();
+                        }
+                        return true;
+                      }))
+          .isInstanceOfSatisfying(
+              OAuth2AuthenticationException.class,
+              e ->
+                  Assertions.assertThat(e.getError().getErrorCode())
+                      .isEqualTo(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE));
+      Assertions.assertThat(executor.getRejectedCount()).isEqualTo(1);
+      // 超时后取消任务，释放线程池中的线程
+      Assertions.assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+  }
+}
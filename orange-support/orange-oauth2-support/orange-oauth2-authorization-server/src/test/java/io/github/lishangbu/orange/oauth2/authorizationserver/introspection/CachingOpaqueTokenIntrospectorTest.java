@@ -0,0 +1,253 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.introspection;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.OAuth2AuthorizationChangedEvent;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+/**
+ * CachingOpaqueTokenIntrospector 单元测试，覆盖缓存命中、变更事件失效、加载期间到达的变更、存活时间上限及过期条目的重新校验
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class CachingOpaqueTokenIntrospectorTest {
+
+  private static final String TOKEN = "access-token";
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  private final DefaultOpaqueTokenIntrospector delegate =
+      Mockito.mock(DefaultOpaqueTokenIntrospector.class);
+
+  private final OAuth2AuthenticatedPrincipal principal =
+      new DefaultOAuth2AuthenticatedPrincipal(
+          "admin", Map.of("sub", "admin"), AuthorityUtils.NO_AUTHORITIES);
+
+  private CachingOpaqueTokenIntrospector introspector;
+
+  @BeforeEach
+  void setUp() {
+    introspector = introspector(Duration.ofMinutes(1));
+  }
+
+  @Test
+  void testCacheHitSkipsDelegate() {
+    OAuth2Authorization authorization = authorization(Duration.ofHours(1));
+    stubLoad(authorization);
+
+    Assertions.assertThat(introspector.introspect(TOKEN)).isSameAs(principal);
+    Assertions.assertThat(introspector.introspect(TOKEN)).isSameAs(principal);
+
+    Mockito.verify(delegate, Mockito.times(1)).findAuthorization(TOKEN, digest());
+  }
+
+  @Test
+  void testChangeEventInvalidatesEntry() {
+    OAuth2Authorization authorization = authorization(Duration.ofHours(1));
+    stubLoad(authorization);
+    introspector.introspect(TOKEN);
+
+    introspector.onApplicationEvent(
+        new OAuth2AuthorizationChangedEvent(this, authorization, false));
+    introspector.introspect(TOKEN);
+
+    Mockito.verify(delegate, Mockito.times(2)).findAuthorization(TOKEN, digest());
+    Assertions.assertThat(introspector.getInvalidationCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testRemovedAuthorizationIsRejected() {
+    OAuth2Authorization authorization = authorization(Duration.ofHours(1));
+    stubLoad(authorization);
+    introspector.introspect(TOKEN);
+
+    introspector.onApplicationEvent(new OAuth2AuthorizationChangedEvent(this, authorization, true));
+
+    Assertions.assertThatThrownBy(() -> introspector.introspect(TOKEN))
+        .isInstanceOf(InvalidBearerTokenException.class);
+  }
+
+  @Test
+  void testChangeDuringLoadIsNotKept() {
+    OAuth2Authorization authorization = authorization(Duration.ofHours(1));
+    AtomicBoolean first = new AtomicBoolean(true);
+    // 变更事件在查询数据库之后、条目写入缓存之前到达
+    Mockito.when(delegate.findAuthorization(TOKEN, digest()))
+        .thenAnswer(
+            invocation -> {
+              if (first.getAndSet(false)) {
+                introspector.onApplicationEvent(
+                    new OAuth2AuthorizationChangedEvent(this, authorization, false));
+              }
+              return authorization;
+            });
+    Mockito.when(delegate.introspect(authorization)).thenReturn(principal);
+
+    introspector.introspect(TOKEN);
+    Mockito.verify(delegate, Mockito.times(2)).findAuthorization(TOKEN, digest());
+
+    introspector.introspect(TOKEN);
+    Mockito.verify(delegate, Mockito.times(2)).findAuthorization(TOKEN, digest());
+  }
+
+  @Test
+  void testEntryExpiresAfterTimeToLive() {
+    stubLoad(authorization(Duration.ofHours(1)));
+    introspector.introspect(TOKEN);
+
+    advance(Duration.ofSeconds(59));
+    introspector.introspect(TOKEN);
+    Mockito.verify(delegate, Mockito.times(1)).findAuthorization(TOKEN, digest());
+
+    advance(Duration.ofSeconds(2));
+    introspector.introspect(TOKEN);
+    Mockito.verify(delegate, Mockito.times(2)).findAuthorization(TOKEN, digest());
+  }
+
+  @Test
+  void testTimeToLiveIsCappedByTokenExpiry() {
+    stubLoad(authorization(Duration.ofSeconds(10)));
+    introspector.introspect(TOKEN);
+
+    advance(Duration.ofSeconds(11));
+    introspector.introspect(TOKEN);
+
+    Mockito.verify(delegate, Mockito.times(2)).findAuthorization(TOKEN, digest());
+  }
+
+  @Test
+  void testStaleEntryIsServedWhileRevalidationFails() {
+    introspector = introspector(Duration.ofMinutes(1), Duration.ofMinutes(5));
+    OAuth2Authorization authorization = authorization(Duration.ofHours(1));
+    stubLoad(authorization);
+    introspector.introspect(TOKEN);
+    Mockito.when(delegate.findAuthorizationById(authorization.getId()))
+        .thenThrow(new IllegalStateException("database unavailable"));
+
+    advance(Duration.ofMinutes(2));
+
+    Assertions.assertThat(introspector.introspect(TOKEN)).isSameAs(principal);
+    Assertions.assertThat(introspector.introspect(TOKEN)).isSameAs(principal);
+    Mockito.verify(delegate, Mockito.times(1)).findAuthorization(TOKEN, digest());
+    Mockito.verify(delegate, Mockito.times(2)).findAuthorizationById(authorization.getId());
+    Assertions.assertThat(introspector.getStaleCount()).isEqualTo(2);
+    Assertions.assertThat(introspector.getRevalidationFailureCount()).isEqualTo(2);
+  }
+
+  @Test
+  void testStaleEntryIsRemovedAfterMaxStaleness() {
+    introspector = introspector(Duration.ofMinutes(1), Duration.ofMinutes(5));
+    OAuth2Authorization authorization = authorization(Duration.ofHours(1));
+    stubLoad(authorization);
+    introspector.introspect(TOKEN);
+    Mockito.when(delegate.findAuthorizationById(authorization.getId()))
+        .thenThrow(new IllegalStateException("database unavailable"));
+
+    advance(Duration.ofMinutes(5));
+    introspector.introspect(TOKEN);
+    Mockito.verify(delegate, Mockito.times(1)).findAuthorization(TOKEN, digest());
+
+    advance(Duration.ofMinutes(1).plusSeconds(1));
+    introspector.introspect(TOKEN);
+    Mockito.verify(delegate, Mockito.times(2)).findAuthorization(TOKEN, digest());
+  }
+
+  @Test
+  void testSuccessfulRevalidationRenewsEntry() {
+    introspector = introspector(Duration.ofMinutes(1), Duration.ofMinutes(5));
+    OAuth2Authorization authorization = authorization(Duration.ofHours(1));
+    stubLoad(authorization);
+    Mockito.when(delegate.findAuthorizationById(authorization.getId())).thenReturn(authorization);
+    introspector.introspect(TOKEN);
+
+    advance(Duration.ofMinutes(2));
+    introspector.introspect(TOKEN);
+    Assertions.assertThat(introspector.getStaleCount()).isEqualTo(1);
+
+    // 重新校验后条目按新的加载时间计算存活时间，超出原条目的容忍时间后仍然有效
+    advance(Duration.ofSeconds(30));
+    introspector.introspect(TOKEN);
+    advance(Duration.ofMinutes(4));
+    introspector.introspect(TOKEN);
+
+    Mockito.verify(delegate, Mockito.times(1)).findAuthorization(TOKEN, digest());
+    Assertions.assertThat(introspector.getStaleCount()).isEqualTo(2);
+  }
+
+  @Test
+  void testRemovalRejectsStaleEntryImmediately() {
+    introspector = introspector(Duration.ofMinutes(1), Duration.ofMinutes(5));
+    OAuth2Authorization authorization = authorization(Duration.ofHours(1));
+    stubLoad(authorization);
+    introspector.introspect(TOKEN);
+    Mockito.when(delegate.findAuthorizationById(authorization.getId()))
+        .thenThrow(new IllegalStateException("database unavailable"));
+    advance(Duration.ofMinutes(2));
+    introspector.introspect(TOKEN);
+
+    introspector.onApplicationEvent(new OAuth2AuthorizationChangedEvent(this, authorization, true));
+
+    Assertions.assertThatThrownBy(() -> introspector.introspect(TOKEN))
+        .isInstanceOf(InvalidBearerTokenException.class);
+  }
+
+  private CachingOpaqueTokenIntrospector introspector(Duration timeToLive) {
+    return introspector(timeToLive, Duration.ZERO);
+  }
+
+  /** 以可控计时器构造，后台重新校验在调用线程上同步执行 */
+  private CachingOpaqueTokenIntrospector introspector(
+      Duration timeToLive, Duration maxStaleness) {
+    return new CachingOpaqueTokenIntrospector(
+        delegate, 100, timeToLive, maxStaleness, nanos::get, Runnable::run);
+  }
+
+  private void stubLoad(OAuth2Authorization authorization) {
+    Mockito.when(delegate.findAuthorization(TOKEN, digest())).thenReturn(authorization);
+    Mockito.when(delegate.introspect(authorization)).thenReturn(principal);
+  }
+
+  private void advance(Duration duration) {
+    nanos.addAndGet(TimeUnit.NANOSECONDS.convert(duration));
+  }
+
+  private static String digest() {
+    return TokenDigestUtils.digest(TOKEN);
+  }
+
+  private static OAuth2Authorization authorization(Duration lifetime) {
+    Instant issuedAt = Instant.now();
+    RegisteredClient registeredClient =
+        RegisteredClient.withId("1")
+            .clientId("client")
+            .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+            .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+            .build();
+    return OAuth2Authorization.withRegisteredClient(registeredClient)
+        .id("1")
+        .principalName("admin")
+        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+        .accessToken(
+            new OAuth2AccessToken(
+                OAuth2AccessToken.TokenType.BEARER, TOKEN, issuedAt, issuedAt.plus(lifetime)))
+        .build();
+  }
+}
@@ -0,0 +1,142 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.introspection;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.OAuth2AuthorizationChangedEvent;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * RejectedTokenFilter 单元测试，覆盖误判率、按周期与容量的轮换及新签发令牌被误判时的清空
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class RejectedTokenFilterTest {
+
+  private static final Duration ROTATION_INTERVAL = Duration.ofMinutes(10);
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  @Test
+  void testFalsePositiveRateAtConfiguredSize() {
+    RejectedTokenFilter filter = filter(10_000, 0.01);
+    for (int i = 0; i < 9_999; i++) {
+      filter.put(TokenDigestUtils.digest("rejected-" + i));
+    }
+
+    int probes = 100_000;
+    int falsePositives = 0;
+    for (int i = 0; i < probes; i++) {
+      if (filter.mightContain(TokenDigestUtils.digest("probe-" + i))) {
+        falsePositives++;
+      }
+    }
+
+    Assertions.assertThat((double) falsePositives / probes).isLessThan(0.02);
+    Assertions.assertThat(filter.getFilteredCount()).isEqualTo(falsePositives);
+  }
+
+  @Test
+  void testRecordedDigestIsAlwaysFound() {
+    RejectedTokenFilter filter = filter(1_000, 1e-6);
+    for (int i = 0; i < 999; i++) {
+      filter.put(TokenDigestUtils.digest("rejected-" + i));
+    }
+
+    for (int i = 0; i < 999; i++) {
+      Assertions.assertThat(filter.mightContain(TokenDigestUtils.digest("rejected-" + i)))
+          .isTrue();
+    }
+  }
+
+  @Test
+  void testRecordsSurviveOneRotationInterval() {
+    RejectedTokenFilter filter = filter(1_000, 1e-6);
+    String digest = TokenDigestUtils.digest("rejected");
+    filter.put(digest);
+
+    nanos.addAndGet(TimeUnit.NANOSECONDS.convert(ROTATION_INTERVAL));
+    Assertions.assertThat(filter.mightContain(digest)).isTrue();
+
+    nanos.addAndGet(TimeUnit.NANOSECONDS.convert(ROTATION_INTERVAL));
+    Assertions.assertThat(filter.mightContain(digest)).isFalse();
+  }
+
+  @Test
+  void testFullGenerationRotates() {
+    RejectedTokenFilter filter = filter(2, 1e-6);
+    filter.put(TokenDigestUtils.digest("rejected-1"));
+    filter.put(TokenDigestUtils.digest("rejected-2"));
+    Assertions.assertThat(filter.mightContain(TokenDigestUtils.digest("rejected-1"))).isTrue();
+
+    filter.put(TokenDigestUtils.digest("rejected-3"));
+    filter.put(TokenDigestUtils.digest("rejected-4"));
+
+    Assertions.assertThat(filter.mightContain(TokenDigestUtils.digest("rejected-1"))).isFalse();
+    Assertions.assertThat(filter.mightContain(TokenDigestUtils.digest("rejected-3"))).isTrue();
+  }
+
+  @Test
+  void testSavedAccessTokenCollisionClearsFilter() {
+    RejectedTokenFilter filter = filter(1_000, 1e-6);
+    String other = TokenDigestUtils.digest("rejected");
+    filter.put(other);
+    // 以记录过的摘要模拟新签发令牌与已有记录的冲突
+    filter.put(TokenDigestUtils.digest("access-token"));
+
+    filter.onApplicationEvent(
+        new OAuth2AuthorizationChangedEvent(this, authorization("access-token"), false));
+
+    Assertions.assertThat(filter.mightContain(TokenDigestUtils.digest("access-token"))).isFalse();
+    Assertions.assertThat(filter.mightContain(other)).isFalse();
+  }
+
+  @Test
+  void testSavedAccessTokenWithoutCollisionKeepsFilter() {
+    RejectedTokenFilter filter = filter(1_000, 1e-6);
+    String digest = TokenDigestUtils.digest("rejected");
+    filter.put(digest);
+
+    filter.onApplicationEvent(
+        new OAuth2AuthorizationChangedEvent(this, authorization("access-token"), false));
+    filter.onApplicationEvent(
+        new OAuth2AuthorizationChangedEvent(this, authorization("rejected"), true));
+
+    Assertions.assertThat(filter.mightContain(digest)).isTrue();
+  }
+
+  private RejectedTokenFilter filter(int expectedInsertions, double falsePositiveProbability) {
+    return new RejectedTokenFilter(
+        expectedInsertions, falsePositiveProbability, ROTATION_INTERVAL, nanos::get);
+  }
+
+  private static OAuth2Authorization authorization(String accessToken) {
+    Instant issuedAt = Instant.now();
+    RegisteredClient registeredClient =
+        RegisteredClient.withId("1")
+            .clientId("client")
+            .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+            .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+            .build();
+    return OAuth2Authorization.withRegisteredClient(registeredClient)
+        .id("1")
+        .principalName("client")
+        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+        .accessToken(
+            new OAuth2AccessToken(
+                OAuth2AccessToken.TokenType.BEARER,
+                accessToken,
+                issuedAt,
+                issuedAt.plus(Duration.ofHours(1))))
+        .build();
+  }
+}
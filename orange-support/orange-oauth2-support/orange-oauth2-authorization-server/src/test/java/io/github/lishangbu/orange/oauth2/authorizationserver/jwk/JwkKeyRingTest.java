@@ -0,0 +1,55 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.jwk;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JwkKeyRing 签名自检单元测试，覆盖配对的密钥通过探测签名及公私钥不配对时失败
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class JwkKeyRingTest {
+
+  @Test
+  void testMatchingKeysPassProbe() throws JOSEException {
+    JWK es256 = generate(Curve.P_256, JWSAlgorithm.ES256);
+    JWK es384 = generate(Curve.P_384, JWSAlgorithm.ES384);
+    JwkKeyRing keyRing = new JwkKeyRing(List.of(es256, es384), List.of(es256, es384));
+
+    Assertions.assertThatCode(keyRing::verifySigningKeys).doesNotThrowAnyException();
+    Assertions.assertThat(keyRing.getSigningAlgorithms())
+        .containsExactlyInAnyOrder(JWSAlgorithm.ES256, JWSAlgorithm.ES384);
+  }
+
+  @Test
+  void testMismatchedPairFailsProbe() throws JOSEException {
+    ECKey published = generate(Curve.P_256, JWSAlgorithm.ES256);
+    ECKey other = generate(Curve.P_256, JWSAlgorithm.ES256);
+    // 发布的公钥与签名所用的私钥不属于同一密钥对
+    ECKey mismatched =
+        new ECKey.Builder(published.toPublicJWK()).privateKey(other.toECPrivateKey()).build();
+    JwkKeyRing keyRing = new JwkKeyRing(List.of(mismatched), List.of(mismatched));
+
+    Assertions.assertThatThrownBy(keyRing::verifySigningKeys)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining(published.getKeyID())
+        .hasMessageContaining("公私钥不配对");
+  }
+
+  private static ECKey generate(Curve curve, JWSAlgorithm algorithm) throws JOSEException {
+    return new ECKeyGenerator(curve)
+        .keyUse(KeyUse.SIGNATURE)
+        .algorithm(algorithm)
+        .keyIDFromThumbprint(true)
+        .generate();
+  }
+}
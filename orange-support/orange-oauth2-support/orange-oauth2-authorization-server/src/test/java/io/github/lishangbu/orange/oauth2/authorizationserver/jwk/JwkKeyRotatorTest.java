@@ -0,0 +1,173 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.jwk;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JwkKeyRotator 单元测试，以临时目录中的密钥文件按时间推进轮换，覆盖生成、激活、退役、多实例共享密钥文件及不再配置的算法
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class JwkKeyRotatorTest {
+
+  private static final Duration ROTATION_INTERVAL = Duration.ofDays(30);
+
+  private static final Duration ACTIVATION_DELAY = Duration.ofDays(1);
+
+  private static final Duration RETIREMENT_DELAY = Duration.ofDays(7);
+
+  private static final Instant T0 = Instant.parse("2025-10-18T00:00:00Z");
+
+  @TempDir Path directory;
+
+  private JwkKeyStore keyStore;
+
+  @BeforeEach
+  void setUp() {
+    keyStore = new JwkKeyStore(directory.resolve("jwks.json"));
+  }
+
+  @Test
+  void testKeyLifecycle() {
+    JwkKeyRotator rotator = rotator(JWSAlgorithm.ES256);
+
+    // 首次检查：生成第一个密钥并立即用于签名
+    rotator.rotate(T0);
+    JwkKeyRing keyRing = rotator.initialize();
+    String first = signingKeyId(keyRing);
+    Assertions.assertThat(keyIds(keyRing.getKeys())).containsExactly(first);
+    Assertions.assertThat(keyIds(keyStore.load())).containsExactly(first);
+    long version = keyRing.getVersion();
+
+    // 未到轮换间隔：密钥不变，版本号不变
+    rotator.rotate(T0.plus(ROTATION_INTERVAL).minusSeconds(1));
+    Assertions.assertThat(keyIds(keyRing.getKeys())).containsExactly(first);
+    Assertions.assertThat(keyRing.getVersion()).isEqualTo(version);
+
+    // 到达轮换间隔：新密钥立即发布，激活延迟内仍以旧密钥签名
+    Instant rotatedAt = T0.plus(ROTATION_INTERVAL);
+    rotator.rotate(rotatedAt);
+    Assertions.assertThat(keyRing.getKeys()).hasSize(2);
+    String second = keyIds(keyRing.getKeys()).get(1);
+    Assertions.assertThat(second).isNotEqualTo(first);
+    Assertions.assertThat(signingKeyId(keyRing)).isEqualTo(first);
+    Assertions.assertThat(keyRing.getVersion()).isGreaterThan(version);
+
+    rotator.rotate(rotatedAt.plus(ACTIVATION_DELAY).minusSeconds(1));
+    Assertions.assertThat(signingKeyId(keyRing)).isEqualTo(first);
+
+    // 激活延迟过后：新密钥签名，旧密钥只用于验签
+    Instant activatedAt = rotatedAt.plus(ACTIVATION_DELAY);
+    rotator.rotate(activatedAt);
+    Assertions.assertThat(signingKeyId(keyRing)).isEqualTo(second);
+    Assertions.assertThat(keyIds(keyRing.getKeys())).containsExactly(first, second);
+    Assertions.assertThat(keyRing.getVerificationKey(first, JWSAlgorithm.ES256)).isNotNull();
+
+    rotator.rotate(activatedAt.plus(RETIREMENT_DELAY).minusSeconds(1));
+    Assertions.assertThat(keyIds(keyRing.getKeys())).containsExactly(first, second);
+
+    // 被取代超过退役延迟：旧密钥从密钥环与密钥文件中移除
+    rotator.rotate(activatedAt.plus(RETIREMENT_DELAY));
+    Assertions.assertThat(keyIds(keyRing.getKeys())).containsExactly(second);
+    Assertions.assertThat(keyIds(keyStore.load())).containsExactly(second);
+    Assertions.assertThat(keyRing.getVerificationKey(first, JWSAlgorithm.ES256)).isNull();
+  }
+
+  @Test
+  void testEachAlgorithmHasOneSigningKey() {
+    JwkKeyRotator rotator = rotator(JWSAlgorithm.RS256, JWSAlgorithm.ES256);
+
+    rotator.rotate(T0);
+    JwkKeyRing keyRing = rotator.initialize();
+
+    Assertions.assertThat(keyRing.getKeys()).hasSize(2);
+    Assertions.assertThat(keyRing.getSigningAlgorithms())
+        .containsExactlyInAnyOrder(JWSAlgorithm.RS256, JWSAlgorithm.ES256);
+    keyRing.verifySigningKeys();
+  }
+
+  @Test
+  void testInstancesSharingKeyFileConverge() {
+    JwkKeyRotator first = rotator(JWSAlgorithm.ES256);
+    first.rotate(T0);
+
+    JwkKeyRotator second = rotator(JWSAlgorithm.ES256);
+    second.rotate(T0.plus(Duration.ofHours(1)));
+
+    Assertions.assertThat(signingKeyId(second.initialize()))
+        .isEqualTo(signingKeyId(first.initialize()));
+    Assertions.assertThat(keyStore.load()).hasSize(1);
+
+    // 一个实例轮换后，另一个实例下次检查时取得同一个新密钥，不会再生成
+    Instant rotatedAt = T0.plus(ROTATION_INTERVAL);
+    first.rotate(rotatedAt);
+    second.rotate(rotatedAt.plusSeconds(1));
+
+    Assertions.assertThat(keyIds(second.initialize().getKeys()))
+        .isEqualTo(keyIds(first.initialize().getKeys()))
+        .hasSize(2);
+  }
+
+  @Test
+  void testOrphanedAlgorithmIsKeptUntilRetired() {
+    JwkKeyRotator original = rotator(JWSAlgorithm.RS256, JWSAlgorithm.ES256);
+    original.rotate(T0);
+    String rsaKeyId = signingKeyId(original.initialize(), JWSAlgorithm.RS256);
+
+    // 不再配置 RS256：已发布的 RS256 密钥继续用于验签，但不再签名
+    JwkKeyRotator reconfigured = rotator(JWSAlgorithm.ES256);
+    reconfigured.rotate(T0.plus(Duration.ofDays(1)));
+    JwkKeyRing keyRing = reconfigured.initialize();
+    Assertions.assertThat(keyIds(keyRing.getKeys())).contains(rsaKeyId);
+    Assertions.assertThat(keyRing.getSigningAlgorithms()).containsExactly(JWSAlgorithm.ES256);
+    Assertions.assertThat(keyRing.getVerificationKey(rsaKeyId, JWSAlgorithm.RS256)).isNotNull();
+
+    // 按原节奏本应移除的时间：激活、一次轮换间隔及退役延迟之后
+    Instant retiredAt =
+        T0.plus(ACTIVATION_DELAY).plus(ROTATION_INTERVAL).plus(RETIREMENT_DELAY);
+    reconfigured.rotate(retiredAt.minusSeconds(1));
+    Assertions.assertThat(keyIds(keyRing.getKeys())).contains(rsaKeyId);
+
+    reconfigured.rotate(retiredAt);
+    Assertions.assertThat(keyIds(keyRing.getKeys())).doesNotContain(rsaKeyId);
+    Assertions.assertThat(keyIds(keyStore.load())).doesNotContain(rsaKeyId);
+    Assertions.assertThat(keyRing.getVerificationKey(rsaKeyId, JWSAlgorithm.RS256)).isNull();
+  }
+
+  private JwkKeyRotator rotator(JWSAlgorithm... algorithms) {
+    return new JwkKeyRotator(
+        keyStore,
+        ROTATION_INTERVAL,
+        ACTIVATION_DELAY,
+        RETIREMENT_DELAY,
+        Duration.ofHours(1),
+        2048,
+        List.of(algorithms));
+  }
+
+  private static String signingKeyId(JwkKeyRing keyRing) {
+    Assertions.assertThat(keyRing.getSigningKeys()).hasSize(1);
+    return keyRing.getSigningKeys().getFirst().getKeyID();
+  }
+
+  private static String signingKeyId(JwkKeyRing keyRing, JWSAlgorithm algorithm) {
+    return keyRing.getSigningKeys().stream()
+        .filter(key -> JwkKeyRing.algorithmOf(key).equals(algorithm))
+        .findFirst()
+        .orElseThrow()
+        .getKeyID();
+  }
+
+  private static List<String> keyIds(List<JWK> keys) {
+    return keys.stream().map(JWK::getKeyID).toList();
+  }
+}
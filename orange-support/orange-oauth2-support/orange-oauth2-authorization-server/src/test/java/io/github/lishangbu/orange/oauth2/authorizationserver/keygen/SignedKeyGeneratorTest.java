@@ -0,0 +1,162 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.keygen;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import io.github.lishangbu.orange.oauth2.authorizationserver.jwk.JwkKeyRing;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SignedKeyGenerator 单元测试，覆盖签发与校验往返、篡改、未知密钥、超长令牌、UUID 旧令牌及 JWT 格式令牌
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class SignedKeyGeneratorTest {
+
+  private static final byte[] SECRET_1 = secret(1);
+
+  private static final byte[] SECRET_2 = secret(2);
+
+  private static RSAKey signingKey;
+
+  private static JwkKeyRing keyRing;
+
+  @BeforeAll
+  static void setUpKeyRing() throws JOSEException {
+    signingKey = new RSAKeyGenerator(2048).keyID("rsa-1").algorithm(JWSAlgorithm.RS256).generate();
+    keyRing = new JwkKeyRing(List.of(signingKey), List.of(signingKey));
+  }
+
+  @Test
+  void testRoundTrip() {
+    SignedKeyGenerator generator = generator("k1", Map.of("k1", SECRET_1), true);
+
+    String key = generator.generateKey();
+
+    Assertions.assertThat(generator.verify(key)).isTrue();
+    Assertions.assertThat(generator.generateKey()).isNotEqualTo(key);
+  }
+
+  @Test
+  void testKeyFromPreviousSecretIsAcceptedAfterRotation() {
+    String key = generator("k1", Map.of("k1", SECRET_1), true).generateKey();
+
+    SignedKeyGenerator rotated = generator("k2", Map.of("k1", SECRET_1, "k2", SECRET_2), true);
+
+    Assertions.assertThat(rotated.verify(key)).isTrue();
+  }
+
+  @Test
+  void testTamperedKeyIsRejected() {
+    SignedKeyGenerator generator = generator("k1", Map.of("k1", SECRET_1), true);
+    byte[] bytes = Base64.getUrlDecoder().decode(generator.generateKey());
+    // 翻转随机数部分的一位
+    bytes[10] ^= 1;
+
+    String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+    Assertions.assertThat(generator.verify(tampered)).isFalse();
+  }
+
+  @Test
+  void testUnknownKeyIdIsRejected() {
+    String key = generator("k2", Map.of("k2", SECRET_2), true).generateKey();
+
+    Assertions.assertThat(generator("k1", Map.of("k1", SECRET_1), true).verify(key)).isFalse();
+  }
+
+  @Test
+  void testSameKeyIdWithDifferentSecretIsRejected() {
+    String key = generator("k1", Map.of("k1", SECRET_2), true).generateKey();
+
+    Assertions.assertThat(generator("k1", Map.of("k1", SECRET_1), true).verify(key)).isFalse();
+  }
+
+  @Test
+  void testOversizeTokenIsRejected() {
+    SignedKeyGenerator generator = generator("k1", Map.of("k1", SECRET_1), true);
+
+    Assertions.assertThat(generator.verify(generator.generateKey() + "AAAA")).isFalse();
+    Assertions.assertThat(generator.verify("A".repeat(100_000))).isFalse();
+    Assertions.assertThat(generator.verify(signedJwt("rsa-1") + "A".repeat(20_000))).isFalse();
+  }
+
+  @Test
+  void testMalformedTokenIsRejected() {
+    SignedKeyGenerator generator = generator("k1", Map.of("k1", SECRET_1), true);
+
+    Assertions.assertThat(generator.verify(null)).isFalse();
+    Assertions.assertThat(generator.verify("")).isFalse();
+    Assertions.assertThat(generator.verify("not a token")).isFalse();
+  }
+
+  @Test
+  void testLegacyUuidToken() {
+    String uuid = UUID.randomUUID().toString();
+
+    Assertions.assertThat(generator("k1", Map.of("k1", SECRET_1), true).verify(uuid)).isTrue();
+    Assertions.assertThat(generator("k1", Map.of("k1", SECRET_1), false).verify(uuid)).isFalse();
+  }
+
+  @Test
+  void testJwtSignedByKeyRingIsAccepted() {
+    SignedKeyGenerator generator = generator("k1", Map.of("k1", SECRET_1), false);
+
+    Assertions.assertThat(generator.verify(signedJwt("rsa-1"))).isTrue();
+  }
+
+  @Test
+  void testJwtWithUnknownKeyIdIsRejected() {
+    SignedKeyGenerator generator = generator("k1", Map.of("k1", SECRET_1), false);
+
+    Assertions.assertThat(generator.verify(signedJwt("rsa-2"))).isFalse();
+    Assertions.assertThat(generator.verify(signedJwt(null))).isFalse();
+  }
+
+  @Test
+  void testDottedStringIsNotTreatedAsJwt() {
+    SignedKeyGenerator generator = generator("k1", Map.of("k1", SECRET_1), false);
+
+    Assertions.assertThat(generator.verify("a.b.c")).isFalse();
+    Assertions.assertThat(generator.verify("eyJhbGciOiJub25lIn0.e30.")).isFalse();
+    Assertions.assertThat(generator.verify(signedJwt("rsa-1") + ".extra")).isFalse();
+  }
+
+  private static SignedKeyGenerator generator(
+      String activeKeyId, Map<String, byte[]> secrets, boolean acceptLegacyTokens) {
+    return new SignedKeyGenerator(activeKeyId, secrets, acceptLegacyTokens, keyRing);
+  }
+
+  private static String signedJwt(String keyId) {
+    try {
+      JWSObject jws =
+          new JWSObject(
+              new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build(),
+              new Payload("{\"sub\":\"admin\"}"));
+      jws.sign(new RSASSASigner(signingKey));
+      return jws.serialize();
+    } catch (JOSEException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] secret(int seed) {
+    byte[] secret = new byte[32];
+    for (int i = 0; i < secret.length; i++) {
+      secret[i] = (byte) (seed * 31 + i);
+    }
+    return secret;
+  }
+}
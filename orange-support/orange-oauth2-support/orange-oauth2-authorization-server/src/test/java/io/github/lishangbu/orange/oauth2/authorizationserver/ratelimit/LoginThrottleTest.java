@@ -0,0 +1,70 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit;
+
+import java.time.Duration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+
+/**
+ * LoginThrottle 单元测试，覆盖按 client_id 与按用户名的限流及关闭按 client_id 限流
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class LoginThrottleTest {
+
+  private final LoginThrottle throttle =
+      new LoginThrottle(
+          new TokenBucketRateLimiter(3, Duration.ofMinutes(1), 100, 4),
+          new TokenBucketRateLimiter(1, Duration.ofMinutes(1), 100, 4));
+
+  @Test
+  void testUsernameLimit() {
+    throttle.check("client", "admin");
+
+    assertTooManyRequests("client", "admin");
+    throttle.check("client", "other");
+  }
+
+  @Test
+  void testClientLimit() {
+    throttle.check("client", "user-1");
+    throttle.check("client", "user-2");
+    throttle.check("client", "user-3");
+
+    assertTooManyRequests("client", "user-4");
+  }
+
+  @Test
+  void testMissingUsernameOnlyCountsClient() {
+    throttle.check("client", null);
+    throttle.check("client", null);
+
+    Assertions.assertThat(throttle.getUsernameLimiter().getBucketCount()).isZero();
+  }
+
+  @Test
+  void testClientLimitDisabled() {
+    LoginThrottle usernameOnly =
+        new LoginThrottle(null, new TokenBucketRateLimiter(1, Duration.ofMinutes(1), 100, 4));
+
+    // 同一客户端下大量不同用户的登录不会耗尽共享限额，正常用户不受影响
+    for (int i = 0; i < 100; i++) {
+      usernameOnly.check("client", "user-" + i);
+    }
+    usernameOnly.check("client", "admin");
+
+    Assertions.assertThatThrownBy(() -> usernameOnly.check("client", "admin"))
+        .isInstanceOf(OAuth2AuthenticationException.class);
+    Assertions.assertThat(usernameOnly.getClientLimiter()).isNull();
+  }
+
+  private void assertTooManyRequests(String clientId, String username) {
+    Assertions.assertThatThrownBy(() -> throttle.check(clientId, username))
+        .isInstanceOfSatisfying(
+            OAuth2AuthenticationException.class,
+            e ->
+                Assertions.assertThat(e.getError().getErrorCode())
+                    .isEqualTo(LoginThrottle.TOO_MANY_REQUESTS));
+  }
+}
@@ -0,0 +1,103 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TokenBucketRateLimiter 单元测试，覆盖突发后拒绝、按周期补充令牌、键之间互不影响及桶数上限
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class TokenBucketRateLimiterTest {
+
+  private static final Duration REFILL_PERIOD = Duration.ofSeconds(1);
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  @Test
+  void testBurstThenReject() {
+    TokenBucketRateLimiter limiter = limiter(3, 100);
+
+    Assertions.assertThat(limiter.tryAcquire("client")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client")).isFalse();
+    Assertions.assertThat(limiter.getRejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testKeysHaveSeparateBuckets() {
+    TokenBucketRateLimiter limiter = limiter(1, 100);
+
+    Assertions.assertThat(limiter.tryAcquire("client-1")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client-1")).isFalse();
+    Assertions.assertThat(limiter.tryAcquire("client-2")).isTrue();
+  }
+
+  @Test
+  void testRefillOverTime() {
+    TokenBucketRateLimiter limiter = limiter(3, 100);
+    for (int i = 0; i < 3; i++) {
+      limiter.tryAcquire("client");
+    }
+
+    advance(Duration.ofMillis(999));
+    Assertions.assertThat(limiter.tryAcquire("client")).isFalse();
+
+    // 不足一个周期的零头保留，再过 1 毫秒即补充一个令牌
+    advance(Duration.ofMillis(1));
+    Assertions.assertThat(limiter.tryAcquire("client")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client")).isFalse();
+
+    advance(Duration.ofSeconds(2));
+    Assertions.assertThat(limiter.tryAcquire("client")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client")).isFalse();
+  }
+
+  @Test
+  void testRefillIsCappedAtCapacity() {
+    TokenBucketRateLimiter limiter = limiter(2, 100);
+    limiter.tryAcquire("client");
+
+    advance(Duration.ofSeconds(5));
+    Assertions.assertThat(limiter.tryAcquire("client")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client")).isTrue();
+    Assertions.assertThat(limiter.tryAcquire("client")).isFalse();
+  }
+
+  @Test
+  void testBucketCountIsBounded() {
+    TokenBucketRateLimiter limiter = limiter(1, 10);
+
+    for (int i = 0; i < 1_000; i++) {
+      limiter.tryAcquire("client-" + i);
+    }
+
+    Assertions.assertThat(limiter.getBucketCount()).isLessThanOrEqualTo(10);
+  }
+
+  @Test
+  void testIdleBucketExpires() {
+    TokenBucketRateLimiter limiter = limiter(2, 100);
+    limiter.tryAcquire("client");
+
+    advance(REFILL_PERIOD.multipliedBy(3));
+    limiter.tryAcquire("other");
+
+    Assertions.assertThat(limiter.getBucketCount()).isEqualTo(1);
+  }
+
+  private TokenBucketRateLimiter limiter(int capacity, long maximumKeys) {
+    return new TokenBucketRateLimiter(
+        capacity, REFILL_PERIOD, maximumKeys, 4, nanos::get, Runnable::run);
+  }
+
+  private void advance(Duration duration) {
+    nanos.addAndGet(TimeUnit.NANOSECONDS.convert(duration));
+  }
+}
@@ -0,0 +1,137 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.token;
+
+import io.github.lishangbu.orange.oauth2.authorizationserver.event.RegisteredClientChangedEvent;
+import java.time.Duration;
+import java.time.Instant;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * VerifiedJwtCache 单元测试，覆盖同一 JWT 只验签一次、无 exp 或已过期及解析失败不缓存、命名空间隔离及客户端变更清空
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class VerifiedJwtCacheTest {
+
+  private static final String TOKEN = "header.payload.signature";
+
+  private final VerifiedJwtCache verifiedJwtCache = new VerifiedJwtCache(100);
+
+  private final JwtDecoder delegate = Mockito.mock(JwtDecoder.class);
+
+  private final JwtDecoder decoder = verifiedJwtCache.decorate(delegate, "test ");
+
+  @Test
+  void testDelegateRunsOncePerDistinctJwt() {
+    Jwt first = jwt(TOKEN, Instant.now().plus(Duration.ofHours(1)));
+    Jwt second = jwt("other.payload.signature", Instant.now().plus(Duration.ofHours(1)));
+    Mockito.when(delegate.decode(TOKEN)).thenReturn(first);
+    Mockito.when(delegate.decode("other.payload.signature")).thenReturn(second);
+
+    Assertions.assertThat(decoder.decode(TOKEN)).isSameAs(first);
+    Assertions.assertThat(decoder.decode(TOKEN)).isSameAs(first);
+    Assertions.assertThat(decoder.decode("other.payload.signature")).isSameAs(second);
+    Assertions.assertThat(decoder.decode("other.payload.signature")).isSameAs(second);
+
+    Mockito.verify(delegate, Mockito.times(1)).decode(TOKEN);
+    Mockito.verify(delegate, Mockito.times(1)).decode("other.payload.signature");
+    Assertions.assertThat(verifiedJwtCache.getCache().estimatedSize()).isEqualTo(2);
+    Assertions.assertThat(verifiedJwtCache.getCache().stats().hitCount()).isEqualTo(2);
+  }
+
+  @Test
+  void testJwtWithoutExpIsNotCached() {
+    Mockito.when(delegate.decode(TOKEN)).thenReturn(jwt(TOKEN, null));
+
+    decoder.decode(TOKEN);
+    decoder.decode(TOKEN);
+
+    Mockito.verify(delegate, Mockito.times(2)).decode(TOKEN);
+    Assertions.assertThat(verifiedJwtCache.getCache().estimatedSize()).isZero();
+  }
+
+  @Test
+  void testExpiredJwtIsNotCached() {
+    Mockito.when(delegate.decode(TOKEN))
+        .thenReturn(jwt(TOKEN, Instant.now().minus(Duration.ofMinutes(1))));
+
+    decoder.decode(TOKEN);
+    decoder.decode(TOKEN);
+
+    Mockito.verify(delegate, Mockito.times(2)).decode(TOKEN);
+    Assertions.assertThat(verifiedJwtCache.getCache().estimatedSize()).isZero();
+  }
+
+  @Test
+  void testFailedDecodeIsNotCached() {
+    Jwt jwt = jwt(TOKEN, Instant.now().plus(Duration.ofHours(1)));
+    Mockito.when(delegate.decode(TOKEN))
+        .thenThrow(new BadJwtException("Signed JWT rejected: Invalid signature"))
+        .thenReturn(jwt);
+
+    Assertions.assertThatThrownBy(() -> decoder.decode(TOKEN))
+        .isInstanceOf(BadJwtException.class);
+    Assertions.assertThat(verifiedJwtCache.getCache().estimatedSize()).isZero();
+
+    // 失败后同一 JWT 重新验签，而不是沿用失败结果
+    Assertions.assertThat(decoder.decode(TOKEN)).isSameAs(jwt);
+    Mockito.verify(delegate, Mockito.times(2)).decode(TOKEN);
+  }
+
+  @Test
+  void testNamespacesAreIsolated() {
+    JwtDecoder otherDelegate = Mockito.mock(JwtDecoder.class);
+    JwtDecoder otherDecoder = verifiedJwtCache.decorate(otherDelegate, "other ");
+    Jwt jwt = jwt(TOKEN, Instant.now().plus(Duration.ofHours(1)));
+    Mockito.when(delegate.decode(TOKEN)).thenReturn(jwt);
+    Mockito.when(otherDelegate.decode(TOKEN))
+        .thenThrow(new BadJwtException("Signed JWT rejected: Another algorithm expected"));
+
+    decoder.decode(TOKEN);
+
+    // 一个解析器验签通过的结果不会被验签密钥或校验规则不同的解析器沿用
+    Assertions.assertThatThrownBy(() -> otherDecoder.decode(TOKEN))
+        .isInstanceOf(BadJwtException.class);
+    Assertions.assertThat(decoder.decode(TOKEN)).isSameAs(jwt);
+    Mockito.verify(delegate, Mockito.times(1)).decode(TOKEN);
+    Mockito.verify(otherDelegate, Mockito.times(1)).decode(TOKEN);
+  }
+
+  @Test
+  void testRegisteredClientChangedEventClearsCache() {
+    Mockito.when(delegate.decode(ArgumentMatchers.anyString()))
+        .thenReturn(jwt(TOKEN, Instant.now().plus(Duration.ofHours(1))));
+    decoder.decode(TOKEN);
+
+    verifiedJwtCache.onApplicationEvent(new RegisteredClientChangedEvent(this, client()));
+    Assertions.assertThat(verifiedJwtCache.getCache().estimatedSize()).isZero();
+    decoder.decode(TOKEN);
+
+    Mockito.verify(delegate, Mockito.times(2)).decode(TOKEN);
+  }
+
+  private static Jwt jwt(String token, Instant expiresAt) {
+    Jwt.Builder builder = Jwt.withTokenValue(token).header("alg", "RS256").subject("client");
+    if (expiresAt != null) {
+      builder.issuedAt(expiresAt.minus(Duration.ofHours(1))).expiresAt(expiresAt);
+    }
+    return builder.build();
+  }
+
+  private static RegisteredClient client() {
+    return RegisteredClient.withId("1")
+        .clientId("client")
+        .clientAuthenticationMethod(ClientAuthenticationMethod.PRIVATE_KEY_JWT)
+        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+        .build();
+  }
+}
@@ -0,0 +1,166 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SingleFlight 单元测试，覆盖并发调用共享一次加载、失败结果不保留及等待超时后自行加载
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class SingleFlightTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  private static final int FOLLOWERS = 4;
+
+  private final SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void testConcurrentCallersShareOneLoad() throws InterruptedException {
+    Object value = new Object();
+    Queue<Object> results = new ConcurrentLinkedQueue<>();
+    List<Thread> followers = new ArrayList<>();
+    for (int i = 0; i < FOLLOWERS; i++) {
+      followers.add(new Thread(() -> results.add(singleFlight.execute("key", TIMEOUT, () -> 0))));
+    }
+    CountDownLatch loading = new CountDownLatch(1);
+    Thread leader =
+        new Thread(
+            () ->
+                results.add(
+                    singleFlight.execute(
+                        "key",
+                        TIMEOUT,
+                        () -> {
+                          loads.incrementAndGet();
+                          loading.countDown();
+                          awaitParked(followers);
+                          return value;
+                        })));
+
+    leader.start();
+    Assertions.assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+    followers.forEach(Thread::start);
+    joinAll(leader, followers);
+
+    Assertions.assertThat(loads).hasValue(1);
+    Assertions.assertThat(results)
+        .hasSize(FOLLOWERS + 1)
+        .allSatisfy(result -> Assertions.assertThat(result).isSameAs(value));
+  }
+
+  @Test
+  void testFailureIsSharedButNotKept() throws InterruptedException {
+    Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    List<Thread> followers = new ArrayList<>();
+    for (int i = 0; i < FOLLOWERS; i++) {
+      followers.add(new Thread(() -> failures.add(catchFailure(() -> 0))));
+    }
+    CountDownLatch loading = new CountDownLatch(1);
+    Thread leader =
+        new Thread(
+            () ->
+                failures.add(
+                    catchFailure(
+                        () -> {
+                          loads.incrementAndGet();
+                          loading.countDown();
+                          awaitParked(followers);
+                          throw new IllegalStateException("database unavailable");
+                        })));
+
+    leader.start();
+    Assertions.assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+    followers.forEach(Thread::start);
+    joinAll(leader, followers);
+
+    Assertions.assertThat(loads).hasValue(1);
+    Assertions.assertThat(failures)
+        .hasSize(FOLLOWERS + 1)
+        .allSatisfy(
+            e ->
+                Assertions.assertThat(e)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("database unavailable"));
+
+    // 失败结果不保留，之后的调用重新加载
+    Assertions.assertThat(singleFlight.execute("key", TIMEOUT, () -> "loaded"))
+        .isEqualTo("loaded");
+  }
+
+  @Test
+  void testWaiterLoadsItselfAfterTimeout() throws InterruptedException {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread leader =
+        new Thread(
+            () ->
+                singleFlight.execute(
+                    "key",
+                    TIMEOUT,
+                    () -> {
+                      loading.countDown();
+                      try {
+                        return release.await(30, TimeUnit.SECONDS);
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                      }
+                    }));
+    leader.start();
+    Assertions.assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+    Object result = singleFlight.execute("key", Duration.ofMillis(50), () -> "own");
+
+    Assertions.assertThat(result).isEqualTo("own");
+    release.countDown();
+    leader.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  @Test
+  void testDifferentKeysLoadIndependently() {
+    singleFlight.execute("a", TIMEOUT, loads::incrementAndGet);
+    singleFlight.execute("b", TIMEOUT, loads::incrementAndGet);
+    singleFlight.execute("a", TIMEOUT, loads::incrementAndGet);
+
+    Assertions.assertThat(loads).hasValue(3);
+  }
+
+  private Throwable catchFailure(Supplier<Object> loader) {
+    return Assertions.catchThrowable(() -> singleFlight.execute("key", TIMEOUT, loader));
+  }
+
+  /** 等待其它调用方进入限时等待，保证它们等待的是进行中的加载 */
+  private static void awaitParked(List<Thread> threads) {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    for (Thread thread : threads) {
+      while (thread.getState() != Thread.State.TIMED_WAITING) {
+        if (System.nanoTime() > deadline) {
+          throw new AssertionError(thread.getName() + " is not waiting");
+        }
+        Thread.onSpinWait();
+      }
+    }
+  }
+
+  private static void joinAll(Thread leader, List<Thread> followers)
+      throws InterruptedException {
+    leader.join(TimeUnit.SECONDS.toMillis(5));
+    for (Thread follower : followers) {
+      follower.join(TimeUnit.SECONDS.toMillis(5));
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.web;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import io.github.lishangbu.orange.oauth2.authorizationserver.jwk.JwkKeyRing;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * MetadataEndpointCacheFilter 单元测试，以输出密钥环 JWK Set 的过滤器链代替 JWK Set 端点，覆盖 ETag、304、
+ * Cache-Control、非 200 响应不缓存、密钥环版本变化后重新生成及其它请求不经缓存
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class MetadataEndpointCacheFilterTest {
+
+  private static final String JWK_SET_ENDPOINT = "/oauth2/jwks";
+
+  /** 端点实际生成响应的次数 */
+  private final AtomicInteger renders = new AtomicInteger();
+
+  /** 端点下次生成响应时返回的状态码 */
+  private volatile int status = HttpServletResponse.SC_OK;
+
+  private JwkKeyRing keyRing;
+
+  private MetadataEndpointCacheFilter filter;
+
+  @BeforeEach
+  void setUp() throws JOSEException {
+    JWK key = generateKey();
+    keyRing = new JwkKeyRing(List.of(key), List.of(key));
+    filter =
+        new MetadataEndpointCacheFilter(
+            Set.of(JWK_SET_ENDPOINT), keyRing::getVersion, Duration.ofMinutes(5), 100);
+  }
+
+  @Test
+  void testResponseCarriesEtagOfBodyAndCacheControl() throws Exception {
+    MockHttpServletResponse response = perform(get(JWK_SET_ENDPOINT));
+
+    Assertions.assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    Assertions.assertThat(response.getContentAsString()).isEqualTo(jwkSet());
+    Assertions.assertThat(response.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+    Assertions.assertThat(response.getContentLength())
+        .isEqualTo(response.getContentAsByteArray().length);
+    Assertions.assertThat(response.getHeader(HttpHeaders.ETAG))
+        .isEqualTo(etag(response.getContentAsByteArray()));
+    Assertions.assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL))
+        .isEqualTo("max-age=300, public");
+  }
+
+  @Test
+  void testRepeatedRequestIsServedFromCache() throws Exception {
+    MockHttpServletResponse first = perform(get(JWK_SET_ENDPOINT));
+    MockHttpServletResponse second = perform(get(JWK_SET_ENDPOINT));
+
+    Assertions.assertThat(second.getContentAsByteArray())
+        .isEqualTo(first.getContentAsByteArray());
+    Assertions.assertThat(second.getHeader(HttpHeaders.ETAG))
+        .isEqualTo(first.getHeader(HttpHeaders.ETAG));
+    Assertions.assertThat(renders).hasValue(1);
+    Assertions.assertThat(filter.getRenderCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testMatchingIfNoneMatchReturnsNotModified() throws Exception {
+    String etag = perform(get(JWK_SET_ENDPOINT)).getHeader(HttpHeaders.ETAG);
+
+    MockHttpServletRequest request = get(JWK_SET_ENDPOINT);
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+    MockHttpServletResponse response = perform(request);
+
+    Assertions.assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+    Assertions.assertThat(response.getContentAsByteArray()).isEmpty();
+    Assertions.assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+    Assertions.assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL))
+        .isEqualTo("max-age=300, public");
+    Assertions.assertThat(renders).hasValue(1);
+  }
+
+  @Test
+  void testNonOkResponseIsPassedThroughAndNotCached() throws Exception {
+    status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+
+    MockHttpServletResponse response = perform(get(JWK_SET_ENDPOINT));
+
+    Assertions.assertThat(response.getStatus())
+        .isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    Assertions.assertThat(response.getContentAsString()).isEqualTo(jwkSet());
+    Assertions.assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    Assertions.assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isNull();
+    Assertions.assertThat(filter.getCache().estimatedSize()).isZero();
+
+    // 端点恢复后重新生成并缓存
+    status = HttpServletResponse.SC_OK;
+    Assertions.assertThat(perform(get(JWK_SET_ENDPOINT)).getStatus())
+        .isEqualTo(HttpServletResponse.SC_OK);
+    Assertions.assertThat(renders).hasValue(2);
+    Assertions.assertThat(filter.getCache().estimatedSize()).isEqualTo(1);
+  }
+
+  @Test
+  void testKeyRingVersionChangeRendersAgain() throws Exception {
+    MockHttpServletResponse before = perform(get(JWK_SET_ENDPOINT));
+    String previousEtag = before.getHeader(HttpHeaders.ETAG);
+    JWK rotated = generateKey();
+    keyRing.update(List.of(keyRing.getKeys().getFirst(), rotated), List.of(rotated));
+
+    MockHttpServletRequest request = get(JWK_SET_ENDPOINT);
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, previousEtag);
+    MockHttpServletResponse after = perform(request);
+
+    // 轮换后旧 ETag 不再匹配，返回包含新密钥的完整响应
+    Assertions.assertThat(after.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    Assertions.assertThat(after.getContentAsString())
+        .isEqualTo(jwkSet())
+        .contains(rotated.getKeyID());
+    Assertions.assertThat(after.getHeader(HttpHeaders.ETAG))
+        .isNotEqualTo(previousEtag)
+        .isEqualTo(etag(after.getContentAsByteArray()));
+    Assertions.assertThat(renders).hasValue(2);
+  }
+
+  @Test
+  void testOtherRequestsBypassCache() throws Exception {
+    MockHttpServletRequest post = get(JWK_SET_ENDPOINT);
+    post.setMethod("POST");
+    perform(post);
+    perform(post);
+    perform(get("/oauth2/token"));
+
+    Assertions.assertThat(renders).hasValue(3);
+    Assertions.assertThat(filter.getRenderCount()).isZero();
+    Assertions.assertThat(filter.getCache().estimatedSize()).isZero();
+  }
+
+  private MockHttpServletResponse perform(MockHttpServletRequest request)
+      throws ServletException, IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, endpoint());
+    return response;
+  }
+
+  /** 模拟 JWK Set 端点，输出密钥环当前发布的公钥 */
+  private FilterChain endpoint() {
+    return (request, response) -> {
+      renders.incrementAndGet();
+      HttpServletResponse httpResponse = (HttpServletResponse) response;
+      httpResponse.setStatus(status);
+      httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      httpResponse.getWriter().write(jwkSet());
+    };
+  }
+
+  private String jwkSet() {
+    return new JWKSet(keyRing.getKeys()).toString();
+  }
+
+  private static MockHttpServletRequest get(String path) {
+    return new MockHttpServletRequest("GET", path);
+  }
+
+  private static JWK generateKey() throws JOSEException {
+    return new ECKeyGenerator(Curve.P_256)
+        .keyUse(KeyUse.SIGNATURE)
+        .algorithm(JWSAlgorithm.ES256)
+        .keyIDFromThumbprint(true)
+        .generate();
+  }
+
+  private static String etag(byte[] body) throws NoSuchAlgorithmException {
+    byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+    return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+  }
+}
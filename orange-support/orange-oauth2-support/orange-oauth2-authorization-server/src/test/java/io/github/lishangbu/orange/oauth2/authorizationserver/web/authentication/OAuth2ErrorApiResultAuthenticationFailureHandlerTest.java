@@ -0,0 +1,65 @@
+package io.github.lishangbu.orange.oauth2.authorizationserver.web.authentication;
+
+import io.github.lishangbu.orange.json.autoconfiguration.JacksonAutoConfiguration;
+import io.github.lishangbu.orange.oauth2.authorizationserver.ratelimit.LoginThrottle;
+import io.github.lishangbu.orange.web.result.DefaultErrorResultCode;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * OAuth2ErrorApiResultAuthenticationFailureHandler 单元测试，覆盖过载、限流与普通错误的状态码及错误码
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = JacksonAutoConfiguration.class)
+class OAuth2ErrorApiResultAuthenticationFailureHandlerTest {
+
+  private final OAuth2ErrorApiResultAuthenticationFailureHandler handler =
+      new OAuth2ErrorApiResultAuthenticationFailureHandler();
+
+  @Test
+  void testTemporarilyUnavailableReturnsServiceUnavailable() throws Exception {
+    MockHttpServletResponse response = handle(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE);
+
+    Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    Assertions.assertThat(response.getContentAsString())
+        .contains("\"code\":" + DefaultErrorResultCode.SERVICE_UNAVAILABLE.code())
+        .contains(OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE);
+  }
+
+  @Test
+  void testTooManyRequestsReturnsTooManyRequests() throws Exception {
+    MockHttpServletResponse response = handle(LoginThrottle.TOO_MANY_REQUESTS);
+
+    Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    Assertions.assertThat(response.getContentAsString())
+        .contains("\"code\":" + DefaultErrorResultCode.TOO_MANY_REQUESTS.code());
+  }
+
+  @Test
+  void testOtherErrorReturnsBadRequest() throws Exception {
+    MockHttpServletResponse response = handle(OAuth2ErrorCodes.INVALID_GRANT);
+
+    Assertions.assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    Assertions.assertThat(response.getContentAsString())
+        .contains("\"code\":" + DefaultErrorResultCode.BAD_REQUEST.code())
+        .contains(OAuth2ErrorCodes.INVALID_GRANT);
+  }
+
+  private MockHttpServletResponse handle(String errorCode) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    handler.onAuthenticationFailure(
+        new MockHttpServletRequest(), response, new OAuth2AuthenticationException(errorCode));
+    return response;
+  }
+}
@@ -1,22 +1,60 @@
 package io.github.lishangbu.orange.oauth2.common.autoconfiguration;
 
+import io.github.lishangbu.orange.oauth2.common.crypto.BCryptStrengthCalibrator;
+import io.github.lishangbu.orange.oauth2.common.crypto.StrengthAwareBCryptPasswordEncoder;
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * 密码自动装配
  *
+ * <p>新密码以 bcrypt 编码，强度取配置值或启动时按目标耗时校准的结果；其余算法的已存哈希仍由默认的委托编码器校验。
+ * 非 bcrypt 或强度过低、过高的哈希在登录成功后会被重新编码
+ *
  * @author lishangbu
  * @since 2025/8/17
  */
+@Slf4j
 @AutoConfiguration
 public class PasswordEncoderAutoConfiguration {
+
+  private static final String BCRYPT_ID = "bcrypt";
+
   @Bean
   @ConditionalOnMissingBean
-  public PasswordEncoder passwordEncoder() {
-    return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+  public PasswordEncoder passwordEncoder(Oauth2Properties oauth2Properties) {
+    Oauth2Properties.PasswordEncoder properties = oauth2Properties.getPasswordEncoder();
+    int strength = properties.getStrength();
+    // 固定强度时低于该强度的哈希即升级，校准时只升级低于最低强度的哈希
+    int minimumStrength = strength;
+    if (properties.getTargetDuration() != null) {
+      strength =
+          BCryptStrengthCalibrator.calibrate(
+              properties.getTargetDuration(),
+              properties.getMinimumStrength(),
+              properties.getMaximumStrength());
+      log.info(
+          "Calibrated bcrypt strength to [{}] for target duration [{}]",
+          strength,
+          properties.getTargetDuration());
+      minimumStrength = properties.getMinimumStrength();
+    }
+    DelegatingPasswordEncoder passwordEncoder =
+        new DelegatingPasswordEncoder(
+            BCRYPT_ID,
+            Map.of(
+                BCRYPT_ID,
+                new StrengthAwareBCryptPasswordEncoder(
+                    strength, minimumStrength, properties.getMaximumStrength())));
+    passwordEncoder.setDefaultPasswordEncoderForMatches(
+        PasswordEncoderFactories.createDelegatingPasswordEncoder());
+    return passwordEncoder;
   }
 }
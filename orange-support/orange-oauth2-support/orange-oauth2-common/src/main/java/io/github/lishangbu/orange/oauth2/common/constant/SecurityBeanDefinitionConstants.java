@@ -12,10 +12,22 @@ public abstract class SecurityBeanDefinitionConstants {
 
   public static final int RESOURCE_SERVER_SECURITY_FILTER_CHAIN_BEAN_ORDER =
       AUTHORIZATION_SERVER_SECURITY_FILTER_CHAIN_BEAN_ORDER + 1;
+
+  /** 吊销记录接口只匹配单个路径，与授权服务器链互不重叠，只需先于资源服务器链 */
+  public static final int REVOCATION_FEED_SECURITY_FILTER_CHAIN_BEAN_ORDER =
+      AUTHORIZATION_SERVER_SECURITY_FILTER_CHAIN_BEAN_ORDER;
+
+  /** 批量令牌解析接口只匹配单个路径，与授权服务器链互不重叠，只需先于资源服务器链 */
+  public static final int BATCH_INTROSPECTION_SECURITY_FILTER_CHAIN_BEAN_ORDER =
+      AUTHORIZATION_SERVER_SECURITY_FILTER_CHAIN_BEAN_ORDER;
   public static final String AUTHORIZATION_SERVER_SECURITY_FILTER_CHAIN_BEAN_NAME =
       "authorizationServerSecurityFilterChain";
   public static final String RESOURCE_SERVER_SECURITY_FILTER_CHAIN_BEAN_NAME =
       "resourceServerSecurityFilterChain";
+  public static final String REVOCATION_FEED_SECURITY_FILTER_CHAIN_BEAN_NAME =
+      "revocationFeedSecurityFilterChain";
+  public static final String BATCH_INTROSPECTION_SECURITY_FILTER_CHAIN_BEAN_NAME =
+      "batchIntrospectionSecurityFilterChain";
 
   public static final String AUTHORIZATION_REDIS_TEMPLATE = "authorizationRedisTemplate";
 }
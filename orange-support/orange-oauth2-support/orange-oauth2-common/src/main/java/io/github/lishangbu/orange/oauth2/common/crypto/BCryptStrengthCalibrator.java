@@ -0,0 +1,67 @@
+package io.github.lishangbu.orange.oauth2.common.crypto;
+
+import java.time.Duration;
+import java.util.Arrays;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.util.Assert;
+
+/**
+ * bcrypt 强度校准
+ *
+ * <p>bcrypt 强度每加 1 耗时翻倍。启动时在当前硬件上从最低强度开始逐级实测单次哈希耗时，取耗时不超过目标时间的最高强度，
+ * 使同一部署的登录耗时可预期
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public final class BCryptStrengthCalibrator {
+
+  /** 每个强度测量的次数，取中位数以排除 JIT 预热与 GC 的干扰 */
+  private static final int SAMPLES = 3;
+
+  private static final String SAMPLE_PASSWORD = "calibration-password";
+
+  private BCryptStrengthCalibrator() {}
+
+  /**
+   * 校准 bcrypt 强度
+   *
+   * @param target 单次哈希的目标耗时
+   * @param minimumStrength 最低强度，即使耗时超出目标也不低于此值
+   * @param maximumStrength 最高强度
+   * @return 耗时不超过目标的最高强度，不低于最低强度
+   */
+  public static int calibrate(Duration target, int minimumStrength, int maximumStrength) {
+    Assert.isTrue(target != null && target.isPositive(), "target must be greater than 0");
+    Assert.isTrue(
+        minimumStrength >= 4 && minimumStrength <= maximumStrength && maximumStrength <= 31,
+        "strength must satisfy 4 <= minimumStrength <= maximumStrength <= 31");
+    long targetNanos = target.toNanos();
+    // 预热，避免首次测量计入类加载与解释执行的耗时
+    measure(4);
+    int strength = minimumStrength;
+    long elapsed = measure(strength);
+    // 下一级耗时约为当前的两倍，预计仍不超过目标时才继续实测
+    while (strength < maximumStrength && elapsed * 2 <= targetNanos) {
+      long next = measure(strength + 1);
+      if (next > targetNanos) {
+        break;
+      }
+      strength++;
+      elapsed = next;
+    }
+    return strength;
+  }
+
+  private static long measure(int strength) {
+    long[] samples = new long[SAMPLES];
+    String salt = BCrypt.gensalt(strength);
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+      samples[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(samples);
+    return samples[SAMPLES / 2];
+  }
+}
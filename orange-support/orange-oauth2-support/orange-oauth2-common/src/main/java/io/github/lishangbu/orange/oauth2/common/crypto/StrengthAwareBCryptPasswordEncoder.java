@@ -0,0 +1,74 @@
+package io.github.lishangbu.orange.oauth2.common.crypto;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * 按强度区间双向升级的 bcrypt 编码器
+ *
+ * <p>{@link BCryptPasswordEncoder#upgradeEncoding(String)} 只在已存哈希强度低于当前强度时返回 true，
+ * 强度过高、登录耗时超出预期的哈希则会一直保留。此编码器在哈希强度低于最低强度或高于最高强度时均返回 true，
+ * 登录成功后由 {@link org.springframework.security.core.userdetails.UserDetailsPasswordService} 以当前强度重新编码
+ *
+ * <p>区间内的哈希不升级：启动时校准的强度在不同实例、不同次启动间可能相差一两级，若与当前强度不一致即重新编码，
+ * 每次登录都会改写密码；客户端密钥的重新编码还会保存客户端并清空依赖客户端的各级缓存
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class StrengthAwareBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+  private static final int BCRYPT_MAXIMUM_STRENGTH = 31;
+
+  private static final Pattern BCRYPT_PATTERN =
+      Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+  private final int strength;
+
+  private final int minimumStrength;
+
+  private final int maximumStrength;
+
+  /**
+   * 构造编码器，只升级强度低于编码强度的哈希
+   *
+   * @param strength 编码强度，取值范围 4 至 31
+   */
+  public StrengthAwareBCryptPasswordEncoder(int strength) {
+    this(strength, strength, BCRYPT_MAXIMUM_STRENGTH);
+  }
+
+  /**
+   * 构造编码器
+   *
+   * @param strength 编码强度，取值范围 4 至 31
+   * @param minimumStrength 不需升级的最低强度，高于编码强度时以编码强度为准
+   * @param maximumStrength 不需升级的最高强度，低于编码强度时以编码强度为准
+   */
+  public StrengthAwareBCryptPasswordEncoder(
+      int strength, int minimumStrength, int maximumStrength) {
+    super(strength);
+    this.strength = strength;
+    this.minimumStrength = Math.min(minimumStrength, strength);
+    this.maximumStrength = Math.max(maximumStrength, strength);
+  }
+
+  /** 获取编码强度 */
+  public int getStrength() {
+    return this.strength;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null || encodedPassword.isEmpty()) {
+      return false;
+    }
+    Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+    if (!matcher.matches()) {
+      return false;
+    }
+    int cost = Integer.parseInt(matcher.group(2));
+    return cost < this.minimumStrength || cost > this.maximumStrength;
+  }
+}
@@ -1,7 +1,10 @@
 package io.github.lishangbu.orange.oauth2.common.properties;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.Data;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -92,4 +95,539 @@ public class Oauth2Properties {
    * <p>生产环境建议将私钥存放在安全的文件系统路径中
    */
   private String jwtPrivateKeyLocation;
+
+  /**
+   * 是否严格加载 JWT 公私钥文件，默认关闭
+   *
+   * <p>开启后，配置的公钥或私钥文件缺失、解析失败或二者不配对时启动失败；关闭时记录错误并回退为随机生成的密钥对
+   */
+  private boolean jwtKeyStrict = false;
+
+  /** 签名密钥轮换配置，未配置公私钥文件时生效 */
+  private KeyRotation keyRotation = new KeyRotation();
+
+  /** 透明令牌解析结果的本地缓存配置 */
+  private IntrospectionCache introspectionCache = new IntrospectionCache();
+
+  /** 已拒绝令牌过滤配置 */
+  private RejectedTokenFilter rejectedTokenFilter = new RejectedTokenFilter();
+
+  /** 引用令牌（透明令牌与刷新令牌）的校验码配置 */
+  private ReferenceToken referenceToken = new ReferenceToken();
+
+  /** 待换发令牌的认证信息（授权码、state、设备码）存储配置 */
+  private PendingAuthorization pendingAuthorization = new PendingAuthorization();
+
+  /** 过期认证信息清理任务配置 */
+  private AuthorizationReaper authorizationReaper = new AuthorizationReaper();
+
+  /** 注册客户端的本地缓存配置 */
+  private RegisteredClientCache registeredClientCache = new RegisteredClientCache();
+
+  /** 客户端密钥校验结果缓存配置 */
+  private ClientSecretCache clientSecretCache = new ClientSecretCache();
+
+  /** 密码模式下用户密码校验线程池配置 */
+  private PasswordHashing passwordHashing = new PasswordHashing();
+
+  /** 密码模式登录限流配置 */
+  private LoginThrottle loginThrottle = new LoginThrottle();
+
+  /** 密码编码配置 */
+  private PasswordEncoder passwordEncoder = new PasswordEncoder();
+
+  /** 并发请求合并配置 */
+  private RequestCoalescing requestCoalescing = new RequestCoalescing();
+
+  /** 批量令牌解析接口配置 */
+  private BatchIntrospection batchIntrospection = new BatchIntrospection();
+
+  /** 令牌吊销记录配置 */
+  private RevocationFeed revocationFeed = new RevocationFeed();
+
+  /** 资源服务器远程令牌解析配置 */
+  private RemoteIntrospection remoteIntrospection = new RemoteIntrospection();
+
+  /** 已验签 JWT 缓存配置 */
+  private VerifiedJwtCache verifiedJwtCache = new VerifiedJwtCache();
+
+  /** JWK Set 及发现文档的响应缓存配置 */
+  private MetadataEndpointCache metadataEndpointCache = new MetadataEndpointCache();
+
+  /**
+   * 透明令牌解析结果的本地缓存配置
+   *
+   * <p>缓存以令牌摘要为键，命中时无需查询认证信息和加载用户；本实例上的续签、吊销、注销会立即失效对应条目
+   */
+  @Data
+  public static class IntrospectionCache {
+    /** 是否启用缓存，默认启用 */
+    private boolean enabled = true;
+
+    /** 最大缓存条目数，默认 10000 */
+    private long maximumSize = 10_000;
+
+    /**
+     * 条目最长存活时间，默认 5 秒
+     *
+     * <p>实际存活时间不超过访问令牌剩余有效期；多实例部署时，其它实例上的吊销、注销最迟在该时间后生效，
+     * 单实例部署可按需调大
+     */
+    private Duration timeToLive = Duration.ofSeconds(5);
+
+    /**
+     * 最长过期容忍时间，默认 0，即不使用过期条目
+     *
+     * <p>大于 0 时，条目超过存活时间后在容忍时间内仍直接应答，同时在后台重新校验；数据库变慢或不可用时以旧结果继续服务。
+     * 本实例上的注销仍立即生效，其它实例上的吊销最迟在存活时间与容忍时间之和后生效
+     */
+    private Duration maxStaleness = Duration.ZERO;
+  }
+
+  /**
+   * 已拒绝令牌过滤配置
+   *
+   * <p>以布隆过滤器记录近期查无此令牌的摘要，同一伪造令牌再次出现时不再查询数据库
+   */
+  @Data
+  public static class RejectedTokenFilter {
+    /** 是否启用，默认启用 */
+    private boolean enabled = true;
+
+    /** 每代预期记录数，写满后轮换，默认 100000 */
+    private int expectedInsertions = 100_000;
+
+    /** 每代的期望误判率，默认百万分之一 */
+    private double falsePositiveProbability = 1e-6;
+
+    /**
+     * 轮换周期，记录最长保留两个周期，默认 10 分钟
+     *
+     * <p>多实例部署时，其它实例签发的令牌若被本实例误判，最长在两个周期内被本实例拒绝
+     */
+    private Duration rotationInterval = Duration.ofMinutes(10);
+  }
+
+  /**
+   * 引用令牌的校验码配置
+   *
+   * <p>配置 {@code active-key-id} 后，新签发的访问令牌与刷新令牌会携带以服务端密钥计算的 HMAC 校验码，
+   * 格式错误或伪造的令牌无需查询数据库即可拒绝；未配置时沿用 UUID 格式
+   *
+   * <pre>{@code
+   * oauth2:
+   *   reference-token:
+   *     active-key-id: 2025-10
+   *     keys:
+   *       2025-10: <Base64 编码、不少于 32 字节的随机密钥>
+   * }</pre>
+   */
+  @Data
+  public static class ReferenceToken {
+    /** 签发新令牌使用的密钥 id，必须存在于 keys 中 */
+    private String activeKeyId;
+
+    /**
+     * 密钥 id 与 Base64 编码密钥的对应关系
+     *
+     * <p>轮换时新增密钥并切换 active-key-id，旧密钥需保留到其签发的令牌全部过期为止
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    /** 是否接受 UUID 格式的旧令牌，默认接受，旧令牌全部过期后可关闭 */
+    private boolean acceptLegacyTokens = true;
+  }
+
+  /**
+   * 待换发令牌的认证信息存储配置
+   *
+   * <p>默认直接写入数据库。单实例部署，或授权请求与换发令牌请求总落在同一实例（如会话粘滞）时，可关闭 {@code durable}，
+   * 改为保存在本实例内存中，换发访问令牌或刷新令牌后才写入数据库；实例重启时内存中尚未换发的授权码随之丢失
+   */
+  @Data
+  public static class PendingAuthorization {
+    /** 是否直接写入数据库，关闭后使用本实例内存存储，默认开启 */
+    private boolean durable = true;
+
+    /** 内存中最大条目数，超出后最久未使用的授权码将失效，默认 10000 */
+    private long maximumSize = 10_000;
+
+    /** 不含授权码、用户码、设备码（如仅含 state）的条目的存活时间，默认 10 分钟 */
+    private Duration timeToLive = Duration.ofMinutes(10);
+  }
+
+  /**
+   * 过期认证信息清理任务配置
+   *
+   * <p>定期按 (expires_at, id) 键集分页查找最晚过期时间早于宽限期的认证信息，以小批量、短事务删除；
+   * 单批耗时超过阈值时视为数据库压力较大，本轮提前结束并延长下一轮的间隔
+   */
+  @Data
+  public static class AuthorizationReaper {
+    /** 是否启用，默认启用 */
+    private boolean enabled = true;
+
+    /** 两轮清理的间隔，默认 1 分钟 */
+    private Duration interval = Duration.ofMinutes(1);
+
+    /** 过期后保留的宽限期，便于排查问题，默认 1 小时 */
+    private Duration gracePeriod = Duration.ofHours(1);
+
+    /** 每批删除的条数，默认 500 */
+    private int batchSize = 500;
+
+    /** 两批之间的停顿，用于限制删除速率，默认 100 毫秒 */
+    private Duration batchPause = Duration.ofMillis(100);
+
+    /** 每轮最多删除的批数，默认 100 */
+    private int maxBatchesPerRun = 100;
+
+    /** 单批耗时超过该值时视为数据库压力较大，默认 1 秒 */
+    private Duration slowBatchThreshold = Duration.ofSeconds(1);
+
+    /** PostgreSQL 下按签发日分区时预先创建的未来分区天数，默认 7 天 */
+    private int partitionPrecreateDays = 7;
+
+    /** 分离过期分区时等待表锁的上限，超时后放弃本次分离而不是阻塞后续读写，默认 500 毫秒 */
+    private Duration partitionLockTimeout = Duration.ofMillis(500);
+
+    /** 分离过期分区时等待表锁超时的最大尝试次数，仍未成功时下一轮再试，默认 5 次 */
+    private int partitionDetachAttempts = 5;
+  }
+
+  /**
+   * 注册客户端的本地缓存配置
+   *
+   * <p>缓存构建完成的注册客户端，同时以 id 与 clientId 为键；本实例保存客户端时立即失效，
+   * 其它实例上的修改在刷新间隔后由后台重新加载，期间仍返回旧值，请求线程不等待数据库
+   */
+  @Data
+  public static class RegisteredClientCache {
+    /** 是否启用缓存，默认启用 */
+    private boolean enabled = true;
+
+    /** 每个索引的最大缓存条目数，默认 1000 */
+    private long maximumSize = 1_000;
+
+    /** 条目写入后超过该时间再被访问时在后台重新加载，默认 1 分钟 */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+  }
+
+  /**
+   * 客户端密钥校验结果缓存配置
+   *
+   * <p>开启后令牌端点在存活时间内记住校验成功的客户端密钥，同一密钥再次出现时无需重新计算 bcrypt 等慢哈希；
+   * 缓存键为进程内随机密钥计算的 HMAC，不保存密钥原文。默认关闭
+   */
+  @Data
+  public static class ClientSecretCache {
+    /** 是否启用，默认关闭 */
+    private boolean enabled = false;
+
+    /** 最大缓存条目数，默认 10000 */
+    private long maximumSize = 10_000;
+
+    /** 校验结果的存活时间，默认 5 分钟 */
+    private Duration timeToLive = Duration.ofMinutes(5);
+  }
+
+  /**
+   * 密码模式下用户密码校验线程池配置
+   *
+   * <p>用户密码的慢哈希校验在固定大小的线程池中执行，队列已满或等待超时时以 503 和 {@code temporarily_unavailable}
+   * 拒绝，避免登录高峰占满请求线程
+   */
+  @Data
+  public static class PasswordHashing {
+    /** 是否启用，关闭时在请求线程上校验，默认启用 */
+    private boolean enabled = true;
+
+    /** 线程数，不大于 0 时取 CPU 核数，默认 0 */
+    private int threads = 0;
+
+    /** 等待队列容量，默认 100 */
+    private int queueCapacity = 100;
+
+    /** 请求线程等待校验结果的最长时间（含排队时间），默认 5 秒 */
+    private Duration timeout = Duration.ofSeconds(5);
+  }
+
+  /**
+   * 密码模式登录限流配置
+   *
+   * <p>以令牌桶分别按 client_id 与用户名限流，桶容量为允许的突发次数，每个补充周期补充一次；
+   * 超出限额时在加载用户前以 429 拒绝
+   *
+   * <p>按 client_id 限流默认关闭：同一客户端下的全部用户共用一个桶，持有该客户端凭据的任何调用方发起大量登录请求即可耗尽限额，
+   * 使该客户端下的所有用户都无法登录。撞库防护主要依靠按用户名限流
+   *
+   * <pre>{@code
+   * oauth2:
+   *   login-throttle:
+   *     username:
+   *       capacity: 10
+   *       refill-period: 6s
+   * }</pre>
+   */
+  @Data
+  public static class LoginThrottle {
+    /** 是否启用，默认启用 */
+    private boolean enabled = true;
+
+    /**
+     * 按 client_id 限流，默认关闭；开启后默认突发 1000 次、每 10 毫秒补充一次
+     *
+     * <p>开启有锁定风险：桶被耗尽时该客户端下的所有用户（包括正常用户）都会被拒绝登录，直到桶重新补充。
+     * 只应在客户端凭据不会外泄的场景开启，并按该客户端正常登录峰值留足容量
+     */
+    private Bucket client = new Bucket(false, 1_000, Duration.ofMillis(10));
+
+    /** 按用户名限流，默认突发 10 次、每 6 秒补充一次 */
+    private Bucket username = new Bucket(10, Duration.ofSeconds(6));
+
+    /** 每种限流最多同时保留的桶数，超出后淘汰最久未使用的桶，默认 100000 */
+    private long maximumKeys = 100_000;
+
+    /** 锁分段数，默认 64 */
+    private int stripes = 64;
+
+    /** 令牌桶配置 */
+    @Data
+    public static class Bucket {
+      /** 是否启用该项限流 */
+      private boolean enabled = true;
+
+      /** 桶容量，即允许的突发次数 */
+      private int capacity;
+
+      /** 补充一次所需的时间 */
+      private Duration refillPeriod;
+
+      public Bucket() {}
+
+      public Bucket(int capacity, Duration refillPeriod) {
+        this(true, capacity, refillPeriod);
+      }
+
+      public Bucket(boolean enabled, int capacity, Duration refillPeriod) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.refillPeriod = refillPeriod;
+      }
+    }
+  }
+
+  /**
+   * 密码编码配置
+   *
+   * <p>新密码以 bcrypt 编码。配置目标耗时后启动时在当前硬件上校准强度，否则使用固定强度；
+   * 已存哈希的强度低于下限（固定强度，或校准时的最低强度）或高于最高强度时，用户登录成功后以当前强度重新编码；
+   * 区间内的强度差异不会触发重新编码，各实例校准结果略有不同也不会导致哈希反复改写
+   *
+   * <pre>{@code
+   * oauth2:
+   *   password-encoder:
+   *     target-duration: 250ms
+   * }</pre>
+   */
+  @Data
+  public static class PasswordEncoder {
+    /** 固定 bcrypt 强度，未配置目标耗时时使用，默认 10 */
+    private int strength = 10;
+
+    /** 单次哈希的目标耗时，配置后启动时校准强度，默认不校准 */
+    private Duration targetDuration;
+
+    /** 校准的最低强度，校准时低于该强度的已存哈希在登录成功后重新编码，默认 10 */
+    private int minimumStrength = 10;
+
+    /** 校准的最高强度，高于该强度的已存哈希在登录成功后重新编码，默认 16 */
+    private int maximumStrength = 16;
+  }
+
+  /**
+   * 并发请求合并配置
+   *
+   * <p>启用时，同时以同一令牌查找认证信息的请求共享一次数据库查询与反序列化；同一客户端以同一刷新令牌并发刷新时只换发一次，
+   * 合并窗口内到达的请求得到同一组令牌
+   */
+  @Data
+  public static class RequestCoalescing {
+    /** 是否启用，默认启用 */
+    private boolean enabled = true;
+
+    /** 刷新令牌请求的合并窗口，默认 2 秒 */
+    private Duration refreshTokenWindow = Duration.ofSeconds(2);
+
+    /** 合并窗口内最多保留的刷新结果数，默认 10000 */
+    private long maximumSize = 10_000;
+
+    /**
+     * 等待进行中的相同请求的最长时间，默认 5 秒；超时后令牌查找自行查询数据库，刷新令牌请求以 503 和
+     * {@code temporarily_unavailable} 拒绝
+     */
+    private Duration waitTimeout = Duration.ofSeconds(5);
+  }
+
+  /**
+   * 批量令牌解析接口配置
+   *
+   * <p>启用时提供 {@code POST /token/introspect/batch}，一次请求以一次数据库查询解析多个访问令牌。接口只接受具备
+   * {@link #scope} 权限范围的客户端模式访问令牌，用户令牌即使申请到该权限范围也会被拒绝
+   */
+  @Data
+  public static class BatchIntrospection {
+    /** 是否启用，默认启用 */
+    private boolean enabled = true;
+
+    /** 单次请求最多解析的令牌数，默认 100 */
+    private int maximumTokens = 100;
+
+    /** 调用方访问令牌须具备的权限范围，默认 introspect，只应分配给网关等以客户端模式获取令牌的客户端 */
+    private String scope = "introspect";
+  }
+
+  /**
+   * 令牌吊销记录配置
+   *
+   * <p>启用时，删除认证信息或吊销访问令牌后记录访问令牌摘要，并提供 {@code GET /token/revocations}
+   * 供独立部署的资源服务器轮询，以便及时失效本地缓存的解析结果。调用方须以客户端凭据通过 HTTP Basic 认证
+   */
+  @Data
+  public static class RevocationFeed {
+    /** 是否启用，默认不启用 */
+    private boolean enabled = false;
+
+    /** 调用方客户端须具备的权限范围，默认 introspect，通常与资源服务器调用令牌解析端点的客户端相同 */
+    private String scope = "introspect";
+
+    /** 单次轮询最多返回的记录数，默认 1000 */
+    private int pageSize = 1_000;
+
+    /** 吊销记录的保留时长，默认 1 小时，应不小于资源服务器缓存解析结果的时长 */
+    private Duration retention = Duration.ofHours(1);
+
+    /**
+     * 吊销记录从写入到事务提交的最长耗时，默认 10 秒
+     *
+     * <p>自增 ID 按写入顺序分配，提交顺序却可能不同。吊销时间在该时长内的记录会在之后的轮询中重复返回，游标停在其之前，
+     * 避免较小 ID 的记录晚于较大 ID 提交时被游标越过
+     */
+    private Duration commitWindow = Duration.ofSeconds(10);
+  }
+
+  /**
+   * 资源服务器远程令牌解析配置
+   *
+   * <p>启用时，资源服务器通过授权服务器的令牌解析端点（RFC 7662）校验透明令牌，解析结果按令牌摘要缓存在本地，
+   * 并定时轮询吊销记录失效已吊销令牌的缓存，适用于与授权服务器分开部署、不共享数据库的资源服务器
+   */
+  @Data
+  public static class RemoteIntrospection {
+    /** 是否启用，默认不启用 */
+    private boolean enabled = false;
+
+    /** 令牌解析端点，如 {@code http://auth-server/oauth2/introspect} */
+    private String introspectionUri;
+
+    /** 调用令牌解析端点的客户端 ID */
+    private String clientId;
+
+    /** 调用令牌解析端点的客户端密钥 */
+    private String clientSecret;
+
+    /** 建立连接的超时时间，默认 2 秒 */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /** 等待响应的超时时间，默认 5 秒 */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /** 最多缓存的解析结果数，默认 100000 */
+    private long maximumSize = 100_000;
+
+    /** 解析结果的缓存时长，默认 1 分钟，不超过令牌自身的剩余有效期 */
+    private Duration timeToLive = Duration.ofMinutes(1);
+
+    /** 吊销记录端点，如 {@code http://auth-server/token/revocations}，为空时不轮询 */
+    private String revocationFeedUri;
+
+    /** 轮询吊销记录的间隔，默认 5 秒 */
+    private Duration pollInterval = Duration.ofSeconds(5);
+  }
+
+  /**
+   * 签名密钥轮换配置
+   *
+   * <p>未配置 {@code jwt-public-key-location} 与 {@code jwt-private-key-location} 时，签名密钥保存在本地密钥文件中，
+   * 重启后沿用；按轮换间隔生成新密钥，新密钥先发布、激活延迟后才用于签名，旧密钥在退役延迟内仍可验签。
+   * 多个实例应挂载同一密钥文件，否则各实例签发的令牌只能由自身验签
+   */
+  @Data
+  public static class KeyRotation {
+    /** 是否启用，默认启用；不启用时每次启动生成仅存在于内存中的密钥 */
+    private boolean enabled = true;
+
+    /** 密钥文件路径，默认为工作目录下的 jwk-set.json */
+    private String keySetLocation = "jwk-set.json";
+
+    /** 轮换间隔，默认 30 天 */
+    private Duration rotationInterval = Duration.ofDays(30);
+
+    /** 新密钥发布后到用于签名的延迟，默认 1 小时，应大于依赖方缓存 JWK Set 的时长 */
+    private Duration activationDelay = Duration.ofHours(1);
+
+    /** 旧密钥被取代后到移除的延迟，默认 7 天，应不小于令牌的最长有效期 */
+    private Duration retirementDelay = Duration.ofDays(7);
+
+    /** 检查是否需要轮换的间隔，默认 1 分钟 */
+    private Duration checkInterval = Duration.ofMinutes(1);
+
+    /** 新生成的 RSA 密钥长度，默认 2048 */
+    private int rsaKeySize = 2048;
+
+    /**
+     * 需要维护签名密钥的 JWS 算法，默认 RS256 与 ES256
+     *
+     * <p>支持 RSA（RS256、PS256 等）与 EC（ES256、ES384、ES512）系列，每种算法各有一个签名密钥。客户端可通过
+     * {@code idTokenSignatureAlgorithm} 选用其中任一算法签发 ID Token，ES256 的签名耗时远低于 RS256
+     */
+    private List<String> algorithms = new ArrayList<>(List.of("RS256", "ES256"));
+  }
+
+  /**
+   * 已验签 JWT 缓存配置
+   *
+   * <p>授权服务器解析 JWT 访问令牌及 private_key_jwt 客户端断言时，以 JWT 摘要为键记住验签并通过校验的结果，
+   * 同一 JWT 在 {@code exp} 之前再次出现时无需重复验签
+   */
+  @Data
+  public static class VerifiedJwtCache {
+    /** 是否启用，默认启用 */
+    private boolean enabled = true;
+
+    /** 最大缓存条目数，默认 10000 */
+    private long maximumSize = 10_000;
+  }
+
+  /**
+   * JWK Set 及发现文档的响应缓存配置
+   *
+   * <p>响应只在签名密钥变化后重新生成，附带强 ETag 与 {@code Cache-Control}，客户端携带 {@code If-None-Match}
+   * 时返回 304
+   */
+  @Data
+  public static class MetadataEndpointCache {
+    /** 是否启用，默认启用 */
+    private boolean enabled = true;
+
+    /**
+     * 允许客户端及 CDN 缓存响应的时长，默认 5 分钟
+     *
+     * <p>应小于 {@code key-rotation.activation-delay}，保证新密钥用于签名前依赖方已拉取到新的 JWK Set
+     */
+    private Duration maxAge = Duration.ofMinutes(5);
+
+    /** 最大缓存条目数，默认 100，不同的请求主机名各占一个条目 */
+    private long maximumSize = 100;
+  }
 }
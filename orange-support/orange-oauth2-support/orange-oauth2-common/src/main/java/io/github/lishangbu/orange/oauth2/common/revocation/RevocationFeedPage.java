@@ -0,0 +1,17 @@
+package io.github.lishangbu.orange.oauth2.common.revocation;
+
+import java.util.List;
+
+/**
+ * 令牌吊销记录的一页增量
+ *
+ * <p>资源服务器以上次返回的 {@code cursor} 轮询下一页，并按 {@code tokenDigests} 失效本地缓存的解析结果。 {@code
+ * complete} 为 false 表示游标之后的部分记录已被清理，调用方应清空全部缓存
+ *
+ * @param cursor 下次轮询时原样传回的游标；不越过可能仍有更早记录未提交的位置，无新记录时与请求的游标相同
+ * @param tokenDigests 游标之后被吊销访问令牌的 SHA-256 摘要（十六进制），位于返回游标之后的摘要会在下一页重复出现
+ * @param complete 游标之后的记录是否完整
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public record RevocationFeedPage(long cursor, List<String> tokenDigests, boolean complete) {}
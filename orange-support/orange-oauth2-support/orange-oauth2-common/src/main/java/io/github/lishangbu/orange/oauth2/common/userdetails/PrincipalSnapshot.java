@@ -0,0 +1,91 @@
+package io.github.lishangbu.orange.oauth2.common.userdetails;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * 用户主体快照
+ *
+ * <p>签发令牌时随认证信息一并保存，记录用户名、角色代码及当时的角色版本号；解析令牌时若用户当前的角色版本号未变，
+ * 直接以快照构建用户主体，无需重新加载用户及其角色
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public final class PrincipalSnapshot implements Serializable {
+  @Serial private static final long serialVersionUID = 1L;
+
+  /** 快照在认证信息属性中的键 */
+  public static final String ATTRIBUTE = PrincipalSnapshot.class.getName();
+
+  private final String username;
+
+  private final List<String> authorities;
+
+  private final long roleVersion;
+
+  public PrincipalSnapshot(String username, List<String> authorities, long roleVersion) {
+    this.username = Objects.requireNonNull(username, "username cannot be null");
+    this.authorities = List.copyOf(authorities);
+    this.roleVersion = roleVersion;
+  }
+
+  /** 用户名 */
+  public String getUsername() {
+    return username;
+  }
+
+  /** 角色代码，不可修改 */
+  public List<String> getAuthorities() {
+    return authorities;
+  }
+
+  /** 生成快照时用户的角色版本号 */
+  public long getRoleVersion() {
+    return roleVersion;
+  }
+
+  /**
+   * 以快照构建用户主体，不含密码
+   *
+   * @return 用户主体
+   */
+  public UserInfo toUserInfo() {
+    List<GrantedAuthority> grantedAuthorities =
+        AuthorityUtils.createAuthorityList(authorities.toArray(String[]::new));
+    return new UserInfo(username, null, grantedAuthorities);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PrincipalSnapshot that)) {
+      return false;
+    }
+    return roleVersion == that.roleVersion
+        && username.equals(that.username)
+        && authorities.equals(that.authorities);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(username, authorities, roleVersion);
+  }
+
+  @Override
+  public String toString() {
+    return "PrincipalSnapshot [Username="
+        + username
+        + ", Authorities="
+        + authorities
+        + ", RoleVersion="
+        + roleVersion
+        + "]";
+  }
+}
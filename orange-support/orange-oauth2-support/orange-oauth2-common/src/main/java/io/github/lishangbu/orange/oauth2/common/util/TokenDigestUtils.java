@@ -0,0 +1,46 @@
+package io.github.lishangbu.orange.oauth2.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 令牌摘要工具类
+ *
+ * <p>对令牌原文计算 SHA-256 摘要并以小写十六进制输出（固定 64 位），用于令牌索引、缓存键等场景， 避免在存储和日志中暴露令牌原文
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@UtilityClass
+public class TokenDigestUtils {
+
+  /** 摘要算法 */
+  private final String ALGORITHM = "SHA-256";
+
+  /** MessageDigest 非线程安全，按线程复用实例以避免每次查找算法提供者 */
+  private final ThreadLocal<MessageDigest> MESSAGE_DIGEST =
+      ThreadLocal.withInitial(TokenDigestUtils::newMessageDigest);
+
+  /**
+   * 计算令牌摘要
+   *
+   * @param token 令牌原文
+   * @return 小写十六进制的 SHA-256 摘要
+   */
+  public String digest(String token) {
+    MessageDigest messageDigest = MESSAGE_DIGEST.get();
+    messageDigest.reset();
+    return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private MessageDigest newMessageDigest() {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("当前 JVM 不支持 " + ALGORITHM + " 摘要算法", e);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package io.github.lishangbu.orange.oauth2.common.crypto;
+
+import java.time.Duration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BCryptStrengthCalibrator 单元测试，覆盖校准结果不超出最低、最高强度及参数校验
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class BCryptStrengthCalibratorTest {
+
+  @Test
+  void testUnreachableTargetFallsBackToMinimumStrength() {
+    // 任何强度都无法在 1 纳秒内完成，仍不低于最低强度
+    Assertions.assertThat(BCryptStrengthCalibrator.calibrate(Duration.ofNanos(1), 5, 8))
+        .isEqualTo(5);
+  }
+
+  @Test
+  void testGenerousTargetIsCappedAtMaximumStrength() {
+    Assertions.assertThat(BCryptStrengthCalibrator.calibrate(Duration.ofMinutes(1), 4, 6))
+        .isEqualTo(6);
+  }
+
+  @Test
+  void testEqualBoundsReturnThatStrength() {
+    Assertions.assertThat(BCryptStrengthCalibrator.calibrate(Duration.ofMinutes(1), 5, 5))
+        .isEqualTo(5);
+    Assertions.assertThat(BCryptStrengthCalibrator.calibrate(Duration.ofNanos(1), 5, 5))
+        .isEqualTo(5);
+  }
+
+  @Test
+  void testInvalidArguments() {
+    Assertions.assertThatIllegalArgumentException()
+        .isThrownBy(() -> BCryptStrengthCalibrator.calibrate(null, 4, 6));
+    Assertions.assertThatIllegalArgumentException()
+        .isThrownBy(() -> BCryptStrengthCalibrator.calibrate(Duration.ZERO, 4, 6));
+    Assertions.assertThatIllegalArgumentException()
+        .isThrownBy(() -> BCryptStrengthCalibrator.calibrate(Duration.ofSeconds(1), 3, 6));
+    Assertions.assertThatIllegalArgumentException()
+        .isThrownBy(() -> BCryptStrengthCalibrator.calibrate(Duration.ofSeconds(1), 7, 6));
+    Assertions.assertThatIllegalArgumentException()
+        .isThrownBy(() -> BCryptStrengthCalibrator.calibrate(Duration.ofSeconds(1), 10, 32));
+  }
+}
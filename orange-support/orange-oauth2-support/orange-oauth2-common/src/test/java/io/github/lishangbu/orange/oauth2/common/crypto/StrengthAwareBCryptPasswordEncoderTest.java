@@ -0,0 +1,88 @@
+package io.github.lishangbu.orange.oauth2.common.crypto;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * StrengthAwareBCryptPasswordEncoder 单元测试，覆盖强度区间上下限、$2a/$2b/$2y 前缀及格式错误或非 bcrypt 哈希
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class StrengthAwareBCryptPasswordEncoderTest {
+
+  /** bcrypt 哈希中盐与摘要部分，共 53 个字符 */
+  private static final String SALT_AND_DIGEST =
+      "N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+  private final StrengthAwareBCryptPasswordEncoder encoder =
+      new StrengthAwareBCryptPasswordEncoder(10, 8, 12);
+
+  @Test
+  void testUpgradesOnlyOutsideStrengthRange() {
+    for (String version : new String[] {"2", "2a", "2b", "2y"}) {
+      Assertions.assertThat(encoder.upgradeEncoding(hash(version, 4))).isTrue();
+      Assertions.assertThat(encoder.upgradeEncoding(hash(version, 7))).isTrue();
+      Assertions.assertThat(encoder.upgradeEncoding(hash(version, 8))).isFalse();
+      Assertions.assertThat(encoder.upgradeEncoding(hash(version, 10))).isFalse();
+      Assertions.assertThat(encoder.upgradeEncoding(hash(version, 12))).isFalse();
+      Assertions.assertThat(encoder.upgradeEncoding(hash(version, 13))).isTrue();
+      Assertions.assertThat(encoder.upgradeEncoding(hash(version, 31))).isTrue();
+    }
+  }
+
+  @Test
+  void testMalformedOrNonBcryptHashIsNotUpgraded() {
+    Assertions.assertThat(encoder.upgradeEncoding(null)).isFalse();
+    Assertions.assertThat(encoder.upgradeEncoding("")).isFalse();
+    Assertions.assertThat(encoder.upgradeEncoding("password")).isFalse();
+    Assertions.assertThat(encoder.upgradeEncoding("$2x$04$" + SALT_AND_DIGEST)).isFalse();
+    Assertions.assertThat(encoder.upgradeEncoding("$2a$4$" + SALT_AND_DIGEST)).isFalse();
+    Assertions.assertThat(encoder.upgradeEncoding(hash("2a", 4).substring(0, 40))).isFalse();
+    Assertions.assertThat(encoder.upgradeEncoding(hash("2a", 4) + "x")).isFalse();
+    Assertions.assertThat(encoder.upgradeEncoding("$2a$04$" + "!".repeat(53))).isFalse();
+    Assertions.assertThat(
+            encoder.upgradeEncoding(
+                "$argon2id$v=19$m=16384,t=2,p=1$c2FsdHNhbHQ$2pVqkKZ9e4v7S4m8qHnVh7gSbXq2rN1k"))
+        .isFalse();
+    Assertions.assertThat(
+            encoder.upgradeEncoding(
+                "5d923b44a6d129f3ddf3e3c8d29412723dcbde72445e8ef6bf3b508fbf17fa4ed4d6b99ca763d8dc"))
+        .isFalse();
+  }
+
+  @Test
+  void testSingleStrengthUpgradesOnlyWeakerHashes() {
+    StrengthAwareBCryptPasswordEncoder fixed = new StrengthAwareBCryptPasswordEncoder(10);
+
+    Assertions.assertThat(fixed.upgradeEncoding(hash("2a", 9))).isTrue();
+    Assertions.assertThat(fixed.upgradeEncoding(hash("2a", 10))).isFalse();
+    Assertions.assertThat(fixed.upgradeEncoding(hash("2a", 31))).isFalse();
+  }
+
+  @Test
+  void testRangeAlwaysContainsEncodingStrength() {
+    // 最低强度高于编码强度、最高强度低于编码强度时都以编码强度为准，避免刚编码的哈希立即需要升级
+    StrengthAwareBCryptPasswordEncoder clamped = new StrengthAwareBCryptPasswordEncoder(12, 14, 11);
+
+    Assertions.assertThat(clamped.upgradeEncoding(hash("2a", 11))).isTrue();
+    Assertions.assertThat(clamped.upgradeEncoding(hash("2a", 12))).isFalse();
+    Assertions.assertThat(clamped.upgradeEncoding(hash("2a", 13))).isTrue();
+  }
+
+  @Test
+  void testEncodedPasswordMatchesAndIsNotUpgraded() {
+    StrengthAwareBCryptPasswordEncoder weak = new StrengthAwareBCryptPasswordEncoder(4, 4, 6);
+
+    String encoded = weak.encode("password");
+
+    Assertions.assertThat(encoded).startsWith("$2a$04$");
+    Assertions.assertThat(weak.matches("password", encoded)).isTrue();
+    Assertions.assertThat(weak.upgradeEncoding(encoded)).isFalse();
+    Assertions.assertThat(weak.getStrength()).isEqualTo(4);
+  }
+
+  private static String hash(String version, int cost) {
+    return "$" + version + "$" + String.format("%02d", cost) + "$" + SALT_AND_DIGEST;
+  }
+}
@@ -0,0 +1,134 @@
+package io.github.lishangbu.orange.oauth2.resourceserver.autoconfiguration;
+
+import io.github.lishangbu.orange.oauth2.common.properties.Oauth2Properties;
+import io.github.lishangbu.orange.oauth2.resourceserver.introspection.RemoteOpaqueTokenIntrospector;
+import io.github.lishangbu.orange.oauth2.resourceserver.introspection.RevocationFeedPoller;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.net.URI;
+import java.net.http.HttpClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * 远程令牌解析自动装配
+ *
+ * <p>{@code oauth2.remote-introspection.enabled=true} 且上下文中没有其它 {@link OpaqueTokenIntrospector}
+ * 时生效；与授权服务器部署在同一应用中时沿用本地解析器，本配置不生效
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@AutoConfiguration(
+    afterName =
+        "io.github.lishangbu.orange.oauth2.authorizationserver.autoconfiguration."
+            + "OpaqueTokenIntrospectorAutoConfiguration")
+@ConditionalOnProperty(prefix = Oauth2Properties.PREFIX + ".remote-introspection", name = "enabled")
+public class RemoteIntrospectionAutoConfiguration {
+
+  /** 远程令牌解析缓存指标中的缓存名称 */
+  private static final String REMOTE_INTROSPECTION_CACHE_NAME = "oauth2.remote-introspection";
+
+  /**
+   * 调用令牌解析端点与吊销记录端点共用的 HTTP 客户端
+   *
+   * <p>固定使用 HTTP/1.1，避免明文连接上每次新建连接都尝试 h2c 升级；空闲连接由客户端内部的连接池保持复用
+   */
+  @Bean
+  @ConditionalOnMissingBean(name = "remoteIntrospectionHttpClient")
+  public HttpClient remoteIntrospectionHttpClient(Oauth2Properties oauth2Properties) {
+    return HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(oauth2Properties.getRemoteIntrospection().getConnectTimeout())
+        .build();
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(OpaqueTokenIntrospector.class)
+  public RemoteOpaqueTokenIntrospector remoteOpaqueTokenIntrospector(
+      HttpClient remoteIntrospectionHttpClient,
+      JsonMapper jsonMapper,
+      Oauth2Properties oauth2Properties) {
+    Oauth2Properties.RemoteIntrospection remote = oauth2Properties.getRemoteIntrospection();
+    return new RemoteOpaqueTokenIntrospector(
+        remoteIntrospectionHttpClient,
+        URI.create(remote.getIntrospectionUri()),
+        remote.getClientId(),
+        remote.getClientSecret(),
+        remote.getReadTimeout(),
+        jsonMapper,
+        remote.getMaximumSize(),
+        remote.getTimeToLive());
+  }
+
+  @Bean
+  @ConditionalOnBean(RemoteOpaqueTokenIntrospector.class)
+  @ConditionalOnProperty(
+      prefix = Oauth2Properties.PREFIX + ".remote-introspection",
+      name = "revocation-feed-uri")
+  public RevocationFeedPoller revocationFeedPoller(
+      HttpClient remoteIntrospectionHttpClient,
+      JsonMapper jsonMapper,
+      RemoteOpaqueTokenIntrospector remoteOpaqueTokenIntrospector,
+      Oauth2Properties oauth2Properties) {
+    Oauth2Properties.RemoteIntrospection remote = oauth2Properties.getRemoteIntrospection();
+    return new RevocationFeedPoller(
+        remoteIntrospectionHttpClient,
+        URI.create(remote.getRevocationFeedUri()),
+        remote.getClientId(),
+        remote.getClientSecret(),
+        remote.getReadTimeout(),
+        jsonMapper,
+        remoteOpaqueTokenIntrospector,
+        remote.getPollInterval());
+  }
+
+  /** 远程令牌解析指标：缓存命中率、远程调用次数、因吊销记录失效的条目数及吊销记录轮询失败数 */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterBinder.class)
+  static class RemoteIntrospectionMetricsConfiguration {
+
+    @Bean
+    public MeterBinder remoteIntrospectionMetrics(
+        ObjectProvider<RemoteOpaqueTokenIntrospector> remoteOpaqueTokenIntrospector,
+        ObjectProvider<RevocationFeedPoller> revocationFeedPoller) {
+      return registry -> {
+        remoteOpaqueTokenIntrospector.ifAvailable(
+            introspector -> {
+              CaffeineCacheMetrics.monitor(
+                  registry, introspector.getCache(), REMOTE_INTROSPECTION_CACHE_NAME);
+              FunctionCounter.builder(
+                      "oauth2.remote-introspection.requests",
+                      introspector,
+                      RemoteOpaqueTokenIntrospector::getRemoteCount)
+                  .description("The number of introspection requests sent to the server")
+                  .register(registry);
+              FunctionCounter.builder(
+                      "cache.invalidations",
+                      introspector,
+                      RemoteOpaqueTokenIntrospector::getInvalidationCount)
+                  .tag("cache", REMOTE_INTROSPECTION_CACHE_NAME)
+                  .description("The number of entries invalidated by the revocation feed")
+                  .register(registry);
+            });
+        revocationFeedPoller.ifAvailable(
+            poller ->
+                FunctionCounter.builder(
+                        "oauth2.revocation-feed.failures",
+                        poller,
+                        RevocationFeedPoller::getFailureCount)
+                    .description("The number of failed revocation feed polls")
+                    .register(registry));
+      };
+    }
+  }
+}
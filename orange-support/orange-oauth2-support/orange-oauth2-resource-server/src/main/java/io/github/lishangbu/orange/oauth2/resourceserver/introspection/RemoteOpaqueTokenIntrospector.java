@@ -0,0 +1,280 @@
+package io.github.lishangbu.orange.oauth2.resourceserver.introspection;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.lishangbu.orange.oauth2.common.constant.SecurityConstants;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * 远程透明令牌解析器
+ *
+ * <p>通过授权服务器的令牌解析端点（RFC 7662）校验透明令牌，适用于与授权服务器分开部署、不共享数据库的资源服务器：
+ *
+ * <ul>
+ *   <li>以共享的 {@link HttpClient} 发送请求，连接由客户端内部的连接池保持复用，不会每次请求重新握手
+ *   <li>有效令牌的解析结果以令牌摘要为键缓存在本地，缓存时长不超过令牌自身的剩余有效期，令牌原文不会驻留内存
+ *   <li>同一令牌的并发解析共享同一次远程调用，调用失败时所有等待者得到同一异常，失败结果不缓存
+ *   <li>已吊销令牌的缓存由 {@link RevocationFeedPoller} 轮询吊销记录后通过 {@link #invalidate(String)} 失效
+ * </ul>
+ *
+ * <p>解析结果的权限由响应中的 {@code authorities} 声明（存在时）与 {@code scope} 声明（加 {@code SCOPE_} 前缀）合并而成
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+public class RemoteOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+
+  private static final String AUTHORITY_PREFIX = "SCOPE_";
+
+  private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {};
+
+  private final HttpClient httpClient;
+
+  private final URI introspectionUri;
+
+  private final String authorization;
+
+  private final Duration readTimeout;
+
+  private final JsonMapper jsonMapper;
+
+  private final AsyncCache<String, OAuth2AuthenticatedPrincipal> cache;
+
+  /** 实际发往授权服务器的解析请求数 */
+  private final LongAdder remoteCount = new LongAdder();
+
+  /** 因吊销记录失效的缓存条目数 */
+  private final LongAdder invalidationCount = new LongAdder();
+
+  /**
+   * 构造远程透明令牌解析器
+   *
+   * @param httpClient HTTP 客户端，应在整个应用中共享以复用连接
+   * @param introspectionUri 令牌解析端点
+   * @param clientId 调用令牌解析端点的客户端 ID
+   * @param clientSecret 调用令牌解析端点的客户端密钥
+   * @param readTimeout 等待响应的超时时间
+   * @param jsonMapper 解析响应所用的 JsonMapper
+   * @param maximumSize 最多缓存的解析结果数
+   * @param timeToLive 解析结果的缓存时长
+   */
+  public RemoteOpaqueTokenIntrospector(
+      HttpClient httpClient,
+      URI introspectionUri,
+      String clientId,
+      String clientSecret,
+      Duration readTimeout,
+      JsonMapper jsonMapper,
+      long maximumSize,
+      Duration timeToLive) {
+    Assert.notNull(httpClient, "httpClient cannot be null");
+    Assert.notNull(introspectionUri, "introspectionUri cannot be null");
+    Assert.hasText(clientId, "clientId cannot be empty");
+    Assert.notNull(clientSecret, "clientSecret cannot be null");
+    Assert.isTrue(readTimeout != null && readTimeout.isPositive(), "readTimeout must be positive");
+    Assert.isTrue(timeToLive != null && timeToLive.isPositive(), "timeToLive must be positive");
+    this.httpClient = httpClient;
+    this.introspectionUri = introspectionUri;
+    this.authorization = basic(clientId, clientSecret);
+    this.readTimeout = readTimeout;
+    this.jsonMapper = jsonMapper;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new PrincipalExpiry(timeToLive))
+            // 远程调用会阻塞等待响应，以虚拟线程执行，不占用公共线程池
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .recordStats()
+            .buildAsync();
+  }
+
+  @Override
+  public OAuth2AuthenticatedPrincipal introspect(String token) {
+    CompletableFuture<OAuth2AuthenticatedPrincipal> principal =
+        this.cache.get(TokenDigestUtils.digest(token), digest -> fetch(token));
+    try {
+      return principal.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * 失效令牌摘要对应的缓存条目
+   *
+   * @param tokenDigest 访问令牌原文的 SHA-256 摘要（十六进制）
+   */
+  public void invalidate(String tokenDigest) {
+    if (this.cache.asMap().remove(tokenDigest) != null) {
+      this.invalidationCount.increment();
+    }
+  }
+
+  /** 清空全部缓存条目，用于吊销记录出现缺口、无法确定哪些令牌已被吊销时 */
+  public void invalidateAll() {
+    long size = this.cache.synchronous().estimatedSize();
+    this.cache.synchronous().invalidateAll();
+    this.invalidationCount.add(size);
+  }
+
+  private OAuth2AuthenticatedPrincipal fetch(String token) {
+    String body =
+        "token="
+            + URLEncoder.encode(token, StandardCharsets.UTF_8)
+            + "&token_type_hint=access_token";
+    HttpRequest request =
+        HttpRequest.newBuilder(this.introspectionUri)
+            .timeout(this.readTimeout)
+            .header(HttpHeaders.AUTHORIZATION, this.authorization)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    HttpResponse<String> response;
+    try {
+      this.remoteCount.increment();
+      response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    } catch (IOException ex) {
+      throw new OAuth2IntrospectionException("调用令牌解析端点失败：" + ex.getMessage(), ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new OAuth2IntrospectionException("调用令牌解析端点被中断", ex);
+    }
+    if (response.statusCode() != 200) {
+      throw new OAuth2IntrospectionException("令牌解析端点返回状态码 " + response.statusCode());
+    }
+    Map<String, Object> claims;
+    try {
+      claims = this.jsonMapper.readValue(response.body(), CLAIMS_TYPE);
+    } catch (JacksonException ex) {
+      throw new OAuth2IntrospectionException("无法解析令牌解析端点的响应", ex);
+    }
+    if (!Boolean.TRUE.equals(claims.get(OAuth2TokenIntrospectionClaimNames.ACTIVE))) {
+      throw new BadOpaqueTokenException("Provided token isn't active");
+    }
+    return toPrincipal(claims);
+  }
+
+  private static OAuth2AuthenticatedPrincipal toPrincipal(Map<String, Object> claims) {
+    Map<String, Object> attributes = new HashMap<>(claims);
+    for (String name :
+        List.of(
+            OAuth2TokenIntrospectionClaimNames.EXP,
+            OAuth2TokenIntrospectionClaimNames.IAT,
+            OAuth2TokenIntrospectionClaimNames.NBF)) {
+      if (attributes.get(name) instanceof Number seconds) {
+        attributes.put(name, Instant.ofEpochSecond(seconds.longValue()));
+      }
+    }
+    List<GrantedAuthority> authorities = new ArrayList<>();
+    if (attributes.get(SecurityConstants.AUTHORITIES_KEY) instanceof Collection<?> granted) {
+      granted.forEach(
+          authority -> authorities.add(new SimpleGrantedAuthority(authority.toString())));
+    }
+    if (attributes.get(OAuth2TokenIntrospectionClaimNames.SCOPE) instanceof String scope) {
+      List<String> scopes = List.of(StringUtils.tokenizeToStringArray(scope, " "));
+      attributes.put(OAuth2TokenIntrospectionClaimNames.SCOPE, scopes);
+      scopes.forEach(s -> authorities.add(new SimpleGrantedAuthority(AUTHORITY_PREFIX + s)));
+    }
+    return new OAuth2IntrospectionAuthenticatedPrincipal(attributes, authorities);
+  }
+
+  /** 以客户端凭据构造 HTTP Basic 认证请求头，吊销记录轮询任务复用同一客户端凭据 */
+  static String basic(String clientId, String clientSecret) {
+    // RFC 6749 2.3.1：客户端 ID 与密钥先按表单编码再拼接
+    String credentials =
+        URLEncoder.encode(clientId, StandardCharsets.UTF_8)
+            + ':'
+            + URLEncoder.encode(clientSecret, StandardCharsets.UTF_8);
+    return "Basic "
+        + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** 获取本地缓存，用于注册缓存指标 */
+  public AsyncCache<String, OAuth2AuthenticatedPrincipal> getCache() {
+    return this.cache;
+  }
+
+  /** 获取实际发往授权服务器的解析请求数 */
+  public long getRemoteCount() {
+    return this.remoteCount.sum();
+  }
+
+  /** 获取因吊销记录失效的缓存条目数 */
+  public long getInvalidationCount() {
+    return this.invalidationCount.sum();
+  }
+
+  /** 缓存时长取配置时长与令牌剩余有效期中的较小值 */
+  private record PrincipalExpiry(Duration timeToLive)
+      implements Expiry<String, OAuth2AuthenticatedPrincipal> {
+
+    @Override
+    public long expireAfterCreate(
+        String key, OAuth2AuthenticatedPrincipal principal, long currentTime) {
+      long ttl = this.timeToLive.toNanos();
+      if (principal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP)
+          instanceof Instant expiresAt) {
+        long remaining = Duration.between(Instant.now(), expiresAt).toNanos();
+        return Math.max(0, Math.min(ttl, remaining));
+      }
+      return ttl;
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key,
+        OAuth2AuthenticatedPrincipal principal,
+        long currentTime,
+        long currentDuration) {
+      return expireAfterCreate(key, principal, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key,
+        OAuth2AuthenticatedPrincipal principal,
+        long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package io.github.lishangbu.orange.oauth2.resourceserver.introspection;
+
+import io.github.lishangbu.orange.oauth2.common.revocation.RevocationFeedPage;
+import io.github.lishangbu.orange.web.result.ApiResult;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.web.util.UriComponentsBuilder;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * 令牌吊销记录轮询任务
+ *
+ * <p>在单独的后台线程中按固定间隔增量拉取授权服务器的吊销记录，失效 {@link RemoteOpaqueTokenIntrospector}
+ * 中对应令牌的缓存。首次轮询只取得当前最新的游标并清空缓存；吊销记录出现缺口（游标之后的记录已被清理或记录表被重建）时同样清空缓存
+ *
+ * <p>授权服务器的游标不越过可能仍有更早记录未提交的位置，上一页已失效过的摘要会在下一页重复出现，这些摘要不再重复失效
+ *
+ * <p>以令牌解析所用的客户端凭据通过 HTTP Basic 认证
+ *
+ * <p>轮询失败时保留游标并在下一个间隔重试，期间已吊销令牌的缓存最迟在缓存时长到期后失效
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+@Slf4j
+public class RevocationFeedPoller implements SmartLifecycle {
+
+  private static final TypeReference<ApiResult<RevocationFeedPage>> PAGE_TYPE =
+      new TypeReference<>() {};
+
+  private final HttpClient httpClient;
+
+  private final URI revocationFeedUri;
+
+  /** HTTP Basic 认证请求头 */
+  private final String authorization;
+
+  private final Duration readTimeout;
+
+  private final JsonMapper jsonMapper;
+
+  private final RemoteOpaqueTokenIntrospector introspector;
+
+  private final Duration pollInterval;
+
+  /** 轮询失败次数 */
+  private final LongAdder failureCount = new LongAdder();
+
+  /** 下次轮询的游标，小于 0 表示尚未成功轮询过，只在轮询线程中读写 */
+  private long cursor = -1;
+
+  /** 上一页返回的摘要，只在轮询线程中读写 */
+  private Set<String> lastDigests = Set.of();
+
+  private volatile ScheduledExecutorService executor;
+
+  private volatile boolean running;
+
+  public RevocationFeedPoller(
+      HttpClient httpClient,
+      URI revocationFeedUri,
+      String clientId,
+      String clientSecret,
+      Duration readTimeout,
+      JsonMapper jsonMapper,
+      RemoteOpaqueTokenIntrospector introspector,
+      Duration pollInterval) {
+    Assert.hasText(clientId, "clientId cannot be empty");
+    Assert.notNull(clientSecret, "clientSecret cannot be null");
+    Assert.isTrue(
+        pollInterval != null && pollInterval.isPositive(), "pollInterval must be positive");
+    this.httpClient = httpClient;
+    this.revocationFeedUri = revocationFeedUri;
+    this.authorization = RemoteOpaqueTokenIntrospector.basic(clientId, clientSecret);
+    this.readTimeout = readTimeout;
+    this.jsonMapper = jsonMapper;
+    this.introspector = introspector;
+    this.pollInterval = pollInterval;
+  }
+
+  @Override
+  public void start() {
+    if (this.running) {
+      return;
+    }
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "revocation-feed-poller");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.running = true;
+    this.executor.scheduleWithFixedDelay(
+        this::pollQuietly, 0, this.pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    this.running = false;
+    ScheduledExecutorService scheduledExecutor = this.executor;
+    if (scheduledExecutor == null) {
+      return;
+    }
+    scheduledExecutor.shutdownNow();
+    try {
+      scheduledExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  private void pollQuietly() {
+    try {
+      poll();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException | RuntimeException e) {
+      this.failureCount.increment();
+      log.warn("轮询令牌吊销记录失败，{} 毫秒后重试", this.pollInterval.toMillis(), e);
+    }
+  }
+
+  /**
+   * 拉取游标之后的全部吊销记录并失效对应缓存
+   *
+   * @throws IOException 请求失败时抛出
+   * @throws InterruptedException 停止任务时抛出
+   */
+  void poll() throws IOException, InterruptedException {
+    // 停止任务时轮询线程被中断，进行中的请求随即以 InterruptedException 结束
+    while (!Thread.currentThread().isInterrupted()) {
+      RevocationFeedPage page = fetch(this.cursor);
+      if (this.cursor < 0 || !page.complete()) {
+        // 无法确定哪些已缓存的令牌被吊销，全部重新解析
+        this.introspector.invalidateAll();
+      } else {
+        page.tokenDigests().stream()
+            .filter(digest -> !this.lastDigests.contains(digest))
+            .forEach(this.introspector::invalidate);
+      }
+      this.lastDigests = Set.copyOf(page.tokenDigests());
+      boolean advanced = page.cursor() != this.cursor;
+      this.cursor = page.cursor();
+      if (!advanced || page.tokenDigests().isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  private RevocationFeedPage fetch(long cursor) throws IOException, InterruptedException {
+    URI uri =
+        UriComponentsBuilder.fromUri(this.revocationFeedUri)
+            .replaceQueryParam("cursor", cursor)
+            .build()
+            .toUri();
+    HttpRequest request =
+        HttpRequest.newBuilder(uri)
+            .timeout(this.readTimeout)
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+            .header(HttpHeaders.AUTHORIZATION, this.authorization)
+            .GET()
+            .build();
+    HttpResponse<String> response =
+        this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IOException("吊销记录端点返回状态码 " + response.statusCode());
+    }
+    ApiResult<RevocationFeedPage> result;
+    try {
+      result = this.jsonMapper.readValue(response.body(), PAGE_TYPE);
+    } catch (JacksonException e) {
+      throw new IOException("无法解析吊销记录端点的响应", e);
+    }
+    if (result.data() == null) {
+      throw new IOException("吊销记录端点返回错误：" + result.errorMessage());
+    }
+    return result.data();
+  }
+
+  /** 获取轮询失败次数 */
+  public long getFailureCount() {
+    return this.failureCount.sum();
+  }
+}
@@ -0,0 +1,204 @@
+package io.github.lishangbu.orange.oauth2.resourceserver.introspection;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.lishangbu.orange.oauth2.common.util.TokenDigestUtils;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * RemoteOpaqueTokenIntrospector 单元测试，以本地 HTTP 桩服务代替授权服务器，覆盖缓存命中、并发合并、无效令牌、错误状态码及缓存失效
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class RemoteOpaqueTokenIntrospectorTest {
+
+  private static final String TOKEN = "access-token";
+
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private final Queue<String> requestBodies = new ConcurrentLinkedQueue<>();
+
+  private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+
+  private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+
+  private volatile int status = 200;
+
+  private volatile String responseBody;
+
+  /** 桩服务在应答前等待此闩锁，为 null 时立即应答 */
+  private volatile CountDownLatch release;
+
+  private HttpServer server;
+
+  private RemoteOpaqueTokenIntrospector introspector;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/oauth2/introspect", this::handle);
+    server.setExecutor(serverExecutor);
+    server.start();
+    introspector =
+        new RemoteOpaqueTokenIntrospector(
+            HttpClient.newHttpClient(),
+            URI.create(
+                "http://localhost:" + server.getAddress().getPort() + "/oauth2/introspect"),
+            "resource-server",
+            "secret",
+            Duration.ofSeconds(5),
+            JsonMapper.builder().build(),
+            100,
+            Duration.ofMinutes(5));
+    responseBody = active();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  void testCacheHitSkipsRemoteCall() {
+    OAuth2AuthenticatedPrincipal principal = introspector.introspect(TOKEN);
+
+    Assertions.assertThat(introspector.introspect(TOKEN)).isSameAs(principal);
+    Assertions.assertThat(requests).hasValue(1);
+    Assertions.assertThat(introspector.getRemoteCount()).isEqualTo(1);
+    Assertions.assertThat(principal.getName()).isEqualTo("admin");
+    Assertions.assertThat(principal.getAuthorities())
+        .extracting(GrantedAuthority::getAuthority)
+        .containsExactlyInAnyOrder("ROLE_ADMIN", "SCOPE_read", "SCOPE_write");
+    Assertions.assertThat(requestBodies)
+        .containsExactly("token=access-token&token_type_hint=access_token");
+    Assertions.assertThat(authorizations).containsExactly("Basic cmVzb3VyY2Utc2VydmVyOnNlY3JldA==");
+  }
+
+  @Test
+  void testConcurrentLookupsShareOneRequest() throws InterruptedException {
+    release = new CountDownLatch(1);
+    Queue<OAuth2AuthenticatedPrincipal> principals = new ConcurrentLinkedQueue<>();
+    List<Thread> callers = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      callers.add(new Thread(() -> principals.add(introspector.introspect(TOKEN))));
+    }
+
+    callers.forEach(Thread::start);
+    awaitWaiting(callers);
+    release.countDown();
+    for (Thread caller : callers) {
+      caller.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    Assertions.assertThat(requests).hasValue(1);
+    Assertions.assertThat(principals).hasSize(5).doesNotContainNull();
+    Assertions.assertThat(principals.stream().distinct()).hasSize(1);
+  }
+
+  @Test
+  void testInactiveTokenIsRejectedAndNotCached() {
+    responseBody = "{\"active\":false}";
+
+    Assertions.assertThatThrownBy(() -> introspector.introspect(TOKEN))
+        .isInstanceOf(BadOpaqueTokenException.class);
+    Assertions.assertThatThrownBy(() -> introspector.introspect(TOKEN))
+        .isInstanceOf(BadOpaqueTokenException.class);
+
+    Assertions.assertThat(requests).hasValue(2);
+    Assertions.assertThat(introspector.getCache().synchronous().estimatedSize()).isZero();
+  }
+
+  @Test
+  void testErrorStatusRaisesIntrospectionException() {
+    status = 500;
+    responseBody = "{}";
+
+    Assertions.assertThatThrownBy(() -> introspector.introspect(TOKEN))
+        .isInstanceOf(OAuth2IntrospectionException.class)
+        .hasMessageContaining("500");
+
+    // 失败结果不缓存，授权服务器恢复后重新解析
+    status = 200;
+    responseBody = active();
+    Assertions.assertThat(introspector.introspect(TOKEN).getName()).isEqualTo("admin");
+    Assertions.assertThat(requests).hasValue(2);
+  }
+
+  @Test
+  void testInvalidateEvictsCachedEntry() {
+    introspector.introspect(TOKEN);
+
+    introspector.invalidate(TokenDigestUtils.digest(TOKEN));
+    introspector.introspect(TOKEN);
+
+    Assertions.assertThat(requests).hasValue(2);
+    Assertions.assertThat(introspector.getInvalidationCount()).isEqualTo(1);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      requests.incrementAndGet();
+      requestBodies.add(
+          new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+      authorizations.add(exchange.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+      CountDownLatch latch = release;
+      if (latch != null) {
+        latch.await(5, TimeUnit.SECONDS);
+      }
+      byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+      exchange.sendResponseHeaders(status, body.length);
+      exchange.getResponseBody().write(body);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static String active() {
+    return "{\"active\":true,\"sub\":\"admin\",\"scope\":\"read write\","
+        + "\"authorities\":[\"ROLE_ADMIN\"],\"exp\":"
+        + Instant.now().plus(Duration.ofHours(1)).getEpochSecond()
+        + "}";
+  }
+
+  /** 等待调用方都阻塞在同一次远程调用的结果上 */
+  private static void awaitWaiting(List<Thread> threads) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    for (Thread thread : threads) {
+      while (thread.getState() != Thread.State.WAITING) {
+        if (System.nanoTime() > deadline) {
+          throw new AssertionError(thread.getName() + " is not waiting");
+        }
+        Thread.onSpinWait();
+      }
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package io.github.lishangbu.orange.oauth2.resourceserver.introspection;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.lishangbu.orange.oauth2.common.revocation.RevocationFeedPage;
+import io.github.lishangbu.orange.web.result.ApiResult;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * RevocationFeedPoller 单元测试，以本地 HTTP 桩服务代替授权服务器，覆盖首次轮询与记录缺口时清空缓存、按页失效摘要、
+ * 重复返回的摘要只失效一次、以客户端凭据认证及失败时保留游标
+ *
+ * @author lishangbu
+ * @since 2025/10/18
+ */
+class RevocationFeedPollerTest {
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+  private final RemoteOpaqueTokenIntrospector introspector =
+      Mockito.mock(RemoteOpaqueTokenIntrospector.class);
+
+  /** 依次应答的响应，每个元素为状态码与响应体 */
+  private final Queue<Response> responses = new ConcurrentLinkedQueue<>();
+
+  /** 收到的请求的查询参数 */
+  private final Queue<String> queries = new ConcurrentLinkedQueue<>();
+
+  /** 收到的请求的认证请求头 */
+  private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+
+  private HttpServer server;
+
+  private RevocationFeedPoller poller;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/token/revocations", this::handle);
+    server.start();
+    poller =
+        new RevocationFeedPoller(
+            HttpClient.newHttpClient(),
+            URI.create(
+                "http://localhost:" + server.getAddress().getPort() + "/token/revocations"),
+            "resource server",
+            "secret",
+            Duration.ofSeconds(5),
+            jsonMapper,
+            introspector,
+            Duration.ofMinutes(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void testFirstPollInvalidatesAll() throws Exception {
+    respond(page(5, List.of(), true));
+
+    poller.poll();
+
+    Mockito.verify(introspector, Mockito.times(1)).invalidateAll();
+    Mockito.verify(introspector, Mockito.never()).invalidate(ArgumentMatchers.anyString());
+    Assertions.assertThat(queries).containsExactly("cursor=-1");
+    // 客户端 ID 与密钥先按表单编码再拼接
+    Assertions.assertThat(authorizations)
+        .containsExactly(
+            "Basic "
+                + Base64.getEncoder()
+                    .encodeToString("resource+server:secret".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void testPageEvictsListedDigests() throws Exception {
+    respond(page(5, List.of(), true));
+    poller.poll();
+
+    respond(page(7, List.of("digest-1", "digest-2"), true));
+    respond(page(7, List.of(), true));
+    poller.poll();
+
+    Mockito.verify(introspector).invalidate("digest-1");
+    Mockito.verify(introspector).invalidate("digest-2");
+    Mockito.verify(introspector, Mockito.times(1)).invalidateAll();
+    // 本页有新记录时立即拉取下一页，直到没有新记录
+    Assertions.assertThat(queries).containsExactly("cursor=-1", "cursor=5", "cursor=7");
+  }
+
+  @Test
+  void testRepeatedDigestsAreInvalidatedOnce() throws Exception {
+    respond(page(8, List.of(), true));
+    poller.poll();
+
+    // 10 先于 9 提交，授权服务器的游标停在 10 之前，下次轮询时 10 与晚提交的 9 一同返回
+    respond(page(8, List.of("digest-10"), true));
+    poller.poll();
+    respond(page(8, List.of("digest-9", "digest-10"), true));
+    poller.poll();
+
+    Mockito.verify(introspector).invalidate("digest-9");
+    Mockito.verify(introspector, Mockito.times(1)).invalidate("digest-10");
+    Assertions.assertThat(queries).containsExactly("cursor=-1", "cursor=8", "cursor=8");
+  }
+
+  @Test
+  void testGapInvalidatesAll() throws Exception {
+    respond(page(5, List.of(), true));
+    poller.poll();
+
+    respond(page(9, List.of("digest-1"), false));
+    respond(page(9, List.of(), true));
+    poller.poll();
+
+    Mockito.verify(introspector, Mockito.times(2)).invalidateAll();
+    Mockito.verify(introspector, Mockito.never()).invalidate(ArgumentMatchers.anyString());
+  }
+
+  @Test
+  void testFailureKeepsCursor() throws Exception {
+    respond(page(5, List.of(), true));
+    poller.poll();
+
+    responses.add(new Response(500, "{}"));
+    Assertions.assertThatThrownBy(() -> poller.poll())
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("500");
+
+    respond(page(6, List.of("digest-1"), true));
+    respond(page(6, List.of(), true));
+    poller.poll();
+
+    Mockito.verify(introspector).invalidate("digest-1");
+    Assertions.assertThat(queries)
+        .containsExactly("cursor=-1", "cursor=5", "cursor=5", "cursor=6");
+  }
+
+  private void respond(RevocationFeedPage page) {
+    responses.add(new Response(200, jsonMapper.writeValueAsString(ApiResult.ok(page))));
+  }
+
+  private static RevocationFeedPage page(long cursor, List<String> digests, boolean complete) {
+    return new RevocationFeedPage(cursor, digests, complete);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      queries.add(exchange.getRequestURI().getRawQuery());
+      authorizations.add(exchange.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+      Response response = responses.poll();
+      if (response == null) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+      exchange.sendResponseHeaders(response.status(), body.length);
+      exchange.getResponseBody().write(body);
+    }
+  }
+
+  private record Response(int status, String body) {}
+}
@@ -18,7 +18,13 @@ public enum DefaultErrorResultCode implements ErrorResultCode {
   METHOD_NOT_ALLOWED(405, "METHOD NOT ALLOWED"),
 
   /** 服务器内部错误 */
-  SERVER_ERROR(500, "Internal Server Error");
+  SERVER_ERROR(500, "Internal Server Error"),
+
+  /** 服务暂时不可用 */
+  SERVICE_UNAVAILABLE(503, "Service Unavailable"),
+
+  /** 请求过于频繁 */
+  TOO_MANY_REQUESTS(429, "Too Many Requests");
 
   private final Integer code;
 